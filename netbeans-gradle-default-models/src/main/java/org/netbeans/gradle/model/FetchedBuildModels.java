@@ -15,7 +15,29 @@ public final class FetchedBuildModels implements Serializable {
                 BuilderResult.class, buildInfoResults);
     }
 
+    FetchedBuildModels(LazyDeserializedResults<BuilderResult> buildInfoResults) {
+        if (buildInfoResults == null) throw new NullPointerException("buildInfoResults");
+        this.buildInfoResults = buildInfoResults;
+    }
+
     public Map<Object, List<BuilderResult>> getBuildInfoResults() {
         return buildInfoResults;
     }
+
+    /**
+     * Returns the number of builder results received in serialized form.
+     * These results are only deserialized when the results of their key are
+     * first requested from {@link #getBuildInfoResults()}.
+     */
+    public int getSerializedResultCount() {
+        return LazyDeserializedResults.getEntryCount(buildInfoResults);
+    }
+
+    /**
+     * Returns the number of builder results deserialized so far from the ones
+     * counted by {@link #getSerializedResultCount()}.
+     */
+    public int getDeserializedResultCount() {
+        return LazyDeserializedResults.getMaterializedEntryCount(buildInfoResults);
+    }
 }
@@ -44,4 +44,34 @@ public final class FetchedModels implements Serializable {
     public Collection<FetchedProjectModels> getOtherProjectModels() {
         return otherProjectModels;
     }
+
+    /**
+     * Returns the number of builder results (of the build and of every
+     * project) received in serialized form.
+     *
+     * @return the number of builder results received in serialized form
+     */
+    public int getSerializedResultCount() {
+        int result = buildModels.getSerializedResultCount();
+        result += defaultProjectModels.getSerializedResultCount();
+        for (FetchedProjectModels projectModels: otherProjectModels) {
+            result += projectModels.getSerializedResultCount();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of builder results deserialized so far from the ones
+     * counted by {@link #getSerializedResultCount()}.
+     *
+     * @return the number of builder results deserialized so far
+     */
+    public int getDeserializedResultCount() {
+        int result = buildModels.getDeserializedResultCount();
+        result += defaultProjectModels.getDeserializedResultCount();
+        for (FetchedProjectModels projectModels: otherProjectModels) {
+            result += projectModels.getDeserializedResultCount();
+        }
+        return result;
+    }
 }
@@ -29,6 +29,20 @@ public final class FetchedProjectModels implements Serializable {
         this.issue = TransferableExceptionWrapper.wrap(issue);
     }
 
+    FetchedProjectModels(
+            GradleMultiProjectDef projectDef,
+            LazyDeserializedResults<BuilderResult> projectInfoResults,
+            Map<Class<?>, Object> toolingModels,
+            Throwable issue) {
+        if (projectDef == null) throw new NullPointerException("projectDef");
+        if (projectInfoResults == null) throw new NullPointerException("projectInfoResults");
+
+        this.projectDef = projectDef;
+        this.projectInfoResults = projectInfoResults;
+        this.toolingModels = CollectionUtils.copyNullSafeHashMap(toolingModels);
+        this.issue = TransferableExceptionWrapper.wrap(issue);
+    }
+
     public Throwable getIssue() {
         return issue;
     }
@@ -41,6 +55,23 @@ public final class FetchedProjectModels implements Serializable {
         return projectInfoResults;
     }
 
+    /**
+     * Returns the number of builder results received in serialized form.
+     * These results are only deserialized when the results of their key are
+     * first requested from {@link #getProjectInfoResults()}.
+     */
+    public int getSerializedResultCount() {
+        return LazyDeserializedResults.getEntryCount(projectInfoResults);
+    }
+
+    /**
+     * Returns the number of builder results deserialized so far from the ones
+     * counted by {@link #getSerializedResultCount()}.
+     */
+    public int getDeserializedResultCount() {
+        return LazyDeserializedResults.getMaterializedEntryCount(projectInfoResults);
+    }
+
     public Map<Class<?>, Object> getToolingModels() {
         return toolingModels;
     }
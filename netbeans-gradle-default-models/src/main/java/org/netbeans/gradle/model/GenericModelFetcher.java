@@ -27,12 +27,12 @@ import org.netbeans.gradle.model.api.GradleProjectInfoQuery;
 import org.netbeans.gradle.model.internal.CustomSerializedMap;
 import org.netbeans.gradle.model.internal.ModelQueryInput;
 import org.netbeans.gradle.model.internal.ModelQueryOutput;
+import org.netbeans.gradle.model.internal.ModelQueryOutputEncoding;
 import org.netbeans.gradle.model.internal.ModelQueryOutputRef;
 import org.netbeans.gradle.model.util.BasicFileUtils;
 import org.netbeans.gradle.model.util.BuilderUtils;
 import org.netbeans.gradle.model.util.ClassLoaderUtils;
 import org.netbeans.gradle.model.util.CollectionUtils;
-import org.netbeans.gradle.model.util.SerializationUtils;
 import org.netbeans.gradle.model.util.TemporaryFileManager;
 import org.netbeans.gradle.model.util.TemporaryFileRef;
 
@@ -94,8 +94,9 @@ public final class GenericModelFetcher {
     private FetchedProjectModels transformActionModels(ActionFetchedProjectModels actionModels) {
         GradleMultiProjectDef projectDef = actionModels.getProjectDef();
         Map<Class<?>, Object> toolingModels = actionModels.getToolingModels();
-        Map<Object, List<?>> projectInfoResults = projectInfoBuilders.deserializeResults(
+        LazyDeserializedResults<BuilderResult> projectInfoResults = projectInfoBuilders.deserializeResults(
                 actionModels.getProjectInfoResults(),
+                BuilderResult.class,
                 GradleInfoQueryMap.builderIssueTransformer());
         Throwable issue = actionModels.getIssue();
 
@@ -115,8 +116,9 @@ public final class GenericModelFetcher {
             return null;
         }
 
-        Map<Object, List<?>> buildModels = buildInfoBuilders.deserializeResults(
+        LazyDeserializedResults<BuilderResult> buildModels = buildInfoBuilders.deserializeResults(
                 actionModels.getBuildModels(),
+                BuilderResult.class,
                 GradleInfoQueryMap.builderIssueTransformer());
         FetchedProjectModels defaultProjectModels
                 = transformActionModels(actionModels.getDefaultProjectModels());
@@ -267,7 +269,7 @@ public final class GenericModelFetcher {
                 .getSerializedModelQueryOutput();
 
         try {
-            return (ModelQueryOutput)SerializationUtils.deserializeObject(serializedResult);
+            return ModelQueryOutputEncoding.decode(serializedResult);
         } catch (ClassNotFoundException ex) {
             throw new RuntimeException(ex);
         }
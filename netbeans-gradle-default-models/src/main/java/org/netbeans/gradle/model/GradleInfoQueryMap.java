@@ -16,7 +16,6 @@ import org.netbeans.gradle.model.internal.IssueTransformer;
 import org.netbeans.gradle.model.internal.SerializedEntries;
 import org.netbeans.gradle.model.util.ClassLoaderUtils;
 import org.netbeans.gradle.model.util.CollectionUtils;
-import org.netbeans.gradle.model.util.MultiMapUtils;
 import org.netbeans.gradle.model.util.TransferableExceptionWrapper;
 
 final class GradleInfoQueryMap {
@@ -105,39 +104,33 @@ final class GradleInfoQueryMap {
         return new Deserializer(builderMap, classpath);
     }
 
-    @SuppressWarnings("unchecked")
-    private static Map<Object, List<?>> unsafeCast(Map<Object, List<Object>> map) {
-        return (Map<Object, List<?>>)(Map<?, ?>)map;
-    }
-
-    public Map<Object, List<?>> deserializeResults(
+    public <V> LazyDeserializedResults<V> deserializeResults(
             CustomSerializedMap map,
+            Class<V> valueType,
             IssueTransformer issueTransformer) {
 
         if (map == null) throw new NullPointerException("map");
+        if (valueType == null) throw new NullPointerException("valueType");
         if (issueTransformer == null) throw new NullPointerException("issueTransformer");
 
-        Map<Object, List<Object>> result = CollectionUtils.newHashMap(map.size());
+        LazyDeserializedResults.Builder<V> result
+                = new LazyDeserializedResults.Builder<V>(valueType, issueTransformer);
 
         for (Map.Entry<Object, SerializedEntries> entry: map.getMap().entrySet()) {
             KeyWrapper key = (KeyWrapper)entry.getKey();
-            List<?> values = entry.getValue().getUnserialized(getClassLoaderForKey(key));
-            MultiMapUtils.addAllToMultiMap(key.wrappedKey, values, result);
+            result.addEntries(key.wrappedKey, entry.getValue(), getClassLoaderForKey(key));
         }
 
         for (Map.Entry<Object, Throwable> entry: map.getSerializationProblems().entrySet()) {
             KeyWrapper key = (KeyWrapper)entry.getKey();
-            Object issue = issueTransformer.transformIssue(entry.getValue());
-            MultiMapUtils.addToMultiMap(key.wrappedKey, issue, result);
+            result.addIssue(key.wrappedKey, entry.getValue());
         }
 
         for (Map.Entry<KeyWrapper, Throwable> entry: serializationIssues.entrySet()) {
-            Object key = entry.getKey().wrappedKey;
-            Object issue = issueTransformer.transformIssue(entry.getValue());
-            MultiMapUtils.addToMultiMap(key, issue, result);
+            result.addIssue(entry.getKey().wrappedKey, entry.getValue());
         }
 
-        return unsafeCast(result);
+        return result.create();
     }
 
     public static IssueTransformer builderIssueTransformer() {
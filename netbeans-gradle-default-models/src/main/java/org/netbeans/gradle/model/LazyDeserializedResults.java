@@ -0,0 +1,239 @@
+package org.netbeans.gradle.model;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import org.netbeans.gradle.model.internal.IssueTransformer;
+import org.netbeans.gradle.model.internal.SerializedEntries;
+import org.netbeans.gradle.model.util.CollectionUtils;
+
+/**
+ * Defines an unmodifiable multimap of builder results which are only
+ * deserialized when the results of their key are first requested. The
+ * serialized form of the results of a key is dropped after they have been
+ * deserialized.
+ * <P>
+ * Results failing to be deserialized are replaced by the issue created by
+ * the {@code IssueTransformer}, so they only affect the results of their
+ * own key.
+ * <P>
+ * Instances of this class are safe to be used by multiple threads
+ * concurrently. Serializing this map deserializes every remaining entry.
+ */
+final class LazyDeserializedResults<V> extends AbstractMap<Object, List<V>> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final ReentrantLock mainLock;
+    private final Class<V> valueType;
+    private final IssueTransformer issueTransformer;
+    private final Set<Object> keys;
+    private final int entryCount;
+
+    private final Map<Object, List<PendingEntries>> pendingEntries;
+    private final Map<Object, List<Object>> issues;
+    private final Map<Object, List<V>> materialized;
+    private int materializedEntryCount;
+
+    private LazyDeserializedResults(Builder<V> builder) {
+        this.mainLock = new ReentrantLock();
+        this.valueType = builder.valueType;
+        this.issueTransformer = builder.issueTransformer;
+        this.pendingEntries = builder.pendingEntries;
+        this.issues = builder.issues;
+        this.entryCount = builder.entryCount;
+
+        Set<Object> allKeys = new HashSet<Object>(pendingEntries.keySet());
+        allKeys.addAll(issues.keySet());
+        this.keys = Collections.unmodifiableSet(allKeys);
+
+        this.materialized = CollectionUtils.newHashMap(allKeys.size());
+        this.materializedEntryCount = 0;
+    }
+
+    /**
+     * Returns the number of serialized entries (i.e., the results of a single
+     * builder) this map was created with.
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Returns the number of serialized entries which have been deserialized
+     * so far.
+     */
+    public int getMaterializedEntryCount() {
+        mainLock.lock();
+        try {
+            return materializedEntryCount;
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    public static int getEntryCount(Map<?, ?> map) {
+        return map instanceof LazyDeserializedResults
+                ? ((LazyDeserializedResults<?>)map).getEntryCount()
+                : 0;
+    }
+
+    public static int getMaterializedEntryCount(Map<?, ?> map) {
+        return map instanceof LazyDeserializedResults
+                ? ((LazyDeserializedResults<?>)map).getMaterializedEntryCount()
+                : 0;
+    }
+
+    @Override
+    public int size() {
+        return keys.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return keys.contains(key);
+    }
+
+    @Override
+    public Set<Object> keySet() {
+        return keys;
+    }
+
+    @Override
+    public List<V> get(Object key) {
+        if (!keys.contains(key)) {
+            return null;
+        }
+
+        mainLock.lock();
+        try {
+            return materialize(key);
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<Object, List<V>>> entrySet() {
+        return materializeAll().entrySet();
+    }
+
+    private Map<Object, List<V>> materializeAll() {
+        mainLock.lock();
+        try {
+            for (Object key: keys) {
+                materialize(key);
+            }
+            return Collections.unmodifiableMap(new HashMap<Object, List<V>>(materialized));
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    private List<V> materialize(Object key) {
+        assert mainLock.isHeldByCurrentThread();
+
+        List<V> result = materialized.get(key);
+        if (result != null) {
+            return result;
+        }
+
+        List<Object> values = new ArrayList<Object>();
+
+        List<PendingEntries> pending = pendingEntries.remove(key);
+        if (pending != null) {
+            for (PendingEntries entries: pending) {
+                values.addAll(entries.deserialize(issueTransformer));
+                materializedEntryCount++;
+            }
+        }
+
+        List<Object> keyIssues = issues.remove(key);
+        if (keyIssues != null) {
+            values.addAll(keyIssues);
+        }
+
+        List<V> valuesCopy = new ArrayList<V>(values.size());
+        for (Object value: values) {
+            valuesCopy.add(valueType.cast(value));
+        }
+
+        result = Collections.unmodifiableList(valuesCopy);
+        materialized.put(key, result);
+        return result;
+    }
+
+    private Object writeReplace() throws ObjectStreamException {
+        return new HashMap<Object, List<V>>(materializeAll());
+    }
+
+    public static final class Builder<V> {
+        private final Class<V> valueType;
+        private final IssueTransformer issueTransformer;
+        private final Map<Object, List<PendingEntries>> pendingEntries;
+        private final Map<Object, List<Object>> issues;
+        private int entryCount;
+
+        public Builder(Class<V> valueType, IssueTransformer issueTransformer) {
+            if (valueType == null) throw new NullPointerException("valueType");
+            if (issueTransformer == null) throw new NullPointerException("issueTransformer");
+
+            this.valueType = valueType;
+            this.issueTransformer = issueTransformer;
+            this.pendingEntries = new HashMap<Object, List<PendingEntries>>();
+            this.issues = new HashMap<Object, List<Object>>();
+            this.entryCount = 0;
+        }
+
+        public void addEntries(Object key, SerializedEntries entries, ClassLoader classLoader) {
+            if (entries == null) throw new NullPointerException("entries");
+
+            List<PendingEntries> container = pendingEntries.get(key);
+            if (container == null) {
+                container = new LinkedList<PendingEntries>();
+                pendingEntries.put(key, container);
+            }
+            container.add(new PendingEntries(entries, classLoader));
+            entryCount++;
+        }
+
+        public void addIssue(Object key, Throwable issue) {
+            List<Object> container = issues.get(key);
+            if (container == null) {
+                container = new LinkedList<Object>();
+                issues.put(key, container);
+            }
+            container.add(issueTransformer.transformIssue(issue));
+        }
+
+        public LazyDeserializedResults<V> create() {
+            return new LazyDeserializedResults<V>(this);
+        }
+    }
+
+    private static final class PendingEntries {
+        private final SerializedEntries entries;
+        private final ClassLoader classLoader;
+
+        public PendingEntries(SerializedEntries entries, ClassLoader classLoader) {
+            this.entries = entries;
+            this.classLoader = classLoader;
+        }
+
+        public List<?> deserialize(IssueTransformer issueTransformer) {
+            try {
+                return entries.getUnserialized(classLoader);
+            } catch (Throwable ex) {
+                return Collections.singletonList(issueTransformer.transformIssue(ex));
+            }
+        }
+    }
+}
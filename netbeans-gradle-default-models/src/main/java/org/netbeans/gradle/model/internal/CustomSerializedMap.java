@@ -46,6 +46,10 @@ public final class CustomSerializedMap implements Serializable {
             valueContainer.add(value);
         }
 
+        Map<Object, List<Object>> getValues() {
+            return map;
+        }
+
         public CustomSerializedMap create() {
             return new CustomSerializedMap(this, null);
         }
@@ -87,6 +91,23 @@ public final class CustomSerializedMap implements Serializable {
                 : null;
     }
 
+    private CustomSerializedMap(
+            Map<Object, SerializedEntries> map,
+            Map<Object, Throwable> serializationProblems) {
+        this.map = Collections.unmodifiableMap(map);
+        this.serializationProblems = serializationProblems.isEmpty()
+                ? null
+                : Collections.unmodifiableMap(serializationProblems);
+    }
+
+    static CustomSerializedMap fromSerializedEntries(
+            Map<Object, SerializedEntries> map,
+            Map<Object, Throwable> serializationProblems) {
+        return new CustomSerializedMap(
+                new HashMap<Object, SerializedEntries>(map),
+                new HashMap<Object, Throwable>(serializationProblems));
+    }
+
     public static <V> CustomSerializedMap fromMap(Map<?, List<V>> map) {
         CustomSerializedMap.Builder result = new Builder(map.size());
         for (Map.Entry<?, List<V>> entry: map.entrySet()) {
@@ -18,7 +18,6 @@ import org.netbeans.gradle.model.api.ProjectInfoBuilder;
 import org.netbeans.gradle.model.util.BasicFileUtils;
 import org.netbeans.gradle.model.util.BuilderUtils;
 import org.netbeans.gradle.model.util.Exceptions;
-import org.netbeans.gradle.model.util.SerializationUtils;
 
 public final class DynamicModelLoader implements ToolingModelBuilder {
     private final ModelQueryInput input;
@@ -35,7 +34,7 @@ public final class DynamicModelLoader implements ToolingModelBuilder {
         return modelName.equals(ModelQueryOutputRef.class.getName());
     }
 
-    private CustomSerializedMap fetchProjectInfos(Project project) {
+    private CustomSerializedMap.Builder fetchProjectInfos(Project project) {
         Map<Object, List<?>> projectInfoRequests = input.getProjectInfoRequests(classLoader);
         int requestCount = projectInfoRequests.size();
         CustomSerializedMap.Builder projectInfosBuilder = new CustomSerializedMap.Builder(requestCount);
@@ -63,7 +62,7 @@ public final class DynamicModelLoader implements ToolingModelBuilder {
             }
         }
 
-        return projectInfosBuilder.create();
+        return projectInfosBuilder;
     }
 
     private Collection<GradleTaskID> findTasks(Project project) {
@@ -124,15 +123,15 @@ public final class DynamicModelLoader implements ToolingModelBuilder {
 
         BasicInfoWithError basicInfo = getBasicInfo(project);
 
-        ModelQueryOutput output;
+        byte[] output;
         try {
-            CustomSerializedMap projectInfos = fetchProjectInfos(project);
-            output = new ModelQueryOutput(basicInfo.info, projectInfos, basicInfo.error);
+            CustomSerializedMap.Builder projectInfos = fetchProjectInfos(project);
+            output = ModelQueryOutputEncoding.encode(basicInfo.info, projectInfos, basicInfo.error);
         } catch (Throwable ex) {
             if (basicInfo.error != null) {
                 Exceptions.tryAddSuppressedException(ex, basicInfo.error);
             }
-            output = new ModelQueryOutput(basicInfo.info, CustomSerializedMap.EMPTY, ex);
+            output = ModelQueryOutputEncoding.encode(basicInfo.info, new CustomSerializedMap.Builder(0), ex);
         }
 
         return new DefaultModelQueryOutputRef(output);
@@ -151,14 +150,14 @@ public final class DynamicModelLoader implements ToolingModelBuilder {
     private static final class DefaultModelQueryOutputRef implements ModelQueryOutputRef, Serializable {
         private static final long serialVersionUID = 1L;
 
-        private final ModelQueryOutput modelQueryOutput;
+        private final byte[] serializedModelQueryOutput;
 
-        public DefaultModelQueryOutputRef(ModelQueryOutput modelQueryOutput) {
-            this.modelQueryOutput = modelQueryOutput;
+        public DefaultModelQueryOutputRef(byte[] serializedModelQueryOutput) {
+            this.serializedModelQueryOutput = serializedModelQueryOutput;
         }
 
         public byte[] getSerializedModelQueryOutput() {
-            return SerializationUtils.serializeObject(modelQueryOutput);
+            return serializedModelQueryOutput;
         }
     }
 }
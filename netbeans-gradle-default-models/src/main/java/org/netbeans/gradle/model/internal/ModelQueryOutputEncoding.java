@@ -0,0 +1,199 @@
+package org.netbeans.gradle.model.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.netbeans.gradle.model.util.CollectionUtils;
+import org.netbeans.gradle.model.util.SerializationUtils;
+import org.netbeans.gradle.model.util.TransferableExceptionWrapper;
+
+/**
+ * Defines the format in which a {@link ModelQueryOutput} is transferred from
+ * the Gradle daemon to the IDE.
+ * <P>
+ * The results of the project info builders are serialized directly into a
+ * single buffer (each key into its own object stream), followed by the rest
+ * of the output. So the results are serialized exactly once and when decoding
+ * the {@link SerializedEntries} of the output only reference the received
+ * buffer instead of copying their part. Failing to serialize or deserialize
+ * the results of a key only affects that key.
+ * <P>
+ * The layout of the encoded bytes is:
+ * <pre>
+ * [magic: int] [header offset: int] [serialized entries ...] [serialized header]
+ * </pre>
+ */
+public final class ModelQueryOutputEncoding {
+    private static final int MAGIC = 0x4E424D51;
+    private static final int PREFIX_SIZE = 8;
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+    public static byte[] encode(
+            ModelQueryOutput.BasicInfo basicInfo,
+            CustomSerializedMap.Builder projectInfoResults,
+            Throwable issue) {
+        if (basicInfo == null) throw new NullPointerException("basicInfo");
+        if (projectInfoResults == null) throw new NullPointerException("projectInfoResults");
+
+        Map<Object, List<Object>> values = projectInfoResults.getValues();
+        int entryCount = values.size();
+
+        EncodingBuffer buffer = new EncodingBuffer(INITIAL_BUFFER_SIZE);
+        buffer.writeInt(MAGIC);
+        buffer.writeInt(0); // The offset of the header, set below.
+
+        Object[] keys = new Object[entryCount];
+        int[] offsets = new int[entryCount];
+        int[] lengths = new int[entryCount];
+        Map<Object, Throwable> problems = new HashMap<Object, Throwable>();
+
+        int index = 0;
+        for (Map.Entry<Object, List<Object>> entry: values.entrySet()) {
+            Object key = entry.getKey();
+            int offset = buffer.size();
+            try {
+                ObjectOutputStream output = new ObjectOutputStream(buffer);
+                output.writeObject(new ArrayList<Object>(entry.getValue()));
+                output.flush();
+            } catch (Throwable ex) {
+                buffer.truncate(offset);
+                problems.put(key, TransferableExceptionWrapper.wrap(ex));
+                continue;
+            }
+
+            keys[index] = key;
+            offsets[index] = offset;
+            lengths[index] = buffer.size() - offset;
+            index++;
+        }
+
+        Header header = new Header(basicInfo, issue, keys, offsets, lengths, index, problems);
+
+        int headerOffset = buffer.size();
+        buffer.setIntAt(4, headerOffset);
+        try {
+            ObjectOutputStream output = new ObjectOutputStream(buffer);
+            output.writeObject(header);
+            output.flush();
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        return buffer.getBytes();
+    }
+
+    public static ModelQueryOutput decode(byte[] encoded) throws ClassNotFoundException {
+        if (encoded == null) throw new NullPointerException("encoded");
+
+        if (encoded.length < PREFIX_SIZE || readInt(encoded, 0) != MAGIC) {
+            throw new IllegalArgumentException("The bytes are not an encoded ModelQueryOutput.");
+        }
+
+        int headerOffset = readInt(encoded, 4);
+        if (headerOffset < PREFIX_SIZE || headerOffset >= encoded.length) {
+            throw new IllegalArgumentException("Invalid header offset: " + headerOffset);
+        }
+
+        Header header = (Header)SerializationUtils.deserializeObject(
+                encoded, headerOffset, encoded.length - headerOffset, null);
+
+        int entryCount = header.keys.length;
+        Map<Object, SerializedEntries> entries = CollectionUtils.newHashMap(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            int offset = header.offsets[i];
+            int length = header.lengths[i];
+            if (offset < PREFIX_SIZE || offset + length > headerOffset) {
+                throw new IllegalArgumentException("Invalid entry bounds: " + offset + ", " + length);
+            }
+
+            entries.put(header.keys[i], new SerializedEntries(encoded, offset, length));
+        }
+
+        CustomSerializedMap projectInfoResults
+                = CustomSerializedMap.fromSerializedEntries(entries, header.problems);
+        return new ModelQueryOutput(header.basicInfo, projectInfoResults, header.issue);
+    }
+
+    private static int readInt(byte[] buffer, int offset) {
+        return ((buffer[offset] & 0xFF) << 24)
+                | ((buffer[offset + 1] & 0xFF) << 16)
+                | ((buffer[offset + 2] & 0xFF) << 8)
+                | (buffer[offset + 3] & 0xFF);
+    }
+
+    private static final class Header implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final ModelQueryOutput.BasicInfo basicInfo;
+        private final Throwable issue;
+        private final Object[] keys;
+        private final int[] offsets;
+        private final int[] lengths;
+        private final Map<Object, Throwable> problems;
+
+        public Header(
+                ModelQueryOutput.BasicInfo basicInfo,
+                Throwable issue,
+                Object[] keys,
+                int[] offsets,
+                int[] lengths,
+                int entryCount,
+                Map<Object, Throwable> problems) {
+            this.basicInfo = basicInfo;
+            this.issue = TransferableExceptionWrapper.wrap(issue);
+            this.keys = copyOf(keys, entryCount);
+            this.offsets = copyOf(offsets, entryCount);
+            this.lengths = copyOf(lengths, entryCount);
+            this.problems = problems;
+        }
+
+        private static Object[] copyOf(Object[] array, int length) {
+            Object[] result = new Object[length];
+            System.arraycopy(array, 0, result, 0, length);
+            return result;
+        }
+
+        private static int[] copyOf(int[] array, int length) {
+            int[] result = new int[length];
+            System.arraycopy(array, 0, result, 0, length);
+            return result;
+        }
+    }
+
+    private static final class EncodingBuffer extends ByteArrayOutputStream {
+        public EncodingBuffer(int initialSize) {
+            super(initialSize);
+        }
+
+        public void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        public void setIntAt(int offset, int value) {
+            buf[offset] = (byte)(value >>> 24);
+            buf[offset + 1] = (byte)(value >>> 16);
+            buf[offset + 2] = (byte)(value >>> 8);
+            buf[offset + 3] = (byte)value;
+        }
+
+        public void truncate(int newSize) {
+            count = newSize;
+        }
+
+        public byte[] getBytes() {
+            return count == buf.length ? buf : toByteArray();
+        }
+    }
+
+    private ModelQueryOutputEncoding() {
+        throw new AssertionError();
+    }
+}
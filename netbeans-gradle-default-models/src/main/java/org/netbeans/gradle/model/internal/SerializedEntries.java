@@ -1,5 +1,8 @@
 package org.netbeans.gradle.model.internal;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -9,20 +12,78 @@ import org.netbeans.gradle.model.util.SerializationUtils;
 public final class SerializedEntries implements Serializable {
     private static final long serialVersionUID = 1L;
 
-    private final byte[] serializedValues;
+    private final byte[] buffer;
+    private final int offset;
+    private final int length;
 
     public SerializedEntries(Collection<?> values) {
-        this.serializedValues = SerializationUtils.serializeObject(new ArrayList<Object>(values));
+        this(SerializationUtils.serializeObject(new ArrayList<Object>(values)));
+    }
+
+    private SerializedEntries(byte[] serializedValues) {
+        this(serializedValues, 0, serializedValues.length);
+    }
+
+    /**
+     * Creates an instance referencing a part of a larger buffer without
+     * copying it. The referenced bytes must contain a serialized {@code List}
+     * and must not be modified after this call.
+     */
+    SerializedEntries(byte[] buffer, int offset, int length) {
+        if (buffer == null) throw new NullPointerException("buffer");
+        if (offset < 0 || length < 0 || offset > buffer.length - length) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length);
+        }
+
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public int getSerializedSize() {
+        return length;
     }
 
     public List<?> getUnserialized(ClassLoader classLoader) {
         try {
-            Object result = classLoader != null
-                    ? SerializationUtils.deserializeObject(serializedValues, classLoader)
-                    : SerializationUtils.deserializeObject(serializedValues);
+            Object result = SerializationUtils.deserializeObject(buffer, offset, length, classLoader);
             return (List<?>)result;
         } catch (ClassNotFoundException ex) {
             throw new RuntimeException(ex);
         }
     }
+
+    private byte[] getSerializedValues() {
+        if (offset == 0 && length == buffer.length) {
+            return buffer;
+        }
+
+        byte[] result = new byte[length];
+        System.arraycopy(buffer, offset, result, 0, length);
+        return result;
+    }
+
+    private Object writeReplace() {
+        return new SerializedFormat(this);
+    }
+
+    private void readObject(ObjectInputStream stream) throws InvalidObjectException {
+        throw new InvalidObjectException("Use proxy.");
+    }
+
+    private static final class SerializedFormat implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        // Only the referenced part of the buffer is written, so that entries
+        // sharing a buffer do not each carry the whole buffer.
+        private final byte[] serializedValues;
+
+        public SerializedFormat(SerializedEntries source) {
+            this.serializedValues = source.getSerializedValues();
+        }
+
+        private Object readResolve() throws ObjectStreamException {
+            return new SerializedEntries(serializedValues);
+        }
+    }
 }
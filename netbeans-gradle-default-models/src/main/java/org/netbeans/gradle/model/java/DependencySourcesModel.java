@@ -0,0 +1,65 @@
+package org.netbeans.gradle.model.java;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Collection;
+import org.netbeans.gradle.model.util.CollectionUtils;
+
+/**
+ * Defines the result of {@link DependencySourcesModelBuilder}: The source
+ * archives which were resolved for the external dependencies of a project,
+ * and the dependencies for which they could not be resolved.
+ * <P>
+ * Instances of this class are immutable and therefore safe to be shared
+ * across multiple threads concurrently.
+ */
+public final class DependencySourcesModel implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final Collection<File> sourceFiles;
+    private final Collection<String> unavailableArtifacts;
+
+    /**
+     * Creates a new {@code DependencySourcesModel} with the given properties.
+     *
+     * @param sourceFiles the source archives resolved by the builder. This
+     *   argument cannot be {@code null} and cannot contain {@code null}
+     *   elements.
+     * @param unavailableArtifacts the ids ("group:name:version:classifier") of
+     *   the requested artifacts which could not be resolved. This argument
+     *   cannot be {@code null} and cannot contain {@code null} elements.
+     */
+    public DependencySourcesModel(
+            Collection<File> sourceFiles,
+            Collection<String> unavailableArtifacts) {
+
+        this.sourceFiles = CollectionUtils.copyToLinkedHashSet(sourceFiles);
+        this.unavailableArtifacts = CollectionUtils.copyToLinkedHashSet(unavailableArtifacts);
+
+        CollectionUtils.checkNoNullElements(this.sourceFiles, "sourceFiles");
+        CollectionUtils.checkNoNullElements(this.unavailableArtifacts, "unavailableArtifacts");
+    }
+
+    /**
+     * Returns the source archives which were resolved because they were
+     * missing from the artifact cache.
+     *
+     * @return the source archives which were resolved. This method never
+     *   returns {@code null}.
+     */
+    public Collection<File> getSourceFiles() {
+        return sourceFiles;
+    }
+
+    /**
+     * Returns the ids of the artifacts which were requested but could not be
+     * resolved (usually because the repository does not provide them).
+     *
+     * @return the ids of the artifacts which could not be resolved in the
+     *   format "group:name:version:classifier". This method never returns
+     *   {@code null}.
+     */
+    public Collection<String> getUnavailableArtifacts() {
+        return unavailableArtifacts;
+    }
+}
@@ -0,0 +1,294 @@
+package org.netbeans.gradle.model.java;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.specs.Specs;
+import org.netbeans.gradle.model.api.ProjectInfoBuilder;
+import org.netbeans.gradle.model.util.BuilderUtils;
+
+/**
+ * Defines a {@code ProjectInfoBuilder} which resolves the source archives of
+ * the external dependencies of a project if they are not yet available in the
+ * artifact cache of Gradle.
+ * <P>
+ * Unlike requesting the {@code IdeaProject} model, this builder does not
+ * build a model of the whole project and does not resolve the sources of every
+ * dependency. It resolves the configurations of the project leniently (which
+ * has to be done anyway to know the transitive dependencies), and then only
+ * the missing source archives are resolved in a single detached configuration.
+ * Configurations which cannot be resolved only contribute their declared
+ * external dependencies whose binaries are already in the artifact cache.
+ * <P>
+ * Each resolved source archive is reported on the lifecycle log level, so
+ * that the caller can display the progress of the download.
+ * <P>
+ * This builder has only one instance {@link #SOURCES}.
+ */
+public enum DependencySourcesModelBuilder
+implements
+        ProjectInfoBuilder<DependencySourcesModel> {
+
+    /**
+     * The builder instance which resolves the missing source archives.
+     */
+    SOURCES;
+
+    private static final String SOURCES_CLASSIFIER = "sources";
+    private static final String JAR_EXTENSION = "jar";
+
+    /**
+     * Resolves the missing source archives of the external dependencies of
+     * the given project.
+     *
+     * @param project the project whose dependencies are to be checked. This
+     *   argument cannot be {@code null}.
+     *
+     * @return the archives resolved by this method. This method never returns
+     *   {@code null}.
+     */
+    public DependencySourcesModel getProjectInfo(Project project) {
+        File gradleUserHome = project.getGradle().getGradleUserHomeDir();
+        Collection<CachedModule> modules = getCachedModules(gradleUserHome, project.getConfigurations());
+
+        List<String> unavailable = new ArrayList<String>();
+        List<File> sourceFiles = new ArrayList<File>();
+
+        Collection<CachedModule> missingSources = getMissing(modules, SOURCES_CLASSIFIER);
+        if (!missingSources.isEmpty()) {
+            sourceFiles.addAll(resolveClassified(project, missingSources, SOURCES_CLASSIFIER, unavailable));
+        }
+
+        return new DependencySourcesModel(sourceFiles, unavailable);
+    }
+
+    static Collection<CachedModule> getCachedModules(
+            File gradleUserHome,
+            Iterable<? extends Configuration> configurations) {
+
+        File filesDir = getCachedFilesDir(gradleUserHome);
+
+        // Multiple configurations usually contain the same artifacts,
+        // so we collect them first to check each of them only once.
+        Map<String, CachedModule> result = new LinkedHashMap<String, CachedModule>();
+        for (Configuration configuration: configurations) {
+            if (!addResolvedModules(gradleUserHome, configuration, result)) {
+                addDeclaredModules(filesDir, configuration, result);
+            }
+        }
+        return result.values();
+    }
+
+    private static File getCachedFilesDir(File gradleUserHome) {
+        return new File(new File(new File(gradleUserHome, "caches"), "modules-2"), "files-2.1");
+    }
+
+    private static void addDeclaredModules(
+            File filesDir,
+            Configuration configuration,
+            Map<String, CachedModule> result) {
+
+        for (Dependency dependency: configuration.getAllDependencies()) {
+            if (!(dependency instanceof ExternalModuleDependency)) {
+                continue;
+            }
+
+            ExternalModuleDependency moduleDependency = (ExternalModuleDependency)dependency;
+            String group = moduleDependency.getGroup();
+            String name = moduleDependency.getName();
+            String version = moduleDependency.getVersion();
+
+            // Artifacts with explicit classifiers or dynamic versions cannot
+            // be found without resolving the configuration.
+            if (group == null || version == null || !moduleDependency.getArtifacts().isEmpty()) {
+                continue;
+            }
+
+            File versionDir = new File(new File(new File(filesDir, group), name), version);
+            if (!versionDir.isDirectory()) {
+                // The binary is not cached either.
+                continue;
+            }
+
+            CachedModule module = new CachedModule(group, name, version, versionDir, name + '-' + version);
+            if (!result.containsKey(module.getNotation())) {
+                result.put(module.getNotation(), module);
+            }
+        }
+    }
+
+    private static boolean addResolvedModules(
+            File gradleUserHome,
+            Configuration configuration,
+            Map<String, CachedModule> result) {
+
+        Set<ResolvedArtifact> artifacts;
+        try {
+            // This resolves the configuration if it was not resolved yet,
+            // otherwise the already resolved artifacts are returned.
+            artifacts = configuration
+                    .getResolvedConfiguration()
+                    .getLenientConfiguration()
+                    .getArtifacts(Specs.SATISFIES_ALL);
+        } catch (Throwable ex) {
+            // Some configurations are not allowed to be resolved.
+            return false;
+        }
+
+        String extension = '.' + JAR_EXTENSION;
+        for (ResolvedArtifact artifact: artifacts) {
+            File file = artifact.getFile();
+            if (artifact.getClassifier() != null
+                    || !JAR_EXTENSION.equals(artifact.getExtension())
+                    || !isParentOf(gradleUserHome, file)
+                    || !file.getName().endsWith(extension)) {
+                continue;
+            }
+
+            File hashDir = file.getParentFile();
+            File versionDir = hashDir != null ? hashDir.getParentFile() : null;
+            if (versionDir == null) {
+                continue;
+            }
+
+            String fileName = file.getName();
+            String baseName = fileName.substring(0, fileName.length() - extension.length());
+
+            ModuleVersionIdentifier id = artifact.getModuleVersion().getId();
+            CachedModule module = new CachedModule(id.getGroup(), id.getName(), id.getVersion(), versionDir, baseName);
+            if (!result.containsKey(module.getNotation())) {
+                result.put(module.getNotation(), module);
+            }
+        }
+        return true;
+    }
+
+    static Collection<CachedModule> getMissing(Collection<CachedModule> modules, String classifier) {
+        List<CachedModule> result = new ArrayList<CachedModule>();
+        for (CachedModule module: modules) {
+            if (!module.hasClassified(classifier)) {
+                result.add(module);
+            }
+        }
+        return result;
+    }
+
+    private static Collection<File> resolveClassified(
+            Project project,
+            Collection<CachedModule> modules,
+            String classifier,
+            Collection<String> unavailable) {
+
+        Logger logger = project.getLogger();
+
+        Set<String> requested = new LinkedHashSet<String>();
+        List<Dependency> dependencies = new ArrayList<Dependency>(modules.size());
+        for (CachedModule module: modules) {
+            String notation = module.getNotation() + ':' + classifier;
+            requested.add(notation);
+            dependencies.add(project.getDependencies().create(notation));
+        }
+
+        Configuration detached = project.getConfigurations()
+                .detachedConfiguration(dependencies.toArray(new Dependency[dependencies.size()]));
+        detached.setTransitive(false);
+
+        Set<ResolvedArtifact> resolved = detached
+                .getResolvedConfiguration()
+                .getLenientConfiguration()
+                .getArtifacts(Specs.SATISFIES_ALL);
+
+        int requestedCount = requested.size();
+        int resolvedIndex = 0;
+
+        List<File> result = new ArrayList<File>(resolved.size());
+        for (ResolvedArtifact artifact: resolved) {
+            ModuleVersionIdentifier id = artifact.getModuleVersion().getId();
+            String notation = id.getGroup() + ':' + id.getName() + ':' + id.getVersion() + ':' + classifier;
+            requested.remove(notation);
+
+            // Depending on the version of Gradle, the file might only be
+            // downloaded when it is first requested.
+            File file = artifact.getFile();
+            resolvedIndex++;
+
+            logger.lifecycle("Resolved " + notation + " (" + resolvedIndex + "/" + requestedCount + ")");
+            result.add(file);
+        }
+
+        for (String notation: requested) {
+            logger.info("Not available: " + notation);
+            unavailable.add(notation);
+        }
+
+        return result;
+    }
+
+    private static boolean isParentOf(File parent, File file) {
+        for (File current = file; current != null; current = current.getParentFile()) {
+            if (current.equals(parent)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** {@inheritDoc } */
+    public String getName() {
+        return BuilderUtils.getNameForEnumBuilder(this);
+    }
+
+    /**
+     * Defines a module whose binary is available in the artifact cache of
+     * Gradle.
+     */
+    static final class CachedModule {
+        private final String notation;
+        private final File versionDir;
+        private final String baseName;
+
+        public CachedModule(String group, String name, String version, File versionDir, String baseName) {
+            this.notation = group + ':' + name + ':' + version;
+            this.versionDir = versionDir;
+            this.baseName = baseName;
+        }
+
+        /**
+         * Returns the id of this module in the format "group:name:version".
+         */
+        public String getNotation() {
+            return notation;
+        }
+
+        public boolean hasClassified(String classifier) {
+            // The cache directory of Gradle looks like this:
+            //
+            // ...... \\VERSION\\HASH_OF_BINARY\\binary.jar
+            // ...... \\VERSION\\HASH_OF_SOURCE\\binary-sources.jar
+            File[] hashDirs = versionDir.listFiles();
+            if (hashDirs == null) {
+                return false;
+            }
+
+            String classifiedName = baseName + '-' + classifier + '.' + JAR_EXTENSION;
+            for (File dir: hashDirs) {
+                if (new File(dir, classifiedName).isFile()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
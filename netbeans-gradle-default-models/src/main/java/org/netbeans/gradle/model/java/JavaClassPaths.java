@@ -26,7 +26,9 @@ public final class JavaClassPaths implements Serializable {
      * Defines an empty class path. That is, both the compile and runtime
      * class paths are empty sets.
      */
-    public static final JavaClassPaths EMPTY = new JavaClassPaths();
+    public static final JavaClassPaths EMPTY = new JavaClassPaths(
+            Collections.<File>emptySet(),
+            Collections.<File>emptySet());
 
     private final Set<File> compileClasspaths;
     private final Set<File> runtimeClasspaths;
@@ -80,9 +82,43 @@ public final class JavaClassPaths implements Serializable {
         CollectionUtils.checkNoNullElements(this.compileClasspaths, "compileClasspaths");
     }
 
-    private JavaClassPaths() {
-        this.compileClasspaths = Collections.emptySet();
-        this.runtimeClasspaths = Collections.emptySet();
+    // Neither copies nor checks the given sets, they must be unmodifiable
+    // sets without null elements.
+    private JavaClassPaths(Set<File> compileClasspaths, Set<File> runtimeClasspaths) {
+        this.compileClasspaths = compileClasspaths;
+        this.runtimeClasspaths = runtimeClasspaths;
+    }
+
+    /**
+     * Creates a new {@code JavaClassPaths} using the given sets as they are,
+     * without copying them. This allows the same sets to be shared by
+     * multiple {@code JavaClassPaths} instances.
+     * <P>
+     * Since the sets are usually shared, their elements are not checked
+     * here: The caller must ensure that they contain no {@code null} elements.
+     *
+     * @param compileClasspaths the class path required to compile the
+     *   associated source set. This set must not be modifiable and must not
+     *   be a view of a set which is modified later. This argument cannot be
+     *   {@code null} and cannot contain {@code null} elements.
+     * @param runtimeClasspaths the class path required at runtime by the
+     *   associated source set. This set must not be modifiable and must not
+     *   be a view of a set which is modified later. This argument cannot be
+     *   {@code null} and cannot contain {@code null} elements.
+     * @return the new {@code JavaClassPaths} referencing the given sets. This
+     *   method never returns {@code null}.
+     *
+     * @throws NullPointerException thrown if any of the arguments is
+     *   {@code null}
+     */
+    public static JavaClassPaths ofUnmodifiableSets(
+            Set<File> compileClasspaths,
+            Set<File> runtimeClasspaths) {
+
+        if (compileClasspaths == null) throw new NullPointerException("compileClasspaths");
+        if (runtimeClasspaths == null) throw new NullPointerException("runtimeClasspaths");
+
+        return new JavaClassPaths(compileClasspaths, runtimeClasspaths);
     }
 
     /**
@@ -228,7 +228,16 @@ public final class BasicFileUtils {
         }
     }
 
-    private static String byteArrayToHex(byte[] array) {
+    public static byte[] getSHA256Digest(byte[] input) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return md.digest(input);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Missing SHA-256 MessageDigest");
+        }
+    }
+
+    static String byteArrayToHex(byte[] array) {
         StringBuilder result = new StringBuilder(array.length * 2);
         for (byte value: array) {
             result.append(HEX_TABLE_LOWER[((int)value & 0xF0) >>> 4]);
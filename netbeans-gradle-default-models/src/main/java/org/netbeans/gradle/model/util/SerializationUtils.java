@@ -72,6 +72,24 @@ public final class SerializationUtils {
         }
     }
 
+    public static Object deserializeObject(
+            byte[] buffer,
+            int offset,
+            int length,
+            ClassLoader classLoader) throws ClassNotFoundException {
+
+        try {
+            InputStream bytesInput = new ByteArrayInputStream(buffer, offset, length);
+            ObjectInputStream input = classLoader != null
+                    ? new CustomClassObjectInputStream(classLoader, bytesInput)
+                    : new ObjectInputStream(bytesInput);
+
+            return input.readObject();
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
     private static final class CustomClassObjectInputStream extends ObjectInputStream {
         private final ClassLoader classLoader;
 
@@ -6,49 +6,42 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.charset.Charset;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * Defines a manager of temporary files where files with the same content are
+ * shared as long as there is a reference to them. A file is deleted when the
+ * last reference to it is closed.
+ * <P>
+ * The files are looked up by the SHA-256 digest of their content without
+ * acquiring a lock, and the use count of the files are updated atomically. Creating a
+ * file only blocks the requests for the same content, and files are never
+ * written or deleted while holding a lock shared by different contents.
+ * <P>
+ * The methods of this class are safe to be called from multiple threads
+ * concurrently.
+ */
 public final class TemporaryFileManager {
     private static final Logger LOGGER = Logger.getLogger(TemporaryFileManager.class.getName());
 
     private static final TemporaryFileManager DEFAULT = new TemporaryFileManager();
 
-    private final Lock mainLock;
-    private final Map<BinaryContent, FileReference> files;
+    private final ConcurrentMap<ContentKey, FileReference> files;
 
     public TemporaryFileManager() {
-        this.mainLock = new ReentrantLock();
-        this.files = new HashMap<BinaryContent, FileReference>();
+        this.files = new ConcurrentHashMap<ContentKey, FileReference>();
     }
 
     public static TemporaryFileManager getDefault() {
         return DEFAULT;
     }
 
-    private TemporaryFileRef tryGetExisting(BinaryContent content) throws IOException {
-        mainLock.lock();
-        try {
-            FileReference fileRef = files.get(content);
-            if (fileRef != null) {
-                fileRef.useOne();
-                return new SingleFileReference(fileRef.key, fileRef);
-            }
-        } finally {
-            mainLock.unlock();
-        }
-
-        return null;
-    }
-
-    private TemporaryFileRef tryGetExisting(byte[] content) throws IOException {
-        return tryGetExisting(new BinaryContent(content, false));
-    }
-
     private static void closeAndDelete(LockedFile file) throws IOException {
         try {
             file.close();
@@ -57,81 +50,82 @@ public final class TemporaryFileManager {
         }
     }
 
-    private TemporaryFileRef createFileGuessUncached(
-            String preferredPrefix,
-            BinaryContent content) throws IOException {
-
-        TemporaryFileRef result;
-        LockedFile file = new LockedFile(preferredPrefix, content);
-
-        mainLock.lock();
-        try {
-            FileReference fileRef = files.get(content);
-            if (fileRef != null) {
-                fileRef.useOne();
-                result = new SingleFileReference(fileRef.key, fileRef);
-            }
-            else {
-                fileRef = new FileReference(content, file, 1);
-                result = new SingleFileReference(content, fileRef);
-
-                file = null;
-                files.put(content, fileRef);
-            }
-        } finally {
-            mainLock.unlock();
-
-            if (file != null) {
-                closeAndDelete(file);
-            }
-        }
-
-        return result;
-    }
-
     public TemporaryFileRef createFile(String preferredPrefix, String strContent, Charset charset) throws IOException {
-        BinaryContent content = new BinaryContent(strContent.getBytes(charset.name()), false);
-        return createFile(preferredPrefix, content);
+        return createFile(preferredPrefix, strContent.getBytes(charset.name()), false);
     }
 
     public TemporaryFileRef createFile(String preferredPrefix, String strContent, String charsetName) throws IOException {
-        BinaryContent content = new BinaryContent(strContent.getBytes(charsetName), false);
-        return createFile(preferredPrefix, content);
+        return createFile(preferredPrefix, strContent.getBytes(charsetName), false);
     }
 
     public TemporaryFileRef createFileFromSerialized(String preferredPrefix, Object contentObj) throws IOException {
-        BinaryContent content = new BinaryContent(SerializationUtils.serializeObject(contentObj), false);
-        return createFile(preferredPrefix, content);
+        return createFile(preferredPrefix, SerializationUtils.serializeObject(contentObj), false);
     }
 
-    private TemporaryFileRef createFile(String preferredPrefix, BinaryContent content) throws IOException {
-        TemporaryFileRef result = tryGetExisting(content);
-        if (result != null) {
-            return result;
-        }
+    public TemporaryFileRef createFile(String preferredPrefix, byte[] content) throws IOException {
+        return createFile(preferredPrefix, content, true);
+    }
+
+    private TemporaryFileRef createFile(
+            String preferredPrefix,
+            byte[] content,
+            boolean cloneContent) throws IOException {
+
+        ContentKey key = new ContentKey(content);
+
+        while (true) {
+            FileReference fileRef = files.get(key);
+            if (fileRef == null) {
+                byte[] contentCopy = cloneContent ? content.clone() : content;
+                FileReference newFileRef = new FileReference(key, preferredPrefix, contentCopy);
+                fileRef = files.putIfAbsent(key, newFileRef);
+                if (fileRef == null) {
+                    fileRef = newFileRef;
+                }
+            }
+
+            if (fileRef.tryUseOne()) {
+                try {
+                    fileRef.ensureCreated();
+                } catch (Throwable ex) {
+                    release(fileRef);
+                    throw Exceptions.throwUncheckedIO(ex);
+                }
+                return new SingleFileReference(fileRef);
+            }
 
-        return createFileGuessUncached(preferredPrefix, content);
+            // The last reference to this file has been closed concurrently,
+            // so a new file has to be created.
+            files.remove(key, fileRef);
+        }
     }
 
-    public TemporaryFileRef createFile(String preferredPrefix, byte[] content) throws IOException {
-        TemporaryFileRef result = tryGetExisting(content);
-        if (result != null) {
-            return result;
+    private void release(FileReference fileRef) {
+        if (!fileRef.releaseOne()) {
+            return;
         }
 
-        return createFileGuessUncached(preferredPrefix, new BinaryContent(content));
+        files.remove(fileRef.key, fileRef);
+
+        LockedFile lockedFile = fileRef.getLockedFile();
+        if (lockedFile != null) {
+            try {
+                closeAndDelete(lockedFile);
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
     }
 
     private static final class LockedFile implements Closeable {
         public final File file;
         private final RandomAccessFile lockedRef;
 
-        public LockedFile(String namePrefix, BinaryContent content) throws IOException {
-            file = BasicFileUtils.createTmpFile(
-                    namePrefix + "-" + BasicFileUtils.getMD5(content.content), ".tmp");
+        public LockedFile(String namePrefix, String contentHash, byte[] content) throws IOException {
+            file = BasicFileUtils.createTmpFile(namePrefix + "-" + contentHash, ".tmp");
             try {
                 lockedRef = new RandomAccessFile(file, "rw");
-                lockedRef.write(content.content);
+                lockedRef.write(content);
                 lockedRef.getFD().sync();
             } catch (Throwable ex) {
                 if (!file.delete()) {
@@ -147,16 +141,14 @@ public final class TemporaryFileManager {
     }
 
     private final class SingleFileReference implements TemporaryFileRef {
-        private final BinaryContent content;
         private final FileReference fileRef;
         private final ObjectFinalizer finalizer;
 
-        public SingleFileReference(BinaryContent content, FileReference fileRef) {
-            this.content = content;
+        public SingleFileReference(final FileReference fileRef) {
             this.fileRef = fileRef;
             this.finalizer = new ObjectFinalizer(new Runnable() {
                 public void run() {
-                    doClose();
+                    release(fileRef);
                 }
             }, "SingleFileReference{" + fileRef.getFile() + "}");
         }
@@ -165,28 +157,6 @@ public final class TemporaryFileManager {
             return fileRef.getFile();
         }
 
-        private void doClose() {
-            boolean delete = false;
-
-            mainLock.lock();
-            try {
-                if (fileRef.releaseOne()) {
-                    files.remove(content);
-                    delete = true;
-                }
-            } finally {
-                mainLock.unlock();
-            }
-
-            if (delete) {
-                try {
-                    closeAndDelete(fileRef.getLockedFile());
-                } catch (IOException ex) {
-                    throw new RuntimeException(ex);
-                }
-            }
-        }
-
         public void close() throws IOException {
             finalizer.doFinalize();
         }
@@ -198,45 +168,91 @@ public final class TemporaryFileManager {
     }
 
     private static final class FileReference {
-        public final BinaryContent key;
-        private final LockedFile file;
-        private int useCount;
+        public final ContentKey key;
+        private final String namePrefix;
+        private final AtomicInteger useCount;
+        private final Lock createLock;
+
+        // Set to null after the file has been created, so that the content
+        // is not retained while the file is used.
+        private byte[] content;
+        private volatile LockedFile file;
 
-        public FileReference(BinaryContent key, LockedFile file, int useCount) {
+        public FileReference(ContentKey key, String namePrefix, byte[] content) {
             this.key = key;
-            this.file = file;
-            this.useCount = useCount;
+            this.namePrefix = namePrefix;
+            this.content = content;
+            this.useCount = new AtomicInteger(0);
+            this.createLock = new ReentrantLock();
+            this.file = null;
         }
 
         public File getFile() {
-            return file.file;
+            LockedFile currentFile = file;
+            return currentFile != null ? currentFile.file : null;
         }
 
         public LockedFile getLockedFile() {
             return file;
         }
 
-        public void useOne() {
-            useCount++;
+        public void ensureCreated() throws IOException {
+            if (file != null) {
+                return;
+            }
+
+            createLock.lock();
+            try {
+                if (file == null) {
+                    file = new LockedFile(namePrefix, key.getHexDigest(), content);
+                    content = null;
+                }
+            } finally {
+                createLock.unlock();
+            }
+        }
+
+        /**
+         * Increments the use count unless the last reference has already
+         * been released (in which case this reference must not be used).
+         */
+        public boolean tryUseOne() {
+            while (true) {
+                int count = useCount.get();
+                if (count < 0) {
+                    return false;
+                }
+                if (useCount.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
         }
 
+        /**
+         * Decrements the use count and returns {@code true} if this was the
+         * last reference, after which {@link #tryUseOne()} always fails.
+         */
         public boolean releaseOne() {
-            useCount--;
-            return useCount == 0;
+            if (useCount.decrementAndGet() != 0) {
+                return false;
+            }
+            return useCount.compareAndSet(0, -1);
         }
     }
 
-    private static final class BinaryContent {
-        private final byte[] content;
+    private static final class ContentKey {
+        private final byte[] digest;
+        private final int length;
         private final int hash;
 
-        public BinaryContent(byte[] content) {
-            this(content, true);
+        public ContentKey(byte[] content) {
+            this.digest = BasicFileUtils.getSHA256Digest(content);
+            this.length = content.length;
+            this.hash = 679 + Arrays.hashCode(digest);
         }
 
-        public BinaryContent(byte[] content, boolean clone) {
-            this.content = clone ? content.clone() : content;
-            this.hash = 679 + Arrays.hashCode(this.content);
+        public String getHexDigest() {
+            return BasicFileUtils.byteArrayToHex(digest);
         }
 
         @Override
@@ -250,8 +266,8 @@ public final class TemporaryFileManager {
             if (obj == this) return true;
             if (getClass() != obj.getClass()) return false;
 
-            final BinaryContent other = (BinaryContent)obj;
-            return Arrays.equals(this.content, other.content);
+            final ContentKey other = (ContentKey)obj;
+            return this.length == other.length && Arrays.equals(this.digest, other.digest);
         }
     }
 }
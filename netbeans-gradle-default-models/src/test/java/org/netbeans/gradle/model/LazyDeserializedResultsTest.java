@@ -0,0 +1,142 @@
+package org.netbeans.gradle.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.netbeans.gradle.model.internal.IssueTransformer;
+import org.netbeans.gradle.model.internal.SerializedEntries;
+import org.netbeans.gradle.model.util.SerializationUtils;
+
+import static org.junit.Assert.*;
+
+public class LazyDeserializedResultsTest {
+    private static final IssueTransformer ISSUE_TRANSFORMER = new IssueTransformer() {
+        public Object transformIssue(Throwable issue) {
+            return new BuilderResult(null, new BuilderIssue("", issue));
+        }
+    };
+
+    private static SerializedEntries entries(Object... values) {
+        return new SerializedEntries(Arrays.asList(values));
+    }
+
+    private static BuilderResult result(String value) {
+        return new BuilderResult(value, null);
+    }
+
+    private static LazyDeserializedResults.Builder<BuilderResult> newBuilder() {
+        return new LazyDeserializedResults.Builder<BuilderResult>(BuilderResult.class, ISSUE_TRANSFORMER);
+    }
+
+    @Test
+    public void testEntriesAreDeserializedOnFirstRequest() {
+        LazyDeserializedResults.Builder<BuilderResult> builder = newBuilder();
+        builder.addEntries("ext1", entries(result("a")), null);
+        builder.addEntries("ext1", entries(result("b")), null);
+        builder.addEntries("ext2", entries(result("c")), null);
+        LazyDeserializedResults<BuilderResult> results = builder.create();
+
+        assertEquals(3, results.getEntryCount());
+        assertEquals(0, results.getMaterializedEntryCount());
+        assertEquals(2, results.size());
+        assertTrue(results.containsKey("ext1"));
+        assertEquals(0, results.getMaterializedEntryCount());
+
+        List<BuilderResult> ext1 = results.get("ext1");
+        assertEquals(2, ext1.size());
+        assertEquals("a", ext1.get(0).getResultObject());
+        assertEquals("b", ext1.get(1).getResultObject());
+        assertEquals(2, results.getMaterializedEntryCount());
+
+        assertSame(ext1, results.get("ext1"));
+        assertEquals(2, results.getMaterializedEntryCount());
+
+        assertNull(results.get("unknown"));
+        assertEquals(2, results.getMaterializedEntryCount());
+    }
+
+    @Test
+    public void testDeserializationFailureOnlyAffectsItsEntry() {
+        LazyDeserializedResults.Builder<BuilderResult> builder = newBuilder();
+        builder.addEntries("ext", entries(result("good")), null);
+        builder.addEntries("ext", entries(new FailingDeserialization()), null);
+        LazyDeserializedResults<BuilderResult> results = builder.create();
+
+        List<BuilderResult> values = results.get("ext");
+        assertEquals(2, values.size());
+        assertEquals("good", values.get(0).getResultObject());
+        assertNotNull(values.get(1).getIssue());
+    }
+
+    @Test
+    public void testSerializationIssuesAreTransformed() {
+        LazyDeserializedResults.Builder<BuilderResult> builder = newBuilder();
+        builder.addIssue("ext", new IOException("testSerializationIssuesAreTransformed"));
+        LazyDeserializedResults<BuilderResult> results = builder.create();
+
+        assertEquals(0, results.getEntryCount());
+        List<BuilderResult> values = results.get("ext");
+        assertEquals(1, values.size());
+        assertNotNull(values.get(0).getIssue());
+    }
+
+    @Test
+    public void testSerializationMaterializesEverything() throws ClassNotFoundException {
+        LazyDeserializedResults.Builder<BuilderResult> builder = newBuilder();
+        builder.addEntries("ext1", entries(result("a")), null);
+        builder.addEntries("ext2", entries(result("b")), null);
+        LazyDeserializedResults<BuilderResult> results = builder.create();
+
+        byte[] serialized = SerializationUtils.serializeObject(results);
+        assertEquals(2, results.getMaterializedEntryCount());
+
+        @SuppressWarnings("unchecked")
+        Map<Object, List<BuilderResult>> deserialized
+                = (Map<Object, List<BuilderResult>>)SerializationUtils.deserializeObject(serialized);
+        assertEquals(2, deserialized.size());
+        assertEquals("b", deserialized.get("ext2").get(0).getResultObject());
+    }
+
+    @Test
+    public void testFetchedProjectModelsCounters() {
+        LazyDeserializedResults.Builder<BuilderResult> builder = newBuilder();
+        builder.addEntries("ext1", entries(result("a")), null);
+        builder.addEntries("ext2", entries(result("b")), null);
+
+        GradleProjectTree tree = new GradleProjectTree(
+                new GenericProjectProperties(
+                        new ProjectId("group", "name", "1.0"),
+                        ":",
+                        new File("project-dir"),
+                        null,
+                        new File("build")),
+                Collections.<GradleTaskID>emptyList(),
+                Collections.<GradleProjectTree>emptyList());
+        FetchedProjectModels projectModels = new FetchedProjectModels(
+                new GradleMultiProjectDef(tree, tree),
+                builder.create(),
+                Collections.<Class<?>, Object>emptyMap(),
+                null);
+
+        assertEquals(2, projectModels.getSerializedResultCount());
+        assertEquals(0, projectModels.getDeserializedResultCount());
+
+        projectModels.getProjectInfoResults().get("ext2");
+        assertEquals(1, projectModels.getDeserializedResultCount());
+    }
+
+    private static final class FailingDeserialization implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private void readObject(ObjectInputStream input) throws IOException {
+            throw new InvalidObjectException("FailingDeserialization");
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.netbeans.gradle.model.internal;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import org.netbeans.gradle.model.GradleTaskID;
+import org.netbeans.gradle.model.ProjectId;
+import org.netbeans.gradle.model.util.SerializationUtils;
+
+/**
+ * Compares the bytes transferred and the time spent transferring the output
+ * of a model query with {@link ModelQueryOutputEncoding} and the way it was
+ * transferred before: Every entry serialized into its own array, then the
+ * whole output serialized again including these arrays. A round trip
+ * consists of encoding the output, decoding it and deserializing every entry
+ * (as the IDE does).
+ * <P>
+ * This is not a unit test ({@link ModelQueryOutputEncodingTest} only checks
+ * the sizes), it has to be run manually (through its {@code main} method) and
+ * it only prints the measured values.
+ */
+public final class ModelQueryOutputEncodingBenchmark {
+    private static final int KEY_COUNT = 50;
+    private static final int PAYLOAD_SIZE = 200;
+    private static final int ROUND_TRIPS_PER_ROUND = 200;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    private static final ModelQueryOutput.BasicInfo BASIC_INFO = new ModelQueryOutput.BasicInfo(
+            new ProjectId("group", "name", "1.0"),
+            ":name",
+            new File("build.gradle"),
+            new File("build"),
+            Arrays.asList(new GradleTaskID("build", ":name:build")));
+
+    private static long checksum = 0;
+
+    private static CustomSerializedMap.Builder createProjectInfos() {
+        CustomSerializedMap.Builder result = new CustomSerializedMap.Builder(KEY_COUNT);
+        for (int i = 0; i < KEY_COUNT; i++) {
+            List<String> payload = new ArrayList<String>(PAYLOAD_SIZE);
+            for (int j = 0; j < PAYLOAD_SIZE; j++) {
+                payload.add("element" + j);
+            }
+            result.addValue("key" + i, payload);
+        }
+        return result;
+    }
+
+    private static long readAll(ModelQueryOutput output) {
+        long result = 0;
+        for (SerializedEntries entries: output.getProjectInfoResults().getMap().values()) {
+            result += entries.getUnserialized(null).size();
+        }
+        return result;
+    }
+
+    private static byte[] encodeNested(CustomSerializedMap.Builder projectInfos) {
+        return SerializationUtils.serializeObject(new ModelQueryOutput(BASIC_INFO, projectInfos.create(), null));
+    }
+
+    private static byte[] encode(CustomSerializedMap.Builder projectInfos) {
+        return ModelQueryOutputEncoding.encode(BASIC_INFO, projectInfos, null);
+    }
+
+    private static double measureNested(CustomSerializedMap.Builder projectInfos) throws ClassNotFoundException {
+        long startTime = System.nanoTime();
+        for (int i = 0; i < ROUND_TRIPS_PER_ROUND; i++) {
+            byte[] nested = encodeNested(projectInfos);
+            checksum += readAll((ModelQueryOutput)SerializationUtils.deserializeObject(nested));
+        }
+        return (System.nanoTime() - startTime) / 1000.0 / ROUND_TRIPS_PER_ROUND;
+    }
+
+    private static double measureEncoded(CustomSerializedMap.Builder projectInfos) throws ClassNotFoundException {
+        long startTime = System.nanoTime();
+        for (int i = 0; i < ROUND_TRIPS_PER_ROUND; i++) {
+            byte[] encoded = encode(projectInfos);
+            checksum += readAll(ModelQueryOutputEncoding.decode(encoded));
+        }
+        return (System.nanoTime() - startTime) / 1000.0 / ROUND_TRIPS_PER_ROUND;
+    }
+
+    public static void main(String[] args) throws ClassNotFoundException {
+        CustomSerializedMap.Builder projectInfos = createProjectInfos();
+
+        System.out.println(String.format(Locale.ROOT,
+                "Keys: %d, elements per key: %d, nested: %d bytes, encoded: %d bytes",
+                KEY_COUNT,
+                PAYLOAD_SIZE,
+                encodeNested(projectInfos).length,
+                encode(projectInfos).length));
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            measureNested(projectInfos);
+            measureEncoded(projectInfos);
+        }
+
+        double nestedTotal = 0.0;
+        double encodedTotal = 0.0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            nestedTotal += measureNested(projectInfos);
+            encodedTotal += measureEncoded(projectInfos);
+        }
+
+        System.out.println(String.format(Locale.ROOT,
+                "Round trip: nested: %.1f us, encoded: %.1f us",
+                nestedTotal / MEASURED_ROUNDS,
+                encodedTotal / MEASURED_ROUNDS));
+        System.out.println("Checksum: " + checksum);
+    }
+
+    private ModelQueryOutputEncodingBenchmark() {
+        throw new AssertionError();
+    }
+}
@@ -0,0 +1,161 @@
+package org.netbeans.gradle.model.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.netbeans.gradle.model.GradleTaskID;
+import org.netbeans.gradle.model.ProjectId;
+import org.netbeans.gradle.model.util.SerializationUtils;
+
+import static org.junit.Assert.*;
+
+public class ModelQueryOutputEncodingTest {
+    private static ModelQueryOutput.BasicInfo createBasicInfo() {
+        return new ModelQueryOutput.BasicInfo(
+                new ProjectId("group", "name", "1.0"),
+                ":name",
+                new File("build.gradle"),
+                new File("build"),
+                Arrays.asList(new GradleTaskID("build", ":name:build")));
+    }
+
+    private static ModelQueryOutput roundTrip(CustomSerializedMap.Builder projectInfos) throws ClassNotFoundException {
+        byte[] encoded = ModelQueryOutputEncoding.encode(createBasicInfo(), projectInfos, null);
+        return ModelQueryOutputEncoding.decode(encoded);
+    }
+
+    @Test
+    public void testRoundTrip() throws ClassNotFoundException {
+        CustomSerializedMap.Builder projectInfos = new CustomSerializedMap.Builder(2);
+        projectInfos.addValue("key1", "value1");
+        projectInfos.addValue("key1", "value2");
+        projectInfos.addValue("key2", 42);
+
+        ModelQueryOutput output = roundTrip(projectInfos);
+
+        assertNull(output.getIssue());
+        assertEquals(":name", output.getBasicInfo().getProjectFullName());
+        assertEquals("name", output.getBasicInfo().getProjectId().getName());
+
+        Map<Object, SerializedEntries> entries = output.getProjectInfoResults().getMap();
+        assertEquals(2, entries.size());
+        assertEquals(Arrays.asList("value1", "value2"), entries.get("key1").getUnserialized(null));
+        assertEquals(Arrays.asList(42), entries.get("key2").getUnserialized(null));
+        assertTrue(output.getProjectInfoResults().getSerializationProblems().isEmpty());
+    }
+
+    @Test
+    public void testIssueIsTransferred() throws ClassNotFoundException {
+        byte[] encoded = ModelQueryOutputEncoding.encode(
+                createBasicInfo(),
+                new CustomSerializedMap.Builder(0),
+                new IOException("testIssueIsTransferred"));
+        ModelQueryOutput output = ModelQueryOutputEncoding.decode(encoded);
+
+        assertNotNull(output.getIssue());
+        assertTrue(output.getIssue().getMessage().contains("testIssueIsTransferred"));
+        assertEquals(0, output.getProjectInfoResults().size());
+    }
+
+    @Test
+    public void testSerializationFailureOnlyAffectsItsKey() throws ClassNotFoundException {
+        CustomSerializedMap.Builder projectInfos = new CustomSerializedMap.Builder(2);
+        projectInfos.addValue("good", "value");
+        projectInfos.addValue("bad", new Object());
+
+        ModelQueryOutput output = roundTrip(projectInfos);
+        CustomSerializedMap results = output.getProjectInfoResults();
+
+        assertEquals(Collections.singletonList("value"), results.getMap().get("good").getUnserialized(null));
+        assertFalse(results.getMap().containsKey("bad"));
+        assertNotNull(results.getSerializationProblems().get("bad"));
+    }
+
+    @Test
+    public void testDeserializationFailureOnlyAffectsItsKey() throws ClassNotFoundException {
+        CustomSerializedMap.Builder projectInfos = new CustomSerializedMap.Builder(2);
+        projectInfos.addValue("good", "value");
+        projectInfos.addValue("bad", new FailingDeserialization());
+
+        ModelQueryOutput output = roundTrip(projectInfos);
+        Map<Object, SerializedEntries> entries = output.getProjectInfoResults().getMap();
+
+        assertEquals(Collections.singletonList("value"), entries.get("good").getUnserialized(null));
+        try {
+            entries.get("bad").getUnserialized(null);
+            fail("Expected deserialization failure.");
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getCause() instanceof InvalidObjectException);
+        }
+    }
+
+    @Test
+    public void testDecodedEntriesRemainSerializable() throws ClassNotFoundException {
+        CustomSerializedMap.Builder projectInfos = new CustomSerializedMap.Builder(2);
+        projectInfos.addValue("key1", "value1");
+        projectInfos.addValue("key2", createPayload(1000));
+
+        SerializedEntries entries = roundTrip(projectInfos).getProjectInfoResults().getMap().get("key1");
+        byte[] serialized = SerializationUtils.serializeObject(entries);
+
+        // Only the referenced part of the shared buffer is written.
+        assertTrue(serialized.length < 1000);
+
+        SerializedEntries deserialized = (SerializedEntries)SerializationUtils.deserializeObject(serialized);
+        assertEquals(Collections.singletonList("value1"), deserialized.getUnserialized(null));
+    }
+
+    @Test
+    public void testComparedToNestedSerialization() throws ClassNotFoundException {
+        int keyCount = 50;
+
+        CustomSerializedMap.Builder projectInfos = new CustomSerializedMap.Builder(keyCount);
+        for (int i = 0; i < keyCount; i++) {
+            projectInfos.addValue("key" + i, createPayload(200));
+        }
+        ModelQueryOutput.BasicInfo basicInfo = createBasicInfo();
+
+        // This is how the output was transferred before: Every entry is
+        // serialized into its own array, then the whole output is
+        // serialized again including these arrays.
+        ModelQueryOutput nestedOutput = new ModelQueryOutput(basicInfo, projectInfos.create(), null);
+        byte[] nested = SerializationUtils.serializeObject(nestedOutput);
+        readAll((ModelQueryOutput)SerializationUtils.deserializeObject(nested));
+
+        byte[] encoded = ModelQueryOutputEncoding.encode(basicInfo, projectInfos, null);
+        readAll(ModelQueryOutputEncoding.decode(encoded));
+
+        assertTrue("Encoded size: " + encoded.length + ", nested size: " + nested.length,
+                encoded.length <= nested.length);
+    }
+
+    private static void readAll(ModelQueryOutput output) {
+        for (SerializedEntries entries: output.getProjectInfoResults().getMap().values()) {
+            assertEquals(1, entries.getUnserialized(null).size());
+        }
+    }
+
+    private static List<String> createPayload(int size) {
+        List<String> result = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) {
+            result.add("element" + i);
+        }
+        return result;
+    }
+
+    private static final class FailingDeserialization implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private void readObject(ObjectInputStream input) throws IOException {
+            throw new InvalidObjectException("FailingDeserialization");
+        }
+    }
+}
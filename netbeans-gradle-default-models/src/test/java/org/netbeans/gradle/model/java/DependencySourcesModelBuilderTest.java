@@ -0,0 +1,231 @@
+package org.netbeans.gradle.model.java;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.DependencySet;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.artifacts.LenientConfiguration;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ProjectDependency;
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.artifacts.ResolvedConfiguration;
+import org.gradle.api.artifacts.ResolvedModuleVersion;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DependencySourcesModelBuilderTest {
+    private File userHome;
+    private File filesDir;
+
+    @Before
+    public void setUp() throws IOException {
+        userHome = File.createTempFile("gradle-user-home", "");
+        if (!userHome.delete() || !userHome.mkdir()) {
+            throw new IOException("Failed to create directory: " + userHome);
+        }
+        filesDir = new File(new File(new File(userHome, "caches"), "modules-2"), "files-2.1");
+    }
+
+    @After
+    public void tearDown() {
+        deleteRecursively(userHome);
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child: children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    private File cacheFile(String group, String name, String version, String hash, String fileName)
+            throws IOException {
+        File dir = new File(new File(new File(new File(filesDir, group), name), version), hash);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Failed to create directory: " + dir);
+        }
+        File result = new File(dir, fileName);
+        if (!result.createNewFile()) {
+            throw new IOException("Failed to create file: " + result);
+        }
+        return result;
+    }
+
+    private static <T> T stub(Class<T> type, final Map<String, ?> results) {
+        Object result = Proxy.newProxyInstance(
+                DependencySourcesModelBuilderTest.class.getClassLoader(),
+                new Class<?>[]{type},
+                new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                String name = method.getName();
+                if ("hashCode".equals(name)) {
+                    return System.identityHashCode(proxy);
+                }
+                if ("equals".equals(name)) {
+                    return proxy == args[0];
+                }
+                if (!results.containsKey(name)) {
+                    throw new UnsupportedOperationException(name);
+                }
+                return results.get(name);
+            }
+        });
+        return type.cast(result);
+    }
+
+    private static Map<String, Object> results(Object... namesAndValues) {
+        Map<String, Object> result = new HashMap<String, Object>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            result.put((String)namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return result;
+    }
+
+    private static ExternalModuleDependency moduleDependency(String group, String name, String version) {
+        return stub(ExternalModuleDependency.class, results(
+                "getGroup", group,
+                "getName", name,
+                "getVersion", version,
+                "getArtifacts", Collections.emptySet()));
+    }
+
+    private static Configuration unresolvableConfiguration(Dependency... dependencies) {
+        // Resolving the configuration is not allowed: getResolvedConfiguration
+        // is not stubbed.
+        DependencySet dependencySet = stub(DependencySet.class, results(
+                "iterator", Arrays.asList(dependencies).iterator()));
+        return stub(Configuration.class, results(
+                "getState", Configuration.State.UNRESOLVED,
+                "getAllDependencies", dependencySet));
+    }
+
+    private static Configuration resolvableConfiguration(
+            Configuration.State state,
+            ResolvedArtifact... artifacts) {
+
+        Set<ResolvedArtifact> artifactSet = new LinkedHashSet<ResolvedArtifact>(Arrays.asList(artifacts));
+        LenientConfiguration lenient = stub(LenientConfiguration.class, results(
+                "getArtifacts", artifactSet));
+        ResolvedConfiguration resolved = stub(ResolvedConfiguration.class, results(
+                "getLenientConfiguration", lenient));
+        // The declared dependencies must not be used: getAllDependencies is
+        // not stubbed.
+        return stub(Configuration.class, results(
+                "getState", state,
+                "getResolvedConfiguration", resolved));
+    }
+
+    private static ResolvedArtifact artifact(String group, String name, String version, File file) {
+        ModuleVersionIdentifier id = stub(ModuleVersionIdentifier.class, results(
+                "getGroup", group,
+                "getName", name,
+                "getVersion", version));
+        ResolvedModuleVersion moduleVersion = stub(ResolvedModuleVersion.class, results(
+                "getId", id));
+        return stub(ResolvedArtifact.class, results(
+                "getFile", file,
+                "getClassifier", null,
+                "getExtension", "jar",
+                "getModuleVersion", moduleVersion));
+    }
+
+    private static List<String> notations(Collection<DependencySourcesModelBuilder.CachedModule> modules) {
+        List<String> result = new ArrayList<String>();
+        for (DependencySourcesModelBuilder.CachedModule module: modules) {
+            result.add(module.getNotation());
+        }
+        return result;
+    }
+
+    @Test
+    public void testUnresolvableConfigurationIsScannedByCoordinates() throws IOException {
+        cacheFile("org.example", "cached", "1.0", "hash1", "cached-1.0.jar");
+        cacheFile("org.example", "withsources", "2.0", "hash2", "withsources-2.0.jar");
+        cacheFile("org.example", "withsources", "2.0", "hash3", "withsources-2.0-sources.jar");
+
+        Configuration configuration = unresolvableConfiguration(
+                moduleDependency("org.example", "cached", "1.0"),
+                moduleDependency("org.example", "withsources", "2.0"),
+                moduleDependency("org.example", "notcached", "3.0"),
+                moduleDependency("org.example", "dynamic", null),
+                stub(ProjectDependency.class, results()));
+
+        Collection<DependencySourcesModelBuilder.CachedModule> modules
+                = DependencySourcesModelBuilder.getCachedModules(userHome, Arrays.asList(configuration));
+        assertEquals(Arrays.asList("org.example:cached:1.0", "org.example:withsources:2.0"), notations(modules));
+
+        Collection<DependencySourcesModelBuilder.CachedModule> missing
+                = DependencySourcesModelBuilder.getMissing(modules, "sources");
+        assertEquals(Arrays.asList("org.example:cached:1.0"), notations(missing));
+    }
+
+    @Test
+    public void testResolvedConfigurationUsesResolvedArtifacts() throws IOException {
+        File binary = cacheFile("org.example", "resolved", "1.0", "hash1", "resolved-1.0.jar");
+        File outside = new File(userHome.getParentFile(), "outside-1.0.jar");
+
+        Configuration configuration = resolvableConfiguration(
+                Configuration.State.RESOLVED,
+                artifact("org.example", "resolved", "1.0", binary),
+                artifact("org.example", "outside", "1.0", outside));
+
+        Collection<DependencySourcesModelBuilder.CachedModule> modules
+                = DependencySourcesModelBuilder.getCachedModules(userHome, Arrays.asList(configuration));
+        assertEquals(Arrays.asList("org.example:resolved:1.0"), notations(modules));
+        assertEquals(1, DependencySourcesModelBuilder.getMissing(modules, "sources").size());
+
+        cacheFile("org.example", "resolved", "1.0", "hash2", "resolved-1.0-sources.jar");
+        assertTrue(DependencySourcesModelBuilder.getMissing(modules, "sources").isEmpty());
+    }
+
+    @Test
+    public void testUnresolvedConfigurationIsResolved() throws IOException {
+        // Neither a transitive dependency nor a dynamic version could be found
+        // through the declared dependencies.
+        File transitive = cacheFile("org.example", "transitive", "1.0", "hash1", "transitive-1.0.jar");
+        File dynamic = cacheFile("org.example", "dynamic", "1.2", "hash2", "dynamic-1.2.jar");
+
+        Configuration configuration = resolvableConfiguration(
+                Configuration.State.UNRESOLVED,
+                artifact("org.example", "transitive", "1.0", transitive),
+                artifact("org.example", "dynamic", "1.2", dynamic));
+
+        Collection<DependencySourcesModelBuilder.CachedModule> modules
+                = DependencySourcesModelBuilder.getCachedModules(userHome, Arrays.asList(configuration));
+        assertEquals(Arrays.asList("org.example:transitive:1.0", "org.example:dynamic:1.2"), notations(modules));
+    }
+
+    @Test
+    public void testModulesAreCollectedOnce() throws IOException {
+        File binary = cacheFile("org.example", "shared", "1.0", "hash1", "shared-1.0.jar");
+
+        Configuration resolved = resolvableConfiguration(
+                Configuration.State.RESOLVED,
+                artifact("org.example", "shared", "1.0", binary));
+        Configuration unresolved = unresolvableConfiguration(moduleDependency("org.example", "shared", "1.0"));
+
+        Collection<DependencySourcesModelBuilder.CachedModule> modules
+                = DependencySourcesModelBuilder.getCachedModules(userHome, Arrays.asList(resolved, unresolved));
+        assertEquals(Arrays.asList("org.example:shared:1.0"), notations(modules));
+    }
+}
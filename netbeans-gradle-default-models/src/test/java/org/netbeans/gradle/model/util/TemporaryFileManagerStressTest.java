@@ -0,0 +1,211 @@
+package org.netbeans.gradle.model.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TemporaryFileManagerStressTest {
+    private static final int THREAD_COUNT = 8;
+    private static final int REQUEST_PER_THREAD = 2000;
+    private static final int CONTENT_COUNT = 16;
+    private static final int CONTENT_SIZE = 16 * 1024;
+    private static final int MAX_HELD_REFS = 4;
+
+    private static byte[][] createContents() {
+        Random random = new Random(6327);
+        byte[][] result = new byte[CONTENT_COUNT][];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new byte[CONTENT_SIZE];
+            random.nextBytes(result[i]);
+        }
+        return result;
+    }
+
+    private static byte[] readAll(File file) throws IOException {
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            byte[] result = new byte[(int)input.length()];
+            input.readFully(result);
+            return result;
+        } finally {
+            input.close();
+        }
+    }
+
+    private static void closeAll(List<TemporaryFileRef> refs) throws IOException {
+        for (TemporaryFileRef ref: refs) {
+            ref.close();
+        }
+        refs.clear();
+    }
+
+    /**
+     * Requests files from multiple threads concurrently, while each thread
+     * holds on to a few references, and verifies that every returned file has
+     * the requested content.
+     *
+     * @return the number of requests completed per second
+     */
+    private static double stress(
+            final FileFactory factory,
+            final ConcurrentMap<File, Boolean> seenFiles) throws Exception {
+        final byte[][] contents = createContents();
+        final CountDownLatch startSignal = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (int i = 0; i < THREAD_COUNT; i++) {
+                final int threadIndex = i;
+                results.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        Random random = new Random(threadIndex);
+                        List<TemporaryFileRef> heldRefs = new LinkedList<TemporaryFileRef>();
+
+                        startSignal.await();
+                        try {
+                            for (int j = 0; j < REQUEST_PER_THREAD; j++) {
+                                byte[] content = contents[random.nextInt(contents.length)];
+                                TemporaryFileRef ref = factory.createFile("stress-test", content);
+                                heldRefs.add(ref);
+
+                                File file = ref.getFile();
+                                seenFiles.put(file, Boolean.TRUE);
+                                if (!Arrays.equals(content, readAll(file))) {
+                                    throw new AssertionError("Unexpected file content: " + file);
+                                }
+
+                                if (heldRefs.size() > MAX_HELD_REFS) {
+                                    heldRefs.remove(0).close();
+                                }
+                            }
+                        } finally {
+                            closeAll(heldRefs);
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            long startTime = System.nanoTime();
+            startSignal.countDown();
+            for (Future<Void> result: results) {
+                result.get();
+            }
+            long elapsedNanos = System.nanoTime() - startTime;
+
+            return (double)THREAD_COUNT * REQUEST_PER_THREAD * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static double stressAndVerify(String name, FileFactory factory) throws Exception {
+        ConcurrentMap<File, Boolean> seenFiles = new ConcurrentHashMap<File, Boolean>();
+        double throughput = stress(factory, seenFiles);
+
+        assertFalse("Files must have been created.", seenFiles.isEmpty());
+        for (File file: seenFiles.keySet()) {
+            assertFalse("File must be deleted after every reference is closed: " + file, file.exists());
+        }
+
+        System.out.println(name + ": " + Math.round(throughput) + " requests / sec"
+                + " (" + seenFiles.size() + " files created)");
+        return throughput;
+    }
+
+    @Test(timeout = 120000)
+    public void testConcurrentRequests() throws Exception {
+        final TemporaryFileManager manager = new TemporaryFileManager();
+        stressAndVerify("TemporaryFileManager", new FileFactory() {
+            public TemporaryFileRef createFile(String prefix, byte[] content) throws IOException {
+                return manager.createFile(prefix, content);
+            }
+        });
+    }
+
+    @Test(timeout = 240000)
+    public void testThroughputAgainstGlobalLock() throws Exception {
+        final GlobalLockTemporaryFileManager oldManager = new GlobalLockTemporaryFileManager();
+        final TemporaryFileManager newManager = new TemporaryFileManager();
+
+        // The throughput depends too much on the file system to be asserted,
+        // so it is only printed for comparison.
+        double oldThroughput = stressAndVerify("GlobalLockTemporaryFileManager", new FileFactory() {
+            public TemporaryFileRef createFile(String prefix, byte[] content) throws IOException {
+                return oldManager.createFile(prefix, content);
+            }
+        });
+        double newThroughput = stressAndVerify("TemporaryFileManager", new FileFactory() {
+            public TemporaryFileRef createFile(String prefix, byte[] content) throws IOException {
+                return newManager.createFile(prefix, content);
+            }
+        });
+
+        System.out.println("Throughput ratio (new / old): " + (newThroughput / oldThroughput));
+    }
+
+    @Test
+    public void testReleasedFileIsRecreated() throws Exception {
+        TemporaryFileManager manager = new TemporaryFileManager();
+        byte[] content = createContents()[0];
+
+        TemporaryFileRef ref1 = manager.createFile("testReleasedFileIsRecreated", content);
+        File file1 = ref1.getFile();
+        ref1.close();
+        ref1.close();
+        assertFalse(file1.exists());
+
+        TemporaryFileRef ref2 = manager.createFile("testReleasedFileIsRecreated", content);
+        try {
+            assertTrue(ref2.getFile().isFile());
+            assertArrayEquals(content, readAll(ref2.getFile()));
+        } finally {
+            ref2.close();
+        }
+        assertFalse(ref2.getFile().exists());
+    }
+
+    @Test
+    public void testCallerMayModifyContentArray() throws Exception {
+        TemporaryFileManager manager = new TemporaryFileManager();
+        byte[] content = createContents()[0];
+        byte[] expected = content.clone();
+
+        TemporaryFileRef ref1 = manager.createFile("testCallerMayModifyContentArray", content);
+        try {
+            Arrays.fill(content, (byte)0);
+
+            TemporaryFileRef ref2 = manager.createFile("testCallerMayModifyContentArray", expected);
+            try {
+                assertEquals(ref1.getFile(), ref2.getFile());
+                assertArrayEquals(expected, readAll(ref2.getFile()));
+            } finally {
+                ref2.close();
+            }
+        } finally {
+            ref1.close();
+        }
+    }
+
+    private interface FileFactory {
+        public TemporaryFileRef createFile(String prefix, byte[] content) throws IOException;
+    }
+}
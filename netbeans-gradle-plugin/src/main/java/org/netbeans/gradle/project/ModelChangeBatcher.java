@@ -0,0 +1,167 @@
+package org.netbeans.gradle.project;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.Timer;
+import org.jtrim.concurrent.Tasks;
+import org.jtrim.utils.ExceptionHelper;
+import org.netbeans.gradle.project.event.PausableChangeListenerManager.PauseRef;
+
+/**
+ * Defines a dispatcher which collects the tasks to be run on the Event
+ * Dispatch Thread after a model change and runs them in a single pass.
+ * <P>
+ * Tasks scheduled within a short window (or while the dispatcher is paused,
+ * e.g. while the models of a whole build are being applied) are run together
+ * and a task scheduled multiple times (according to {@code equals}) is only
+ * run once. So if every project schedules the same {@code Runnable} instance
+ * each time its model changes and global notifications are scheduled through
+ * a shared {@code Runnable}, loading many projects results in a single
+ * notification per project and a single global notification.
+ * <P>
+ * Instances of this class are safe to be used by multiple threads
+ * concurrently.
+ */
+public final class ModelChangeBatcher {
+    private static final Logger LOGGER = Logger.getLogger(ModelChangeBatcher.class.getName());
+
+    private static final int DEFAULT_WINDOW_MS = 50;
+    private static final ModelChangeBatcher DEFAULT = new ModelChangeBatcher(DEFAULT_WINDOW_MS);
+
+    private final ReentrantLock mainLock;
+    private final Timer flushTimer;
+    private Set<Runnable> pendingTasks;
+    private int pauseCount;
+    private boolean flushScheduled;
+
+    public ModelChangeBatcher(int windowMs) {
+        ExceptionHelper.checkArgumentInRange(windowMs, 0, Integer.MAX_VALUE, "windowMs");
+
+        this.mainLock = new ReentrantLock();
+        this.pendingTasks = new LinkedHashSet<>();
+        this.pauseCount = 0;
+        this.flushScheduled = false;
+
+        this.flushTimer = new Timer(windowMs, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                flush();
+            }
+        });
+        this.flushTimer.setRepeats(false);
+    }
+
+    public static ModelChangeBatcher getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Schedules the given task to be run on the Event Dispatch Thread with
+     * the next batch. If an equivalent task is already waiting for the next
+     * batch, this method does nothing.
+     *
+     * @param task the task to be run on the Event Dispatch Thread. This
+     *   argument cannot be {@code null}.
+     */
+    public void scheduleTask(Runnable task) {
+        ExceptionHelper.checkNotNullArgument(task, "task");
+
+        boolean startTimer;
+        mainLock.lock();
+        try {
+            pendingTasks.add(task);
+            startTimer = pauseCount == 0 && !flushScheduled;
+            if (startTimer) {
+                flushScheduled = true;
+            }
+        } finally {
+            mainLock.unlock();
+        }
+
+        if (startTimer) {
+            flushTimer.restart();
+        }
+    }
+
+    /**
+     * Prevents the scheduled tasks from being run until the returned
+     * reference is unpaused. The dispatcher might be paused multiple times,
+     * in which case the tasks are only run after every pause has been
+     * undone.
+     *
+     * @return the reference which must be used to undo this pause. This
+     *   method never returns {@code null}.
+     */
+    public PauseRef pause() {
+        mainLock.lock();
+        try {
+            pauseCount++;
+        } finally {
+            mainLock.unlock();
+        }
+
+        final Runnable unpauseTask = Tasks.runOnceTask(new Runnable() {
+            @Override
+            public void run() {
+                unpause();
+            }
+        }, false);
+
+        return new PauseRef() {
+            @Override
+            public void unpause() {
+                unpauseTask.run();
+            }
+        };
+    }
+
+    private void unpause() {
+        boolean startTimer;
+        mainLock.lock();
+        try {
+            pauseCount--;
+            startTimer = pauseCount == 0 && !flushScheduled && !pendingTasks.isEmpty();
+            if (startTimer) {
+                flushScheduled = true;
+            }
+        } finally {
+            mainLock.unlock();
+        }
+
+        if (startTimer) {
+            flushTimer.restart();
+        }
+    }
+
+    private void flush() {
+        List<Runnable> tasks;
+        mainLock.lock();
+        try {
+            flushScheduled = false;
+            if (pauseCount > 0) {
+                // The tasks will be run after the last unpause.
+                return;
+            }
+
+            tasks = new ArrayList<>(pendingTasks);
+            pendingTasks = new LinkedHashSet<>();
+        } finally {
+            mainLock.unlock();
+        }
+
+        for (Runnable task: tasks) {
+            try {
+                task.run();
+            } catch (Throwable ex) {
+                LOGGER.log(Level.SEVERE, "Unexpected exception while processing a model change.", ex);
+            }
+        }
+    }
+}
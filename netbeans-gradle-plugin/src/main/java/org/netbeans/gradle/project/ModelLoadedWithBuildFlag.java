@@ -0,0 +1,38 @@
+package org.netbeans.gradle.project;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Remembers if the model of a project was loaded along with the other
+ * projects of its build, so that opening the project does not need to load
+ * it again. The model loaded with the build is only used for the next
+ * opening of the project: Loading the model by other means or closing the
+ * project clears this flag.
+ * <P>
+ * The methods of this class are safe to be called from multiple threads
+ * concurrently.
+ */
+final class ModelLoadedWithBuildFlag {
+    private final AtomicBoolean loadedWithBuild;
+
+    public ModelLoadedWithBuildFlag() {
+        this.loadedWithBuild = new AtomicBoolean(false);
+    }
+
+    public void setLoadedWithBuild() {
+        loadedWithBuild.set(true);
+    }
+
+    public void clear() {
+        loadedWithBuild.set(false);
+    }
+
+    /**
+     * Returns {@code true} if the project has to load its model when it is
+     * being opened. This method clears the flag, so the model loaded with the
+     * build is not used for a later opening of the project.
+     */
+    public boolean needsLoadOnOpen() {
+        return !loadedWithBuild.compareAndSet(true, false);
+    }
+}
@@ -29,15 +29,18 @@ import org.jtrim.utils.ExceptionHelper;
 import org.netbeans.api.project.Project;
 import org.netbeans.gradle.model.util.CollectionUtils;
 import org.netbeans.gradle.project.api.entry.GradleProjectIDs;
+import org.netbeans.gradle.project.api.property.GradleProperty;
 import org.netbeans.gradle.project.api.task.BuiltInGradleCommandQuery;
 import org.netbeans.gradle.project.api.task.GradleTaskVariableQuery;
 import org.netbeans.gradle.project.api.task.TaskVariableMap;
+import org.netbeans.gradle.project.event.AspectChangeListenerManager;
 import org.netbeans.gradle.project.event.ChangeListenerManager;
 import org.netbeans.gradle.project.event.GenericChangeListenerManager;
 import org.netbeans.gradle.project.model.GradleModelLoader;
 import org.netbeans.gradle.project.model.ModelRefreshListener;
 import org.netbeans.gradle.project.model.ModelRetrievedListener;
 import org.netbeans.gradle.project.model.NbGradleModel;
+import org.netbeans.gradle.project.model.NbGradleModelDiff;
 import org.netbeans.gradle.project.model.issue.ModelLoadIssue;
 import org.netbeans.gradle.project.model.issue.ModelLoadIssueReporter;
 import org.netbeans.gradle.project.properties.ActiveSettingsQueryEx;
@@ -68,7 +71,9 @@ import org.netbeans.gradle.project.tasks.GradleDaemonManager;
 import org.netbeans.gradle.project.tasks.MergedBuiltInGradleCommandQuery;
 import org.netbeans.gradle.project.tasks.StandardTaskVariable;
 import org.netbeans.gradle.project.util.CloseableActionContainer;
+import org.netbeans.gradle.project.util.LazyServiceLookup;
 import org.netbeans.gradle.project.util.NbConsumer;
+import org.netbeans.gradle.project.util.NbSupplier;
 import org.netbeans.gradle.project.view.GradleActionProvider;
 import org.netbeans.gradle.project.view.GradleProjectLogicalViewProvider;
 import org.netbeans.spi.project.LookupProvider;
@@ -96,7 +101,10 @@ public final class NbGradleProject implements Project {
 
     private final String name;
     private final ChangeListenerManager modelChangeListeners;
+    private final AspectChangeListenerManager<NbGradleModelDiff.Aspect> aspectChangeListeners;
+    private final AtomicReference<NbGradleModelDiff> pendingModelDiffRef;
     private final AtomicBoolean hasModelBeenLoaded;
+    private final ModelLoadedWithBuildFlag modelLoadedWithBuild;
     private final AtomicReference<NbGradleModel> currentModelRef;
     private final PropertySource<NbGradleModel> currentModel;
     private final PropertySource<String> displayName;
@@ -129,8 +137,11 @@ public final class NbGradleProject implements Project {
         this.combinedExtensionLookup = new DynamicLookup();
 
         this.hasModelBeenLoaded = new AtomicBoolean(false);
+        this.modelLoadedWithBuild = new ModelLoadedWithBuildFlag();
         this.loadErrorRef = new AtomicReference<>(null);
         this.modelChangeListeners = GenericChangeListenerManager.getSwingNotifier();
+        this.aspectChangeListeners = new AspectChangeListenerManager<>(NbGradleModelDiff.Aspect.class);
+        this.pendingModelDiffRef = new AtomicReference<>(NbGradleModelDiff.noChange());
         this.currentModelRef = new AtomicReference<>(
                 GradleModelLoader.createEmptyModel(projectDirAsFile));
 
@@ -207,6 +218,7 @@ public final class NbGradleProject implements Project {
     public static NbGradleProject createProject(FileObject projectDir, ProjectState state) throws IOException {
         NbGradleProject project = new NbGradleProject(projectDir);
         project.initServiceObjects(state);
+        ProjectServiceStatistics.projectCreated();
         project.setExtensions(ExtensionLoader.loadExtensions(project));
 
         LoadedProjectManager.getDefault().addProject(project);
@@ -335,7 +347,7 @@ public final class NbGradleProject implements Project {
     }
 
     private NbGradleSingleProjectConfigProvider getConfigProvider() {
-        return getServiceObjects().configProvider;
+        return getServiceObjects().configProvider.get();
     }
 
     public NbGradleConfiguration getCurrentProfile() {
@@ -380,13 +392,30 @@ public final class NbGradleProject implements Project {
     }
 
     public ProjectInfoManager getProjectInfoManager() {
-        return getServiceObjects().projectInfoManager;
+        return getServiceObjects().projectInfoManager.get();
     }
 
     public PropertySource<NbGradleModel> currentModel() {
         return currentModel;
     }
 
+    /**
+     * Registers a listener to be notified on the Event Dispatch Thread after
+     * a model change affecting any of the given aspects of the model.
+     * Reloads leaving these aspects unchanged do not notify the listener.
+     *
+     * @param aspects the aspects of the model the listener is interested in.
+     *   This argument cannot be {@code null} and cannot contain {@code null}
+     *   elements.
+     * @param listener the listener to be notified. This argument cannot be
+     *   {@code null}.
+     * @return the {@code ListenerRef} which can be used to unregister the
+     *   listener. This method never returns {@code null}.
+     */
+    public ListenerRef addModelChangeListener(Collection<NbGradleModelDiff.Aspect> aspects, Runnable listener) {
+        return aspectChangeListeners.registerListener(aspects, listener);
+    }
+
     public void tryUpdateFromCache(NbGradleModel baseModel) {
         // In this case we don't yet requested a model, so there is little
         // reason to do anything now: Be lazy!
@@ -455,14 +484,12 @@ public final class NbGradleProject implements Project {
     private void onModelChange() {
         assert SwingUtilities.isEventDispatchThread();
 
-        try {
-            modelChangeListeners.fireEventually();
-            for (ProjectModelChangeListener listener: getLookup().lookupAll(ProjectModelChangeListener.class)) {
-                listener.onModelChanged();
-            }
-        } finally {
-            GradleCacheByBinaryLookup.notifyCacheChange();
-            GradleCacheBinaryForSourceQuery.notifyCacheChange();
+        NbGradleModelDiff diff = pendingModelDiffRef.getAndSet(NbGradleModelDiff.noChange());
+
+        modelChangeListeners.fireEventually();
+        aspectChangeListeners.fireEventually(diff.getChangedAspects());
+        for (ProjectModelChangeListener listener: getLookup().lookupAll(ProjectModelChangeListener.class)) {
+            listener.onModelChanged();
         }
     }
 
@@ -477,11 +504,12 @@ public final class NbGradleProject implements Project {
             }
         }
 
+        modelLoadedWithBuild.clear();
         GradleModelLoader.fetchModel(NbGradleProject.this, mayUseCache, modelLoadListener);
     }
 
     public NbGradleCommonProperties getCommonProperties() {
-        return getServiceObjects().commonProperties;
+        return getServiceObjects().commonProperties.get();
     }
 
     public NbGradleCommonProperties loadCommonPropertiesForProfile(ProfileKey profileKey) {
@@ -607,6 +635,35 @@ public final class NbGradleProject implements Project {
         }
     }
 
+    /**
+     * Sets the model of this project loaded along with the models of the
+     * other projects of its build (see {@link GradleModelLoader#fetchModelsOfBuild GradleModelLoader.fetchModelsOfBuild}).
+     * The model set by this method is considered to be up-to-date, so the
+     * project will not load its model when it is opened. Only an explicit
+     * reload (or a change of the settings file) will load the model again.
+     * <P>
+     * This method does nothing if the given model does not belong to this
+     * project. The model is not applied again if it is already the current
+     * model of this project (because the project was already loaded when the
+     * models of the build were introduced).
+     *
+     * @param model the model of this project. This argument cannot be
+     *   {@code null}.
+     */
+    public void setModelLoadedWithBuild(NbGradleModel model) {
+        ExceptionHelper.checkNotNullArgument(model, "model");
+
+        if (!getProjectDirectoryAsFile().equals(model.getProjectDir())) {
+            return;
+        }
+
+        hasModelBeenLoaded.set(true);
+        modelLoadedWithBuild.setLoadedWithBuild();
+        if (currentModelRef.get() != model) {
+            modelLoadListener.onComplete(model, null);
+        }
+    }
+
     private class OpenHook extends ProjectOpenedHook {
         private final CloseableActionContainer closeableActions;
         private final AtomicBoolean initialized;
@@ -633,23 +690,34 @@ public final class NbGradleProject implements Project {
             ensureInitialized();
 
             closeableActions.open();
-            reloadProject(true);
+            if (modelLoadedWithBuild.needsLoadOnOpen()) {
+                reloadProject(true);
+            }
         }
 
         @Override
         protected void projectClosed() {
+            modelLoadedWithBuild.clear();
             closeableActions.close();
         }
     }
 
     private class ModelRetrievedListenerImpl implements ModelRetrievedListener {
-        private void fireModelChangeEvent() {
-            SwingUtilities.invokeLater(new Runnable() {
+        // The same task is scheduled for each change, so that changes
+        // arriving in the same batch are only processed once.
+        private final Runnable modelChangeTask;
+
+        public ModelRetrievedListenerImpl() {
+            this.modelChangeTask = new Runnable() {
                 @Override
                 public void run() {
                     onModelChange();
                 }
-            });
+            };
+        }
+
+        private void fireModelChangeEvent() {
+            ModelChangeBatcher.getDefault().scheduleTask(modelChangeTask);
         }
 
         private boolean safelyLoadExtensions(NbGradleExtensionRef extension, Object model) {
@@ -731,11 +799,22 @@ public final class NbGradleProject implements Project {
             }
         }
 
+        private void addPendingDiff(NbGradleModelDiff diff) {
+            NbGradleModelDiff prevDiff;
+            do {
+                prevDiff = pendingModelDiffRef.get();
+            } while (!pendingModelDiffRef.compareAndSet(prevDiff, prevDiff.merge(diff)));
+        }
+
         private void applyModelLoadResults(NbGradleModel model, Throwable error) {
             boolean hasChanged = false;
             if (model != null) {
                 NbGradleModel prevModel = currentModelRef.getAndSet(model);
-                hasChanged = prevModel != model;
+                NbGradleModelDiff diff = NbGradleModelDiff.compare(prevModel, model);
+                // An equivalent model (e.g., the same model read again from
+                // the cache) does not need to be passed to the extensions.
+                hasChanged = !diff.isEmpty();
+                addPendingDiff(diff);
             }
 
             if (error != null) {
@@ -753,6 +832,11 @@ public final class NbGradleProject implements Project {
             if (hasChanged) {
                 updateExtensionActivation(model);
             }
+
+            // Loading the model might have downloaded artifacts into the cache
+            // of Gradle even if the model itself has not changed.
+            GradleCacheByBinaryLookup.notifyCacheChange();
+            GradleCacheBinaryForSourceQuery.notifyCacheChange();
         }
 
         @Override
@@ -766,57 +850,162 @@ public final class NbGradleProject implements Project {
     }
 
     private static final class ServiceObjects {
-        public final GradleAuxiliaryConfiguration auxConfig;
-        public final NbGradleSingleProjectConfigProvider configProvider;
-        public final NbGradleCommonProperties commonProperties;
-        public final ProjectState state;
-        public final GradleProjectInformation projectInformation;
-        public final GradleProjectLogicalViewProvider logicalViewProvider;
-        public final GradleActionProvider actionProvider;
-        public final GradleSharabilityQuery sharabilityQuery;
-        public final GradleSourceEncodingQuery sourceEncoding;
-        public final GradleCustomizer customizer;
-        public final GradleAuxiliaryProperties auxProperties;
-        public final GradleTemplateAttrProvider templateAttrProvider;
-        public final DefaultGradleCommandExecutor commandExecutor;
-        public final ProjectInfoManager projectInfoManager;
+        public final NbSupplier<NbGradleSingleProjectConfigProvider> configProvider;
+        public final NbSupplier<NbGradleCommonProperties> commonProperties;
+        public final NbSupplier<ProjectInfoManager> projectInfoManager;
 
         public final Lookup services;
 
-        public ServiceObjects(NbGradleProject project, ProjectState state) {
-            List<Object> serviceObjects = new LinkedList<>();
-            serviceObjects.add(project);
-
-            this.auxConfig = add(new GradleAuxiliaryConfiguration(project), serviceObjects);
-            this.configProvider = add(NbGradleSingleProjectConfigProvider.create(project), serviceObjects);
-            this.state = add(state, serviceObjects);
-            this.projectInformation = add(new GradleProjectInformation(project), serviceObjects);
-            this.logicalViewProvider = add(new GradleProjectLogicalViewProvider(project), serviceObjects);
-            this.actionProvider = add(new GradleActionProvider(project), serviceObjects);
-            this.sharabilityQuery = add(new GradleSharabilityQuery(project), serviceObjects);
-            this.sourceEncoding = add(new GradleSourceEncodingQuery(project), serviceObjects);
-            this.customizer = add(new GradleCustomizer(project), serviceObjects);
-            this.auxProperties = add(new GradleAuxiliaryProperties(auxConfig), serviceObjects);
-            this.templateAttrProvider = add(new GradleTemplateAttrProvider(project), serviceObjects);
-            this.commandExecutor = add(new DefaultGradleCommandExecutor(project), serviceObjects);
-            this.projectInfoManager = add(new ProjectInfoManager(), serviceObjects);
-
-            add(project.new OpenHook(), serviceObjects);
+        public ServiceObjects(final NbGradleProject project, ProjectState state) {
+            // The services are only created when they are first requested,
+            // because most projects are only probed (e.g., by FileOwnerQuery)
+            // and never opened.
+            LazyServiceLookup serviceObjects = new LazyServiceLookup(new LazyServiceLookup.MaterializationListener() {
+                @Override
+                public void onMaterialized(int materializedCount, int lazyServiceCount) {
+                    ProjectServiceStatistics.serviceMaterialized(project, materializedCount, lazyServiceCount);
+                }
+            });
+
+            serviceObjects.addInstance(project);
+            serviceObjects.addInstance(state);
+            serviceObjects.addInstance(project.new OpenHook());
+
+            final NbSupplier<GradleAuxiliaryConfiguration> auxConfig = serviceObjects.addLazy(
+                    GradleAuxiliaryConfiguration.class,
+                    new NbSupplier<GradleAuxiliaryConfiguration>() {
+                        @Override
+                        public GradleAuxiliaryConfiguration get() {
+                            return new GradleAuxiliaryConfiguration(project);
+                        }
+                    });
+            this.configProvider = serviceObjects.addLazy(
+                    NbGradleSingleProjectConfigProvider.class,
+                    new NbSupplier<NbGradleSingleProjectConfigProvider>() {
+                        @Override
+                        public NbGradleSingleProjectConfigProvider get() {
+                            return NbGradleSingleProjectConfigProvider.create(project);
+                        }
+                    });
+            serviceObjects.addLazy(GradleProjectInformation.class, new NbSupplier<GradleProjectInformation>() {
+                @Override
+                public GradleProjectInformation get() {
+                    return new GradleProjectInformation(project);
+                }
+            });
+            serviceObjects.addLazy(GradleProjectLogicalViewProvider.class, new NbSupplier<GradleProjectLogicalViewProvider>() {
+                @Override
+                public GradleProjectLogicalViewProvider get() {
+                    return new GradleProjectLogicalViewProvider(project);
+                }
+            });
+            serviceObjects.addLazy(GradleActionProvider.class, new NbSupplier<GradleActionProvider>() {
+                @Override
+                public GradleActionProvider get() {
+                    return new GradleActionProvider(project);
+                }
+            });
+            serviceObjects.addLazy(GradleSharabilityQuery.class, new NbSupplier<GradleSharabilityQuery>() {
+                @Override
+                public GradleSharabilityQuery get() {
+                    return new GradleSharabilityQuery(project);
+                }
+            });
+            serviceObjects.addLazy(GradleSourceEncodingQuery.class, new NbSupplier<GradleSourceEncodingQuery>() {
+                @Override
+                public GradleSourceEncodingQuery get() {
+                    return new GradleSourceEncodingQuery(project);
+                }
+            });
+            serviceObjects.addLazy(GradleCustomizer.class, new NbSupplier<GradleCustomizer>() {
+                @Override
+                public GradleCustomizer get() {
+                    return new GradleCustomizer(project);
+                }
+            });
+            serviceObjects.addLazy(GradleAuxiliaryProperties.class, new NbSupplier<GradleAuxiliaryProperties>() {
+                @Override
+                public GradleAuxiliaryProperties get() {
+                    return new GradleAuxiliaryProperties(auxConfig.get());
+                }
+            });
+            serviceObjects.addLazy(GradleTemplateAttrProvider.class, new NbSupplier<GradleTemplateAttrProvider>() {
+                @Override
+                public GradleTemplateAttrProvider get() {
+                    return new GradleTemplateAttrProvider(project);
+                }
+            });
+            serviceObjects.addLazy(DefaultGradleCommandExecutor.class, new NbSupplier<DefaultGradleCommandExecutor>() {
+                @Override
+                public DefaultGradleCommandExecutor get() {
+                    return new DefaultGradleCommandExecutor(project);
+                }
+            });
+            this.projectInfoManager = serviceObjects.addLazy(ProjectInfoManager.class, new NbSupplier<ProjectInfoManager>() {
+                @Override
+                public ProjectInfoManager get() {
+                    return new ProjectInfoManager();
+                }
+            });
 
             // NbGradleCommonProperties is not needed on the lookup
-            this.commonProperties = new NbGradleCommonProperties(project, configProvider.getActiveSettingsQuery());
+            this.commonProperties = new LazyCommonProperties(project, configProvider);
 
-            add(ProjectPropertiesApi.buildPlatform(commonProperties.targetPlatform().getActiveSource()), serviceObjects);
-            add(ProjectPropertiesApi.scriptPlatform(commonProperties.scriptPlatform().getActiveSource()), serviceObjects);
-            add(ProjectPropertiesApi.sourceEncoding(commonProperties.sourceEncoding().getActiveSource()), serviceObjects);
-            add(ProjectPropertiesApi.sourceLevel(commonProperties.sourceLevel().getActiveSource()), serviceObjects);
+            serviceObjects.addLazy(GradleProperty.BuildPlatform.class, new NbSupplier<GradleProperty.BuildPlatform>() {
+                @Override
+                public GradleProperty.BuildPlatform get() {
+                    return ProjectPropertiesApi.buildPlatform(commonProperties.get().targetPlatform().getActiveSource());
+                }
+            });
+            serviceObjects.addLazy(GradleProperty.ScriptPlatform.class, new NbSupplier<GradleProperty.ScriptPlatform>() {
+                @Override
+                public GradleProperty.ScriptPlatform get() {
+                    return ProjectPropertiesApi.scriptPlatform(commonProperties.get().scriptPlatform().getActiveSource());
+                }
+            });
+            serviceObjects.addLazy(GradleProperty.SourceEncoding.class, new NbSupplier<GradleProperty.SourceEncoding>() {
+                @Override
+                public GradleProperty.SourceEncoding get() {
+                    return ProjectPropertiesApi.sourceEncoding(commonProperties.get().sourceEncoding().getActiveSource());
+                }
+            });
+            serviceObjects.addLazy(GradleProperty.SourceLevel.class, new NbSupplier<GradleProperty.SourceLevel>() {
+                @Override
+                public GradleProperty.SourceLevel get() {
+                    return ProjectPropertiesApi.sourceLevel(commonProperties.get().sourceLevel().getActiveSource());
+                }
+            });
 
-            this.services = Lookups.fixed(serviceObjects.toArray());
+            this.services = serviceObjects.create();
         }
+    }
 
-        private static <T> T add(T obj, Collection<? super T> serviceContainer) {
-            serviceContainer.add(obj);
-            return obj;
+    private static final class LazyCommonProperties implements NbSupplier<NbGradleCommonProperties> {
+        private final NbGradleProject project;
+        private final NbSupplier<NbGradleSingleProjectConfigProvider> configProvider;
+        private volatile NbGradleCommonProperties commonProperties;
+
+        public LazyCommonProperties(
+                NbGradleProject project,
+                NbSupplier<NbGradleSingleProjectConfigProvider> configProvider) {
+            this.project = project;
+            this.configProvider = configProvider;
+            this.commonProperties = null;
+        }
+
+        @Override
+        public NbGradleCommonProperties get() {
+            NbGradleCommonProperties result = commonProperties;
+            if (result == null) {
+                synchronized (this) {
+                    result = commonProperties;
+                    if (result == null) {
+                        result = new NbGradleCommonProperties(project, configProvider.get().getActiveSettingsQuery());
+                        commonProperties = result;
+                    }
+                }
+            }
+            return result;
         }
     }
 }
@@ -7,6 +7,7 @@ import java.nio.file.Path;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.jtrim.utils.ExceptionHelper;
@@ -14,6 +15,7 @@ import org.netbeans.api.project.Project;
 import org.netbeans.api.project.ProjectManager;
 import org.netbeans.gradle.project.properties.SettingsFiles;
 import org.netbeans.gradle.project.util.NbFileUtils;
+import org.netbeans.gradle.project.util.NbFunction;
 import org.netbeans.spi.project.ProjectFactory;
 import org.netbeans.spi.project.ProjectFactory2;
 import org.netbeans.spi.project.ProjectState;
@@ -27,7 +29,20 @@ public class NbGradleProjectFactory implements ProjectFactory2 {
     private static final ConcurrentMap<Path, RefCounter> SAFE_TO_OPEN_PROJECTS
             = new ConcurrentHashMap<>();
 
-    private static final String TEMP_DIR = System.getProperty("java.io.tmpdir");
+    private static final File TEMP_DIR = getTempDir();
+    private static final AtomicReference<FileObject> TEMP_DIR_OBJ_REF = new AtomicReference<>(null);
+
+    private static final ProjectDirVerdictCache VERDICT_CACHE = new ProjectDirVerdictCache(new NbFunction<FileObject, Boolean>() {
+        @Override
+        public Boolean apply(FileObject projectDir) {
+            return isProjectDirUncached(projectDir);
+        }
+    });
+
+    private static File getTempDir() {
+        String tempDir = System.getProperty("java.io.tmpdir");
+        return tempDir != null ? FileUtil.normalizeFile(new File(tempDir)) : null;
+    }
 
     public static Project loadSafeProject(Path projectDir) throws IOException {
         return loadSafeProject(projectDir.toFile());
@@ -138,6 +153,10 @@ public class NbGradleProjectFactory implements ProjectFactory2 {
     }
 
     public static boolean isSafeToOpen(FileObject projectDir) {
+        if (SAFE_TO_OPEN_PROJECTS.isEmpty()) {
+            return false;
+        }
+
         Path projectDirPath = NbFileUtils.asPath(FileUtil.toFile(projectDir));
         if (projectDirPath == null) {
             return false;
@@ -172,18 +191,37 @@ public class NbGradleProjectFactory implements ProjectFactory2 {
             return true;
         }
 
+        return VERDICT_CACHE.isProject(projectDirectory);
+    }
+
+    private static FileObject tryGetTempDirObj() {
+        if (TEMP_DIR == null) {
+            return null;
+        }
+
+        FileObject result = TEMP_DIR_OBJ_REF.get();
+        if (result == null || !result.isValid()) {
+            result = FileUtil.toFileObject(TEMP_DIR);
+            TEMP_DIR_OBJ_REF.set(result);
+        }
+        return result;
+    }
+
+    private static boolean isInTempDir(FileObject dir) {
+        FileObject tempDirObj = tryGetTempDirObj();
+        if (tempDirObj == null) {
+            return false;
+        }
+        return tempDirObj.equals(dir) || FileUtil.isParentOf(tempDirObj, dir);
+    }
+
+    static boolean isProjectDirUncached(FileObject projectDirectory) {
         // We will not load projects from the temporary directory simply
         // because NetBeans has a habit to put temporary gradle files to
         // them and then tries to load it which will fail because NetBeans will
         // delete them soon.
-        if (TEMP_DIR != null) {
-            File tempDir = FileUtil.normalizeFile(new File(TEMP_DIR));
-            FileObject tempDirObj = FileUtil.toFileObject(tempDir);
-            if (tempDirObj != null) {
-                if (FileUtil.getRelativePath(tempDirObj, projectDirectory) != null) {
-                    return false;
-                }
-            }
+        if (isInTempDir(projectDirectory)) {
+            return false;
         }
 
         if (hasBuildFile(projectDirectory)) {
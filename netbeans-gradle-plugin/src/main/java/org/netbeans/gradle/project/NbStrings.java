@@ -8,6 +8,7 @@ import org.gradle.util.GradleVersion;
 import org.netbeans.gradle.project.model.NbGradleProjectTree;
 import org.netbeans.gradle.project.properties.ModelLoadingStrategy;
 import org.netbeans.gradle.project.properties.global.JavaSourcesDisplayMode;
+import org.netbeans.gradle.project.tasks.TaskExecutionPhase;
 import org.openide.util.NbBundle;
 
 public final class NbStrings {
@@ -195,6 +196,10 @@ public final class NbStrings {
         return NbBundle.getMessage(NbStrings.class, "NbStrings.OpenRootProjectsCaption");
     }
 
+    public static String getOpenRootProjectWithSubprojectsCaption() {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.OpenRootProjectWithSubprojectsCaption");
+    }
+
     public static String getOpenSubProjectCaption(Collection<? extends NbGradleProjectTree> projects) {
         int numberOfProjects = projects.size();
         if (numberOfProjects == 1) {
@@ -388,6 +393,26 @@ public final class NbStrings {
         return NbBundle.getMessage(NbStrings.class, "NbStrings.DownloadSourcesProgressCaption");
     }
 
+    public static String getShowMoreDependencies(int remainingCount) {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.ShowMoreDependencies", remainingCount);
+    }
+
+    public static String getFilterDependencies() {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.FilterDependencies");
+    }
+
+    public static String getFilterDependenciesPrompt() {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.FilterDependenciesPrompt");
+    }
+
+    public static String getClearDependencyFilter() {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.ClearDependencyFilter");
+    }
+
+    public static String getFilteredDependencyGroup(String groupName, String filter) {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.FilteredDependencyGroup", groupName, filter);
+    }
+
     public static String getDownloadSources() {
         return NbBundle.getMessage(NbStrings.class, "NbStrings.DownloadSources");
     }
@@ -396,6 +421,10 @@ public final class NbStrings {
         return NbBundle.getMessage(NbStrings.class, "NbStrings.DownloadSourcesFailure");
     }
 
+    public static String getDownloadedSourcesCount(int count) {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.DownloadedSourcesCount", count);
+    }
+
     public static String getWebPages() {
         return NbBundle.getMessage(NbStrings.class, "NbStrings.WebAppDir");
     }
@@ -613,6 +642,54 @@ public final class NbStrings {
         return NbBundle.getMessage(NbStrings.class, "NbStrings.AddNewInitScriptCaption");
     }
 
+    public static String getShowTaskHistoryCaption() {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.ShowTaskHistoryCaption");
+    }
+
+    public static String getTaskHistoryDlgTitle() {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.TaskHistoryDlgTitle");
+    }
+
+    public static String getRefreshTaskHistoryCaption() {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.RefreshTaskHistoryCaption");
+    }
+
+    public static String getClearTaskHistoryCaption() {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.ClearTaskHistoryCaption");
+    }
+
+    public static String getExportTaskHistoryCaption() {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.ExportTaskHistoryCaption");
+    }
+
+    public static String getExportTaskHistoryFailure(File file, String message) {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.ExportTaskHistoryFailure", file, message);
+    }
+
+    public static String getTaskHistoryStartColumn() {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.TaskHistoryStartColumn");
+    }
+
+    public static String getTaskHistoryProjectColumn() {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.TaskHistoryProjectColumn");
+    }
+
+    public static String getTaskHistoryCommandColumn() {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.TaskHistoryCommandColumn");
+    }
+
+    public static String getTaskHistoryOutcomeColumn() {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.TaskHistoryOutcomeColumn");
+    }
+
+    public static String getTaskHistoryPhaseColumn(TaskExecutionPhase phase) {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.TaskHistoryPhaseColumn." + phase.name());
+    }
+
+    public static String getTaskHistoryTotalColumn() {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.TaskHistoryTotalColumn");
+    }
+
     private NbStrings() {
         throw new AssertionError();
     }
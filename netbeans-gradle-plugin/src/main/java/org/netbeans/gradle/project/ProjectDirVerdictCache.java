@@ -0,0 +1,217 @@
+package org.netbeans.gradle.project;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.jtrim.utils.ExceptionHelper;
+import org.netbeans.gradle.project.properties.SettingsFiles;
+import org.netbeans.gradle.project.util.NbFunction;
+import org.openide.filesystems.FileAttributeEvent;
+import org.openide.filesystems.FileChangeListener;
+import org.openide.filesystems.FileEvent;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileRenameEvent;
+
+/**
+ * Defines a cache of the decisions whether a directory is a Gradle project
+ * directory or not.
+ * <P>
+ * The cache only listens for the changes of the cached directories (and the
+ * parent directories of cached {@code buildSrc} directories, since their
+ * verdict depends on the scripts of their parent): Creating, deleting or
+ * renaming a Gradle script removes the verdict of the directory containing the
+ * script and of its {@code buildSrc} directory. Renaming or deleting a
+ * directory removes the verdict of that directory. Modifying the content of a
+ * file does not invalidate anything because the verdict only depends on the
+ * name of the files.
+ * <P>
+ * The directories are referenced weakly, so the cache does not prevent the
+ * file system from releasing the {@code FileObject} of a directory.
+ * <P>
+ * Instances of this class are safe to be used by multiple threads
+ * concurrently.
+ */
+final class ProjectDirVerdictCache {
+    private final NbFunction<? super FileObject, Boolean> verdictProvider;
+
+    private final ReentrantLock mainLock;
+    private final Map<FileObject, Boolean> verdicts;
+    private final Map<FileObject, Boolean> listenedDirs;
+    // Incremented on each invalidation, so that verdicts computed while
+    // a build script was being changed will not be cached.
+    private long invalidationCount;
+
+    private final FileChangeListener invalidator;
+
+    private final AtomicLong hitCount;
+    private final AtomicLong missCount;
+
+    public ProjectDirVerdictCache(NbFunction<? super FileObject, Boolean> verdictProvider) {
+        ExceptionHelper.checkNotNullArgument(verdictProvider, "verdictProvider");
+
+        this.verdictProvider = verdictProvider;
+        this.mainLock = new ReentrantLock();
+        this.verdicts = new WeakHashMap<>();
+        this.listenedDirs = new WeakHashMap<>();
+        this.invalidationCount = 0;
+        this.invalidator = new InvalidatingListener();
+        this.hitCount = new AtomicLong(0);
+        this.missCount = new AtomicLong(0);
+    }
+
+    public boolean isProject(FileObject projectDir) {
+        ExceptionHelper.checkNotNullArgument(projectDir, "projectDir");
+
+        if (!projectDir.isValid()) {
+            return verdictProvider.apply(projectDir);
+        }
+
+        long invalidationCountBefore;
+        mainLock.lock();
+        try {
+            Boolean cached = verdicts.get(projectDir);
+            if (cached != null) {
+                hitCount.incrementAndGet();
+                return cached;
+            }
+            invalidationCountBefore = invalidationCount;
+        } finally {
+            mainLock.unlock();
+        }
+
+        missCount.incrementAndGet();
+
+        // We have to listen before determining the verdict, otherwise
+        // we might miss a change.
+        listenToDir(projectDir);
+        if (isBuildSrc(projectDir)) {
+            FileObject parent = projectDir.getParent();
+            if (parent != null) {
+                listenToDir(parent);
+            }
+        }
+
+        boolean result = verdictProvider.apply(projectDir);
+
+        mainLock.lock();
+        try {
+            if (invalidationCount == invalidationCountBefore) {
+                verdicts.put(projectDir, result);
+            }
+        } finally {
+            mainLock.unlock();
+        }
+
+        return result;
+    }
+
+    private void listenToDir(FileObject dir) {
+        mainLock.lock();
+        try {
+            if (listenedDirs.containsKey(dir)) {
+                return;
+            }
+            listenedDirs.put(dir, Boolean.TRUE);
+        } finally {
+            mainLock.unlock();
+        }
+
+        // The listener is notified about the changes of the direct children
+        // of the directory and the changes of the directory itself.
+        dir.addFileChangeListener(invalidator);
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public void clear() {
+        mainLock.lock();
+        try {
+            invalidationCount++;
+            verdicts.clear();
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    private void remove(FileObject dir) {
+        mainLock.lock();
+        try {
+            invalidationCount++;
+            verdicts.remove(dir);
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    int getCachedCount() {
+        mainLock.lock();
+        try {
+            return verdicts.size();
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    private static boolean isBuildSrc(FileObject dir) {
+        return dir.getNameExt().equalsIgnoreCase(SettingsFiles.BUILD_SRC_NAME);
+    }
+
+    private static boolean isGradleScriptExt(String ext) {
+        return SettingsFiles.DEFAULT_GRADLE_EXTENSION.equalsIgnoreCase("." + ext);
+    }
+
+    private final class InvalidatingListener implements FileChangeListener {
+        private void structureChanged(FileObject file, boolean wasGradleScript) {
+            if (wasGradleScript || (file.isData() && isGradleScriptExt(file.getExt()))) {
+                FileObject dir = file.getParent();
+                if (dir == null) {
+                    return;
+                }
+
+                remove(dir);
+                FileObject buildSrc = dir.getFileObject(SettingsFiles.BUILD_SRC_NAME);
+                if (buildSrc != null) {
+                    remove(buildSrc);
+                }
+            }
+            else if (file.isFolder()) {
+                remove(file);
+            }
+        }
+
+        @Override
+        public void fileFolderCreated(FileEvent fe) {
+            // A new folder has a new FileObject, so it cannot be cached.
+        }
+
+        @Override
+        public void fileDataCreated(FileEvent fe) {
+            structureChanged(fe.getFile(), false);
+        }
+
+        @Override
+        public void fileChanged(FileEvent fe) {
+        }
+
+        @Override
+        public void fileDeleted(FileEvent fe) {
+            structureChanged(fe.getFile(), false);
+        }
+
+        @Override
+        public void fileRenamed(FileRenameEvent fe) {
+            structureChanged(fe.getFile(), isGradleScriptExt(fe.getExt()));
+        }
+
+        @Override
+        public void fileAttributeChanged(FileAttributeEvent fe) {
+        }
+    }
+}
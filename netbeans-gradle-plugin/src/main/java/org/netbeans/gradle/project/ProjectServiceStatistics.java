@@ -0,0 +1,76 @@
+package org.netbeans.gradle.project;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Counts how many of the created projects have had their service objects
+ * (the content of their lookup) instantiated. Since the service objects are
+ * only created when they are first requested, projects which were only probed
+ * (e.g., by {@code FileOwnerQuery}) or listed as subprojects never instantiate
+ * most of them.
+ * <P>
+ * The methods of this class are safe to be called from multiple threads
+ * concurrently.
+ */
+public final class ProjectServiceStatistics {
+    private static final Logger LOGGER = Logger.getLogger(ProjectServiceStatistics.class.getName());
+
+    private static final AtomicInteger CREATED_PROJECTS = new AtomicInteger(0);
+    private static final AtomicInteger PARTIALLY_MATERIALIZED_PROJECTS = new AtomicInteger(0);
+    private static final AtomicInteger FULLY_MATERIALIZED_PROJECTS = new AtomicInteger(0);
+
+    static void projectCreated() {
+        CREATED_PROJECTS.incrementAndGet();
+    }
+
+    static void serviceMaterialized(NbGradleProject project, int materializedCount, int serviceCount) {
+        if (materializedCount == 1) {
+            PARTIALLY_MATERIALIZED_PROJECTS.incrementAndGet();
+        }
+
+        if (materializedCount == serviceCount) {
+            int fullCount = FULLY_MATERIALIZED_PROJECTS.incrementAndGet();
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "Every service of {0} has been created. Fully materialized projects: {1}/{2}",
+                        new Object[]{project.getProjectDirectoryAsFile(), fullCount, CREATED_PROJECTS.get()});
+            }
+        }
+    }
+
+    /**
+     * Returns the number of projects created since the IDE was started.
+     *
+     * @return the number of projects created since the IDE was started
+     */
+    public static int getCreatedProjectCount() {
+        return CREATED_PROJECTS.get();
+    }
+
+    /**
+     * Returns the number of projects which have created at least one of their
+     * service objects.
+     *
+     * @return the number of projects which have created at least one of their
+     *   service objects
+     */
+    public static int getPartiallyMaterializedProjectCount() {
+        return PARTIALLY_MATERIALIZED_PROJECTS.get();
+    }
+
+    /**
+     * Returns the number of projects which have created all of their service
+     * objects.
+     *
+     * @return the number of projects which have created all of their service
+     *   objects
+     */
+    public static int getFullyMaterializedProjectCount() {
+        return FULLY_MATERIALIZED_PROJECTS.get();
+    }
+
+    private ProjectServiceStatistics() {
+        throw new AssertionError();
+    }
+}
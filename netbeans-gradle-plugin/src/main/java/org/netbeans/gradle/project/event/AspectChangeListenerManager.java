@@ -0,0 +1,96 @@
+package org.netbeans.gradle.project.event;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+import org.jtrim.event.CopyOnTriggerListenerManager;
+import org.jtrim.event.EventDispatcher;
+import org.jtrim.event.ListenerManager;
+import org.jtrim.event.ListenerRef;
+import org.jtrim.utils.ExceptionHelper;
+
+/**
+ * Defines a listener manager where listeners are registered for a set of
+ * aspects (elements of an enum) and are only notified if one of these aspects
+ * has changed.
+ * <P>
+ * Listeners are notified on the thread calling {@link #fireEventually(Set) fireEventually}.
+ *
+ * @param <AspectType> the type of the enum defining the aspects
+ */
+public final class AspectChangeListenerManager<AspectType extends Enum<AspectType>> {
+    private final Class<AspectType> aspectType;
+    private final ListenerManager<AspectListener<AspectType>> listeners;
+
+    public AspectChangeListenerManager(Class<AspectType> aspectType) {
+        ExceptionHelper.checkNotNullArgument(aspectType, "aspectType");
+
+        this.aspectType = aspectType;
+        this.listeners = new CopyOnTriggerListenerManager<>();
+    }
+
+    /**
+     * Registers a listener to be notified if any of the given aspects changes.
+     *
+     * @param aspects the aspects the listener is interested in. This argument
+     *   cannot be {@code null} and cannot contain {@code null} elements.
+     * @param listener the listener to be notified. This argument cannot be
+     *   {@code null}.
+     * @return the {@code ListenerRef} which can be used to unregister the
+     *   listener. This method never returns {@code null}.
+     */
+    public ListenerRef registerListener(Collection<AspectType> aspects, Runnable listener) {
+        ExceptionHelper.checkNotNullElements(aspects, "aspects");
+        ExceptionHelper.checkNotNullArgument(listener, "listener");
+
+        Set<AspectType> aspectsCopy = EnumSet.noneOf(aspectType);
+        aspectsCopy.addAll(aspects);
+
+        return listeners.registerListener(new AspectListener<>(aspectsCopy, listener));
+    }
+
+    /**
+     * Notifies the listeners registered for any of the given aspects. Does
+     * nothing if the given set is empty.
+     *
+     * @param changedAspects the aspects which have changed. This argument
+     *   cannot be {@code null}.
+     */
+    public void fireEventually(Set<AspectType> changedAspects) {
+        ExceptionHelper.checkNotNullArgument(changedAspects, "changedAspects");
+
+        if (changedAspects.isEmpty()) {
+            return;
+        }
+
+        listeners.onEvent(new EventDispatcher<AspectListener<AspectType>, Set<AspectType>>() {
+            @Override
+            public void onEvent(AspectListener<AspectType> eventListener, Set<AspectType> arg) {
+                eventListener.onChange(arg);
+            }
+        }, changedAspects);
+    }
+
+    public int getListenerCount() {
+        return listeners.getListenerCount();
+    }
+
+    private static final class AspectListener<AspectType> {
+        private final Set<AspectType> aspects;
+        private final Runnable listener;
+
+        public AspectListener(Set<AspectType> aspects, Runnable listener) {
+            this.aspects = aspects;
+            this.listener = listener;
+        }
+
+        public void onChange(Set<AspectType> changedAspects) {
+            for (AspectType aspect: changedAspects) {
+                if (aspects.contains(aspect)) {
+                    listener.run();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -32,10 +32,12 @@ import org.netbeans.gradle.project.ProjectInfoManager;
 import org.netbeans.gradle.project.ProjectInfoRef;
 import org.netbeans.gradle.project.ProjectInitListener;
 import org.netbeans.gradle.project.api.entry.GradleProjectExtension2;
+import org.netbeans.gradle.project.event.AspectChangeListenerManager;
 import org.netbeans.gradle.project.event.ChangeListenerManager;
 import org.netbeans.gradle.project.event.GenericChangeListenerManager;
 import org.netbeans.gradle.project.java.model.JavaSourceDirHandler;
 import org.netbeans.gradle.project.java.model.NbJavaModel;
+import org.netbeans.gradle.project.java.model.NbJavaModelDiff;
 import org.netbeans.gradle.project.java.model.NbJavaModule;
 import org.netbeans.gradle.project.java.model.idea.IdeaJavaModelUtils;
 import org.netbeans.gradle.project.java.nodes.JavaExtensionNodes;
@@ -83,6 +85,7 @@ public final class JavaExtension implements GradleProjectExtension2<NbJavaModel>
     private final AtomicReference<Lookup> combinedLookupRef;
 
     private final ChangeListenerManager modelChangeListeners;
+    private final AspectChangeListenerManager<NbJavaModelDiff.Aspect> aspectChangeListeners;
 
     private JavaExtension(Project project) throws IOException {
         ExceptionHelper.checkNotNullArgument(project, "project");
@@ -103,6 +106,7 @@ public final class JavaExtension implements GradleProjectExtension2<NbJavaModel>
         this.sourceDirsHandlerRef = new AtomicReference<>(null);
         this.dependencyResolutionFailureRef = getProjectInfoManager(project).createInfoRef();
         this.modelChangeListeners = new GenericChangeListenerManager();
+        this.aspectChangeListeners = new AspectChangeListenerManager<>(NbJavaModelDiff.Aspect.class);
     }
 
     public static JavaExtension getJavaExtensionOfProject(Project project) {
@@ -126,6 +130,23 @@ public final class JavaExtension implements GradleProjectExtension2<NbJavaModel>
         return modelChangeListeners.registerListener(listener);
     }
 
+    /**
+     * Registers a listener to be notified after a model change affecting any
+     * of the given aspects of the model. Reloads leaving these aspects
+     * unchanged do not notify the listener.
+     *
+     * @param aspects the aspects of the model the listener is interested in.
+     *   This argument cannot be {@code null} and cannot contain {@code null}
+     *   elements.
+     * @param listener the listener to be notified. This argument cannot be
+     *   {@code null}.
+     * @return the {@code ListenerRef} which can be used to unregister the
+     *   listener. This method never returns {@code null}.
+     */
+    public ListenerRef addModelChangeListener(Collection<NbJavaModelDiff.Aspect> aspects, Runnable listener) {
+        return aspectChangeListeners.registerListener(aspects, listener);
+    }
+
     public JavaSourceDirHandler getSourceDirsHandler() {
         JavaSourceDirHandler result = sourceDirsHandlerRef.get();
         if (result == null) {
@@ -270,11 +291,12 @@ public final class JavaExtension implements GradleProjectExtension2<NbJavaModel>
         return lookup;
     }
 
-    private void fireModelChange() {
+    private void fireModelChange(NbJavaModelDiff diff) {
         for (JavaModelChangeListener listener: getCombinedLookup().lookupAll(JavaModelChangeListener.class)) {
             listener.onModelChange();
         }
         modelChangeListeners.fireEventually();
+        aspectChangeListeners.fireEventually(diff.getChangedAspects());
     }
 
     private static ProjectInfoManager getProjectInfoManager(Project project) {
@@ -354,6 +376,10 @@ public final class JavaExtension implements GradleProjectExtension2<NbJavaModel>
     public void activateExtension(NbJavaModel parsedModel) {
         ExceptionHelper.checkNotNullArgument(parsedModel, "parsedModel");
 
+        NbJavaModelDiff diff = hasEverBeenLoaded
+                ? NbJavaModelDiff.compare(currentModel, parsedModel)
+                : NbJavaModelDiff.allChanged();
+
         currentModel = parsedModel;
         hasEverBeenLoaded = true;
 
@@ -362,7 +388,23 @@ public final class JavaExtension implements GradleProjectExtension2<NbJavaModel>
         checkDependencyResolveProblems(mainModule);
         markOwnedDirs(mainModule);
 
-        fireModelChange();
+        if (diff.isEmpty()) {
+            LOGGER.log(Level.FINE, "Java model of {0} has not changed, skipping change notifications.",
+                    projectDirectoryAsFile);
+            return;
+        }
+
+        fireModelChange(diff);
+
+        if (diff.hasChanged(NbJavaModelDiff.Aspect.SOURCES) || diff.hasChanged(NbJavaModelDiff.Aspect.CLASSPATHS)) {
+            notifyDependentProjects();
+        }
+    }
+
+    private void notifyDependentProjects() {
+        for (JavaExtension dependent: JavaProjectDependencyGraph.getDefault().updateProject(this)) {
+            dependent.cpProvider.onDependencyModelChange();
+        }
     }
 
     @Override
@@ -425,9 +467,11 @@ public final class JavaExtension implements GradleProjectExtension2<NbJavaModel>
     // OpenHook is important for debugging because the debugger relies on the
     // globally registered source class paths for source stepping.
     private static class OpenHook extends ProjectOpenedHook {
+        private final JavaExtension javaExt;
         private final CloseableActionContainer closeableActions;
 
         public OpenHook(JavaExtension javaExt) {
+            this.javaExt = javaExt;
             this.closeableActions = new CloseableActionContainer();
 
             closeableActions.defineAction(classPathProviderProperty(javaExt,
@@ -440,11 +484,15 @@ public final class JavaExtension implements GradleProjectExtension2<NbJavaModel>
         @Override
         protected void projectOpened() {
             closeableActions.open();
+            // The dependencies were removed when the project was closed and
+            // the model might not change after opening the project again.
+            JavaProjectDependencyGraph.getDefault().updateProject(javaExt);
         }
 
         @Override
         protected void projectClosed() {
             closeableActions.close();
+            JavaProjectDependencyGraph.getDefault().removeProject(javaExt);
         }
     }
 
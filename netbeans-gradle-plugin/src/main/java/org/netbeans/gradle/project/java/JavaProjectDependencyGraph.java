@@ -0,0 +1,236 @@
+package org.netbeans.gradle.project.java;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import org.jtrim.utils.ExceptionHelper;
+import org.netbeans.gradle.project.java.model.JavaProjectReference;
+import org.netbeans.gradle.project.properties.WeakValueHashMap;
+
+/**
+ * Defines the dependency graph between the loaded Java projects, as seen by
+ * the {@link JavaProjectReference project references} of their last loaded
+ * models.
+ * <P>
+ * The graph is used to find the projects whose classpaths have to be
+ * recomputed after a project has been reloaded: These are the projects
+ * depending on the reloaded project (directly or indirectly).
+ * <P>
+ * Projects are identified by their project directory and the graph only
+ * references the {@code JavaExtension} of the projects weakly. Closed
+ * projects must be removed by {@link #removeProject(JavaExtension) removeProject},
+ * so that the graph only grows with the opened projects.
+ * <P>
+ * Instances of this class are safe to be used by multiple threads
+ * concurrently.
+ */
+public final class JavaProjectDependencyGraph {
+    private static final JavaProjectDependencyGraph DEFAULT = new JavaProjectDependencyGraph();
+
+    private final ReentrantLock mainLock;
+    // project dir -> project dirs of its dependencies
+    private final Map<File, Set<File>> dependencies;
+    // project dir -> project dirs depending on it
+    private final Map<File, Set<File>> dependents;
+    private final WeakValueHashMap<File, JavaExtension> extensions;
+
+    public JavaProjectDependencyGraph() {
+        this.mainLock = new ReentrantLock();
+        this.dependencies = new HashMap<>();
+        this.dependents = new HashMap<>();
+        this.extensions = new WeakValueHashMap<>();
+    }
+
+    public static JavaProjectDependencyGraph getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Updates the dependencies of the given project based on its current
+     * model and returns the other loaded projects depending on the given
+     * project (directly or indirectly).
+     *
+     * @param javaExt the project whose model has changed. This argument
+     *   cannot be {@code null}.
+     * @return the other loaded projects depending on the given project. This
+     *   method never returns {@code null}.
+     */
+    public List<JavaExtension> updateProject(JavaExtension javaExt) {
+        ExceptionHelper.checkNotNullArgument(javaExt, "javaExt");
+
+        File projectDir = javaExt.getProjectDirectoryAsFile();
+
+        Set<JavaProjectReference> projectRefs = javaExt.getCurrentModel().getAllDependencies();
+        List<File> dependencyDirs = new ArrayList<>(projectRefs.size());
+        for (JavaProjectReference projectRef: projectRefs) {
+            dependencyDirs.add(projectRef.getProjectDir());
+        }
+
+        List<JavaExtension> result;
+
+        mainLock.lock();
+        try {
+            extensions.put(projectDir, javaExt);
+            setDependencies(projectDir, dependencyDirs);
+            Set<File> downstreamDirs = getDownstreamProjects(projectDir);
+
+            result = new ArrayList<>(downstreamDirs.size());
+            for (File downstreamDir: downstreamDirs) {
+                JavaExtension downstream = extensions.get(downstreamDir);
+                if (downstream != null) {
+                    result.add(downstream);
+                }
+            }
+        } finally {
+            mainLock.unlock();
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes the dependencies of the given project from this graph. The
+     * projects depending on the removed project are kept, because they are
+     * still going to be notified if the removed project is opened again.
+     *
+     * @param javaExt the project to be removed. This argument cannot be
+     *   {@code null}.
+     */
+    public void removeProject(JavaExtension javaExt) {
+        ExceptionHelper.checkNotNullArgument(javaExt, "javaExt");
+
+        File projectDir = javaExt.getProjectDirectoryAsFile();
+
+        mainLock.lock();
+        try {
+            // A new project might have been loaded from the same directory.
+            JavaExtension currentExt = extensions.get(projectDir);
+            if (currentExt != null && currentExt != javaExt) {
+                return;
+            }
+
+            extensions.remove(projectDir);
+            removeProject(projectDir);
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    void removeProject(File projectDir) {
+        ExceptionHelper.checkNotNullArgument(projectDir, "projectDir");
+
+        mainLock.lock();
+        try {
+            Set<File> prevDependencies = dependencies.remove(projectDir);
+            if (prevDependencies != null) {
+                for (File prevDependency: prevDependencies) {
+                    removeDependent(prevDependency, projectDir);
+                }
+            }
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    boolean isEmpty() {
+        mainLock.lock();
+        try {
+            return dependencies.isEmpty() && dependents.isEmpty();
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    /**
+     * Sets the direct dependencies of the given project replacing its previous
+     * dependencies.
+     */
+    void setDependencies(File projectDir, Collection<File> dependencyDirs) {
+        ExceptionHelper.checkNotNullArgument(projectDir, "projectDir");
+        ExceptionHelper.checkNotNullElements(dependencyDirs, "dependencyDirs");
+
+        Set<File> newDependencies = new HashSet<>(dependencyDirs);
+        newDependencies.remove(projectDir);
+
+        mainLock.lock();
+        try {
+            Set<File> prevDependencies = dependencies.put(projectDir, newDependencies);
+            if (prevDependencies != null) {
+                for (File prevDependency: prevDependencies) {
+                    if (!newDependencies.contains(prevDependency)) {
+                        removeDependent(prevDependency, projectDir);
+                    }
+                }
+            }
+
+            for (File dependency: newDependencies) {
+                Set<File> dependencyDependents = dependents.get(dependency);
+                if (dependencyDependents == null) {
+                    dependencyDependents = new HashSet<>();
+                    dependents.put(dependency, dependencyDependents);
+                }
+                dependencyDependents.add(projectDir);
+            }
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    private void removeDependent(File dependency, File projectDir) {
+        assert mainLock.isHeldByCurrentThread();
+
+        Set<File> dependencyDependents = dependents.get(dependency);
+        if (dependencyDependents != null) {
+            dependencyDependents.remove(projectDir);
+            if (dependencyDependents.isEmpty()) {
+                dependents.remove(dependency);
+            }
+        }
+    }
+
+    /**
+     * Returns the projects depending on the given project directly or
+     * indirectly, in breadth-first order. The returned set does not contain
+     * the given project even if there is a cycle in the graph.
+     */
+    Set<File> getDownstreamProjects(File projectDir) {
+        ExceptionHelper.checkNotNullArgument(projectDir, "projectDir");
+
+        mainLock.lock();
+        try {
+            if (!dependents.containsKey(projectDir)) {
+                return Collections.emptySet();
+            }
+
+            Set<File> result = new LinkedHashSet<>();
+            Deque<File> toVisit = new ArrayDeque<>();
+            toVisit.add(projectDir);
+
+            while (!toVisit.isEmpty()) {
+                Set<File> directDependents = dependents.get(toVisit.poll());
+                if (directDependents == null) {
+                    continue;
+                }
+
+                for (File dependent: directDependents) {
+                    if (!dependent.equals(projectDir) && result.add(dependent)) {
+                        toVisit.add(dependent);
+                    }
+                }
+            }
+            return result;
+        } finally {
+            mainLock.unlock();
+        }
+    }
+}
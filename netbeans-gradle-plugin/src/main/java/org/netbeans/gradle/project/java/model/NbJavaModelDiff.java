@@ -0,0 +1,237 @@
+package org.netbeans.gradle.project.java.model;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.netbeans.gradle.model.GenericProjectProperties;
+import org.netbeans.gradle.model.java.JavaClassPaths;
+import org.netbeans.gradle.model.java.JavaCompatibilityModel;
+import org.netbeans.gradle.model.java.JavaOutputDirs;
+import org.netbeans.gradle.model.java.JavaSourceSet;
+import org.netbeans.gradle.model.java.JavaTestTask;
+import org.netbeans.gradle.model.util.CollectionUtils;
+
+/**
+ * Defines the difference between two {@link NbJavaModel} instances,
+ * classified by the {@link Aspect aspects} of the model which have changed.
+ * <P>
+ * Instances of this class are immutable.
+ */
+public final class NbJavaModelDiff {
+    public enum Aspect {
+        /**
+         * The source sets of the module: Their source roots, output
+         * directories or the listed directories of the module. Adding or
+         * removing a source set changes both this aspect and
+         * {@link #CLASSPATHS}.
+         */
+        SOURCES,
+        /**
+         * The compile or runtime classpaths of the source sets (including the
+         * problems encountered while resolving them) or the projects the
+         * module depends on.
+         */
+        CLASSPATHS,
+        /**
+         * The generic properties, the source and target level, the test tasks
+         * of the module or the source of the model.
+         */
+        SETTINGS
+    }
+
+    private static final NbJavaModelDiff NO_CHANGE
+            = new NbJavaModelDiff(Collections.<Aspect>emptySet());
+    private static final NbJavaModelDiff ALL_CHANGED
+            = new NbJavaModelDiff(EnumSet.allOf(Aspect.class));
+
+    private final Set<Aspect> changedAspects;
+
+    private NbJavaModelDiff(Set<Aspect> changedAspects) {
+        this.changedAspects = changedAspects;
+    }
+
+    /**
+     * Returns the difference between the given models.
+     *
+     * @param prevModel the previous model. This argument can be {@code null},
+     *   in which case every aspect is considered to be changed.
+     * @param newModel the new model. This argument can be {@code null},
+     *   in which case every aspect is considered to be changed.
+     * @return the difference between the given models. This method never
+     *   returns {@code null}.
+     */
+    public static NbJavaModelDiff compare(NbJavaModel prevModel, NbJavaModel newModel) {
+        if (prevModel == newModel) {
+            return NO_CHANGE;
+        }
+        if (prevModel == null || newModel == null) {
+            return ALL_CHANGED;
+        }
+
+        Set<Aspect> changed = EnumSet.noneOf(Aspect.class);
+
+        NbJavaModule prevModule = prevModel.getMainModule();
+        NbJavaModule newModule = newModel.getMainModule();
+
+        if (prevModel.getModelSource() != newModel.getModelSource()
+                || !equalsProperties(prevModule.getProperties(), newModule.getProperties())
+                || !equalsCompatibility(prevModule.getCompatibilityModel(), newModule.getCompatibilityModel())
+                || !equalsTestTasks(prevModule.getTestTasks().getTestTasks(), newModule.getTestTasks().getTestTasks())) {
+            changed.add(Aspect.SETTINGS);
+        }
+
+        if (!prevModule.getListedDirs().equals(newModule.getListedDirs())) {
+            changed.add(Aspect.SOURCES);
+        }
+
+        if (!prevModel.getAllDependencies().equals(newModel.getAllDependencies())) {
+            changed.add(Aspect.CLASSPATHS);
+        }
+
+        compareSourceSets(prevModule.getSources(), newModule.getSources(), changed);
+
+        return changed.isEmpty() ? NO_CHANGE : new NbJavaModelDiff(Collections.unmodifiableSet(changed));
+    }
+
+    private static void compareSourceSets(
+            Collection<JavaSourceSet> sourceSets1,
+            Collection<JavaSourceSet> sourceSets2,
+            Set<Aspect> changed) {
+
+        if (sourceSets1.size() != sourceSets2.size()) {
+            changed.add(Aspect.SOURCES);
+            changed.add(Aspect.CLASSPATHS);
+            return;
+        }
+
+        Map<String, JavaSourceSet> sourceSets2Map = getSourceSetMap(sourceSets2);
+        for (JavaSourceSet sourceSet1: sourceSets1) {
+            JavaSourceSet sourceSet2 = sourceSets2Map.get(sourceSet1.getName());
+            if (sourceSet2 == null) {
+                changed.add(Aspect.SOURCES);
+                changed.add(Aspect.CLASSPATHS);
+                return;
+            }
+
+            if (!equalsOutputDirs(sourceSet1.getOutputDirs(), sourceSet2.getOutputDirs())
+                    || !sourceSet1.getSourceGroups().equals(sourceSet2.getSourceGroups())) {
+                changed.add(Aspect.SOURCES);
+            }
+
+            if (!equalsClassPaths(sourceSet1, sourceSet2)) {
+                changed.add(Aspect.CLASSPATHS);
+            }
+        }
+    }
+
+    /**
+     * Returns the diff containing the changed aspects of both this and the
+     * given diff.
+     *
+     * @param other the other diff. This argument cannot be {@code null}.
+     * @return the diff containing the changed aspects of both this and the
+     *   given diff. This method never returns {@code null}.
+     */
+    public NbJavaModelDiff merge(NbJavaModelDiff other) {
+        if (other.changedAspects.containsAll(changedAspects)) {
+            return other;
+        }
+        if (changedAspects.containsAll(other.changedAspects)) {
+            return this;
+        }
+
+        Set<Aspect> merged = EnumSet.noneOf(Aspect.class);
+        merged.addAll(changedAspects);
+        merged.addAll(other.changedAspects);
+        return new NbJavaModelDiff(Collections.unmodifiableSet(merged));
+    }
+
+    public static NbJavaModelDiff noChange() {
+        return NO_CHANGE;
+    }
+
+    public static NbJavaModelDiff allChanged() {
+        return ALL_CHANGED;
+    }
+
+    public Set<Aspect> getChangedAspects() {
+        return changedAspects;
+    }
+
+    public boolean hasChanged(Aspect aspect) {
+        return changedAspects.contains(aspect);
+    }
+
+    public boolean isEmpty() {
+        return changedAspects.isEmpty();
+    }
+
+    private static boolean equalsClassPaths(JavaSourceSet sourceSet1, JavaSourceSet sourceSet2) {
+        JavaClassPaths classpaths1 = sourceSet1.getClasspaths();
+        JavaClassPaths classpaths2 = sourceSet2.getClasspaths();
+
+        if (!classpaths1.getCompileClasspaths().equals(classpaths2.getCompileClasspaths())) {
+            return false;
+        }
+        if (!classpaths1.getRuntimeClasspaths().equals(classpaths2.getRuntimeClasspaths())) {
+            return false;
+        }
+
+        // Problems are compared by presence only because exceptions do not
+        // override equals.
+        return (sourceSet1.getCompileClassPathProblem() == null) == (sourceSet2.getCompileClassPathProblem() == null)
+                && (sourceSet1.getRuntimeClassPathProblem() == null) == (sourceSet2.getRuntimeClassPathProblem() == null);
+    }
+
+    private static boolean equalsOutputDirs(JavaOutputDirs outputDirs1, JavaOutputDirs outputDirs2) {
+        return outputDirs1.getClassesDir().equals(outputDirs2.getClassesDir())
+                && outputDirs1.getResourcesDir().equals(outputDirs2.getResourcesDir())
+                && outputDirs1.getOtherDirs().equals(outputDirs2.getOtherDirs());
+    }
+
+    private static boolean equalsProperties(GenericProjectProperties properties1, GenericProjectProperties properties2) {
+        return properties1.getProjectName().equals(properties2.getProjectName())
+                && properties1.getProjectFullName().equals(properties2.getProjectFullName())
+                && properties1.getProjectDir().equals(properties2.getProjectDir())
+                && Objects.equals(properties1.getBuildScript(), properties2.getBuildScript())
+                && Objects.equals(properties1.getBuildDir(), properties2.getBuildDir());
+    }
+
+    private static boolean equalsCompatibility(JavaCompatibilityModel compatibility1, JavaCompatibilityModel compatibility2) {
+        return Objects.equals(compatibility1.getSourceCompatibility(), compatibility2.getSourceCompatibility())
+                && Objects.equals(compatibility1.getTargetCompatibility(), compatibility2.getTargetCompatibility());
+    }
+
+    private static boolean equalsTestTasks(Collection<JavaTestTask> tasks1, Collection<JavaTestTask> tasks2) {
+        if (tasks1.size() != tasks2.size()) {
+            return false;
+        }
+
+        Iterator<JavaTestTask> tasks2Itr = tasks2.iterator();
+        for (JavaTestTask task1: tasks1) {
+            JavaTestTask task2 = tasks2Itr.next();
+            if (!task1.getName().equals(task2.getName())
+                    || !Objects.equals(task1.getXmlOutputDir(), task2.getXmlOutputDir())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, JavaSourceSet> getSourceSetMap(Collection<JavaSourceSet> sourceSets) {
+        Map<String, JavaSourceSet> result = CollectionUtils.newHashMap(sourceSets.size());
+        for (JavaSourceSet sourceSet: sourceSets) {
+            result.put(sourceSet.getName(), sourceSet);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "NbJavaModelDiff{" + changedAspects + '}';
+    }
+}
@@ -6,27 +6,24 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.gradle.tooling.model.DomainObjectSet;
-import org.gradle.tooling.model.ExternalDependency;
 import org.gradle.tooling.model.idea.IdeaContentRoot;
-import org.gradle.tooling.model.idea.IdeaDependency;
 import org.gradle.tooling.model.idea.IdeaModule;
-import org.gradle.tooling.model.idea.IdeaModuleDependency;
 import org.gradle.tooling.model.idea.IdeaProject;
 import org.gradle.tooling.model.idea.IdeaSourceDirectory;
+import org.jtrim.cancel.Cancellation;
+import org.jtrim.cancel.CancellationToken;
+import org.jtrim.concurrent.CancelableTask;
 import org.jtrim.utils.ExceptionHelper;
 import org.netbeans.api.java.platform.JavaPlatform;
 import org.netbeans.gradle.model.GenericProjectProperties;
-import org.netbeans.gradle.model.java.JavaClassPaths;
 import org.netbeans.gradle.model.java.JavaCompatibilityModel;
 import org.netbeans.gradle.model.java.JavaOutputDirs;
 import org.netbeans.gradle.model.java.JavaSourceGroup;
@@ -35,6 +32,7 @@ import org.netbeans.gradle.model.java.JavaSourceSet;
 import org.netbeans.gradle.model.java.JavaTestModel;
 import org.netbeans.gradle.model.util.CollectionUtils;
 import org.netbeans.gradle.project.NbStrings;
+import org.netbeans.gradle.project.NbTaskExecutors;
 import org.netbeans.gradle.project.java.model.JavaModelSource;
 import org.netbeans.gradle.project.java.model.JavaProjectDependency;
 import org.netbeans.gradle.project.java.model.JavaProjectReference;
@@ -42,6 +40,8 @@ import org.netbeans.gradle.project.java.model.NbJavaModel;
 import org.netbeans.gradle.project.java.model.NbJavaModule;
 import org.netbeans.gradle.project.java.model.NbListedDir;
 import org.netbeans.gradle.project.properties.standard.SourceLevelProperty;
+import org.netbeans.gradle.project.util.NbFunction;
+import org.netbeans.gradle.project.util.NbParallelUtils;
 import org.openide.filesystems.FileObject;
 import org.openide.filesystems.FileUtil;
 import org.openide.util.Lookup;
@@ -49,6 +49,18 @@ import org.openide.util.Lookup;
 public final class IdeaJavaModelUtils {
     private static final Logger LOGGER = Logger.getLogger(IdeaJavaModelUtils.class.getName());
 
+    private static final Executor PARSER_EXECUTOR = new Executor() {
+        @Override
+        public void execute(final Runnable command) {
+            NbTaskExecutors.DEFAULT_EXECUTOR.execute(Cancellation.UNCANCELABLE_TOKEN, new CancelableTask() {
+                @Override
+                public void execute(CancellationToken cancelToken) {
+                    command.run();
+                }
+            }, null);
+        }
+    };
+
     public static NbJavaModel createEmptyModel(FileObject projectDir) {
         File projectDirAsFile = FileUtil.toFile(projectDir);
         if (projectDirAsFile == null) {
@@ -73,7 +85,7 @@ public final class IdeaJavaModelUtils {
         return new File(classesDir, "main");
     }
 
-    private static File getDefaultMainClasses(IdeaModule module) {
+    static File getDefaultMainClasses(IdeaModule module) {
         File moduleDir = tryGetModuleDir(module);
         return moduleDir != null ? getDefaultMainClasses(moduleDir) : null;
     }
@@ -158,9 +170,9 @@ public final class IdeaJavaModelUtils {
     private static List<JavaSourceSet> parseSourceSets(
             IdeaModule module,
             File projectDir,
-            Map<String, IdeaDependencyBuilder> cache) {
+            IdeaModuleClassPaths moduleClassPaths) {
 
-        ProjectClassPaths classPaths = fetchAllDependencies(module, cache);
+        IdeaModuleClassPaths.ModuleClassPaths classPaths = moduleClassPaths.getClassPaths(module);
         File buildOutputDir = getDefaultBuildDir(projectDir);
         File classesDir = new File(buildOutputDir, "classes");
         File resourcesDir = new File(buildOutputDir, "resources");
@@ -207,76 +219,6 @@ public final class IdeaJavaModelUtils {
         return result;
     }
 
-    private static ProjectClassPaths fetchAllDependencies(
-            IdeaModule module,
-            Map<String, IdeaDependencyBuilder> cache) {
-
-        IdeaDependencyBuilder result = new IdeaDependencyBuilder();
-        fetchAllDependencies(module, result, Collections.<String>emptySet(), cache);
-
-        JavaClassPaths mainClassPath = new JavaClassPaths(result.mainCompile, result.mainRuntime);
-        JavaClassPaths testClassPath = new JavaClassPaths(result.testCompile, result.testRuntime);
-        return new ProjectClassPaths(mainClassPath, testClassPath);
-    }
-
-    private static void fetchAllDependencies(
-            IdeaModule module,
-            IdeaDependencyBuilder result,
-            Set<String> projectsToSkip,
-            Map<String, IdeaDependencyBuilder> cache) {
-
-        String uniqueProjectName = module.getGradleProject().getPath();
-
-        if (projectsToSkip.contains(uniqueProjectName)) {
-            return;
-        }
-
-        IdeaDependencyBuilder parsed = cache.get(uniqueProjectName);
-        if (parsed != null) {
-            result.setFrom(parsed);
-            return;
-        }
-
-        File defaultMainBuildDir = getDefaultMainClasses(module);
-        if (defaultMainBuildDir != null) {
-            result.addTestCompile(defaultMainBuildDir);
-        }
-
-        Set<String> nextProjectsToSkip = null;
-
-        for (IdeaDependency dependency: module.getDependencies()) {
-            String scope = dependency.getScope().getScope();
-            IdeaDependencyType dependencyType = IdeaDependencyType.fromIdeaScope(scope);
-
-            if (dependency instanceof IdeaModuleDependency) {
-                if (nextProjectsToSkip == null) {
-                    nextProjectsToSkip = new HashSet<>(projectsToSkip);
-                    nextProjectsToSkip.add(uniqueProjectName);
-                }
-
-                IdeaModule moduleDep = ((IdeaModuleDependency)dependency).getDependencyModule();
-
-                IdeaDependencyBuilder subDependencies = new IdeaDependencyBuilder();
-                fetchAllDependencies(moduleDep, subDependencies, nextProjectsToSkip, cache);
-
-                File mainBuildDir = getDefaultMainClasses(moduleDep);
-                if (mainBuildDir != null) {
-                    result.add(dependencyType, mainBuildDir);
-                }
-                result.addAll(dependencyType, subDependencies);
-            }
-            else if (dependency instanceof ExternalDependency) {
-                ExternalDependency externalDep = (ExternalDependency)dependency;
-                result.add(dependencyType, externalDep.getFile());
-            }
-            else {
-                LOGGER.log(Level.WARNING, "Unknown dependency: {0}", dependency);
-            }
-        }
-
-        cache.put(uniqueProjectName, result);
-    }
-
     private static NbListedDir findWebAppDir(Collection<JavaSourceSet> sources) {
         for (JavaSourceSet sourceSet: sources) {
             for (JavaSourceGroup sourceGroup: sourceSet.getSourceGroups()) {
@@ -306,8 +248,10 @@ public final class IdeaJavaModelUtils {
         return result;
     }
 
-    private static NbJavaModule tryParseModule(IdeaModule module,
-            Map<String, IdeaDependencyBuilder> cache) {
+    private static NbJavaModule tryParseModule(
+            IdeaModule module,
+            IdeaModuleClassPaths moduleClassPaths,
+            String defaultLevel) {
         String uniqueName = module.getGradleProject().getPath();
 
         File moduleDir = tryGetModuleDir(module);
@@ -316,9 +260,7 @@ public final class IdeaJavaModelUtils {
             return null;
         }
 
-        List<JavaSourceSet> sourceSets = parseSourceSets(module, moduleDir, cache);
-
-        String defaultLevel = SourceLevelProperty.getSourceLevelFromPlatform(JavaPlatform.getDefault());
+        List<JavaSourceSet> sourceSets = parseSourceSets(module, moduleDir, moduleClassPaths);
 
         String sourceLevel = module.getProject().getLanguageLevel().getLevel();
         sourceLevel = sourceLevel != null
@@ -344,6 +286,15 @@ public final class IdeaJavaModelUtils {
     }
 
     public static Map<File, NbJavaModel> parseFromIdeaModel(File projectDir, IdeaProject ideaModel) throws IOException {
+        return parseFromIdeaModel(projectDir, ideaModel, PARSER_EXECUTOR, NbTaskExecutors.getDefaultThreadCount());
+    }
+
+    static Map<File, NbJavaModel> parseFromIdeaModel(
+            File projectDir,
+            IdeaProject ideaModel,
+            Executor executor,
+            int parallelism) throws IOException {
+
         IdeaModule mainModule = tryFindMainModule(projectDir, ideaModel);
         if (mainModule == null) {
             throw new IOException("Unable to find the main project in the model.");
@@ -352,11 +303,22 @@ public final class IdeaJavaModelUtils {
         DomainObjectSet<? extends IdeaModule> modules = ideaModel.getModules();
         int modulesCount = modules.size();
 
-        Map<String, IdeaDependencyBuilder> cache = CollectionUtils.newHashMap(modulesCount);
+        // The class paths of every module must be known before the modules
+        // can be parsed but after that the modules are independent.
+        final IdeaModuleClassPaths moduleClassPaths = new IdeaModuleClassPaths(modules);
+        final String defaultLevel = SourceLevelProperty.getSourceLevelFromPlatform(JavaPlatform.getDefault());
+
+        List<NbJavaModule> parsedModuleList = NbParallelUtils.map(executor, parallelism,
+                new ArrayList<IdeaModule>(modules),
+                new NbFunction<IdeaModule, NbJavaModule>() {
+            @Override
+            public NbJavaModule apply(IdeaModule module) {
+                return tryParseModule(module, moduleClassPaths, defaultLevel);
+            }
+        });
 
         Map<File, NbJavaModule> parsedModules = CollectionUtils.newHashMap(modulesCount);
-        for (IdeaModule module: modules) {
-            NbJavaModule parsedModule = tryParseModule(module, cache);
+        for (NbJavaModule parsedModule: parsedModuleList) {
             if (parsedModule != null) {
                 parsedModules.put(parsedModule.getModuleDir(), parsedModule);
             }
@@ -397,184 +359,6 @@ public final class IdeaJavaModelUtils {
         return result;
     }
 
-    private static class ProjectClassPaths {
-        public final JavaClassPaths main;
-        public final JavaClassPaths test;
-
-        public ProjectClassPaths(JavaClassPaths main, JavaClassPaths test) {
-            assert main != null;
-            assert test != null;
-
-            this.main = main;
-            this.test = test;
-        }
-    }
-
-    private static class IdeaDependencyBuilder {
-        private Set<File> mainCompile;
-        private Set<File> mainRuntime;
-        private Set<File> testCompile;
-        private Set<File> testRuntime;
-
-        public IdeaDependencyBuilder() {
-            this.mainCompile = new LinkedHashSet<>();
-            this.mainRuntime = new LinkedHashSet<>();
-            this.testCompile = new LinkedHashSet<>();
-            this.testRuntime = new LinkedHashSet<>();
-        }
-
-        public void addAll(IdeaDependencyType type, IdeaDependencyBuilder dependencies) {
-            switch (type) {
-                case COMPILE:
-                    addMainCompile(dependencies);
-                    break;
-                case PROVIDED_COMPILE:
-                    addMainProvidedCompile(dependencies);
-                    break;
-                case RUNTIME:
-                    addMainRuntime(dependencies);
-                    break;
-                case TEST_COMPILE:
-                    addTestCompile(dependencies);
-                    break;
-                case TEST_RUNTIME:
-                    addTestRuntime(dependencies);
-                    break;
-                default:
-                    LOGGER.log(Level.WARNING, "Unknown dependency type: {0}", type);
-                    break;
-            }
-        }
-
-        public void addMainCompile(IdeaDependencyBuilder dependencies) {
-            addMainCompile(dependencies.mainCompile);
-            addMainRuntime(dependencies.mainRuntime);
-        }
-
-        public void addMainProvidedCompile(IdeaDependencyBuilder dependencies) {
-            addMainProvidedCompile(dependencies.mainCompile);
-            addMainRuntime(dependencies.mainRuntime);
-        }
-
-        public void addMainRuntime(IdeaDependencyBuilder dependencies) {
-            addMainRuntime(dependencies.mainRuntime);
-        }
-
-        public void addTestCompile(IdeaDependencyBuilder dependencies) {
-            addTestCompile(dependencies.mainCompile);
-            addTestRuntime(dependencies.mainRuntime);
-        }
-
-        public void addTestRuntime(IdeaDependencyBuilder dependencies) {
-            addTestRuntime(dependencies.mainRuntime);
-        }
-
-        public void addAll(IdeaDependencyType type, Collection<File> files) {
-            switch (type) {
-                case COMPILE:
-                    addMainCompile(files);
-                    break;
-                case PROVIDED_COMPILE:
-                    addMainProvidedCompile(files);
-                    break;
-                case RUNTIME:
-                    addMainRuntime(files);
-                    break;
-                case TEST_COMPILE:
-                    addTestCompile(files);
-                    break;
-                case TEST_RUNTIME:
-                    addTestRuntime(files);
-                    break;
-                default:
-                    LOGGER.log(Level.WARNING, "Unknown dependency type: {0}", type);
-                    break;
-            }
-        }
-
-        public void addMainCompile(Collection<File> files) {
-            mainCompile.addAll(files);
-            mainRuntime.addAll(files);
-            testCompile.addAll(files);
-            testRuntime.addAll(files);
-        }
-
-        public void addMainProvidedCompile(Collection<File> files) {
-            mainCompile.addAll(files);
-            testCompile.addAll(files);
-        }
-
-        public void addMainRuntime(Collection<File> files) {
-            mainRuntime.addAll(files);
-            testRuntime.addAll(files);
-        }
-
-        public void addTestCompile(Collection<File> files) {
-            testCompile.addAll(files);
-            testRuntime.addAll(files);
-        }
-
-        public void addTestRuntime(Collection<File> files) {
-            testRuntime.addAll(files);
-        }
-
-        public void add(IdeaDependencyType type, File file) {
-            switch (type) {
-                case COMPILE:
-                    addMainCompile(file);
-                    break;
-                case PROVIDED_COMPILE:
-                    addMainProvidedCompile(file);
-                    break;
-                case RUNTIME:
-                    addMainRuntime(file);
-                    break;
-                case TEST_COMPILE:
-                    addTestCompile(file);
-                    break;
-                case TEST_RUNTIME:
-                    addTestRuntime(file);
-                    break;
-                default:
-                    LOGGER.log(Level.WARNING, "Unknown dependency type: {0}", type);
-                    break;
-            }
-        }
-
-        public void addMainCompile(File file) {
-            mainCompile.add(file);
-            mainRuntime.add(file);
-            testCompile.add(file);
-            testRuntime.add(file);
-        }
-
-        public void addMainProvidedCompile(File file) {
-            mainCompile.add(file);
-            testCompile.add(file);
-        }
-
-        public void addMainRuntime(File file) {
-            mainRuntime.add(file);
-            testRuntime.add(file);
-        }
-
-        public void addTestCompile(File file) {
-            testCompile.add(file);
-            testRuntime.add(file);
-        }
-
-        public void addTestRuntime(File file) {
-            testRuntime.add(file);
-        }
-
-        public void setFrom(IdeaDependencyBuilder other) {
-            this.mainCompile = other.mainCompile;
-            this.mainRuntime = other.mainRuntime;
-            this.testCompile = other.testCompile;
-            this.testRuntime = other.testRuntime;
-        }
-    }
-
     private IdeaJavaModelUtils() {
         throw new AssertionError();
     }
@@ -0,0 +1,309 @@
+package org.netbeans.gradle.project.java.model.idea;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.gradle.tooling.model.ExternalDependency;
+import org.gradle.tooling.model.idea.IdeaDependency;
+import org.gradle.tooling.model.idea.IdeaModule;
+import org.gradle.tooling.model.idea.IdeaModuleDependency;
+import org.jtrim.utils.ExceptionHelper;
+import org.netbeans.gradle.model.java.JavaClassPaths;
+import org.netbeans.gradle.model.util.CollectionUtils;
+
+/**
+ * Defines the transitive class paths of the modules of an {@code IdeaProject}.
+ * <P>
+ * The class paths of a module are computed exactly once, after the class paths
+ * of its dependencies (i.e., in topological order). The computed class paths
+ * are immutable and are used as is by the modules depending on them: Each set
+ * of a module is built once, and it is only copied by a depending module if
+ * that module adds entries not already in the set. A
+ * dependency on a module whose class paths are still being computed (i.e., a
+ * dependency cycle) only adds the output directory of that module.
+ * <P>
+ * Instances of this class are immutable and therefore are safe to be shared
+ * across multiple threads.
+ */
+final class IdeaModuleClassPaths {
+    private static final Logger LOGGER = Logger.getLogger(IdeaModuleClassPaths.class.getName());
+
+    private final Map<String, ModuleClassPaths> classPathsByProject;
+
+    public IdeaModuleClassPaths(Collection<? extends IdeaModule> modules) {
+        ExceptionHelper.checkNotNullArgument(modules, "modules");
+
+        this.classPathsByProject = CollectionUtils.newHashMap(modules.size());
+        for (IdeaModule module: modules) {
+            resolve(module);
+        }
+    }
+
+    private static String getUniqueProjectName(IdeaModule module) {
+        return module.getGradleProject().getPath();
+    }
+
+    /**
+     * Returns the class paths of the given module (which must be one of the
+     * modules passed to the constructor or one of their dependencies).
+     *
+     * @param module the module whose class paths are to be returned. This
+     *   argument cannot be {@code null}.
+     * @return the class paths of the given module. This method never returns
+     *   {@code null}.
+     */
+    public ModuleClassPaths getClassPaths(IdeaModule module) {
+        ModuleClassPaths result = classPathsByProject.get(getUniqueProjectName(module));
+        if (result == null) {
+            throw new IllegalArgumentException("Unknown module: " + getUniqueProjectName(module));
+        }
+        return result;
+    }
+
+    private void resolve(IdeaModule root) {
+        if (classPathsByProject.containsKey(getUniqueProjectName(root))) {
+            return;
+        }
+
+        // The modules whose class paths are being computed. A depth first
+        // search with an explicit stack, so that deep dependency chains cannot
+        // overflow the call stack.
+        Set<String> inProgress = new HashSet<>();
+        Deque<PendingModule> stack = new ArrayDeque<>();
+
+        stack.push(new PendingModule(root));
+        inProgress.add(stack.peek().uniqueName);
+
+        while (!stack.isEmpty()) {
+            PendingModule current = stack.peek();
+            IdeaModule next = current.nextUnresolvedDependency(inProgress);
+            if (next != null) {
+                PendingModule pendingNext = new PendingModule(next);
+                inProgress.add(pendingNext.uniqueName);
+                stack.push(pendingNext);
+            }
+            else {
+                stack.pop();
+                inProgress.remove(current.uniqueName);
+                classPathsByProject.put(current.uniqueName, computeClassPaths(current));
+            }
+        }
+    }
+
+    private ModuleClassPaths computeClassPaths(PendingModule pending) {
+        ClassPathsBuilder result = new ClassPathsBuilder();
+
+        File defaultMainBuildDir = IdeaJavaModelUtils.getDefaultMainClasses(pending.module);
+        if (defaultMainBuildDir != null) {
+            result.addTestCompile(defaultMainBuildDir);
+        }
+
+        for (IdeaDependency dependency: pending.dependencies) {
+            String scope = dependency.getScope().getScope();
+            IdeaDependencyType dependencyType = IdeaDependencyType.fromIdeaScope(scope);
+
+            if (dependency instanceof IdeaModuleDependency) {
+                IdeaModule moduleDep = ((IdeaModuleDependency)dependency).getDependencyModule();
+
+                File mainBuildDir = IdeaJavaModelUtils.getDefaultMainClasses(moduleDep);
+                if (mainBuildDir != null) {
+                    result.add(dependencyType, mainBuildDir);
+                }
+
+                // This is null only for dependency cycles.
+                ModuleClassPaths subDependencies = classPathsByProject.get(getUniqueProjectName(moduleDep));
+                if (subDependencies != null) {
+                    result.addAll(dependencyType, subDependencies.main);
+                }
+            }
+            else if (dependency instanceof ExternalDependency) {
+                ExternalDependency externalDep = (ExternalDependency)dependency;
+                result.add(dependencyType, externalDep.getFile());
+            }
+            else {
+                LOGGER.log(Level.WARNING, "Unknown dependency: {0}", dependency);
+            }
+        }
+
+        return result.create();
+    }
+
+    public static final class ModuleClassPaths {
+        public final JavaClassPaths main;
+        public final JavaClassPaths test;
+
+        public ModuleClassPaths(JavaClassPaths main, JavaClassPaths test) {
+            assert main != null;
+            assert test != null;
+
+            this.main = main;
+            this.test = test;
+        }
+    }
+
+    private final class PendingModule {
+        public final IdeaModule module;
+        public final String uniqueName;
+        public final List<IdeaDependency> dependencies;
+        private int nextDependencyIndex;
+
+        public PendingModule(IdeaModule module) {
+            this.module = module;
+            this.uniqueName = getUniqueProjectName(module);
+            this.dependencies = new ArrayList<IdeaDependency>(module.getDependencies());
+            this.nextDependencyIndex = 0;
+        }
+
+        public IdeaModule nextUnresolvedDependency(Set<String> inProgress) {
+            while (nextDependencyIndex < dependencies.size()) {
+                IdeaDependency dependency = dependencies.get(nextDependencyIndex);
+                nextDependencyIndex++;
+
+                if (dependency instanceof IdeaModuleDependency) {
+                    IdeaModule moduleDep = ((IdeaModuleDependency)dependency).getDependencyModule();
+                    String depName = getUniqueProjectName(moduleDep);
+                    if (!inProgress.contains(depName) && !classPathsByProject.containsKey(depName)) {
+                        return moduleDep;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class ClassPathsBuilder {
+        private final SharedFileSet mainCompile;
+        private final SharedFileSet mainRuntime;
+        private final SharedFileSet testCompile;
+        private final SharedFileSet testRuntime;
+
+        public ClassPathsBuilder() {
+            this.mainCompile = new SharedFileSet();
+            this.mainRuntime = new SharedFileSet();
+            this.testCompile = new SharedFileSet();
+            this.testRuntime = new SharedFileSet();
+        }
+
+        public ModuleClassPaths create() {
+            JavaClassPaths main = JavaClassPaths.ofUnmodifiableSets(
+                    mainCompile.toUnmodifiableSet(),
+                    mainRuntime.toUnmodifiableSet());
+            JavaClassPaths test = JavaClassPaths.ofUnmodifiableSets(
+                    testCompile.toUnmodifiableSet(),
+                    testRuntime.toUnmodifiableSet());
+            return new ModuleClassPaths(main, test);
+        }
+
+        public void addAll(IdeaDependencyType type, JavaClassPaths dependencies) {
+            Set<File> compile = dependencies.getCompileClasspaths();
+            Set<File> runtime = dependencies.getRuntimeClasspaths();
+
+            switch (type) {
+                case COMPILE:
+                    addMainCompile(compile);
+                    addMainRuntime(runtime);
+                    break;
+                case PROVIDED_COMPILE:
+                    addMainProvidedCompile(compile);
+                    addMainRuntime(runtime);
+                    break;
+                case RUNTIME:
+                    addMainRuntime(runtime);
+                    break;
+                case TEST_COMPILE:
+                    addTestCompile(compile);
+                    addTestRuntime(runtime);
+                    break;
+                case TEST_RUNTIME:
+                    addTestRuntime(runtime);
+                    break;
+                default:
+                    LOGGER.log(Level.WARNING, "Unknown dependency type: {0}", type);
+                    break;
+            }
+        }
+
+        private void addMainCompile(Set<File> files) {
+            mainCompile.addAll(files);
+            mainRuntime.addAll(files);
+            testCompile.addAll(files);
+            testRuntime.addAll(files);
+        }
+
+        private void addMainProvidedCompile(Set<File> files) {
+            mainCompile.addAll(files);
+            testCompile.addAll(files);
+        }
+
+        private void addMainRuntime(Set<File> files) {
+            mainRuntime.addAll(files);
+            testRuntime.addAll(files);
+        }
+
+        private void addTestCompile(Set<File> files) {
+            testCompile.addAll(files);
+            testRuntime.addAll(files);
+        }
+
+        private void addTestRuntime(Set<File> files) {
+            testRuntime.addAll(files);
+        }
+
+        public void add(IdeaDependencyType type, File file) {
+            switch (type) {
+                case COMPILE:
+                    addMainCompile(file);
+                    break;
+                case PROVIDED_COMPILE:
+                    addMainProvidedCompile(file);
+                    break;
+                case RUNTIME:
+                    addMainRuntime(file);
+                    break;
+                case TEST_COMPILE:
+                    addTestCompile(file);
+                    break;
+                case TEST_RUNTIME:
+                    addTestRuntime(file);
+                    break;
+                default:
+                    LOGGER.log(Level.WARNING, "Unknown dependency type: {0}", type);
+                    break;
+            }
+        }
+
+        private void addMainCompile(File file) {
+            mainCompile.add(file);
+            mainRuntime.add(file);
+            testCompile.add(file);
+            testRuntime.add(file);
+        }
+
+        private void addMainProvidedCompile(File file) {
+            mainCompile.add(file);
+            testCompile.add(file);
+        }
+
+        private void addMainRuntime(File file) {
+            mainRuntime.add(file);
+            testRuntime.add(file);
+        }
+
+        public void addTestCompile(File file) {
+            testCompile.add(file);
+            testRuntime.add(file);
+        }
+
+        private void addTestRuntime(File file) {
+            testRuntime.add(file);
+        }
+    }
+}
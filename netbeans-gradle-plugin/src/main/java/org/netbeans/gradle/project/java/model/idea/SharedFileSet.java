@@ -0,0 +1,75 @@
+package org.netbeans.gradle.project.java.model.idea;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import org.jtrim.utils.ExceptionHelper;
+
+/**
+ * Defines a set of files which is only copied before the first modification
+ * actually changing it. So, the class paths of a module can share the sets of
+ * its dependency as long as the module does not add anything new to them.
+ * <P>
+ * Files are checked for {@code null} when they are added one by one. The sets
+ * passed to {@link #addAll(Set) addAll} come from already created class paths,
+ * so the returned sets can be passed to {@code JavaClassPaths.ofUnmodifiableSets}
+ * without checking their elements again.
+ * <P>
+ * Instances of this class are not safe to be used by multiple threads
+ * concurrently.
+ */
+final class SharedFileSet {
+    private Set<File> files;
+    private boolean owned;
+
+    public SharedFileSet() {
+        this.files = Collections.emptySet();
+        this.owned = false;
+    }
+
+    /**
+     * Adds the files of the given set. The given set must not be modified
+     * after this call, because it might be used without copying it.
+     */
+    public void addAll(Set<File> toAdd) {
+        if (toAdd.isEmpty() || files == toAdd) {
+            return;
+        }
+
+        if (!owned && files.isEmpty()) {
+            files = toAdd;
+            return;
+        }
+
+        if (!files.containsAll(toAdd)) {
+            ensureOwned();
+            files.addAll(toAdd);
+        }
+    }
+
+    public void add(File file) {
+        ExceptionHelper.checkNotNullArgument(file, "file");
+
+        if (!files.contains(file)) {
+            ensureOwned();
+            files.add(file);
+        }
+    }
+
+    private void ensureOwned() {
+        if (!owned) {
+            files = new LinkedHashSet<>(files);
+            owned = true;
+        }
+    }
+
+    /**
+     * Returns the current files of this set. The returned set is either one
+     * of the sets passed to {@link #addAll(Set) addAll} or an unmodifiable
+     * view of the copy owned by this object.
+     */
+    public Set<File> toUnmodifiableSet() {
+        return owned ? Collections.unmodifiableSet(files) : files;
+    }
+}
@@ -0,0 +1,73 @@
+package org.netbeans.gradle.project.java.nodes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import org.jtrim.utils.ExceptionHelper;
+import org.netbeans.gradle.project.util.NbFunction;
+
+/**
+ * Defines an immutable list of dependencies which can be filtered quickly by
+ * the name of the dependencies. The names are normalized when the index is
+ * created, so filtering does not need to allocate anything but the result.
+ *
+ * @param <ElementType> the type of the dependencies
+ */
+final class DependencyNameIndex<ElementType> {
+    private final List<ElementType> elements;
+    private final String[] normalizedNames;
+
+    public DependencyNameIndex(
+            List<? extends ElementType> elements,
+            NbFunction<? super ElementType, String> nameGetter) {
+        ExceptionHelper.checkNotNullArgument(elements, "elements");
+        ExceptionHelper.checkNotNullArgument(nameGetter, "nameGetter");
+
+        this.elements = Collections.unmodifiableList(new ArrayList<>(elements));
+        this.normalizedNames = new String[this.elements.size()];
+
+        int index = 0;
+        for (ElementType element: this.elements) {
+            normalizedNames[index] = normalizeName(nameGetter.apply(element));
+            index++;
+        }
+    }
+
+    private static String normalizeName(String name) {
+        return name != null ? name.toLowerCase(Locale.ROOT) : "";
+    }
+
+    public int size() {
+        return elements.size();
+    }
+
+    public List<ElementType> getAll() {
+        return elements;
+    }
+
+    /**
+     * Returns the dependencies whose name contains the given string ignoring
+     * case. The order of the dependencies is retained.
+     *
+     * @param filter the string to be searched for in the names. This argument
+     *   can be {@code null}, in which case every dependency is returned.
+     * @return the dependencies whose name contains the given string. This
+     *   method never returns {@code null}.
+     */
+    public List<ElementType> filter(String filter) {
+        if (filter == null || filter.isEmpty()) {
+            return elements;
+        }
+
+        String normalizedFilter = normalizeName(filter);
+
+        List<ElementType> result = new ArrayList<>();
+        for (int i = 0; i < normalizedNames.length; i++) {
+            if (normalizedNames[i].contains(normalizedFilter)) {
+                result.add(elements.get(i));
+            }
+        }
+        return result;
+    }
+}
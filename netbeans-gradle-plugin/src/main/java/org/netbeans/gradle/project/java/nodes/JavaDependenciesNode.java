@@ -8,13 +8,13 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.AbstractAction;
@@ -25,7 +25,6 @@ import org.jtrim.utils.ExceptionHelper;
 import org.netbeans.api.project.Project;
 import org.netbeans.gradle.model.java.JavaClassPaths;
 import org.netbeans.gradle.model.java.JavaSourceSet;
-import org.netbeans.gradle.model.util.CollectionUtils;
 import org.netbeans.gradle.project.NbGradleProject;
 import org.netbeans.gradle.project.NbIcons;
 import org.netbeans.gradle.project.NbStrings;
@@ -35,12 +34,20 @@ import org.netbeans.gradle.project.api.task.CommandCompleteListener;
 import org.netbeans.gradle.project.java.JavaExtension;
 import org.netbeans.gradle.project.java.model.JavaProjectDependency;
 import org.netbeans.gradle.project.java.model.NbJavaModel;
+import org.netbeans.gradle.project.java.model.NbJavaModelDiff;
 import org.netbeans.gradle.project.java.model.NbJavaModule;
+import org.netbeans.gradle.project.query.GradleCacheBinaryForSourceQuery;
+import org.netbeans.gradle.project.query.GradleCacheByBinaryLookup;
 import org.netbeans.gradle.project.tasks.DaemonTaskDef;
 import org.netbeans.gradle.project.tasks.DownloadSourcesTask;
 import org.netbeans.gradle.project.tasks.GradleDaemonManager;
 import org.netbeans.gradle.project.util.ListenerRegistrations;
+import org.netbeans.gradle.project.util.NbFunction;
+import org.netbeans.gradle.project.util.NbSupplier;
+import org.netbeans.gradle.project.util.NodeKeysSnapshot;
 import org.netbeans.gradle.project.util.StringUtils;
+import org.openide.DialogDisplayer;
+import org.openide.NotifyDescriptor;
 import org.openide.filesystems.FileObject;
 import org.openide.filesystems.FileUtil;
 import org.openide.loaders.DataObject;
@@ -103,86 +110,45 @@ public final class JavaDependenciesNode extends AbstractNode {
             ChildFactory.Detachable<SingleNodeFactory> {
 
         private final JavaExtension javaExt;
-        private final AtomicReference<NbJavaModule> lastModule;
         private final ListenerRegistrations listenerRefs;
+        // The keys are computed from the full classpaths, which might be very
+        // large. So they are computed in the background after model changes.
+        private final NodeKeysSnapshot<SingleNodeFactory> keys;
 
         public DependenciesChildFactory(JavaExtension javaExt) {
             ExceptionHelper.checkNotNullArgument(javaExt, "javaExt");
 
             this.javaExt = javaExt;
-            this.lastModule = new AtomicReference<>(null);
             this.listenerRefs = new ListenerRegistrations();
-        }
-
-        private static boolean hasRelevantDifferences(NbJavaModule module1, NbJavaModule module2) {
-            if (module1 == module2) {
-                // In practice this happens only when they are nulls.
-                return false;
-            }
-            if (module1 == null || module2 == null) {
-                return true;
-            }
-
-            if (module1.getSources().size() != module2.getSources().size()) {
-                return true;
-            }
-
-            Map<String, JavaSourceSet> sources2 = getSourceSetMap(module2);
-            for (JavaSourceSet sourceSet1: module1.getSources()) {
-                JavaSourceSet sourceSet2 = sources2.get(sourceSet1.getName());
-                if (sourceSet2 == null) {
-                    return true;
+            this.keys = new NodeKeysSnapshot<>(new NbSupplier<List<SingleNodeFactory>>() {
+                @Override
+                public List<SingleNodeFactory> get() {
+                    return readKeys();
                 }
-
-                if (!isClassPathSame(sourceSet1, sourceSet2)) {
-                    return true;
+            }, new Runnable() {
+                @Override
+                public void run() {
+                    refresh(false);
                 }
-            }
-            return false;
-        }
-
-        private static boolean isClassPathSame(JavaSourceSet sourceSet1, JavaSourceSet sourceSet2) {
-            JavaClassPaths classpaths1 = sourceSet1.getClasspaths();
-            JavaClassPaths classpaths2 = sourceSet2.getClasspaths();
-
-            if (!classpaths1.getCompileClasspaths().equals(classpaths2.getCompileClasspaths())) {
-                return false;
-            }
-
-            return classpaths1.getRuntimeClasspaths().equals(classpaths2.getRuntimeClasspaths());
-        }
-
-        private static Map<String, JavaSourceSet> getSourceSetMap(NbJavaModule module) {
-            Map<String, JavaSourceSet> result = CollectionUtils.newHashMap(module.getSources().size());
-            for (JavaSourceSet sourceSet: module.getSources()) {
-                result.put(sourceSet.getName(), sourceSet);
-            }
-            return result;
-        }
-
-        private void modelChanged() {
-            NbJavaModule newModule = javaExt.getCurrentModel().getMainModule();
-            NbJavaModule prevModule = lastModule.getAndSet(newModule);
-
-            if (hasRelevantDifferences(newModule, prevModule)) {
-                refresh(false);
-            }
+            });
         }
 
         @Override
         protected void addNotify() {
-            lastModule.set(javaExt.getCurrentModel().getMainModule());
-            listenerRefs.add(javaExt.addModelChangeListener(new Runnable() {
-                @Override
-                public void run() {
-                    modelChanged();
-                }
-            }));
+            listenerRefs.add(javaExt.addModelChangeListener(
+                    EnumSet.of(NbJavaModelDiff.Aspect.CLASSPATHS),
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            keys.invalidate();
+                        }
+                    }));
         }
 
         @Override
         protected void removeNotify() {
             listenerRefs.unregisterAll();
+            keys.clear();
         }
 
         private void addDependencyGroup(
@@ -404,7 +370,9 @@ public final class JavaDependenciesNode extends AbstractNode {
             return result;
         }
 
-        private void readKeys(List<SingleNodeFactory> toPopulate) throws DataObjectNotFoundException {
+        private List<SingleNodeFactory> readKeys() {
+            List<SingleNodeFactory> toPopulate = new ArrayList<>();
+
             NbJavaModel currentModel = javaExt.getCurrentModel();
             NbJavaModule mainModule = currentModel.getMainModule();
 
@@ -445,15 +413,12 @@ public final class JavaDependenciesNode extends AbstractNode {
             }
 
             LOGGER.fine("Dependencies for the Gradle project were found.");
+            return toPopulate;
         }
 
         @Override
         protected boolean createKeys(List<SingleNodeFactory> toPopulate) {
-            try {
-                readKeys(toPopulate);
-            } catch (DataObjectNotFoundException ex) {
-                throw new RuntimeException(ex);
-            }
+            toPopulate.addAll(keys.getKeys());
             return true;
         }
 
@@ -463,33 +428,36 @@ public final class JavaDependenciesNode extends AbstractNode {
         }
     }
 
+    private static String getDependencyName(SingleNodeFactory dependency) {
+        if (dependency instanceof FileDependency) {
+            return ((FileDependency)dependency).file.getName();
+        }
+        if (dependency instanceof ProjectDependencyFactory) {
+            NbJavaModule module = ((ProjectDependencyFactory)dependency).projectDep.tryGetModule();
+            return module != null ? module.getShortName() : null;
+        }
+        return null;
+    }
+
     private static class DependencyGroupNodeFactory implements SingleNodeFactory {
         private final String groupName;
         private final List<SingleNodeFactory> dependencies;
+        private final DependencyNameIndex<SingleNodeFactory> dependencyIndex;
 
         public DependencyGroupNodeFactory(String groupName, Collection<? extends SingleNodeFactory> dependencies) {
             this.dependencies = new ArrayList<>(dependencies);
             this.groupName = groupName;
+            this.dependencyIndex = new DependencyNameIndex<>(this.dependencies, new NbFunction<SingleNodeFactory, String>() {
+                @Override
+                public String apply(SingleNodeFactory arg) {
+                    return getDependencyName(arg);
+                }
+            });
         }
 
         @Override
         public Node createNode() {
-            AbstractNode result = new AbstractNode(Children.create(new DependencyGroupChildFactory(dependencies), true)) {
-                @Override
-                public Image getIcon(int type) {
-                    return NbIcons.getLibrariesIcon();
-                }
-
-                @Override
-                public Image getOpenedIcon(int type) {
-                    return NbIcons.getOpenLibrariesIcon();
-                }
-
-                @Override
-                public String getDisplayName() {
-                    return groupName;
-                }
-            };
+            AbstractNode result = new DependencyGroupNode(groupName, new DependencyGroupChildFactory(dependencyIndex));
             result.setName(groupName);
 
             return result;
@@ -514,23 +482,107 @@ public final class JavaDependenciesNode extends AbstractNode {
         }
     }
 
+    private static final class DependencyGroupNode extends AbstractNode {
+        private final String groupName;
+        private final DependencyGroupChildFactory childFactory;
+
+        public DependencyGroupNode(String groupName, DependencyGroupChildFactory childFactory) {
+            super(Children.create(childFactory, true));
+
+            this.groupName = groupName;
+            this.childFactory = childFactory;
+        }
+
+        @Override
+        public Image getIcon(int type) {
+            return NbIcons.getLibrariesIcon();
+        }
+
+        @Override
+        public Image getOpenedIcon(int type) {
+            return NbIcons.getOpenLibrariesIcon();
+        }
+
+        @Override
+        public String getDisplayName() {
+            String filter = childFactory.getFilter();
+            return filter.isEmpty()
+                    ? groupName
+                    : NbStrings.getFilteredDependencyGroup(groupName, filter);
+        }
+
+        @Override
+        public Action[] getActions(boolean context) {
+            if (childFactory.getDependencyCount() < DependencyGroupChildFactory.PAGE_SIZE) {
+                return new Action[0];
+            }
+
+            return new Action[]{
+                new FilterDependenciesAction(this),
+                new ClearDependencyFilterAction(this)
+            };
+        }
+
+        public void setFilter(String filter) {
+            String prevDisplayName = getDisplayName();
+            childFactory.setFilter(filter);
+            fireDisplayNameChange(prevDisplayName, getDisplayName());
+        }
+
+        public String getFilter() {
+            return childFactory.getFilter();
+        }
+    }
+
+    /**
+     * Creates the nodes of the dependencies of a group in pages, because a
+     * group might contain thousands of dependencies and creating a node for a
+     * dependency requires looking up its {@code DataObject}. The last child is
+     * a node showing the next page when there are more dependencies to show.
+     */
     private static class DependencyGroupChildFactory extends ChildFactory<SingleNodeFactory> {
-        private final List<SingleNodeFactory> dependencies;
+        public static final int PAGE_SIZE = 100;
 
-        public DependencyGroupChildFactory(Collection<? extends SingleNodeFactory> dependencies) {
-            this.dependencies = new ArrayList<>(dependencies);
+        private final DependencyNameIndex<SingleNodeFactory> dependencyIndex;
+        private volatile String filter;
+        private volatile int shownCount;
+
+        public DependencyGroupChildFactory(DependencyNameIndex<SingleNodeFactory> dependencyIndex) {
+            this.dependencyIndex = dependencyIndex;
+            this.filter = "";
+            this.shownCount = PAGE_SIZE;
+        }
+
+        public int getDependencyCount() {
+            return dependencyIndex.size();
+        }
+
+        public String getFilter() {
+            return filter;
         }
 
-        protected void readKeys(List<SingleNodeFactory> toPopulate) throws DataObjectNotFoundException {
-            toPopulate.addAll(dependencies);
+        public void setFilter(String filter) {
+            this.filter = filter != null ? filter.trim() : "";
+            this.shownCount = PAGE_SIZE;
+            refresh(false);
+        }
+
+        public void showNextPage() {
+            shownCount += PAGE_SIZE;
+            refresh(false);
         }
 
         @Override
         protected boolean createKeys(List<SingleNodeFactory> toPopulate) {
-            try {
-                readKeys(toPopulate);
-            } catch (DataObjectNotFoundException ex) {
-                throw new RuntimeException(ex);
+            List<SingleNodeFactory> matching = dependencyIndex.filter(filter);
+
+            int currentShownCount = shownCount;
+            if (matching.size() <= currentShownCount) {
+                toPopulate.addAll(matching);
+            }
+            else {
+                toPopulate.addAll(matching.subList(0, currentShownCount));
+                toPopulate.add(new NextPageNodeFactory(this, matching.size() - currentShownCount));
             }
             return true;
         }
@@ -541,6 +593,115 @@ public final class JavaDependenciesNode extends AbstractNode {
         }
     }
 
+    private static final class NextPageNodeFactory implements SingleNodeFactory {
+        private final DependencyGroupChildFactory childFactory;
+        private final int remainingCount;
+
+        public NextPageNodeFactory(DependencyGroupChildFactory childFactory, int remainingCount) {
+            this.childFactory = childFactory;
+            this.remainingCount = remainingCount;
+        }
+
+        @Override
+        public Node createNode() {
+            final Action showNextPageAction = new ShowNextPageAction(childFactory, remainingCount);
+
+            AbstractNode result = new AbstractNode(Children.LEAF) {
+                @Override
+                public Image getIcon(int type) {
+                    return NbIcons.getLibrariesIcon();
+                }
+
+                @Override
+                public String getDisplayName() {
+                    return NbStrings.getShowMoreDependencies(remainingCount);
+                }
+
+                @Override
+                public Action getPreferredAction() {
+                    return showNextPageAction;
+                }
+
+                @Override
+                public Action[] getActions(boolean context) {
+                    return new Action[]{showNextPageAction};
+                }
+            };
+            result.setName("java.dependencies.nextpage");
+
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            return 59 * System.identityHashCode(childFactory) + remainingCount;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == null) return false;
+            if (getClass() != obj.getClass()) return false;
+
+            final NextPageNodeFactory other = (NextPageNodeFactory)obj;
+            return this.childFactory == other.childFactory
+                    && this.remainingCount == other.remainingCount;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class ShowNextPageAction extends AbstractAction {
+        private final DependencyGroupChildFactory childFactory;
+
+        public ShowNextPageAction(DependencyGroupChildFactory childFactory, int remainingCount) {
+            super(NbStrings.getShowMoreDependencies(remainingCount));
+            this.childFactory = childFactory;
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            childFactory.showNextPage();
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class FilterDependenciesAction extends AbstractAction {
+        private final DependencyGroupNode groupNode;
+
+        public FilterDependenciesAction(DependencyGroupNode groupNode) {
+            super(NbStrings.getFilterDependencies());
+            this.groupNode = groupNode;
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            NotifyDescriptor.InputLine input = new NotifyDescriptor.InputLine(
+                    NbStrings.getFilterDependenciesPrompt(),
+                    NbStrings.getFilterDependencies());
+            input.setInputText(groupNode.getFilter());
+
+            if (DialogDisplayer.getDefault().notify(input) == NotifyDescriptor.OK_OPTION) {
+                groupNode.setFilter(input.getInputText());
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class ClearDependencyFilterAction extends AbstractAction {
+        private final DependencyGroupNode groupNode;
+
+        public ClearDependencyFilterAction(DependencyGroupNode groupNode) {
+            super(NbStrings.getClearDependencyFilter());
+            this.groupNode = groupNode;
+
+            setEnabled(!groupNode.getFilter().isEmpty());
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            groupNode.setFilter("");
+        }
+    }
+
     private static final class FileDependency implements SingleNodeFactory {
         private final File file;
 
@@ -696,6 +857,10 @@ public final class JavaDependenciesNode extends AbstractNode {
                     if (error != null) {
                         project.displayError(NbStrings.getDownloadSourcesFailure(), error);
                     }
+                    else {
+                        GradleCacheByBinaryLookup.notifyCacheChange();
+                        GradleCacheBinaryForSourceQuery.notifyCacheChange();
+                    }
                 }
             });
         }
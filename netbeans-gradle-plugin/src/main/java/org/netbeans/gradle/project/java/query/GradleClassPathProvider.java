@@ -4,7 +4,6 @@ import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.io.File;
 import java.net.URL;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -14,7 +13,6 @@ import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -51,10 +49,8 @@ import org.netbeans.gradle.project.util.NbFileUtils;
 import org.netbeans.spi.java.classpath.ClassPathFactory;
 import org.netbeans.spi.java.classpath.ClassPathImplementation;
 import org.netbeans.spi.java.classpath.ClassPathProvider;
-import org.netbeans.spi.java.classpath.FilteringPathResourceImplementation;
 import org.netbeans.spi.java.classpath.PathResourceImplementation;
 import org.netbeans.spi.java.classpath.support.ClassPathSupport;
-import org.netbeans.spi.java.classpath.support.PathResourceBase;
 import org.openide.filesystems.FileObject;
 import org.openide.filesystems.FileUtil;
 
@@ -170,6 +166,14 @@ implements
         scheduleReloadPathResources();
     }
 
+    /**
+     * Called when the model of a project this project depends on (directly
+     * or indirectly) has changed.
+     */
+    public void onDependencyModelChange() {
+        scheduleReloadPathResources();
+    }
+
     private ProjectPlatform getCurrentPlatform() {
         ProjectPlatform result = currentPlatformRef.get();
         if (result == null) {
@@ -317,12 +321,11 @@ implements
     }
 
     private static PathResourceImplementation toPathResource(File file) {
-        URL url = FileUtil.urlForArchiveOrDir(file);
-        return url != null ? ClassPathSupport.createResource(url) : null;
+        return toPathResource(file, ExcludeIncludeRules.ALLOW_ALL);
     }
 
     private static PathResourceImplementation toPathResource(File file, ExcludeIncludeRules includeRules) {
-        return ExcludeAwarePathResource.tryCreate(file, includeRules);
+        return PathResourceCache.getDefault().tryGetResource(file, includeRules);
     }
 
     private static List<PathResourceImplementation> getPathResources(
@@ -338,9 +341,7 @@ implements
 
         List<PathResourceImplementation> result = new ArrayList<>(files.size());
         for (File file: new LinkedHashSet<>(files)) {
-            PathResourceImplementation pathResource = includeRules.isAllowAll()
-                    ? toPathResource(file)
-                    : toPathResource(file, includeRules);
+            PathResourceImplementation pathResource = toPathResource(file, includeRules);
             // Ignore invalid classpath entries
             if (pathResource != null) {
                 result.add(pathResource);
@@ -491,9 +492,6 @@ implements
     }
 
     private void loadPathResources(NbJavaModel projectModel) {
-        // TODO: This method must be called whenever any of the dependent projects
-        //   is reloaded.
-
         Object newChangeId = new Object();
         classpathResourcesChangeId = newChangeId;
 
@@ -529,6 +527,8 @@ implements
 
         updateAllSources();
 
+        PathResourceCache.getDefault().logStatistics();
+
         boolean changed = newChangeId != classpathResourcesChangeId
                 || !classpathResourcesSnapshot.equals(new HashMap<>(classpathResources));
         if (changed) {
@@ -694,71 +694,4 @@ implements
             changes.removePropertyChangeListener(listener);
         }
     }
-
-    private static final class ExcludeAwarePathResource
-    extends
-            PathResourceBase
-    implements
-            FilteringPathResourceImplementation {
-
-        private final Path root;
-        private final URL url;
-        private final ExcludeIncludeRules includeRules;
-
-        private ExcludeAwarePathResource(File root, URL rootUrl, ExcludeIncludeRules includeRules) {
-            this.root = root.toPath();
-            this.url = rootUrl;
-            this.includeRules = includeRules;
-        }
-
-        public static ExcludeAwarePathResource tryCreate(File root, ExcludeIncludeRules includeRules) {
-            URL url = FileUtil.urlForArchiveOrDir(root);
-            if (url == null) {
-                return null;
-            }
-
-            return new ExcludeAwarePathResource(root, url, includeRules);
-        }
-
-        @Override
-        public URL[] getRoots() {
-            return new URL[] {url};
-        }
-
-        @Override
-        public ClassPathImplementation getContent() {
-            return null;
-        }
-
-        @Override
-        public boolean includes(URL urlRoot, String resource) {
-            String normPath = resource.replace("/", root.getFileSystem().getSeparator());
-            Path resourcePath = root.resolve(normPath);
-            return includeRules.isIncluded(root, resourcePath);
-        }
-
-        @Override
-        public int hashCode() {
-            int hash = 5;
-            hash = 43 * hash + Objects.hashCode(this.root);
-            hash = 43 * hash + Objects.hashCode(this.includeRules);
-            return hash;
-        }
-
-        @Override
-        public boolean equals(Object obj) {
-            if (obj == null) return false;
-            if (obj == this) return true;
-            if (getClass() != obj.getClass()) return false;
-
-            final ExcludeAwarePathResource other = (ExcludeAwarePathResource)obj;
-            return Objects.equals(this.root, other.root)
-                    && Objects.equals(this.includeRules, other.includeRules);
-        }
-
-        @Override
-        public String toString () {
-            return "ExcludeAwarePathResource{" + url + "}";
-        }
-    }
 }
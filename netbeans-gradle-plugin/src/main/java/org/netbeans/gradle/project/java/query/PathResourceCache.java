@@ -0,0 +1,325 @@
+package org.netbeans.gradle.project.java.query;
+
+import java.io.File;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jtrim.utils.ExceptionHelper;
+import org.netbeans.gradle.project.util.ExcludeIncludeRules;
+import org.netbeans.spi.java.classpath.PathResourceImplementation;
+import org.netbeans.spi.java.classpath.support.ClassPathSupport;
+import org.openide.filesystems.FileAttributeEvent;
+import org.openide.filesystems.FileChangeListener;
+import org.openide.filesystems.FileEvent;
+import org.openide.filesystems.FileRenameEvent;
+import org.openide.filesystems.FileUtil;
+
+/**
+ * Defines a process wide cache of the {@code PathResourceImplementation}
+ * instances of classpath entries, so that the classpath providers of different
+ * projects (and different classpath types of the same project) share the
+ * resources of the same files instead of probing the file system for each of
+ * them again.
+ * <P>
+ * The cached resources are only weakly referenced, so an entry is only kept
+ * as long as there is a classpath using it. Entries are keyed by the
+ * normalized file and are removed if the file is created, deleted or renamed,
+ * because those events might change the URL of the resource (e.g., a missing
+ * directory becoming an archive).
+ * <P>
+ * Instances of this class are safe to be used by multiple threads
+ * concurrently.
+ */
+final class PathResourceCache {
+    private static final Logger LOGGER = Logger.getLogger(PathResourceCache.class.getName());
+
+    private static final PathResourceCache DEFAULT = new PathResourceCache();
+
+    private final ConcurrentMap<CacheKey, CacheEntry> entries;
+    private final ReferenceQueue<PathResourceImplementation> collectedEntries;
+
+    // Incremented on each invalidation, so that resources created while
+    // the file was changing will not be cached.
+    private final AtomicLong invalidationCount;
+
+    private final AtomicLong hitCount;
+    private final AtomicLong missCount;
+
+    public PathResourceCache() {
+        this.entries = new ConcurrentHashMap<>();
+        this.collectedEntries = new ReferenceQueue<>();
+        this.invalidationCount = new AtomicLong(0);
+        this.hitCount = new AtomicLong(0);
+        this.missCount = new AtomicLong(0);
+    }
+
+    public static PathResourceCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the path resource of the given classpath entry, creating it if
+     * it is not in the cache.
+     *
+     * @param file the classpath entry (directory or archive). This argument
+     *   cannot be {@code null}.
+     * @param includeRules the rules defining which files of the given root
+     *   are part of the resource. This argument cannot be {@code null}.
+     * @return the path resource of the given classpath entry or {@code null}
+     *   if the given file is not a valid classpath entry. Invalid entries
+     *   are not cached.
+     */
+    public PathResourceImplementation tryGetResource(File file, ExcludeIncludeRules includeRules) {
+        ExceptionHelper.checkNotNullArgument(file, "file");
+        ExceptionHelper.checkNotNullArgument(includeRules, "includeRules");
+
+        removeCollectedEntries();
+
+        CacheKey key = new CacheKey(FileUtil.normalizeFile(file), includeRules);
+        CacheEntry entry = entries.get(key);
+        if (entry != null) {
+            PathResourceImplementation result = entry.get();
+            if (result != null) {
+                hitCount.incrementAndGet();
+                return result;
+            }
+            removeEntry(entry);
+        }
+
+        missCount.incrementAndGet();
+
+        long invalidationCountBefore = invalidationCount.get();
+        PathResourceImplementation result = createResource(key.file, includeRules);
+        if (result == null) {
+            return null;
+        }
+
+        CacheEntry newEntry = new CacheEntry(key, result, collectedEntries);
+        if (entries.putIfAbsent(key, newEntry) == null) {
+            newEntry.startListening();
+            if (invalidationCount.get() != invalidationCountBefore) {
+                // We cannot be sure that we have not missed the change
+                // of this file.
+                removeEntry(newEntry);
+            }
+        }
+
+        return result;
+    }
+
+    private static PathResourceImplementation createResource(File file, ExcludeIncludeRules includeRules) {
+        if (includeRules.isAllowAll()) {
+            URL url = FileUtil.urlForArchiveOrDir(file);
+            return url != null ? ClassPathSupport.createResource(url) : null;
+        }
+        else {
+            return ExcludeAwarePathResource.tryCreate(file, includeRules);
+        }
+    }
+
+    /**
+     * Returns the number of requests served from the cache since this cache
+     * was created.
+     *
+     * @return the number of requests served from the cache
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of requests which needed to create a new path
+     * resource since this cache was created.
+     *
+     * @return the number of requests which needed to create a new path
+     *   resource
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the number of path resources currently in the cache. The
+     * returned number might include resources which were already
+     * garbage collected.
+     *
+     * @return the number of path resources currently in the cache
+     */
+    public int getCachedCount() {
+        removeCollectedEntries();
+        return entries.size();
+    }
+
+    public void logStatistics() {
+        if (!LOGGER.isLoggable(Level.FINE)) {
+            return;
+        }
+
+        long hits = hitCount.get();
+        long misses = missCount.get();
+        long total = hits + misses;
+        double hitRate = total > 0 ? 100.0 * hits / total : 0.0;
+        LOGGER.log(Level.FINE, "Path resource cache: {0} hits, {1} misses ({2}% hit rate), {3} cached entries.",
+                new Object[]{hits, misses, Math.round(hitRate), getCachedCount()});
+    }
+
+    /**
+     * Removes the path resources of the given file from the cache. This
+     * method is called automatically when the file is changed but can be
+     * called manually to force recreating the path resources.
+     *
+     * @param file the classpath entry whose path resources are to be removed.
+     *   This argument cannot be {@code null}.
+     */
+    public void invalidate(File file) {
+        ExceptionHelper.checkNotNullArgument(file, "file");
+
+        invalidationCount.incrementAndGet();
+
+        File normFile = FileUtil.normalizeFile(file);
+        for (CacheEntry entry: entries.values()) {
+            if (entry.key.file.equals(normFile)) {
+                removeEntry(entry);
+            }
+        }
+    }
+
+    private void removeCollectedEntries() {
+        while (true) {
+            CacheEntry entry = (CacheEntry)collectedEntries.poll();
+            if (entry == null) {
+                break;
+            }
+            removeEntry(entry);
+        }
+    }
+
+    private void removeEntry(CacheEntry entry) {
+        if (entries.remove(entry.key, entry)) {
+            entry.stopListening();
+        }
+    }
+
+    private static final class CacheKey {
+        private final File file;
+        private final ExcludeIncludeRules includeRules;
+
+        public CacheKey(File file, ExcludeIncludeRules includeRules) {
+            this.file = file;
+            this.includeRules = includeRules;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 7;
+            hash = 59 * hash + file.hashCode();
+            hash = 59 * hash + includeRules.hashCode();
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == null) return false;
+            if (obj == this) return true;
+            if (getClass() != obj.getClass()) return false;
+
+            final CacheKey other = (CacheKey)obj;
+            return this.file.equals(other.file)
+                    && this.includeRules.equals(other.includeRules);
+        }
+    }
+
+    private final class CacheEntry extends WeakReference<PathResourceImplementation> {
+        private final CacheKey key;
+        // This listener must not reference the resource, otherwise
+        // the file system would keep the resource reachable.
+        private final FileChangeListener fileListener;
+        private boolean listening;
+        private boolean removed;
+
+        public CacheEntry(
+                CacheKey key,
+                PathResourceImplementation resource,
+                ReferenceQueue<PathResourceImplementation> queue) {
+            super(resource, queue);
+
+            this.key = key;
+            this.fileListener = new InvalidatingListener(key.file);
+            this.listening = false;
+            this.removed = false;
+        }
+
+        public synchronized void startListening() {
+            if (removed) {
+                return;
+            }
+
+            FileUtil.addFileChangeListener(fileListener, key.file);
+            listening = true;
+        }
+
+        public synchronized void stopListening() {
+            removed = true;
+            if (!listening) {
+                return;
+            }
+            listening = false;
+
+            try {
+                FileUtil.removeFileChangeListener(fileListener, key.file);
+            } catch (IllegalArgumentException ex) {
+                LOGGER.log(Level.FINE, "Listener was already removed for " + key.file, ex);
+            }
+        }
+    }
+
+    private final class InvalidatingListener implements FileChangeListener {
+        private final File file;
+
+        public InvalidatingListener(File file) {
+            this.file = file;
+        }
+
+        private void structureChanged(FileEvent fe) {
+            // Listeners of directories are also notified about the changes
+            // of their children but those do not affect the resource.
+            if (file.equals(FileUtil.toFile(fe.getFile()))) {
+                invalidate(file);
+            }
+        }
+
+        @Override
+        public void fileFolderCreated(FileEvent fe) {
+            structureChanged(fe);
+        }
+
+        @Override
+        public void fileDataCreated(FileEvent fe) {
+            structureChanged(fe);
+        }
+
+        @Override
+        public void fileChanged(FileEvent fe) {
+            // The URL of the resource does not depend on the content.
+        }
+
+        @Override
+        public void fileDeleted(FileEvent fe) {
+            structureChanged(fe);
+        }
+
+        @Override
+        public void fileRenamed(FileRenameEvent fe) {
+            structureChanged(fe);
+        }
+
+        @Override
+        public void fileAttributeChanged(FileAttributeEvent fe) {
+        }
+    }
+}
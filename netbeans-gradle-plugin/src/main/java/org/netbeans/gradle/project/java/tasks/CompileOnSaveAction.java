@@ -1,14 +1,25 @@
 package org.netbeans.gradle.project.java.tasks;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
 import javax.swing.text.Document;
+import org.jtrim.cancel.Cancellation;
+import org.jtrim.cancel.CancellationToken;
+import org.jtrim.concurrent.CancelableTask;
 import org.jtrim.utils.ExceptionHelper;
 import org.netbeans.api.editor.mimelookup.MimeRegistration;
 import org.netbeans.api.java.project.JavaProjectConstants;
 import org.netbeans.api.project.FileOwnerQuery;
 import org.netbeans.api.project.Project;
 import org.netbeans.gradle.project.NbGradleProject;
+import org.netbeans.gradle.project.NbTaskExecutors;
+import org.netbeans.gradle.project.api.task.CommandCompleteListener;
 import org.netbeans.gradle.project.api.task.GradleActionProviderContext;
 import org.netbeans.gradle.project.properties.global.GlobalGradleSettings;
+import org.netbeans.gradle.project.tasks.CommandCancelListener;
+import org.netbeans.gradle.project.util.NbSupplier;
 import org.netbeans.modules.parsing.api.Source;
 import org.netbeans.spi.editor.document.OnSaveTask;
 import org.netbeans.spi.project.ActionProvider;
@@ -16,6 +27,28 @@ import org.openide.filesystems.FileObject;
 import org.openide.util.lookup.Lookups;
 
 public final class CompileOnSaveAction implements OnSaveTask {
+    private static final Executor BUILD_START_EXECUTOR = new Executor() {
+        @Override
+        public void execute(final Runnable command) {
+            NbTaskExecutors.DEFAULT_EXECUTOR.execute(Cancellation.UNCANCELABLE_TOKEN, new CancelableTask() {
+                @Override
+                public void execute(CancellationToken cancelToken) {
+                    command.run();
+                }
+            }, null);
+        }
+    };
+
+    private static final CompileOnSaveScheduler<Project, FileObject> SCHEDULER = new CompileOnSaveScheduler<>(
+            new NbSupplier<Integer>() {
+                @Override
+                public Integer get() {
+                    return GlobalGradleSettings.getDefault().compileOnSaveDelayMs().getValue();
+                }
+            },
+            new ProjectBuildStarter(),
+            BUILD_START_EXECUTOR);
+
     private final FileObject srcFile;
 
     public CompileOnSaveAction(FileObject srcFile) {
@@ -35,16 +68,7 @@ public final class CompileOnSaveAction implements OnSaveTask {
             return;
         }
 
-        ActionProvider actionProvider
-                = project.getLookup().lookup(ActionProvider.class);
-        if (actionProvider == null) {
-            return;
-        }
-        actionProvider.invokeAction(
-                JavaProjectConstants.COMMAND_DEBUG_FIX,
-                Lookups.fixed(srcFile,
-                        GradleActionProviderContext.DONT_SAVE_FILES,
-                        GradleActionProviderContext.DONT_FOCUS_ON_OUTPUT));
+        SCHEDULER.fileSaved(project, srcFile);
     }
 
     private static boolean isGradleProject(Project project) {
@@ -61,6 +85,46 @@ public final class CompileOnSaveAction implements OnSaveTask {
         return false;
     }
 
+    private static final class ProjectBuildStarter
+    implements
+            CompileOnSaveScheduler.BuildStarter<Project, FileObject> {
+
+        @Override
+        public void startBuild(Project project, List<FileObject> savedFiles, final Runnable onComplete) {
+            ActionProvider actionProvider
+                    = project.getLookup().lookup(ActionProvider.class);
+            if (actionProvider == null) {
+                onComplete.run();
+                return;
+            }
+
+            // The first file is used to determine the class to be reloaded,
+            // so the last saved file should be the first.
+            List<Object> context = new ArrayList<Object>(savedFiles);
+            Collections.reverse(context);
+            context.add(GradleActionProviderContext.DONT_SAVE_FILES);
+            context.add(GradleActionProviderContext.DONT_FOCUS_ON_OUTPUT);
+            context.add(new CommandCompleteListener() {
+                @Override
+                public void onComplete(Throwable error) {
+                    onComplete.run();
+                }
+            });
+            // The complete listener is not notified if the build is canceled
+            // before it was started.
+            context.add(new CommandCancelListener() {
+                @Override
+                public void onCanceled() {
+                    onComplete.run();
+                }
+            });
+
+            actionProvider.invokeAction(
+                    JavaProjectConstants.COMMAND_DEBUG_FIX,
+                    Lookups.fixed(context.toArray()));
+        }
+    }
+
     @MimeRegistration(mimeType = "", service = OnSaveTask.Factory.class, position = 30000)
     public static final class CompileOnSaveActionFactory implements Factory {
         @Override
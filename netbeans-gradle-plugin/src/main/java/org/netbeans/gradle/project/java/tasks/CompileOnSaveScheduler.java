@@ -0,0 +1,316 @@
+package org.netbeans.gradle.project.java.tasks;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.Timer;
+import org.jtrim.utils.ExceptionHelper;
+import org.netbeans.gradle.project.util.NbSupplier;
+
+/**
+ * Defines a scheduler collecting the files saved in a project and starting a
+ * single compile-on-save build for them after no file has been saved for a
+ * given (quiet) window.
+ * <P>
+ * The scheduler only starts a single build for a project at a time: Files
+ * saved while a build of their project is in progress are collected and built
+ * together once the running build completes. That is, builds which would be
+ * made obsolete by newer saves are never started.
+ * <P>
+ * Builds are started by a task submitted to the executor specified at
+ * construction time, never on the Event Dispatch Thread.
+ * <P>
+ * Instances of this class are safe to be used by multiple threads
+ * concurrently.
+ *
+ * @param <ProjectType> the type of the projects owning the saved files. The
+ *   projects must have proper {@code equals} and {@code hashCode} methods.
+ * @param <FileType> the type of the saved files
+ */
+public final class CompileOnSaveScheduler<ProjectType, FileType> {
+    private static final Logger LOGGER = Logger.getLogger(CompileOnSaveScheduler.class.getName());
+
+    // If a build does not report its completion in this time (e.g., because
+    // the build starter failed to notify us), we assume that it will never
+    // do so.
+    private static final long STALE_BUILD_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    public interface BuildStarter<ProjectType, FileType> {
+        /**
+         * Starts building the given project. This method must not wait for
+         * the build to complete.
+         *
+         * @param project the project to be built. This argument cannot be
+         *   {@code null}.
+         * @param savedFiles the files saved since the last build of the
+         *   project, in the order they were last saved. This argument cannot
+         *   be {@code null} and is never empty.
+         * @param onComplete the task which must be run after the build
+         *   completes (regardless if it has failed or not) or after the build
+         *   has been canceled (even if it has never been started). This
+         *   argument cannot be {@code null}.
+         */
+        public void startBuild(ProjectType project, List<FileType> savedFiles, Runnable onComplete);
+    }
+
+    private final NbSupplier<Integer> quietWindowMs;
+    private final BuildStarter<? super ProjectType, ? super FileType> buildStarter;
+    private final Executor buildStartExecutor;
+
+    private final ReentrantLock mainLock;
+    private final Timer flushTimer;
+    private final Map<ProjectType, ProjectState<FileType>> projectStates;
+
+    private final AtomicLong saveCount;
+    private final AtomicLong buildCount;
+
+    /**
+     * Creates a new scheduler with no files saved.
+     *
+     * @param quietWindowMs the time in milliseconds without any save to wait
+     *   for before starting the builds. This argument cannot be {@code null}.
+     * @param buildStarter the object starting the builds. This argument
+     *   cannot be {@code null}.
+     * @param buildStartExecutor the executor running the tasks calling
+     *   {@code buildStarter}. This executor should not run the tasks on the
+     *   Event Dispatch Thread. This argument cannot be {@code null}.
+     */
+    public CompileOnSaveScheduler(
+            NbSupplier<Integer> quietWindowMs,
+            BuildStarter<? super ProjectType, ? super FileType> buildStarter,
+            Executor buildStartExecutor) {
+        ExceptionHelper.checkNotNullArgument(quietWindowMs, "quietWindowMs");
+        ExceptionHelper.checkNotNullArgument(buildStarter, "buildStarter");
+        ExceptionHelper.checkNotNullArgument(buildStartExecutor, "buildStartExecutor");
+
+        this.quietWindowMs = quietWindowMs;
+        this.buildStarter = buildStarter;
+        this.buildStartExecutor = buildStartExecutor;
+        this.mainLock = new ReentrantLock();
+        this.projectStates = new LinkedHashMap<>();
+        this.saveCount = new AtomicLong(0);
+        this.buildCount = new AtomicLong(0);
+
+        this.flushTimer = new Timer(0, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                // The timer fires on the EDT but starting a build might be
+                // slow (it may even wait for the project to be loaded).
+                scheduleFlush();
+            }
+        });
+        this.flushTimer.setRepeats(false);
+    }
+
+    private int getQuietWindowMs() {
+        Integer result = quietWindowMs.get();
+        return result != null ? Math.max(0, result) : 0;
+    }
+
+    private void restartTimer() {
+        flushTimer.setInitialDelay(getQuietWindowMs());
+        flushTimer.restart();
+    }
+
+    /**
+     * Notifies the scheduler that the given file of the given project has been
+     * saved. The project will be built after the quiet window elapses without
+     * any file being saved.
+     *
+     * @param project the project owning the saved file. This argument cannot
+     *   be {@code null}.
+     * @param file the saved file. This argument cannot be {@code null}.
+     */
+    public void fileSaved(ProjectType project, FileType file) {
+        ExceptionHelper.checkNotNullArgument(project, "project");
+        ExceptionHelper.checkNotNullArgument(file, "file");
+
+        saveCount.incrementAndGet();
+
+        mainLock.lock();
+        try {
+            ProjectState<FileType> state = projectStates.get(project);
+            if (state == null) {
+                state = new ProjectState<>();
+                projectStates.put(project, state);
+            }
+
+            // Move the file to the end, so that the last saved file is the
+            // last one.
+            state.pendingFiles.remove(file);
+            state.pendingFiles.add(file);
+        } finally {
+            mainLock.unlock();
+        }
+
+        restartTimer();
+    }
+
+    private void scheduleFlush() {
+        try {
+            buildStartExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            });
+        } catch (Throwable ex) {
+            LOGGER.log(Level.SEVERE, "Failed to schedule compile-on-save builds.", ex);
+        }
+    }
+
+    private void flush() {
+        List<BuildRequest<ProjectType, FileType>> toStart = new ArrayList<>();
+
+        mainLock.lock();
+        try {
+            long now = System.nanoTime();
+            for (Map.Entry<ProjectType, ProjectState<FileType>> entry: projectStates.entrySet()) {
+                ProjectState<FileType> state = entry.getValue();
+                if (state.pendingFiles.isEmpty() || state.isBuilding(now)) {
+                    continue;
+                }
+
+                List<FileType> files = new ArrayList<>(state.pendingFiles);
+                state.pendingFiles.clear();
+                state.buildStartTime = now;
+                state.buildIndex++;
+
+                toStart.add(new BuildRequest<>(entry.getKey(), files, state.buildIndex));
+            }
+        } finally {
+            mainLock.unlock();
+        }
+
+        for (BuildRequest<ProjectType, FileType> request: toStart) {
+            startBuild(request);
+        }
+    }
+
+    private void startBuild(final BuildRequest<ProjectType, FileType> request) {
+        long currentBuildCount = buildCount.incrementAndGet();
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE,
+                    "Compiling {0} saved files of {1}. Builds saved by compile-on-save so far: {2}",
+                    new Object[]{request.files.size(), request.project, saveCount.get() - currentBuildCount});
+        }
+
+        try {
+            buildStarter.startBuild(request.project, Collections.unmodifiableList(request.files), new Runnable() {
+                @Override
+                public void run() {
+                    buildCompleted(request.project, request.buildIndex);
+                }
+            });
+        } catch (Throwable ex) {
+            LOGGER.log(Level.SEVERE, "Failed to start compile-on-save build for " + request.project, ex);
+            buildCompleted(request.project, request.buildIndex);
+        }
+    }
+
+    private void buildCompleted(ProjectType project, long buildIndex) {
+        boolean hasPending;
+        mainLock.lock();
+        try {
+            ProjectState<FileType> state = projectStates.get(project);
+            if (state == null || state.buildIndex != buildIndex || !state.isBuilding(System.nanoTime())) {
+                return;
+            }
+
+            state.buildStartTime = null;
+            hasPending = !state.pendingFiles.isEmpty();
+            if (!hasPending) {
+                projectStates.remove(project);
+            }
+        } finally {
+            mainLock.unlock();
+        }
+
+        if (hasPending) {
+            restartTimer();
+        }
+    }
+
+    /**
+     * Returns {@code true} if a build started by this scheduler for the given
+     * project has not yet reported its completion.
+     *
+     * @param project the project to be checked. This argument cannot be
+     *   {@code null}.
+     * @return {@code true} if a build of the given project is in progress,
+     *   {@code false} otherwise
+     */
+    public boolean isBuildInProgress(ProjectType project) {
+        ExceptionHelper.checkNotNullArgument(project, "project");
+
+        mainLock.lock();
+        try {
+            ProjectState<FileType> state = projectStates.get(project);
+            return state != null && state.isBuilding(System.nanoTime());
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of times a file was reported to be saved.
+     *
+     * @return the number of times a file was reported to be saved
+     */
+    public long getSaveCount() {
+        return saveCount.get();
+    }
+
+    /**
+     * Returns the number of builds started by this scheduler.
+     *
+     * @return the number of builds started by this scheduler
+     */
+    public long getBuildCount() {
+        return buildCount.get();
+    }
+
+    /**
+     * Returns the number of builds this scheduler did not have to start
+     * compared to starting a build for every save.
+     *
+     * @return the number of builds saved by coalescing the saves
+     */
+    public long getSavedBuildCount() {
+        return saveCount.get() - buildCount.get();
+    }
+
+    private static final class ProjectState<FileType> {
+        public final Set<FileType> pendingFiles = new LinkedHashSet<>();
+        public Long buildStartTime = null;
+        public long buildIndex = 0;
+
+        public boolean isBuilding(long now) {
+            return buildStartTime != null && now - buildStartTime < STALE_BUILD_TIMEOUT_NANOS;
+        }
+    }
+
+    private static final class BuildRequest<ProjectType, FileType> {
+        public final ProjectType project;
+        public final List<FileType> files;
+        public final long buildIndex;
+
+        public BuildRequest(ProjectType project, List<FileType> files, long buildIndex) {
+            this.project = project;
+            this.files = files;
+            this.buildIndex = buildIndex;
+        }
+    }
+}
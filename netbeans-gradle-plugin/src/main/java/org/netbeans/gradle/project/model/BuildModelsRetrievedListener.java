@@ -0,0 +1,7 @@
+package org.netbeans.gradle.project.model;
+
+import java.util.List;
+
+public interface BuildModelsRetrievedListener {
+    public void onComplete(NbGradleModel mainModel, List<NbGradleModel> otherModels, Throwable error);
+}
@@ -42,12 +42,14 @@ import org.netbeans.gradle.model.BuildOperationArgs;
 import org.netbeans.gradle.model.OperationInitializer;
 import org.netbeans.gradle.project.GradleVersions;
 import org.netbeans.gradle.project.LoadedProjectManager;
+import org.netbeans.gradle.project.ModelChangeBatcher;
 import org.netbeans.gradle.project.NbGradleExtensionRef;
 import org.netbeans.gradle.project.NbGradleProject;
 import org.netbeans.gradle.project.NbStrings;
 import org.netbeans.gradle.project.NbTaskExecutors;
 import org.netbeans.gradle.project.api.modelquery.GradleTarget;
 import org.netbeans.gradle.project.api.task.DaemonTaskContext;
+import org.netbeans.gradle.project.event.PausableChangeListenerManager.PauseRef;
 import org.netbeans.gradle.project.model.issue.ModelLoadIssue;
 import org.netbeans.gradle.project.model.issue.ModelLoadIssueReporter;
 import org.netbeans.gradle.project.model.issue.ModelLoadIssues;
@@ -361,6 +363,66 @@ public final class GradleModelLoader {
         }, true, GradleTasks.projectTaskCompleteListener(project));
     }
 
+    /**
+     * Loads the models of every project of the build of the given project
+     * with a single evaluation of the build scripts. Unlike
+     * {@link #fetchModel(NbGradleProject, boolean, ModelRetrievedListener) fetchModel},
+     * this method never relies on the caches, and passes the models of all the
+     * projects of the build to the given listener. So the models can be
+     * provided to the projects of the build before they are opened (see
+     * {@link NbGradleProject#setModelLoadedWithBuild(NbGradleModel)}).
+     * <P>
+     * The listener is always notified exactly once, even if loading the models
+     * fails. In case of failure, the main model passed to the listener is
+     * {@code null} and the list of other models is empty.
+     *
+     * @param rootProject the project whose build is to be evaluated. This is
+     *   usually the root project of the build. This argument cannot be
+     *   {@code null}.
+     * @param listener the listener to be notified after the models were
+     *   loaded. This argument cannot be {@code null}.
+     */
+    public static void fetchModelsOfBuild(
+            final NbGradleProject rootProject,
+            final BuildModelsRetrievedListener listener) {
+        ExceptionHelper.checkNotNullArgument(rootProject, "rootProject");
+        ExceptionHelper.checkNotNullArgument(listener, "listener");
+
+        String caption = NbStrings.getLoadingProjectText(rootProject.displayName().getValue());
+        GradleDaemonManager.submitGradleTask(PROJECT_LOADER, caption, new DaemonTask() {
+            @Override
+            public void run(CancellationToken cancelToken, ProgressHandle progress) {
+                ProjectLoadRequest projectLoadKey = getProjectLoadKey(rootProject);
+
+                NbModelLoader.Result loadedModels = null;
+                Throwable error = null;
+                try {
+                    loadedModels = loadBuildModelsWithProgress(cancelToken, projectLoadKey, progress, null);
+                    LOGGER.log(Level.INFO, "Loaded {0} projects of the build of {1} in a single evaluation.",
+                            new Object[]{loadedModels.getOtherModels().size() + 1, rootProject.getProjectDirectoryAsFile()});
+                } catch (IOException | BuildException ex) {
+                    error = ex;
+                } catch (GradleConnectionException ex) {
+                    error = ex;
+                } catch (GradleModelLoadError ex) {
+                    error = ex;
+                    reportModelLoadError(rootProject, ex);
+                } finally {
+                    if (loadedModels != null) {
+                        listener.onComplete(loadedModels.getMainModel(), loadedModels.getOtherModels(), error);
+                    }
+                    else {
+                        listener.onComplete(null, Collections.<NbGradleModel>emptyList(), error);
+                    }
+
+                    if (error != null) {
+                        GradleDaemonFailures.getDefaultHandler().tryHandleFailure(error);
+                    }
+                }
+            }
+        }, true, GradleTasks.projectTaskCompleteListener(rootProject));
+    }
+
     private static JavaPlatform tryGetScriptJavaPlatform(Project project) {
         ExceptionHelper.checkNotNullArgument(project, "project");
 
@@ -423,16 +485,30 @@ public final class GradleModelLoader {
         return modelToSave;
     }
 
-    private static void introduceProjects(
+    private static List<NbGradleModel> introduceProjects(
             List<NbGradleModel> otherModels,
             NbGradleModel mainModel) {
 
-        List<NbGradleModel> toSave = new ArrayList<>(otherModels.size() + 1);
-        for (NbGradleModel model: otherModels) {
-            toSave.add(introduceLoadedModel(model, false));
+        List<NbGradleModel> introducedOtherModels = new ArrayList<>(otherModels.size());
+
+        // Process the model changes of all the projects of the build
+        // in a single batch.
+        PauseRef pauseRef = ModelChangeBatcher.getDefault().pause();
+        try {
+            for (NbGradleModel model: otherModels) {
+                introducedOtherModels.add(introduceLoadedModel(model, false));
+            }
+            introduceLoadedModel(mainModel, true);
+        } finally {
+            pauseRef.unpause();
         }
-        toSave.add(introduceLoadedModel(mainModel, true));
+
+        List<NbGradleModel> toSave = new ArrayList<>(introducedOtherModels.size() + 1);
+        toSave.addAll(introducedOtherModels);
+        toSave.add(mainModel);
         saveToPersistentCache(toSave);
+
+        return introducedOtherModels;
     }
 
     public static void setupLongRunningOP(OperationInitializer setup, LongRunningOperation op) {
@@ -478,6 +554,14 @@ public final class GradleModelLoader {
     }
 
     private static NbGradleModel loadModelWithProgress(
+            CancellationToken cancelToken,
+            ProjectLoadRequest projectLoadKey,
+            ProgressHandle progress,
+            NbGradleModel cachedEntry) throws IOException, GradleModelLoadError {
+        return loadBuildModelsWithProgress(cancelToken, projectLoadKey, progress, cachedEntry).getMainModel();
+    }
+
+    private static NbModelLoader.Result loadBuildModelsWithProgress(
             CancellationToken cancelToken,
             final ProjectLoadRequest projectLoadKey,
             final ProgressHandle progress,
@@ -524,9 +608,9 @@ public final class GradleModelLoader {
                 ? cachedEntry.updateEntry(loadedModels.getMainModel())
                 : loadedModels.getMainModel();
 
-        introduceProjects(loadedModels.getOtherModels(), result);
+        List<NbGradleModel> otherModels = introduceProjects(loadedModels.getOtherModels(), result);
 
-        return result;
+        return new NbModelLoader.Result(result, otherModels, loadedModels.getIssues());
     }
 
     private static void reportKnownIssues(BuildEnvironment env) {
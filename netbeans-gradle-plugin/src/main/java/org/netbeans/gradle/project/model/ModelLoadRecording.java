@@ -0,0 +1,188 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.gradle.util.GradleVersion;
+import org.jtrim.utils.ExceptionHelper;
+import org.netbeans.gradle.model.FetchedBuildModels;
+import org.netbeans.gradle.model.FetchedModels;
+import org.netbeans.gradle.model.FetchedProjectModels;
+import org.netbeans.gradle.model.util.SerializationUtils;
+import org.netbeans.gradle.project.NbGradleProject;
+import org.netbeans.gradle.project.api.modelquery.GradleTarget;
+import org.openide.modules.SpecificationVersion;
+
+/**
+ * Defines the models fetched by a single model load, saved into a file so
+ * that they can be replayed later without a Gradle daemon (see
+ * {@link ModelLoadReplay}).
+ * <P>
+ * Tooling models which are not serializable (which is the case for the
+ * models returned by the Tooling API) cannot be recorded and are omitted
+ * from the recording.
+ * <P>
+ * Model loads are recorded by the IDE if the {@code netbeans.gradle.recordModelsDir}
+ * system property is set to a directory. Every model load then writes a new
+ * recording into that directory.
+ * <P>
+ * Instances of this class are immutable (assuming that the recorded models
+ * are not modified) and therefore safe to be shared by multiple threads.
+ */
+public final class ModelLoadRecording implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = Logger.getLogger(ModelLoadRecording.class.getName());
+
+    public static final String RECORD_DIR_PROPERTY = "netbeans.gradle.recordModelsDir";
+    private static final String FILE_SUFFIX = ".nbmodels";
+
+    private final String gradleVersion;
+    private final String javaVersion;
+    private final FetchedModels fetchedModels;
+
+    public ModelLoadRecording(GradleTarget gradleTarget, FetchedModels fetchedModels) {
+        ExceptionHelper.checkNotNullArgument(gradleTarget, "gradleTarget");
+        ExceptionHelper.checkNotNullArgument(fetchedModels, "fetchedModels");
+
+        this.gradleVersion = gradleTarget.getGradleVersion().getVersion();
+        this.javaVersion = gradleTarget.getJavaVersion().toString();
+        this.fetchedModels = copyRecordable(fetchedModels);
+    }
+
+    public GradleTarget getGradleTarget() {
+        return new GradleTarget(new SpecificationVersion(javaVersion), GradleVersion.version(gradleVersion));
+    }
+
+    public FetchedModels getFetchedModels() {
+        return fetchedModels;
+    }
+
+    private static FetchedModels copyRecordable(FetchedModels models) {
+        List<FetchedProjectModels> otherProjectModels = new ArrayList<>(models.getOtherProjectModels().size());
+        for (FetchedProjectModels projectModels: models.getOtherProjectModels()) {
+            otherProjectModels.add(copyRecordable(projectModels));
+        }
+
+        return new FetchedModels(
+                new FetchedBuildModels(new HashMap<Object, List<?>>(models.getBuildInfoResults())),
+                copyRecordable(models.getDefaultProjectModels()),
+                otherProjectModels);
+    }
+
+    private static FetchedProjectModels copyRecordable(FetchedProjectModels projectModels) {
+        Map<Class<?>, Object> toolingModels = new HashMap<>();
+        for (Map.Entry<Class<?>, Object> entry: projectModels.getToolingModels().entrySet()) {
+            if (entry.getValue() instanceof Serializable) {
+                toolingModels.put(entry.getKey(), entry.getValue());
+            }
+            else {
+                LOGGER.log(Level.INFO, "Tooling model cannot be recorded: {0}", entry.getKey().getName());
+            }
+        }
+
+        return new FetchedProjectModels(
+                projectModels.getProjectDef(),
+                new HashMap<Object, List<?>>(projectModels.getProjectInfoResults()),
+                toolingModels,
+                projectModels.getIssue());
+    }
+
+    /**
+     * Writes this recording to the given file, overwriting the file if it
+     * exists. The recording is written in compressed form.
+     *
+     * @param file the file to write this recording to. This argument cannot
+     *   be {@code null}.
+     *
+     * @throws IOException thrown if writing the file failed
+     */
+    public void save(Path file) throws IOException {
+        ExceptionHelper.checkNotNullArgument(file, "file");
+
+        try (OutputStream fileOutput = Files.newOutputStream(file);
+                ObjectOutputStream output = new ObjectOutputStream(new GZIPOutputStream(fileOutput))) {
+            output.writeObject(this);
+        }
+    }
+
+    /**
+     * Reads a recording written by {@link #save(Path) save}.
+     *
+     * @param file the file to read the recording from. This argument cannot
+     *   be {@code null}.
+     * @param classLoader the class loader used to load the classes of the
+     *   recorded models (usually the classes of the extensions). This argument
+     *   can be {@code null}, in which case the default class loader of the
+     *   serialization is used.
+     * @return the recording read from the given file. This method never
+     *   returns {@code null}.
+     *
+     * @throws IOException thrown if reading the file failed or the file does
+     *   not contain a recording
+     */
+    public static ModelLoadRecording load(Path file, ClassLoader classLoader) throws IOException {
+        ExceptionHelper.checkNotNullArgument(file, "file");
+
+        byte[] content;
+        try (InputStream input = new GZIPInputStream(Files.newInputStream(file))) {
+            content = readAll(input);
+        }
+
+        try {
+            Object result = classLoader != null
+                    ? SerializationUtils.deserializeObject(content, classLoader)
+                    : SerializationUtils.deserializeObject(content);
+            if (!(result instanceof ModelLoadRecording)) {
+                throw new IOException("Not a model load recording: " + file);
+            }
+            return (ModelLoadRecording)result;
+        } catch (ClassNotFoundException ex) {
+            throw new IOException("Missing class of a recorded model in " + file, ex);
+        }
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream(64 * 1024);
+        byte[] buffer = new byte[16 * 1024];
+
+        int readCount = input.read(buffer);
+        while (readCount > 0) {
+            result.write(buffer, 0, readCount);
+            readCount = input.read(buffer);
+        }
+        return result.toByteArray();
+    }
+
+    static void recordIfRequested(NbGradleProject project, GradleTarget gradleTarget, FetchedModels fetchedModels) {
+        String recordDir = System.getProperty(RECORD_DIR_PROPERTY);
+        if (recordDir == null || recordDir.isEmpty()) {
+            return;
+        }
+
+        File projectDir = project.getProjectDirectoryAsFile();
+        Path file = Paths.get(recordDir, projectDir.getName() + "-" + System.currentTimeMillis() + FILE_SUFFIX);
+        try {
+            Files.createDirectories(file.getParent());
+            new ModelLoadRecording(gradleTarget, fetchedModels).save(file);
+            LOGGER.log(Level.INFO, "Recorded the models of {0} into {1}", new Object[]{projectDir, file});
+        } catch (Throwable ex) {
+            LOGGER.log(Level.WARNING, "Failed to record the models of " + projectDir, ex);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.netbeans.gradle.project.model;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.jtrim.utils.ExceptionHelper;
+import org.netbeans.gradle.model.FetchedModels;
+import org.netbeans.gradle.project.NbGradleExtensionRef;
+import org.netbeans.gradle.project.api.modelquery.GradleTarget;
+
+/**
+ * Defines a utility class replaying previously fetched models (usually read
+ * from a {@link ModelLoadRecording}) through the same model parsing and
+ * caching steps a model load executes after the Gradle daemon returned the
+ * models. This allows measuring (and profiling) the IDE side of a model load
+ * without Gradle.
+ * <P>
+ * Issues found while parsing the models are only logged, they are not
+ * reported to the user. Replaying the models does not update the models of
+ * the projects currently open in the IDE.
+ * <P>
+ * Instances of this class are safe to be used by multiple threads concurrently
+ * if the extensions and the cache are.
+ */
+public final class ModelLoadReplay {
+    private final List<NbGradleExtensionRef> extensions;
+    private final GradleModelCache cache;
+
+    /**
+     * Creates a new {@code ModelLoadReplay} parsing the models with the given
+     * extensions and storing the parsed models in the given cache.
+     *
+     * @param extensions the extensions requesting and parsing the models.
+     *   This argument cannot be {@code null} and cannot contain {@code null}
+     *   elements.
+     * @param cache the cache to store the parsed models in. This argument
+     *   cannot be {@code null}.
+     */
+    public ModelLoadReplay(List<NbGradleExtensionRef> extensions, GradleModelCache cache) {
+        this.extensions = new ArrayList<>(extensions);
+        this.cache = cache;
+
+        ExceptionHelper.checkNotNullElements(this.extensions, "extensions");
+        ExceptionHelper.checkNotNullArgument(cache, "cache");
+    }
+
+    /**
+     * Replays the models of the given recording.
+     *
+     * @param recording the recording containing the models to be parsed.
+     *   This argument cannot be {@code null}.
+     * @param settingsFile the settings file of the build or {@code null}
+     *   if the build has no settings file (or it is unknown).
+     * @return the models as they were stored in the cache. This method never
+     *   returns {@code null}.
+     */
+    public NbModelLoader.Result replay(ModelLoadRecording recording, Path settingsFile) {
+        ExceptionHelper.checkNotNullArgument(recording, "recording");
+        return replay(recording.getGradleTarget(), recording.getFetchedModels(), settingsFile);
+    }
+
+    /**
+     * Replays the given models as if they were loaded by a Gradle daemon
+     * with the given target.
+     *
+     * @param gradleTarget the Gradle and Java version the models are assumed
+     *   to be loaded with. This argument cannot be {@code null}.
+     * @param fetchedModels the models to be parsed. This argument cannot be
+     *   {@code null}.
+     * @param settingsFile the settings file of the build or {@code null}
+     *   if the build has no settings file (or it is unknown).
+     * @return the models as they were stored in the cache. This method never
+     *   returns {@code null}.
+     */
+    public NbModelLoader.Result replay(GradleTarget gradleTarget, FetchedModels fetchedModels, Path settingsFile) {
+        NbModelLoader.Result parsed = NbGradle18ModelLoader.parseModels(
+                extensions,
+                settingsFile,
+                gradleTarget,
+                fetchedModels);
+
+        // Same order as GradleModelLoader.introduceProjects
+        List<NbGradleModel> otherModels = new ArrayList<>(parsed.getOtherModels().size());
+        for (NbGradleModel model: parsed.getOtherModels()) {
+            NbGradleModel cachedModel = cache.updateEntry(model);
+            otherModels.add(cachedModel != null ? cachedModel : model);
+        }
+
+        NbGradleModel mainModel = parsed.getMainModel();
+        cache.replaceEntry(mainModel);
+
+        return new NbModelLoader.Result(mainModel, otherModels, parsed.getIssues());
+    }
+}
@@ -4,7 +4,9 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -61,10 +63,16 @@ public final class NbCompatibleModelLoader implements NbModelLoader {
             ProgressHandle progress) throws IOException {
 
         List<NbGradleModel.Builder> otherModels = new LinkedList<>();
+        // Every model request is a separate configuration pass on the daemon
+        // with pre-1.8 Gradle, so each model is requested at most once.
+        Map<Class<?>, Object> fetchedModels = new HashMap<>();
 
         NbGradleModel.Builder mainModel;
         if (baseModels == null) {
-            mainModel = loadMainModel(project, connection, otherModels);
+            IdeaProject ideaProject = getModelWithProgress(connection, IdeaProject.class);
+            fetchedModels.put(IdeaProject.class, ideaProject);
+
+            mainModel = parseMainModel(project, ideaProject, otherModels);
         }
         else {
             mainModel = new NbGradleModel.Builder(baseModels);
@@ -76,7 +84,7 @@ public final class NbCompatibleModelLoader implements NbModelLoader {
         }
         otherModelsMap.remove(mainModel.getProjectDir());
 
-        getExtensionModels(project, connection, progress, mainModel, otherModelsMap);
+        getExtensionModels(project, connection, progress, fetchedModels, mainModel, otherModelsMap);
 
         return new Result(mainModel.create(), NbGradleModel.createAll(otherModels));
     }
@@ -90,35 +98,63 @@ public final class NbCompatibleModelLoader implements NbModelLoader {
         return builder.get();
     }
 
+    private void fetchModels(
+            ProjectConnection projectConnection,
+            ProgressHandle progress,
+            Collection<Class<?>> modelClasses,
+            Map<Class<?>, Object> fetchedModels) {
+
+        for (Class<?> modelClass: modelClasses) {
+            if (fetchedModels.containsKey(modelClass)) {
+                continue;
+            }
+
+            Object model = null;
+            try {
+                progress.progress(NbStrings.getFetchingToolingModel(modelClass));
+                model = getModelWithProgress(projectConnection, modelClass);
+            } catch (UnknownModelException ex) {
+                Throwable loggedException = LOGGER.isLoggable(Level.FINE)
+                        ? ex
+                        : null;
+                LOGGER.log(Level.INFO, "Cannot find model " + modelClass.getName(), loggedException);
+            }
+
+            // Unknown models are stored as well, so that they are not
+            // requested again for other extensions.
+            fetchedModels.put(modelClass, model);
+        }
+    }
+
     private void getExtensionModels(
             NbGradleProject project,
             ProjectConnection projectConnection,
             ProgressHandle progress,
+            Map<Class<?>, Object> fetchedModels,
             NbGradleModel.Builder mainModel,
             Map<File, NbGradleModel.Builder> otherModels) {
 
-        Map<Class<?>, Object> found = new HashMap<>();
-
         NbGradleModel initialMainModel = mainModel.create();
-        for (NbGradleExtensionRef extensionRef: GradleModelLoader.getUnloadedExtensions(project, initialMainModel)) {
-            List<Object> extensionModels = new LinkedList<>();
+        List<NbGradleExtensionRef> extensionRefs = GradleModelLoader.getUnloadedExtensions(project, initialMainModel);
 
+        Map<NbGradleExtensionRef, Collection<Class<?>>> neededModels = CollectionUtils.newHashMap(extensionRefs.size());
+        Set<Class<?>> allNeededModels = new LinkedHashSet<>();
+        for (NbGradleExtensionRef extensionRef: extensionRefs) {
             GradleModelDefQuery1 query1 = extensionRef.getModelNeeds().getQuery1();
-            for (Class<?> modelClass: query1.getToolingModels(gradleTarget)) {
-                try {
-                    Object model = found.get(modelClass);
-                    if (model == null) {
-                        progress.progress(NbStrings.getFetchingToolingModel(modelClass));
-                        model = getModelWithProgress(projectConnection, modelClass);
-                    }
-
-                    found.put(modelClass, model);
+            Collection<Class<?>> modelClasses = query1.getToolingModels(gradleTarget);
+
+            neededModels.put(extensionRef, modelClasses);
+            allNeededModels.addAll(modelClasses);
+        }
+
+        fetchModels(projectConnection, progress, allNeededModels, fetchedModels);
+
+        for (NbGradleExtensionRef extensionRef: extensionRefs) {
+            List<Object> extensionModels = new LinkedList<>();
+            for (Class<?> modelClass: neededModels.get(extensionRef)) {
+                Object model = fetchedModels.get(modelClass);
+                if (model != null) {
                     extensionModels.add(model);
-                } catch (UnknownModelException ex) {
-                    Throwable loggedException = LOGGER.isLoggable(Level.FINE)
-                            ? ex
-                            : null;
-                    LOGGER.log(Level.INFO, "Cannot find model " + modelClass.getName(), loggedException);
                 }
             }
 
@@ -150,125 +186,57 @@ public final class NbCompatibleModelLoader implements NbModelLoader {
         return result;
     }
 
-    private static NbGradleProjectTree tryCreateProjectTreeFromIdea(IdeaModule module) {
-        File moduleDir = IdeaJavaModelUtils.tryGetModuleDir(module);
-        if (moduleDir == null) {
-            return null;
-        }
-
-        int expectedChildCount = module.getGradleProject().getChildren().size();
-        List<NbGradleProjectTree> children = new ArrayList<>(expectedChildCount);
-        for (IdeaModule child: getChildModules(module)) {
-            NbGradleProjectTree childInfo = tryCreateProjectTreeFromIdea(child);
-            if (childInfo != null) {
-                children.add(childInfo);
-            }
-        }
-
-        GradleProject gradleProject = module.getGradleProject();
-        String projectName = gradleProject.getName();
-        String projectFullName = gradleProject.getPath();
-        GenericProjectProperties properties
-                = new GenericProjectProperties(projectName, projectFullName, moduleDir);
-
-        return new NbGradleProjectTree(properties, getTasksOfModule(module), children);
-    }
-
-    private static List<IdeaModule> getChildModules(IdeaModule module) {
-        Collection<? extends GradleProject> children = module.getGradleProject().getChildren();
-        Set<String> childrenPaths = CollectionUtils.newHashSet(children.size());
-        for (GradleProject child: children) {
-            childrenPaths.add(child.getPath());
-        }
-
-        List<IdeaModule> result = new LinkedList<>();
-        for (IdeaModule candidateChild: module.getProject().getModules()) {
-            if (childrenPaths.contains(candidateChild.getGradleProject().getPath())) {
-                result.add(candidateChild);
-            }
-        }
-        return result;
-    }
-
-    private static NbGradleModel loadMainModelFromIdeaModule(
-            NbGradleProjectTree rootProject,
-            IdeaModule ideaModule) throws IOException {
-        ExceptionHelper.checkNotNullArgument(rootProject, "rootProject");
-        ExceptionHelper.checkNotNullArgument(ideaModule, "ideaModule");
-
-        NbGradleProjectTree projectTree = tryCreateProjectTreeFromIdea(ideaModule);
-        if (projectTree == null) {
-            throw new IOException("Failed to create project tree for project: " + ideaModule.getName());
-        }
-
-        return new NbGradleModel(new NbGradleMultiProjectDef(rootProject, projectTree));
-    }
-
-    private NbGradleModel.Builder loadMainModel(
-            NbGradleProject project,
-            ProjectConnection projectConnection,
-            List<NbGradleModel.Builder> otherModels) throws IOException {
-
-        IdeaProject ideaProject
-                = getModelWithProgress(projectConnection, IdeaProject.class);
-
-        return parseMainModel(project, ideaProject, otherModels);
-    }
-
     private static NbGradleModel.Builder toBuilder(NbGradleMultiProjectDef projectDef) {
         return new NbGradleModel.Builder(new NbGenericModelInfo(projectDef));
     }
 
-    private static NbGradleModel.Builder toBuilder(NbGradleModel model) {
-        return new NbGradleModel.Builder(model);
-    }
-
     private static NbGradleModel.Builder parseMainModel(
             NbGradleProject project,
             IdeaProject ideaProject,
             List<NbGradleModel.Builder> otherModels) throws IOException {
         ExceptionHelper.checkNotNullArgument(project, "project");
+
+        return parseMainModel(project.getProjectDirectoryAsFile(), ideaProject, otherModels);
+    }
+
+    static NbGradleModel.Builder parseMainModel(
+            File projectDir,
+            IdeaProject ideaProject,
+            List<NbGradleModel.Builder> otherModels) throws IOException {
+        ExceptionHelper.checkNotNullArgument(projectDir, "projectDir");
         ExceptionHelper.checkNotNullArgument(ideaProject, "ideaProject");
         ExceptionHelper.checkNotNullArgument(otherModels, "otherModels");
 
-        File projectDir = project.getProjectDirectoryAsFile();
         IdeaModule mainModule = IdeaJavaModelUtils.tryFindMainModule(projectDir, ideaProject);
         if (mainModule == null) {
-            throw new IOException("Failed to find idea module for project: " + project.displayName().getValue());
+            throw new IOException("Failed to find idea module for project: " + projectDir);
         }
 
         IdeaModule rootModule = tryFindRootModule(ideaProject);
         if (rootModule == null) {
-            throw new IOException("Failed to find root module for project: " + project.displayName().getValue());
+            throw new IOException("Failed to find root module for project: " + projectDir);
         }
 
-        NbGradleProjectTree rootTree = tryCreateProjectTreeFromIdea(rootModule);
+        IdeaModuleTrees moduleTrees = new IdeaModuleTrees(ideaProject);
+
+        NbGradleProjectTree rootTree = moduleTrees.tryGetTree(rootModule);
         if (rootTree == null) {
             throw new IOException("Failed to find root tree for project: " + rootModule.getName());
         }
 
-        String rootPath = rootModule.getGradleProject().getPath();
         for (IdeaModule otherModule: ideaProject.getModules()) {
             // This comparison is not strictly necessary but there is no reason
             // to reparse the main project.
             if (otherModule != mainModule) {
-                if (rootPath.equals(otherModule.getGradleProject().getPath())) {
-                    otherModels.add(toBuilder(new NbGradleMultiProjectDef(rootTree, rootTree)));
-                }
-                else {
-                    otherModels.add(toBuilder(loadMainModelFromIdeaModule(rootTree, otherModule)));
+                NbGradleProjectTree otherTree = moduleTrees.tryGetTree(otherModule);
+                if (otherTree == null) {
+                    throw new IOException("Failed to create project tree for project: " + otherModule.getName());
                 }
+                otherModels.add(toBuilder(new NbGradleMultiProjectDef(rootTree, otherTree)));
             }
         }
 
-        NbGradleProjectTree mainTree;
-        if (rootPath.equals(mainModule.getGradleProject().getPath())) {
-            mainTree = rootTree;
-        }
-        else {
-            mainTree = tryCreateProjectTreeFromIdea(mainModule);
-        }
-
+        NbGradleProjectTree mainTree = moduleTrees.tryGetTree(mainModule);
         if (mainTree == null) {
             throw new IOException("Failed to find tree for project: " + mainModule.getName());
         }
@@ -302,4 +270,89 @@ public final class NbCompatibleModelLoader implements NbModelLoader {
         } while (current != null);
         return prev;
     }
+
+    /**
+     * Creates the project trees of the modules of an {@code IdeaProject}.
+     * The children of the modules are indexed once, and the tree of each
+     * module is only created once and shared by the trees of its ancestors.
+     * So creating the trees of every module requires time linear in the
+     * number of modules.
+     */
+    private static final class IdeaModuleTrees {
+        private final Map<String, List<IdeaModule>> childrenByParentPath;
+        private final Map<String, NbGradleProjectTree> treesByPath;
+
+        public IdeaModuleTrees(IdeaProject ideaProject) {
+            DomainObjectSet<? extends IdeaModule> modules = ideaProject.getModules();
+
+            Map<String, String> parentPathByChildPath = CollectionUtils.newHashMap(modules.size());
+            for (IdeaModule module: modules) {
+                GradleProject gradleProject = module.getGradleProject();
+                String path = gradleProject.getPath();
+                for (GradleProject child: gradleProject.getChildren()) {
+                    parentPathByChildPath.put(child.getPath(), path);
+                }
+            }
+
+            // Iterating over the modules (instead of the children) retains
+            // the order of the modules in the IdeaProject.
+            this.childrenByParentPath = CollectionUtils.newHashMap(modules.size());
+            for (IdeaModule module: modules) {
+                String parentPath = parentPathByChildPath.get(module.getGradleProject().getPath());
+                if (parentPath == null) {
+                    continue;
+                }
+
+                List<IdeaModule> siblings = childrenByParentPath.get(parentPath);
+                if (siblings == null) {
+                    siblings = new ArrayList<>();
+                    childrenByParentPath.put(parentPath, siblings);
+                }
+                siblings.add(module);
+            }
+
+            this.treesByPath = CollectionUtils.newHashMap(modules.size());
+        }
+
+        private List<IdeaModule> getChildModules(String path) {
+            List<IdeaModule> result = childrenByParentPath.get(path);
+            return result != null ? result : Collections.<IdeaModule>emptyList();
+        }
+
+        public NbGradleProjectTree tryGetTree(IdeaModule module) {
+            GradleProject gradleProject = module.getGradleProject();
+            String path = gradleProject.getPath();
+
+            if (treesByPath.containsKey(path)) {
+                return treesByPath.get(path);
+            }
+
+            NbGradleProjectTree result = tryCreateTree(module, gradleProject);
+            treesByPath.put(path, result);
+            return result;
+        }
+
+        private NbGradleProjectTree tryCreateTree(IdeaModule module, GradleProject gradleProject) {
+            File moduleDir = IdeaJavaModelUtils.tryGetModuleDir(module);
+            if (moduleDir == null) {
+                return null;
+            }
+
+            List<IdeaModule> childModules = getChildModules(gradleProject.getPath());
+            List<NbGradleProjectTree> children = new ArrayList<>(childModules.size());
+            for (IdeaModule child: childModules) {
+                NbGradleProjectTree childInfo = tryGetTree(child);
+                if (childInfo != null) {
+                    children.add(childInfo);
+                }
+            }
+
+            String projectName = gradleProject.getName();
+            String projectFullName = gradleProject.getPath();
+            GenericProjectProperties properties
+                    = new GenericProjectProperties(projectName, projectFullName, moduleDir);
+
+            return new NbGradleProjectTree(properties, getTasksOfModule(module), children);
+        }
+    }
 }
@@ -10,6 +10,9 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import org.gradle.tooling.ProjectConnection;
 import org.jtrim.utils.ExceptionHelper;
 import org.netbeans.api.progress.ProgressHandle;
@@ -39,6 +42,11 @@ import org.openide.util.Lookup;
 import org.openide.util.lookup.Lookups;
 
 public final class NbGradle18ModelLoader implements NbModelLoader {
+    private static final Logger LOGGER = Logger.getLogger(NbGradle18ModelLoader.class.getName());
+
+    private static final AtomicLong SERIALIZED_RESULT_COUNT = new AtomicLong(0);
+    private static final AtomicLong NEVER_DESERIALIZED_RESULT_COUNT = new AtomicLong(0);
+
     private final GradleTarget gradleTarget;
     private final OperationInitializer setup;
 
@@ -62,7 +70,10 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
             ProjectConnection connection,
             ProgressHandle progress) throws IOException, GradleModelLoadError {
 
-        ProjectModelFetcher modelFetcher = new ProjectModelFetcher(project, gradleTarget);
+        ProjectModelFetcher modelFetcher = new ProjectModelFetcher(
+                project.getExtensionRefs(),
+                NbGenericModelInfo.findSettingsGradle(project.getProjectDirectoryAsFile()),
+                gradleTarget);
         FetchedModelsOrError fetchedModelsOrError = modelFetcher.getModels(connection, setup);
         FetchedModels fetchedModels = fetchedModelsOrError.getModels();
         if (fetchedModels == null) {
@@ -74,10 +85,79 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
 
         progress.progress(NbStrings.getParsingModel());
 
-        ProjectModelParser parser = new ProjectModelParser(project, modelFetcher);
+        ProjectModelParser parser = new ProjectModelParser(project, project.getExtensionRefs(), modelFetcher);
+        Result result = parser.parseModel(fetchedModels);
+
+        // The fetched models are not needed after parsing, so the results
+        // not deserialized by now are never deserialized.
+        int serializedCount = fetchedModels.getSerializedResultCount();
+        int unusedCount = serializedCount - fetchedModels.getDeserializedResultCount();
+        SERIALIZED_RESULT_COUNT.addAndGet(serializedCount);
+        NEVER_DESERIALIZED_RESULT_COUNT.addAndGet(unusedCount);
+
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE,
+                    "{0} of {1} fetched builder results were never deserialized for project {2}.",
+                    new Object[]{unusedCount, serializedCount, project.getProjectDirectoryAsFile()});
+        }
+
+        ModelLoadRecording.recordIfRequested(project, gradleTarget, fetchedModels);
+
+        return result;
+    }
+
+    /**
+     * Parses already fetched models the same way as {@link #loadModels loadModels}
+     * does after fetching the models from the Gradle daemon. This method is
+     * intended to replay recorded model loads without a Gradle daemon, so the
+     * issues found while parsing the models are only logged and the returned
+     * result never contains issues.
+     *
+     * @param extensions the extensions whose models are to be parsed. This
+     *   argument cannot be {@code null}.
+     * @param settingsFile the settings file of the build or {@code null} if
+     *   the build has no settings file
+     * @param gradleTarget the target the models are assumed to be loaded for.
+     *   This argument cannot be {@code null}.
+     * @param fetchedModels the models to be parsed. This argument cannot be
+     *   {@code null}.
+     * @return the parsed models. This method never returns {@code null}.
+     */
+    public static Result parseModels(
+            List<NbGradleExtensionRef> extensions,
+            Path settingsFile,
+            GradleTarget gradleTarget,
+            FetchedModels fetchedModels) {
+        ExceptionHelper.checkNotNullElements(extensions, "extensions");
+        ExceptionHelper.checkNotNullArgument(gradleTarget, "gradleTarget");
+        ExceptionHelper.checkNotNullArgument(fetchedModels, "fetchedModels");
+
+        ProjectModelFetcher modelFetcher = new ProjectModelFetcher(extensions, settingsFile, gradleTarget);
+        ProjectModelParser parser = new ProjectModelParser(null, extensions, modelFetcher);
         return parser.parseModel(fetchedModels);
     }
 
+    /**
+     * Returns the number of builder results received in serialized form by
+     * every model load since the IDE was started.
+     *
+     * @return the number of builder results received in serialized form
+     */
+    public static long getSerializedResultCount() {
+        return SERIALIZED_RESULT_COUNT.get();
+    }
+
+    /**
+     * Returns the number of builder results counted by
+     * {@link #getSerializedResultCount()} which were never deserialized
+     * because no extension requested them.
+     *
+     * @return the number of builder results which were never deserialized
+     */
+    public static long getNeverDeserializedResultCount() {
+        return NEVER_DESERIALIZED_RESULT_COUNT.get();
+    }
+
     private static File getProjectDirFromModels(FetchedProjectModels projectModels) {
         return projectModels
                 .getProjectDef()
@@ -87,6 +167,7 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
     }
 
     private static final class ProjectModelParser {
+        // null if the models are parsed without a project (i.e., replayed)
         private final NbGradleProject mainProject;
         private final List<NbGradleExtensionRef> extensions;
         private final ProjectModelFetcher modelFetcher;
@@ -94,15 +175,39 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
         private final List<ModelLoadIssue> issues;
         private final Map<String, ModelLoadResult> modelLoadResultCache;
 
-        public ProjectModelParser(NbGradleProject mainProject, ProjectModelFetcher modelFetcher) {
+        public ProjectModelParser(
+                NbGradleProject mainProject,
+                List<NbGradleExtensionRef> extensions,
+                ProjectModelFetcher modelFetcher) {
             this.mainProject = mainProject;
-            this.extensions = mainProject.getExtensionRefs();
+            this.extensions = extensions;
             this.modelFetcher = modelFetcher;
             this.cache = new ExtensionModelCache();
             this.issues = new LinkedList<>();
             this.modelLoadResultCache = CollectionUtils.newHashMap(extensions.size());
         }
 
+        private void addBuilderIssue(
+                FetchedProjectModels projectModels,
+                NbGradleExtensionRef extension,
+                BuilderIssue issue) {
+            if (mainProject != null) {
+                issues.add(ModelLoadIssues.builderError(mainProject, projectModels, extension, issue));
+            }
+            else {
+                LOGGER.log(Level.INFO, "Builder issue of " + extension.getName(), issue.getException());
+            }
+        }
+
+        private void addProjectIssue(FetchedProjectModels projectModels, Throwable issue) {
+            if (mainProject != null) {
+                issues.add(ModelLoadIssues.projectModelLoadError(mainProject, projectModels, null, issue));
+            }
+            else {
+                LOGGER.log(Level.INFO, "Project model load issue.", issue);
+            }
+        }
+
         private void addProjectInfoResults(
                 FetchedProjectModels projectModels,
                 NbGradleExtensionRef extension,
@@ -117,11 +222,7 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
             for (BuilderResult builderResult: builderResults) {
                 BuilderIssue issue = builderResult.getIssue();
                 if (issue != null) {
-                    issues.add(ModelLoadIssues.builderError(
-                            mainProject,
-                            projectModels,
-                            extension,
-                            issue));
+                    addBuilderIssue(projectModels, extension, issue);
                 }
 
                 Object resultObject = builderResult.getResultObject();
@@ -131,23 +232,16 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
             }
         }
 
-        private Map<String, Lookup> createLookups(FetchedProjectModels projectModels) {
+        private Lookup createLookup(FetchedProjectModels projectModels, NbGradleExtensionRef extension) {
             GenericProjectProperties genericProperties
                     = projectModels.getProjectDef().getMainProject().getGenericProperties();
 
-            Map<String, Lookup> result = CollectionUtils.newHashMap(extensions.size());
-            for (NbGradleExtensionRef extension: extensions) {
-                String extensionName = extension.getName();
-
-                List<Object> models = new ArrayList<>();
-                addProjectInfoResults(projectModels, extension, models);
-                addAllNullSafe(models, modelFetcher.getToolingModelsForExtension(extension, projectModels));
-                models.add(genericProperties);
+            List<Object> models = new ArrayList<>();
+            addProjectInfoResults(projectModels, extension, models);
+            addAllNullSafe(models, modelFetcher.getToolingModelsForExtension(extension, projectModels));
+            models.add(genericProperties);
 
-                result.put(extensionName, Lookups.fixed(models.toArray()));
-            }
-
-            return result;
+            return Lookups.fixed(models.toArray());
         }
 
         private ModelLoadResult getModelLoadResult(
@@ -157,13 +251,8 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
 
             Map<File, Lookup> lookups = CollectionUtils.newHashMap(extensionModels.size());
 
-            String extensionName = extension.getName();
             for (Map.Entry<File, ProjectModelsOfExtensions> entry: extensionModels.entrySet()) {
-                Lookup lookup = entry.getValue().getExtensionLookups().get(extensionName);
-                if (lookup == null) {
-                    lookup = Lookup.EMPTY;
-                }
-                lookups.put(entry.getKey(), lookup);
+                lookups.put(entry.getKey(), entry.getValue().getExtensionLookup(extension));
             }
 
             return new ModelLoadResult(defaultProjectDir, lookups);
@@ -212,11 +301,7 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
                 Map<File, ProjectModelsOfExtensions> extensionModels) {
             Throwable issue = projectModels.getIssue();
             if (issue != null) {
-                issues.add(ModelLoadIssues.projectModelLoadError(
-                        mainProject,
-                        projectModels,
-                        null,
-                        issue));
+                addProjectIssue(projectModels, issue);
             }
 
             NbGradleMultiProjectDef projectDef = new NbGradleMultiProjectDef(projectModels.getProjectDef());
@@ -264,20 +349,35 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
     }
 
     private static final class ProjectModelsOfExtensions {
+        private final ProjectModelParser parser;
+        private final FetchedProjectModels projectModels;
         private final File projectDir;
         private final Map<String, Lookup> extensionLookups;
 
         public ProjectModelsOfExtensions(ProjectModelParser parser, FetchedProjectModels projectModels) {
-            extensionLookups = parser.createLookups(projectModels);
-            projectDir = getProjectDirFromModels(projectModels);
+            this.parser = parser;
+            this.projectModels = projectModels;
+            this.projectDir = getProjectDirFromModels(projectModels);
+            this.extensionLookups = new HashMap<>();
         }
 
         public File getProjectDir() {
             return projectDir;
         }
 
-        public Map<String, Lookup> getExtensionLookups() {
-            return extensionLookups;
+        /**
+         * Returns the models of the given extension, deserializing them when
+         * they are first requested. Extensions whose models are never requested
+         * leave their results in serialized form.
+         */
+        public Lookup getExtensionLookup(NbGradleExtensionRef extension) {
+            String extensionName = extension.getName();
+            Lookup result = extensionLookups.get(extensionName);
+            if (result == null) {
+                result = parser.createLookup(projectModels, extension);
+                extensionLookups.put(extensionName, result);
+            }
+            return result;
         }
     }
 
@@ -331,10 +431,11 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
         private final Map<String, List<Class<?>>> toolingModelNeeds;
         private final GenericModelFetcher modelFetcher;
 
-        public ProjectModelFetcher(NbGradleProject project, GradleTarget gradleTarget) {
-            this.settingsFile = NbGenericModelInfo.findSettingsGradle(project.getProjectDirectoryAsFile());
-
-            List<NbGradleExtensionRef> extensions = project.getExtensionRefs();
+        public ProjectModelFetcher(
+                List<NbGradleExtensionRef> extensions,
+                Path settingsFile,
+                GradleTarget gradleTarget) {
+            this.settingsFile = settingsFile;
             this.toolingModelNeeds = CollectionUtils.newHashMap(extensions.size());
 
             Map<Object, List<GradleBuildInfoQuery<?>>> buildInfoRequests = Collections.emptyMap();
@@ -0,0 +1,223 @@
+package org.netbeans.gradle.project.model;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.netbeans.gradle.model.GenericProjectProperties;
+import org.netbeans.gradle.model.GradleTaskID;
+import org.netbeans.gradle.model.ProjectId;
+import org.netbeans.gradle.model.util.CollectionUtils;
+
+/**
+ * Defines the difference between two {@link NbGradleModel} instances,
+ * classified by the {@link Aspect aspects} of the model which have changed.
+ * <P>
+ * Instances of this class are immutable.
+ */
+public final class NbGradleModelDiff {
+    public enum Aspect {
+        /**
+         * The generic properties of the project or the location of its
+         * settings file or of its root project.
+         */
+        SETTINGS,
+        /**
+         * The structure (names and directories) of the subprojects of the
+         * project or of its root project.
+         */
+        PROJECT_TREE,
+        /**
+         * The tasks of the project.
+         */
+        TASKS,
+        /**
+         * One of the models of the extensions (according to their
+         * {@code equals} method).
+         */
+        EXTENSION_MODELS
+    }
+
+    private static final NbGradleModelDiff NO_CHANGE
+            = new NbGradleModelDiff(Collections.<Aspect>emptySet());
+    private static final NbGradleModelDiff ALL_CHANGED
+            = new NbGradleModelDiff(EnumSet.allOf(Aspect.class));
+
+    private final Set<Aspect> changedAspects;
+
+    private NbGradleModelDiff(Set<Aspect> changedAspects) {
+        this.changedAspects = changedAspects;
+    }
+
+    /**
+     * Returns the difference between the given models.
+     *
+     * @param prevModel the previous model. This argument can be {@code null},
+     *   in which case every aspect is considered to be changed.
+     * @param newModel the new model. This argument can be {@code null},
+     *   in which case every aspect is considered to be changed.
+     * @return the difference between the given models. This method never
+     *   returns {@code null}.
+     */
+    public static NbGradleModelDiff compare(NbGradleModel prevModel, NbGradleModel newModel) {
+        if (prevModel == newModel) {
+            return NO_CHANGE;
+        }
+        if (prevModel == null || newModel == null) {
+            return ALL_CHANGED;
+        }
+
+        Set<Aspect> changed = EnumSet.noneOf(Aspect.class);
+
+        NbGradleProjectTree prevMain = prevModel.getMainProject();
+        NbGradleProjectTree newMain = newModel.getMainProject();
+
+        if (!Objects.equals(prevModel.getSettingsFile(), newModel.getSettingsFile())
+                || !equalsProperties(prevMain.getGenericProperties(), newMain.getGenericProperties())
+                || !equalsProperties(
+                        prevModel.getProjectDef().getRootProject().getGenericProperties(),
+                        newModel.getProjectDef().getRootProject().getGenericProperties())) {
+            changed.add(Aspect.SETTINGS);
+        }
+
+        if (!equalsTree(prevMain, newMain)
+                || !equalsTree(prevModel.getProjectDef().getRootProject(), newModel.getProjectDef().getRootProject())) {
+            changed.add(Aspect.PROJECT_TREE);
+        }
+
+        if (!equalsTasks(prevMain.getTasks(), newMain.getTasks())) {
+            changed.add(Aspect.TASKS);
+        }
+
+        if (!prevModel.getExtensionModels().equals(newModel.getExtensionModels())) {
+            changed.add(Aspect.EXTENSION_MODELS);
+        }
+
+        return changed.isEmpty() ? NO_CHANGE : new NbGradleModelDiff(Collections.unmodifiableSet(changed));
+    }
+
+    /**
+     * Returns the diff containing the changed aspects of both this and the
+     * given diff.
+     *
+     * @param other the other diff. This argument cannot be {@code null}.
+     * @return the diff containing the changed aspects of both this and the
+     *   given diff. This method never returns {@code null}.
+     */
+    public NbGradleModelDiff merge(NbGradleModelDiff other) {
+        if (other.changedAspects.containsAll(changedAspects)) {
+            return other;
+        }
+        if (changedAspects.containsAll(other.changedAspects)) {
+            return this;
+        }
+
+        Set<Aspect> merged = EnumSet.noneOf(Aspect.class);
+        merged.addAll(changedAspects);
+        merged.addAll(other.changedAspects);
+        return new NbGradleModelDiff(Collections.unmodifiableSet(merged));
+    }
+
+    public static NbGradleModelDiff noChange() {
+        return NO_CHANGE;
+    }
+
+    public static NbGradleModelDiff allChanged() {
+        return ALL_CHANGED;
+    }
+
+    public Set<Aspect> getChangedAspects() {
+        return changedAspects;
+    }
+
+    public boolean hasChanged(Aspect aspect) {
+        return changedAspects.contains(aspect);
+    }
+
+    public boolean isEmpty() {
+        return changedAspects.isEmpty();
+    }
+
+    private static boolean equalsProperties(GenericProjectProperties properties1, GenericProjectProperties properties2) {
+        return properties1.getProjectName().equals(properties2.getProjectName())
+                && properties1.getProjectFullName().equals(properties2.getProjectFullName())
+                && properties1.getProjectDir().equals(properties2.getProjectDir())
+                && Objects.equals(properties1.getBuildScript(), properties2.getBuildScript())
+                && Objects.equals(properties1.getBuildDir(), properties2.getBuildDir())
+                && equalsProjectId(properties1.getProjectId(), properties2.getProjectId());
+    }
+
+    private static boolean equalsProjectId(ProjectId id1, ProjectId id2) {
+        if (id1 == id2) {
+            return true;
+        }
+        if (id1 == null || id2 == null) {
+            return false;
+        }
+
+        return Objects.equals(id1.getGroup(), id2.getGroup())
+                && Objects.equals(id1.getName(), id2.getName())
+                && Objects.equals(id1.getVersion(), id2.getVersion());
+    }
+
+    private static boolean equalsTasks(Collection<GradleTaskID> tasks1, Collection<GradleTaskID> tasks2) {
+        if (tasks1.size() != tasks2.size()) {
+            return false;
+        }
+
+        Iterator<GradleTaskID> tasks2Itr = tasks2.iterator();
+        for (GradleTaskID task1: tasks1) {
+            GradleTaskID task2 = tasks2Itr.next();
+            if (!task1.getFullName().equals(task2.getFullName())
+                    || !task1.getName().equals(task2.getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equalsTree(NbGradleProjectTree tree1, NbGradleProjectTree tree2) {
+        Collection<NbGradleProjectTree> children1 = tree1.getChildren();
+        Collection<NbGradleProjectTree> children2 = tree2.getChildren();
+        if (children1.size() != children2.size()) {
+            return false;
+        }
+        if (children1.isEmpty()) {
+            return true;
+        }
+
+        Map<String, NbGradleProjectTree> children2Map = getChildrenMap(children2);
+        for (NbGradleProjectTree subTree1: children1) {
+            NbGradleProjectTree subTree2 = children2Map.get(subTree1.getProjectName());
+            if (subTree2 == null) {
+                return false;
+            }
+
+            if (!subTree1.getProjectDir().equals(subTree2.getProjectDir())
+                    || !subTree1.getProjectFullName().equals(subTree2.getProjectFullName())) {
+                return false;
+            }
+
+            if (!equalsTree(subTree1, subTree2)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, NbGradleProjectTree> getChildrenMap(Collection<NbGradleProjectTree> children) {
+        Map<String, NbGradleProjectTree> result = CollectionUtils.newHashMap(children.size());
+        for (NbGradleProjectTree child: children) {
+            result.put(child.getProjectName(), child);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "NbGradleModelDiff{" + changedAspects + '}';
+    }
+}
@@ -67,11 +67,7 @@ public final class PluginClassConstructor {
             return null;
         }
 
-        try {
-            return type.getConstructor(getArgTypes());
-        } catch (NoSuchMethodException ex) {
-            return null;
-        }
+        return ReflectionCache.tryGetConstructor(type, getArgTypes());
     }
 
     public Object tryCreateInstance(Object... arguments) {
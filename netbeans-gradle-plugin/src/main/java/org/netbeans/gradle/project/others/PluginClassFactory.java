@@ -50,14 +50,9 @@ public final class PluginClassFactory {
     }
 
     public Class<?> tryFindClass(String className) {
-        try {
-            ClassLoader classLoader = tryGetModuleClassLoader();
-            if (classLoader != null) {
-                return Class.forName(className, true, classLoader);
-            }
-        } catch (ClassNotFoundException ex) {
-        }
-
-        return null;
+        ClassLoader classLoader = tryGetModuleClassLoader();
+        return classLoader != null
+                ? ReflectionCache.tryFindClass(classLoader, className)
+                : null;
     }
 }
\ No newline at end of file
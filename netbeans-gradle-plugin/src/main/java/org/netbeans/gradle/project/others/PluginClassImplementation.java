@@ -98,7 +98,10 @@ public final class PluginClassImplementation {
         @Override
         public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
             Method delegateMethod
-                    = delegate.getClass().getMethod(method.getName(), method.getParameterTypes());
+                    = ReflectionCache.tryGetMethod(delegate.getClass(), method.getName(), method.getParameterTypes());
+            if (delegateMethod == null) {
+                throw new NoSuchMethodException(delegate.getClass().getName() + "." + method.getName());
+            }
             return delegateMethod.invoke(delegate, args);
         }
 
@@ -79,11 +79,7 @@ public final class PluginClassMethod {
             return null;
         }
 
-        try {
-            return type.getMethod(methodName, getArgTypes());
-        } catch (NoSuchMethodException ex) {
-            return null;
-        }
+        return ReflectionCache.tryGetMethod(type, methodName, getArgTypes());
     }
 
     private String getClassName() {
@@ -0,0 +1,273 @@
+package org.netbeans.gradle.project.others;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import org.jtrim.utils.ExceptionHelper;
+
+/**
+ * Caches the results of the reflective lookups done by the classes of this
+ * package, so that looking up the same class, method or constructor again
+ * costs only a hash lookup (even if the lookup failed previously).
+ * <P>
+ * The members of a class are cached in a {@code ClassValue}, so they are
+ * removed together with the class. Classes looked up by name are cached per
+ * {@code ClassLoader} in a map with weak keys (and weakly referenced
+ * values), so caching them does not prevent a module from being unloaded.
+ * <P>
+ * The methods of this class are safe to be called from multiple threads
+ * concurrently.
+ */
+final class ReflectionCache {
+    private static final Class<?>[] EMPTY_CLASS_ARR = new Class<?>[0];
+    private static final Object MISSING = new Object();
+    private static final Reference<Class<?>> MISSING_CLASS = new WeakReference<>(null);
+
+    private static final ClassValue<ClassInfo> CLASS_INFOS = new ClassValue<ClassInfo>() {
+        @Override
+        protected ClassInfo computeValue(Class<?> type) {
+            return new ClassInfo(type);
+        }
+    };
+
+    private static final ReentrantLock CLASSES_LOCK = new ReentrantLock();
+    private static final Map<ClassLoader, ConcurrentMap<String, Reference<Class<?>>>> CLASSES
+            = new WeakHashMap<>();
+
+    /**
+     * Returns the class with the given name as returned by
+     * {@code Class.forName(className, true, classLoader)} or {@code null}
+     * if there is no such class.
+     */
+    public static Class<?> tryFindClass(ClassLoader classLoader, String className) {
+        ExceptionHelper.checkNotNullArgument(classLoader, "classLoader");
+        ExceptionHelper.checkNotNullArgument(className, "className");
+
+        ConcurrentMap<String, Reference<Class<?>>> classes = getClassesOfLoader(classLoader);
+
+        Reference<Class<?>> resultRef = classes.get(className);
+        Class<?> result = resultRef != null ? resultRef.get() : null;
+        // The class might have been defined by another (already unloaded)
+        // class loader, so a cleared reference is not a missing class.
+        if (resultRef == null || (result == null && resultRef != MISSING_CLASS)) {
+            resultRef = loadClass(classLoader, className);
+            classes.put(className, resultRef);
+            result = resultRef.get();
+        }
+        return result;
+    }
+
+    private static Reference<Class<?>> loadClass(ClassLoader classLoader, String className) {
+        try {
+            return new WeakReference<Class<?>>(Class.forName(className, true, classLoader));
+        } catch (ClassNotFoundException ex) {
+            return MISSING_CLASS;
+        }
+    }
+
+    private static ConcurrentMap<String, Reference<Class<?>>> getClassesOfLoader(ClassLoader classLoader) {
+        CLASSES_LOCK.lock();
+        try {
+            ConcurrentMap<String, Reference<Class<?>>> result = CLASSES.get(classLoader);
+            if (result == null) {
+                result = new ConcurrentHashMap<>();
+                CLASSES.put(classLoader, result);
+            }
+            return result;
+        } finally {
+            CLASSES_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Returns the method as returned by {@code type.getMethod(methodName, paramTypes)}
+     * or {@code null} if there is no such method.
+     */
+    public static Method tryGetMethod(Class<?> type, String methodName, Class<?>... paramTypes) {
+        return CLASS_INFOS.get(type).tryGetMethod(methodName, paramTypes);
+    }
+
+    /**
+     * Returns the constructor as returned by {@code type.getConstructor(paramTypes)}
+     * or {@code null} if there is no such constructor.
+     */
+    public static Constructor<?> tryGetConstructor(Class<?> type, Class<?>... paramTypes) {
+        return CLASS_INFOS.get(type).tryGetConstructor(paramTypes);
+    }
+
+    /**
+     * Returns the public constructors of the given class. The returned array
+     * is shared and must not be modified.
+     */
+    public static ConstructorDef[] getPublicConstructors(Class<?> type) {
+        return CLASS_INFOS.get(type).getPublicConstructors();
+    }
+
+    /**
+     * Returns the names of the given class, its superclasses and the
+     * interfaces directly implemented by any of these classes.
+     */
+    public static Set<String> getTypeNames(Class<?> type) {
+        return CLASS_INFOS.get(type).getTypeNames();
+    }
+
+    public static final class ConstructorDef {
+        private final Constructor<?> constructor;
+        private final Class<?>[] paramTypes;
+
+        private ConstructorDef(Constructor<?> constructor) {
+            this.constructor = constructor;
+            this.paramTypes = constructor.getParameterTypes();
+        }
+
+        public Constructor<?> getConstructor() {
+            return constructor;
+        }
+
+        /**
+         * Returns the parameter types of the constructor. The returned array
+         * is shared and must not be modified.
+         */
+        public Class<?>[] getParamTypes() {
+            return paramTypes;
+        }
+    }
+
+    private static final class MemberKey {
+        private final String name;
+        private final Class<?>[] paramTypes;
+
+        public MemberKey(String name, Class<?>[] paramTypes) {
+            this.name = name;
+            this.paramTypes = paramTypes != null ? paramTypes.clone() : EMPTY_CLASS_ARR;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + Arrays.hashCode(paramTypes);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null) return false;
+            if (getClass() != obj.getClass()) return false;
+
+            final MemberKey other = (MemberKey)obj;
+            return name.equals(other.name) && Arrays.equals(paramTypes, other.paramTypes);
+        }
+    }
+
+    private static final class ClassInfo {
+        private static final String CONSTRUCTOR_NAME = "<init>";
+
+        private final Class<?> type;
+        private final ConcurrentMap<MemberKey, Object> members;
+
+        private volatile Set<String> typeNamesCache;
+        @SuppressWarnings("VolatileArrayField")
+        private volatile ConstructorDef[] publicConstructorsCache;
+
+        public ClassInfo(Class<?> type) {
+            this.type = type;
+            this.members = new ConcurrentHashMap<>();
+            this.typeNamesCache = null;
+            this.publicConstructorsCache = null;
+        }
+
+        public Method tryGetMethod(String methodName, Class<?>[] paramTypes) {
+            ExceptionHelper.checkNotNullArgument(methodName, "methodName");
+
+            MemberKey key = new MemberKey(methodName, paramTypes);
+            Object result = members.get(key);
+            if (result == null) {
+                result = findMethod(key);
+                members.putIfAbsent(key, result);
+            }
+            return result != MISSING ? (Method)result : null;
+        }
+
+        private Object findMethod(MemberKey key) {
+            try {
+                return type.getMethod(key.name, key.paramTypes);
+            } catch (NoSuchMethodException ex) {
+                return MISSING;
+            }
+        }
+
+        public Constructor<?> tryGetConstructor(Class<?>[] paramTypes) {
+            MemberKey key = new MemberKey(CONSTRUCTOR_NAME, paramTypes);
+            Object result = members.get(key);
+            if (result == null) {
+                result = findConstructor(key);
+                members.putIfAbsent(key, result);
+            }
+            return result != MISSING ? (Constructor<?>)result : null;
+        }
+
+        private Object findConstructor(MemberKey key) {
+            try {
+                return type.getConstructor(key.paramTypes);
+            } catch (NoSuchMethodException ex) {
+                return MISSING;
+            }
+        }
+
+        public ConstructorDef[] getPublicConstructors() {
+            ConstructorDef[] result = publicConstructorsCache;
+            if (result == null) {
+                Constructor<?>[] constructors = type.getConstructors();
+                ConstructorDef[] defs = new ConstructorDef[constructors.length];
+                int defCount = 0;
+                for (Constructor<?> constructor: constructors) {
+                    if (Modifier.isPublic(constructor.getModifiers())) {
+                        defs[defCount] = new ConstructorDef(constructor);
+                        defCount++;
+                    }
+                }
+
+                result = Arrays.copyOf(defs, defCount);
+                publicConstructorsCache = result;
+            }
+            return result;
+        }
+
+        public Set<String> getTypeNames() {
+            Set<String> result = typeNamesCache;
+            if (result == null) {
+                result = Collections.unmodifiableSet(findTypeNames());
+                typeNamesCache = result;
+            }
+            return result;
+        }
+
+        private Set<String> findTypeNames() {
+            Set<String> result = new HashSet<>();
+            result.add(type.getName());
+            for (Class<?> implementedIF: type.getInterfaces()) {
+                result.add(implementedIF.getName());
+            }
+
+            Class<?> superclass = type.getSuperclass();
+            if (superclass != null) {
+                result.addAll(CLASS_INFOS.get(superclass).getTypeNames());
+            }
+            return result;
+        }
+    }
+
+    private ReflectionCache() {
+        throw new AssertionError();
+    }
+}
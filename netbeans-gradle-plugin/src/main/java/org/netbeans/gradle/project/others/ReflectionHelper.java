@@ -2,9 +2,7 @@ package org.netbeans.gradle.project.others;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Member;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
@@ -20,20 +18,13 @@ public final class ReflectionHelper {
     }
 
     private static boolean isTypeOfAny(Class<?> type, Set<String> requiredTypeNames) {
-        if (requiredTypeNames.contains(type.getName())) {
-            return true;
-        }
-
-        for (Class<?> implementedIF: type.getInterfaces()) {
-            if (requiredTypeNames.contains(implementedIF.getName())) {
+        Set<String> typeNames = ReflectionCache.getTypeNames(type);
+        for (String requiredTypeName: requiredTypeNames) {
+            if (typeNames.contains(requiredTypeName)) {
                 return true;
             }
         }
-
-        Class<?> superclass = type.getSuperclass();
-        return superclass != null
-                ? isTypeOfAny(superclass, requiredTypeNames)
-                : false;
+        return false;
     }
 
     public static boolean isInstanceOfAny(Object obj, Set<String> requiredTypeNames) {
@@ -53,15 +44,12 @@ public final class ReflectionHelper {
         return true;
     }
 
-    private static boolean isPublic(Member member) {
-        return Modifier.isPublic(member.getModifiers());
-    }
-
     public static Object tryCreateInstance(Class<?> cl, Map<Class<?>, Object> args) {
-        for (Constructor<?> constructor: cl.getConstructors()) {
-            Class<?>[] paramTypes = constructor.getParameterTypes();
+        for (ReflectionCache.ConstructorDef constructorDef: ReflectionCache.getPublicConstructors(cl)) {
+            Constructor<?> constructor = constructorDef.getConstructor();
+            Class<?>[] paramTypes = constructorDef.getParamTypes();
 
-            if (isPublic(constructor) && areParamsOk(paramTypes, args)) {
+            if (areParamsOk(paramTypes, args)) {
                 Object[] passedArgs = new Object[paramTypes.length];
                 for (int i = 0; i < passedArgs.length; i++) {
                     passedArgs[i] = args.get(paramTypes[i]);
@@ -83,11 +71,7 @@ public final class ReflectionHelper {
     }
 
     public static Method tryGetMethod(Class<?> cl, String methodName, Class<?>... args) {
-        try {
-            return cl.getMethod(methodName, args);
-        } catch (NoSuchMethodException ex) {
-            return null;
-        }
+        return ReflectionCache.tryGetMethod(cl, methodName, args);
     }
 
     public static Object tryInvoke(Method method, Object obj, Object... args) {
@@ -176,7 +176,8 @@ public final class IOTabs {
                         task.getProject(),
                         adjust(task.getTaskDefFactroy(), template),
                         Collections.<GradleActionProviderContext>emptySet(),
-                        task.getListener());
+                        task.getListener(),
+                        task.getCancelListener());
                 newTask.run();
             }
         }
@@ -5,23 +5,40 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
-import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CoderResult;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import org.jtrim.utils.ExceptionHelper;
 
+/**
+ * Defines an {@code InputStream} encoding the characters of a {@code Reader}.
+ * <P>
+ * The characters read from the reader are stored in a fixed size buffer which
+ * is reused for the whole lifetime of the stream and they are encoded (with
+ * the same {@code CharsetEncoder}) directly into the array passed to the
+ * {@code read} method. An internal byte buffer is only used when the array
+ * passed to {@code read} is too small to hold the encoded form of a single
+ * character. So reading from this stream requires a constant amount of memory
+ * and time proportional to the number of characters read.
+ */
 public final class ReaderInputStream extends InputStream {
+    private static final int CHAR_BUFFER_SIZE = 4096;
+    // Must be large enough to hold the encoded form of a single character,
+    // and whatever the encoder writes when flushed.
+    private static final int MIN_BYTE_BUFFER_SIZE = 64;
+
     private final Reader reader;
-    private final AtomicReference<byte[]> cacheRef;
 
-    private final Lock encoderLock;
+    private final Lock mainLock;
     private final CharsetEncoder encoder;
-    private boolean eofReached;
-    private char[] remainingChars;
+    // Both buffers are kept ready for reading (flipped) between calls.
+    private final CharBuffer chars;
+    private final ByteBuffer pendingBytes;
+    private final byte[] singleByte;
+    private boolean endOfInput;
+    private boolean flushed;
 
     public ReaderInputStream(Reader reader) {
         this(reader, Charset.defaultCharset());
@@ -32,176 +49,121 @@ public final class ReaderInputStream extends InputStream {
         ExceptionHelper.checkNotNullArgument(encoding, "encoding");
 
         this.reader = reader;
-        this.encoderLock = new ReentrantLock();
+        this.mainLock = new ReentrantLock();
         this.encoder = encoding.newEncoder();
-        this.remainingChars = null;
-        this.eofReached = false;
-        this.cacheRef = new AtomicReference<>(new byte[0]);
-    }
 
-    private int readFromCache(byte[] b, int offset, int length) {
-        byte[] cache;
-        byte[] newCache;
-        int toRead;
-        do {
-            cache = cacheRef.get();
-            toRead = Math.min(cache.length, length);
-            System.arraycopy(cache, 0, b, offset, toRead);
-            newCache = new byte[cache.length - toRead];
-            System.arraycopy(cache, toRead, newCache, 0, newCache.length);
-        } while (!cacheRef.compareAndSet(cache, newCache));
-        return toRead;
-    }
+        this.chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+        this.chars.flip();
 
-    private ByteBuffer encodeChars(char[] chars, int charCount) throws CharacterCodingException {
-        return encodeChars(chars, charCount, false);
-    }
+        int pendingCapacity = Math.max(MIN_BYTE_BUFFER_SIZE, 4 * (int)Math.ceil(encoder.maxBytesPerChar()));
+        this.pendingBytes = ByteBuffer.allocate(pendingCapacity);
+        this.pendingBytes.flip();
 
-    private ByteBuffer encodeChars(char[] chars, int charCount, boolean finalBytes) throws CharacterCodingException {
-        encoderLock.lock();
-        try {
-            CharBuffer input;
-            if (remainingChars == null || remainingChars.length == 0) {
-                input = CharBuffer.wrap(chars, 0, charCount);
-            }
-            else {
-                char[] toPrepend = remainingChars;
-                remainingChars = null;
+        this.singleByte = new byte[1];
+        this.endOfInput = false;
+        this.flushed = false;
+    }
 
-                char[] newChars = new char[charCount + toPrepend.length];
-                System.arraycopy(toPrepend, 0, newChars, 0, toPrepend.length);
-                System.arraycopy(chars, 0, newChars, toPrepend.length, charCount);
+    /**
+     * Encodes the already read characters into the given buffer.
+     *
+     * @return the result of the encoding or {@code null} if the stream has
+     *   been completely encoded
+     */
+    private CoderResult encodeStep(ByteBuffer out) throws IOException {
+        if (flushed) {
+            return null;
+        }
 
-                input = CharBuffer.wrap(newChars);
+        CoderResult result = encoder.encode(chars, out, endOfInput);
+        if (endOfInput && result.isUnderflow()) {
+            result = encoder.flush(out);
+            if (result.isUnderflow()) {
+                flushed = true;
             }
+        }
 
-            int n = (int)(input.remaining() * encoder.averageBytesPerChar());
-            ByteBuffer out = ByteBuffer.allocate(n);
+        if (result.isError()) {
+            result.throwException();
+        }
+        return result;
+    }
 
-            while (true) {
-                CoderResult result = encoder.encode(input, out, finalBytes);
-                if (result.isOverflow()) {
-                    n = 2 * n + 1;
-                    ByteBuffer newOut = ByteBuffer.allocate(n);
-                    out.flip();
-                    newOut.put(out);
-                    out = newOut;
-                }
-                else if (result.isError()) {
-                    result.throwException();
-                }
-                else {
-                    int remainingCount = input.remaining();
-                    if (remainingCount > 0) {
-                        char[] currentRemaining = new char[remainingCount];
-                        input.get(currentRemaining);
-                        remainingChars = currentRemaining;
-                    }
-                    break;
-                }
+    private void readChars() throws IOException {
+        chars.compact();
+        try {
+            int readCount = reader.read(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+            if (readCount <= 0) {
+                // readCount should never be zero but if reader returns zero
+                // regardless, assume that it believes that EOF has been
+                // reached.
+                endOfInput = true;
+            }
+            else {
+                chars.position(chars.position() + readCount);
             }
-
-            out.flip();
-            return out;
         } finally {
-            encoderLock.unlock();
+            chars.flip();
         }
     }
 
-    private ByteBuffer completeStream() throws CharacterCodingException {
-        encoderLock.lock();
-        try {
-            if (eofReached) {
-                return null;
-            }
-            eofReached = true;
+    private int readPending(byte[] b, int off, int len) {
+        int toRead = Math.min(pendingBytes.remaining(), len);
+        pendingBytes.get(b, off, toRead);
+        return toRead;
+    }
 
-            char[] finalChars = remainingChars;
-            remainingChars = null;
+    private int readUnlocked(byte[] b, int off, int len) throws IOException {
+        if (pendingBytes.hasRemaining()) {
+            return readPending(b, off, len);
+        }
 
-            if (finalChars == null) {
-                finalChars = new char[0];
+        ByteBuffer out = ByteBuffer.wrap(b, off, len);
+        while (true) {
+            CoderResult result = encodeStep(out);
+
+            int encodedCount = out.position() - off;
+            if (encodedCount > 0) {
+                return encodedCount;
             }
 
-            ByteBuffer out = encodeChars(finalChars, finalChars.length, true);
-            int n = out.capacity();
+            if (result == null) {
+                return -1;
+            }
 
-            while (true) {
-                CoderResult result = encoder.flush(out);
-                if (result.isUnderflow()) {
-                    break;
+            if (result.isOverflow()) {
+                // The array of the caller cannot hold the encoded form of the
+                // next character.
+                pendingBytes.clear();
+                try {
+                    encodeStep(pendingBytes);
+                } finally {
+                    pendingBytes.flip();
                 }
 
-                if (result.isOverflow()) {
-                    n = 2 * n + 1;
-                    ByteBuffer newOut = ByteBuffer.allocate(n);
-                    out.flip();
-                    newOut.put(out);
-                    out = newOut;
-                }
-                else {
-                    result.throwException();
+                if (pendingBytes.hasRemaining()) {
+                    return readPending(b, off, len);
                 }
             }
-
-            out.flip();
-            return out;
-        } finally {
-            encoderLock.unlock();
-        }
-    }
-
-    private boolean readToCache(int requiredBytes) throws IOException {
-        assert requiredBytes > 0;
-        // We rely on the encoder to choose the number of bytes to read but
-        // it does not have to be actually accurate, it only matters
-        // performance wise but this is not a performance critical code.
-        int toRead = (int)((float)requiredBytes / encoder.averageBytesPerChar()) + 1;
-        toRead = Math.max(toRead, requiredBytes);
-        char[] readChars = new char[toRead];
-        int readCount = reader.read(readChars);
-
-        ByteBuffer encodedBuffer;
-        if (readCount <= 0) {
-            // readCount should never be zero but if reader returns zero
-            // regardless, assume that it believes that EOF has been
-            // reached.
-
-            encodedBuffer = completeStream();
-            if (encodedBuffer == null || encodedBuffer.remaining() <= 0) {
-                return false;
+            else if (!endOfInput) {
+                readChars();
             }
         }
-        else {
-            encodedBuffer = encodeChars(readChars, readCount);
-        }
-
-        byte[] encoded = new byte[encodedBuffer.remaining()];
-        encodedBuffer.get(encoded);
-        appendToCache(encoded);
-        return true;
-    }
-
-    private void appendToCache(byte[] newBytes) {
-        byte[] oldCache;
-        byte[] newCache;
-        do {
-            oldCache = cacheRef.get();
-            newCache = new byte[oldCache.length + newBytes.length];
-            System.arraycopy(oldCache, 0, newCache, 0, oldCache.length);
-            System.arraycopy(newBytes, 0, newCache, oldCache.length, newBytes.length);
-        } while (!cacheRef.compareAndSet(oldCache, newCache));
     }
 
     @Override
     public int read() throws IOException {
-        byte[] result = new byte[1];
-        if (read(result) <= 0) {
-            // Althouth the above read should never return zero.
-            return -1;
-        }
-        else {
-            return (int)result[0] & 0xFF;
+        mainLock.lock();
+        try {
+            if (read(singleByte) <= 0) {
+                // Althouth the above read should never return zero.
+                return -1;
+            }
+            else {
+                return (int)singleByte[0] & 0xFF;
+            }
+        } finally {
+            mainLock.unlock();
         }
     }
 
@@ -222,19 +184,22 @@ public final class ReaderInputStream extends InputStream {
             return 0;
         }
 
-        int currentOffset = off;
-        int currentLength = len;
-        int readCount = 0;
-        do {
-            int currentRead = readFromCache(b, currentOffset, currentLength);
-            readCount += currentRead;
-            currentOffset += currentRead;
-            currentLength -= currentRead;
-            if (readCount > 0) {
-                return readCount;
-            }
-        } while (readToCache(currentLength));
-        return readCount > 0 ? readCount : -1;
+        mainLock.lock();
+        try {
+            return readUnlocked(b, off, len);
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    @Override
+    public int available() throws IOException {
+        mainLock.lock();
+        try {
+            return pendingBytes.remaining();
+        } finally {
+            mainLock.unlock();
+        }
     }
 
     @Override
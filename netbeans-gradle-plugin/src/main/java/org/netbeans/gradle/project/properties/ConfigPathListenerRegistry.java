@@ -0,0 +1,278 @@
+package org.netbeans.gradle.project.properties;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import org.jtrim.event.EventDispatcher;
+import org.jtrim.event.ListenerRef;
+import org.jtrim.utils.ExceptionHelper;
+
+/**
+ * Defines a listener registry where listeners are registered for a set of
+ * {@link ConfigPath config paths} and are only notified if one of the changed
+ * paths intersects with one of their paths. That is, a listener is notified if
+ * one of its paths is a parent of (or the same as) a changed path or the other
+ * way around.
+ * <P>
+ * Listeners are stored in a tree indexed by the keys of their paths, so
+ * finding the listeners affected by a change does not require checking every
+ * registered listener.
+ * <P>
+ * Instances of this class are safe to be used by multiple threads
+ * concurrently. Listeners are notified outside the internal lock of the
+ * registry.
+ *
+ * @param <ListenerType> the type of the listeners
+ */
+final class ConfigPathListenerRegistry<ListenerType> {
+    private final ReentrantLock mainLock;
+    private final PathNode<ListenerType> root;
+
+    public ConfigPathListenerRegistry() {
+        this.mainLock = new ReentrantLock();
+        this.root = new PathNode<>(null, null);
+    }
+
+    public ListenerRef registerListener(Collection<ConfigPath> paths, ListenerType listener) {
+        ExceptionHelper.checkNotNullElements(paths, "paths");
+        ExceptionHelper.checkNotNullArgument(listener, "listener");
+
+        final Registration<ListenerType> registration = new Registration<>(listener);
+        final List<ConfigPath> pathsCopy = new ArrayList<>(paths);
+
+        mainLock.lock();
+        try {
+            for (ConfigPath path: pathsCopy) {
+                getOrCreateNode(path).addRegistration(registration);
+            }
+        } finally {
+            mainLock.unlock();
+        }
+
+        return new ListenerRef() {
+            @Override
+            public boolean isRegistered() {
+                return registration.isRegistered();
+            }
+
+            @Override
+            public void unregister() {
+                unregisterListener(pathsCopy, registration);
+            }
+        };
+    }
+
+    private void unregisterListener(List<ConfigPath> paths, Registration<ListenerType> registration) {
+        mainLock.lock();
+        try {
+            if (!registration.isRegistered()) {
+                return;
+            }
+            registration.setUnregistered();
+
+            for (ConfigPath path: paths) {
+                PathNode<ListenerType> node = tryGetNode(path);
+                if (node != null) {
+                    node.removeRegistration(registration);
+                }
+            }
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    private PathNode<ListenerType> getOrCreateNode(ConfigPath path) {
+        assert mainLock.isHeldByCurrentThread();
+
+        PathNode<ListenerType> result = root;
+        for (String key: path.getKeys()) {
+            result = result.getOrCreateChild(key);
+        }
+        return result;
+    }
+
+    private PathNode<ListenerType> tryGetNode(ConfigPath path) {
+        assert mainLock.isHeldByCurrentThread();
+
+        PathNode<ListenerType> result = root;
+        for (String key: path.getKeys()) {
+            result = result.tryGetChild(key);
+            if (result == null) {
+                return null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the listeners affected by the change of any of the given paths
+     * in the order they were registered (roughly). Each listener is returned
+     * only once for each registration.
+     */
+    public List<ListenerType> getAffectedListeners(Collection<ConfigPath> changedPaths) {
+        ExceptionHelper.checkNotNullArgument(changedPaths, "changedPaths");
+
+        Set<Registration<ListenerType>> affected = new LinkedHashSet<>();
+
+        mainLock.lock();
+        try {
+            for (ConfigPath changedPath: changedPaths) {
+                collectAffected(changedPath, affected);
+            }
+        } finally {
+            mainLock.unlock();
+        }
+
+        if (affected.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<ListenerType> result = new ArrayList<>(affected.size());
+        for (Registration<ListenerType> registration: affected) {
+            result.add(registration.listener);
+        }
+        return result;
+    }
+
+    private void collectAffected(ConfigPath changedPath, Set<Registration<ListenerType>> result) {
+        PathNode<ListenerType> node = root;
+        node.addRegistrationsTo(result);
+
+        for (String key: changedPath.getKeys()) {
+            node = node.tryGetChild(key);
+            if (node == null) {
+                return;
+            }
+            node.addRegistrationsTo(result);
+        }
+
+        node.addDescendantRegistrationsTo(result);
+    }
+
+    public void onEvent(
+            EventDispatcher<? super ListenerType, ? super Collection<ConfigPath>> eventDispatcher,
+            Collection<ConfigPath> changedPaths) {
+        ExceptionHelper.checkNotNullArgument(eventDispatcher, "eventDispatcher");
+
+        Throwable toThrow = null;
+        for (ListenerType listener: getAffectedListeners(changedPaths)) {
+            try {
+                eventDispatcher.onEvent(listener, changedPaths);
+            } catch (Throwable ex) {
+                if (toThrow == null) {
+                    toThrow = ex;
+                }
+                else {
+                    toThrow.addSuppressed(ex);
+                }
+            }
+        }
+
+        ExceptionHelper.rethrowIfNotNull(toThrow);
+    }
+
+    private static final class Registration<ListenerType> {
+        public final ListenerType listener;
+        private volatile boolean registered;
+
+        public Registration(ListenerType listener) {
+            this.listener = listener;
+            this.registered = true;
+        }
+
+        public boolean isRegistered() {
+            return registered;
+        }
+
+        public void setUnregistered() {
+            registered = false;
+        }
+    }
+
+    private static final class PathNode<ListenerType> {
+        private final PathNode<ListenerType> parent;
+        private final String key;
+
+        private Map<String, PathNode<ListenerType>> children;
+        private Set<Registration<ListenerType>> registrations;
+
+        public PathNode(PathNode<ListenerType> parent, String key) {
+            this.parent = parent;
+            this.key = key;
+            this.children = null;
+            this.registrations = null;
+        }
+
+        public PathNode<ListenerType> tryGetChild(String childKey) {
+            return children != null ? children.get(childKey) : null;
+        }
+
+        public PathNode<ListenerType> getOrCreateChild(String childKey) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+
+            PathNode<ListenerType> result = children.get(childKey);
+            if (result == null) {
+                result = new PathNode<>(this, childKey);
+                children.put(childKey, result);
+            }
+            return result;
+        }
+
+        public void addRegistration(Registration<ListenerType> registration) {
+            if (registrations == null) {
+                registrations = new LinkedHashSet<>();
+            }
+            registrations.add(registration);
+        }
+
+        public void removeRegistration(Registration<ListenerType> registration) {
+            if (registrations == null) {
+                return;
+            }
+
+            registrations.remove(registration);
+            if (registrations.isEmpty()) {
+                registrations = null;
+                removeIfUnused();
+            }
+        }
+
+        private boolean isUnused() {
+            return registrations == null && (children == null || children.isEmpty());
+        }
+
+        private void removeIfUnused() {
+            PathNode<ListenerType> node = this;
+            while (node.parent != null && node.isUnused()) {
+                PathNode<ListenerType> nodeParent = node.parent;
+                nodeParent.children.remove(node.key);
+                node = nodeParent;
+            }
+        }
+
+        public void addRegistrationsTo(Collection<Registration<ListenerType>> result) {
+            if (registrations != null) {
+                result.addAll(registrations);
+            }
+        }
+
+        public void addDescendantRegistrationsTo(Collection<Registration<ListenerType>> result) {
+            if (children == null) {
+                return;
+            }
+
+            for (PathNode<ListenerType> child: children.values()) {
+                child.addRegistrationsTo(result);
+                child.addDescendantRegistrationsTo(result);
+            }
+        }
+    }
+}
@@ -288,6 +288,114 @@ public final class ConfigTree {
         return result;
     }
 
+    /**
+     * Returns a tree which is the same as this tree except that the child
+     * tree at the given path is replaced with the specified tree. That is, this
+     * method is the persistent equivalent of calling
+     * {@code setChildTree} on the parent {@link Builder} of the path.
+     * <P>
+     * Only the nodes along the given path are copied, every other subtree of
+     * the returned tree is shared with this tree. So the cost of this method
+     * only depends on the depth of the path (and the number of siblings of the
+     * nodes along the path), not on the size of the whole tree.
+     * <P>
+     * Just like with the builder, if there are multiple trees for a key along
+     * the path, the first one is updated. Subtrees having no values at all are
+     * removed from the result.
+     *
+     * @param path the path of the child tree to be replaced. This argument
+     *   cannot be {@code null}. If this is the root path, {@code tree} itself
+     *   is returned.
+     * @param tree the new child tree at the given path. This argument cannot
+     *   be {@code null}.
+     * @return the updated tree. This method never returns {@code null} and
+     *   returns this tree if there was nothing to update.
+     */
+    @Nonnull
+    public ConfigTree withChildTree(@Nonnull ConfigPath path, @Nonnull ConfigTree tree) {
+        ExceptionHelper.checkNotNullArgument(path, "path");
+        ExceptionHelper.checkNotNullArgument(tree, "tree");
+
+        return withChildTree(path.getKeys(), 0, tree);
+    }
+
+    private ConfigTree withChildTree(List<String> keys, int keyIndex, ConfigTree tree) {
+        int keyCount = keys.size();
+        if (keyIndex >= keyCount) {
+            return tree;
+        }
+
+        String key = keys.get(keyIndex);
+        List<ConfigTree> currentList = childTrees.get(key);
+
+        List<ConfigTree> newList;
+        if (keyIndex == keyCount - 1) {
+            if (currentList != null && currentList.size() == 1 && currentList.get(0) == tree) {
+                return this;
+            }
+
+            newList = tree.hasValues()
+                    ? Collections.singletonList(tree)
+                    : Collections.<ConfigTree>emptyList();
+        }
+        else {
+            ConfigTree currentChild = currentList != null ? currentList.get(0) : EMPTY;
+            ConfigTree newChild = currentChild.withChildTree(keys, keyIndex + 1, tree);
+            if (newChild == currentChild) {
+                return this;
+            }
+
+            newList = replaceFirst(currentList, newChild);
+        }
+
+        if (newList.isEmpty() && currentList == null) {
+            return this;
+        }
+
+        return new ConfigTree(value, withChildList(childTrees, key, newList));
+    }
+
+    private static List<ConfigTree> replaceFirst(List<ConfigTree> list, ConfigTree newFirst) {
+        int size = list != null ? list.size() : 0;
+        if (size <= 1) {
+            return newFirst.hasValues()
+                    ? Collections.singletonList(newFirst)
+                    : Collections.<ConfigTree>emptyList();
+        }
+
+        List<ConfigTree> result = new ArrayList<>(size);
+        if (newFirst.hasValues()) {
+            result.add(newFirst);
+        }
+        result.addAll(list.subList(1, size));
+        return Collections.unmodifiableList(result);
+    }
+
+    private static Map<String, List<ConfigTree>> withChildList(
+            Map<String, List<ConfigTree>> childTrees,
+            String key,
+            List<ConfigTree> newList) {
+
+        if (newList.isEmpty()) {
+            if (childTrees.size() == 1) {
+                return Collections.emptyMap();
+            }
+
+            Map<String, List<ConfigTree>> result = new HashMap<>(childTrees);
+            result.remove(key);
+            return Collections.unmodifiableMap(result);
+        }
+
+        if (childTrees.isEmpty()) {
+            return Collections.singletonMap(key, newList);
+        }
+
+        Map<String, List<ConfigTree>> result = CollectionsEx.newHashMap(childTrees.size() + 1);
+        result.putAll(childTrees);
+        result.put(key, newList);
+        return Collections.unmodifiableMap(result);
+    }
+
     @Nonnull
     public List<ConfigTree> getChildTrees(String key) {
         ExceptionHelper.checkNotNullArgument(key, "key");
@@ -372,6 +480,15 @@ public final class ConfigTree {
         if (getClass() != obj.getClass()) return false;
 
         final ConfigTree other = (ConfigTree)obj;
+
+        // Trees are frequently compared after an update and both of them
+        // usually have their hash already cached.
+        int thisHash = this.hash;
+        int otherHash = other.hash;
+        if (thisHash != 0 && otherHash != 0 && thisHash != otherHash) {
+            return false;
+        }
+
         return Objects.equals(this.value, other.value)
                 && Objects.equals(this.childTrees, other.childTrees);
     }
@@ -1,26 +1,37 @@
 package org.netbeans.gradle.project.properties;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
@@ -33,17 +44,26 @@ import org.jtrim.collections.CollectionsEx;
 import org.jtrim.utils.ExceptionHelper;
 import org.netbeans.api.project.Project;
 import org.netbeans.gradle.project.others.ChangeLFPlugin;
+import org.w3c.dom.Comment;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.w3c.dom.Text;
 
 final class ConfigXmlUtils {
     private static final Logger LOGGER = Logger.getLogger(ConfigXmlUtils.class.getName());
 
     public static final String AUXILIARY_NODE_NAME = "auxiliary";
 
+    private static final String ROOT_NODE_NAME = "gradle-project-properties";
+    private static final String ROOT_COMMENT = "DO NOT EDIT THIS FILE! - Used by the Gradle plugin of NetBeans.";
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>";
+    private static final String XMLNS_ATTR = "xmlns";
+    private static final String XMLNS_ATTR_PREFIX = XMLNS_ATTR + ":";
+    private static final int INDENT_AMOUNT = 2;
+
     private static final String XML_ENCODING = "UTF-8";
     private static final int FILE_BUFFER_SIZE = 8 * 1024;
 
@@ -59,6 +79,20 @@ final class ConfigXmlUtils {
 
     private static final String ATTR_PREFIX = "#attr-";
 
+    private static final Comparator<Element> AUX_ELEMENT_ORDER = new Comparator<Element>() {
+        @Override
+        public int compare(Element o1, Element o2) {
+            String uri1 = o1.getNamespaceURI();
+            String uri2 = o2.getNamespaceURI();
+            int uriCmp = nullSafeStrCmp(uri1, uri2);
+            if (uriCmp != 0) {
+                return uriCmp;
+            }
+
+            return nullSafeStrCmp(o1.getNodeName(), o2.getNodeName());
+        }
+    };
+
     private static String asAttributeName(String keyName) {
         return ATTR_PREFIX + keyName;
     }
@@ -317,6 +351,147 @@ final class ConfigXmlUtils {
         return result;
     }
 
+    private static String getQualifiedName(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty()
+                ? localName
+                : prefix + ":" + localName;
+    }
+
+    private static String getElementName(XMLStreamReader reader) {
+        return getQualifiedName(reader.getPrefix(), reader.getLocalName());
+    }
+
+    private static Map<String, String> getAttributes(XMLStreamReader reader) {
+        int attributeCount = reader.getAttributeCount();
+        if (attributeCount == 0) {
+            return Collections.emptyMap();
+        }
+
+        // Sorted to process the attributes in the same order as the DOM does.
+        Map<String, String> result = new TreeMap<>();
+        for (int i = 0; i < attributeCount; i++) {
+            String name = getQualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i));
+            result.put(name, reader.getAttributeValue(i));
+        }
+        return result;
+    }
+
+    private static boolean addAttributes(XMLStreamReader reader, ConfigTree.Builder result) {
+        boolean setValue = false;
+
+        for (Map.Entry<String, String> attribute: getAttributes(reader).entrySet()) {
+            String xmlAttrName = attribute.getKey();
+            String attrValue = attribute.getValue();
+
+            if (xmlAttrName.startsWith(KEYWORD_PREFIX)) {
+                switch (xmlAttrName) {
+                    case KEYWORD_VALUE:
+                        result.setValue(attrValue);
+                        setValue = true;
+                        break;
+                    case KEYWORD_HAS_VALUE:
+                        if (STR_NO.equals(attrValue)) {
+                            result.setValue(null);
+                            setValue = true;
+                        }
+                        break;
+                    default:
+                        LOGGER.log(Level.WARNING, "Unknown keyword in properties file: {0}", xmlAttrName);
+                        break;
+                }
+            }
+            else {
+                String attrName = fromElementName(xmlAttrName);
+                result.addChildBuilder(asAttributeName(attrName)).setValue(attrValue);
+            }
+        }
+        return setValue;
+    }
+
+    private static String parseNode(
+            XMLStreamReader reader,
+            AuxiliaryReader auxReader,
+            ConfigTree.Builder result) throws XMLStreamException {
+
+        boolean setValue = addAttributes(reader, result);
+
+        int addedChildCount = 0;
+        StringBuilder textContent = new StringBuilder();
+        while (true) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    String rawNodeName = getElementName(reader);
+                    if (auxReader != null && auxReader.isAuxiliaryNode(rawNodeName)) {
+                        auxReader.readAuxiliaryNode(reader);
+                        break;
+                    }
+
+                    ConfigTree.Builder childBuilder = result.addChildBuilder(fromElementName(rawNodeName));
+                    String nodeValue = parseNode(reader, null, childBuilder);
+                    if (nodeValue != null) {
+                        childBuilder.setValue(nodeValue);
+                    }
+
+                    addedChildCount++;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (addedChildCount == 0) {
+                        textContent.append(reader.getText());
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    return !setValue && addedChildCount == 0
+                            ? textContent.toString()
+                            : null;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static XMLStreamReader createXmlReader(InputStream input) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // The DOM based parsing was not namespace aware either, so the names
+        // of the auxiliary elements remain the same.
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory.createXMLStreamReader(input);
+    }
+
+    /**
+     * Parses the properties file without building a DOM for the whole file.
+     * Only the children of the first {@code auxiliaryNodeName} element of the
+     * root are converted to DOM elements; every other element is added to the
+     * returned {@code ConfigTree.Builder} directly. The result is the same as
+     * calling {@link #parseDocument(Document, String[]) parseDocument} on the
+     * DOM of the same input with {@code auxiliaryNodeName} excluded.
+     */
+    public static ParsedConfigXml parseXml(InputStream input, String auxiliaryNodeName)
+            throws IOException, XMLStreamException {
+
+        ExceptionHelper.checkNotNullArgument(input, "input");
+        ExceptionHelper.checkNotNullArgument(auxiliaryNodeName, "auxiliaryNodeName");
+
+        ConfigTree.Builder result = new ConfigTree.Builder();
+        AuxiliaryReader auxReader = new AuxiliaryReader(auxiliaryNodeName);
+
+        XMLStreamReader reader = createXmlReader(input);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                    parseNode(reader, auxReader, result);
+                    break;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        return new ParsedConfigXml(result, auxReader.getAuxiliaryElements());
+    }
+
     private static List<KeyValuePair> tryGetAttributeList(ConfigTree tree) {
         List<KeyValuePair> attributes = null;
         for (Map.Entry<String, List<ConfigTree>> entry: tree.getChildTrees().entrySet()) {
@@ -348,9 +523,9 @@ final class ConfigXmlUtils {
     }
 
     private static Set<String> addAttributeChildrenToXml(
-            Element parent,
+            XmlNodeWriter parent,
             ConfigTree tree,
-            final ConfigNodeProperty nodeSorter) {
+            final ConfigNodeProperty nodeSorter) throws IOException {
 
         List<KeyValuePair> attributes = tryGetAttributeList(tree);
         if (attributes == null) {
@@ -381,10 +556,9 @@ final class ConfigXmlUtils {
     }
 
     private static void addTreeToXml(
-            Document document,
-            Element parent,
+            XmlNodeWriter parent,
             ConfigTree tree,
-            final ConfigNodeProperty nodeProperties) {
+            final ConfigNodeProperty nodeProperties) throws IOException {
 
         Map<String, List<ConfigTree>> children = tree.getChildTrees();
 
@@ -437,11 +611,11 @@ final class ConfigXmlUtils {
             ConfigNodeProperty childSorter = nodeProperties.getChildSorter(child.name);
 
             for (ConfigTree childTree: child.trees) {
-                Element childElement = document.createElement(xmlKey);
-                parent.appendChild(childElement);
+                XmlNodeWriter childWriter = parent.addChild(xmlKey);
 
                 ConfigTree adjustedChildTree = childSorter.adjustNodes(childTree);
-                addTreeToXml(document, childElement, adjustedChildTree, childSorter);
+                addTreeToXml(childWriter, adjustedChildTree, childSorter);
+                childWriter.endNode();
             }
         }
     }
@@ -453,7 +627,11 @@ final class ConfigXmlUtils {
 
         Document document = parent.getOwnerDocument();
         Objects.requireNonNull(document, "parent.getOwnerDocument()");
-        addTreeToXml(document, parent, tree, nodeProperties);
+        try {
+            addTreeToXml(new DomNodeWriter(document, parent), tree, nodeProperties);
+        } catch (IOException ex) {
+            throw new AssertionError("Unexpected I/O error while building a DOM.", ex);
+        }
     }
 
     private static DocumentBuilder newDocumentBuilder() throws ParserConfigurationException {
@@ -462,11 +640,10 @@ final class ConfigXmlUtils {
 
     public static Document createXml(ConfigTree tree) throws ParserConfigurationException {
         Document result = newDocumentBuilder().newDocument();
-        Element root = result.createElement("gradle-project-properties");
+        Element root = result.createElement(ROOT_NODE_NAME);
         result.appendChild(root);
 
-        String comment = "DO NOT EDIT THIS FILE! - Used by the Gradle plugin of NetBeans.";
-        root.appendChild(result.createComment(comment));
+        root.appendChild(result.createComment(ROOT_COMMENT));
 
         addTree(root, tree, CompatibleRootNodeProperty.INSTANCE);
 
@@ -493,19 +670,7 @@ final class ConfigXmlUtils {
         }
 
         Element[] sortedAuxElements = auxElements.clone();
-        Arrays.sort(sortedAuxElements, new Comparator<Element>() {
-            @Override
-            public int compare(Element o1, Element o2) {
-                String uri1 = o1.getNamespaceURI();
-                String uri2 = o2.getNamespaceURI();
-                int uriCmp = nullSafeStrCmp(uri1, uri2);
-                if (uriCmp != 0) {
-                    return uriCmp;
-                }
-
-                return nullSafeStrCmp(o1.getNodeName(), o2.getNodeName());
-            }
-        });
+        Arrays.sort(sortedAuxElements, AUX_ELEMENT_ORDER);
 
         Element auxRoot = document.createElement(AUXILIARY_NODE_NAME);
         root.appendChild(auxRoot);
@@ -616,6 +781,525 @@ final class ConfigXmlUtils {
         }
     }
 
+    private static void addAuxiliaryElementToXml(
+            XmlNodeWriter parent,
+            Element element,
+            Map<String, String> declaredNamespaces) throws IOException {
+
+        XmlNodeWriter elementWriter = parent.addChild(element.getNodeName());
+        Map<String, String> childNamespaces = declaredNamespaces;
+
+        NamedNodeMap attributes = element.getAttributes();
+        int attributeCount = attributes != null ? attributes.getLength() : 0;
+        for (int i = 0; i < attributeCount; i++) {
+            Node attribute = attributes.item(i);
+            String attrName = attribute.getNodeName();
+            String attrValue = attribute.getNodeValue();
+
+            if (XMLNS_ATTR.equals(attrName) || attrName.startsWith(XMLNS_ATTR_PREFIX)) {
+                if (childNamespaces == declaredNamespaces) {
+                    childNamespaces = new HashMap<>(declaredNamespaces);
+                }
+                childNamespaces.put(attrName, attrValue);
+            }
+            elementWriter.setAttribute(attrName, attrValue);
+        }
+
+        // Elements created by a namespace aware DOM might not have an
+        // explicit attribute declaring their namespace.
+        String namespace = element.getNamespaceURI();
+        if (namespace != null) {
+            String prefix = element.getPrefix();
+            String xmlnsName = prefix != null ? XMLNS_ATTR_PREFIX + prefix : XMLNS_ATTR;
+            if (!namespace.equals(childNamespaces.get(xmlnsName))) {
+                if (childNamespaces == declaredNamespaces) {
+                    childNamespaces = new HashMap<>(declaredNamespaces);
+                }
+                childNamespaces.put(xmlnsName, namespace);
+                elementWriter.setAttribute(xmlnsName, namespace);
+            }
+        }
+
+        NodeList children = element.getChildNodes();
+        int childCount = children.getLength();
+
+        boolean hasChildElements = false;
+        for (int i = 0; i < childCount; i++) {
+            if (children.item(i) instanceof Element) {
+                hasChildElements = true;
+                break;
+            }
+        }
+
+        if (hasChildElements) {
+            for (int i = 0; i < childCount; i++) {
+                Node child = children.item(i);
+                if (child instanceof Element) {
+                    addAuxiliaryElementToXml(elementWriter, (Element)child, childNamespaces);
+                }
+                else if (child instanceof Comment) {
+                    elementWriter.addComment(child.getNodeValue());
+                }
+                else if (child instanceof Text) {
+                    // Whitespace between elements is replaced by the indentation.
+                    String text = child.getNodeValue();
+                    if (!text.trim().isEmpty()) {
+                        elementWriter.addText(text);
+                    }
+                }
+            }
+        }
+        else {
+            elementWriter.setTextContent(element.getTextContent());
+        }
+
+        elementWriter.endNode();
+    }
+
+    private static void writeXml(
+            ConfigTree tree,
+            Collection<? extends Element> auxElements,
+            XmlTextOutput output) throws IOException {
+
+        output.write(XML_DECLARATION);
+
+        StreamNodeWriter root = new StreamNodeWriter(output, ROOT_NODE_NAME, 0);
+        root.addComment(ROOT_COMMENT);
+
+        addTreeToXml(root, tree, CompatibleRootNodeProperty.INSTANCE);
+
+        if (!auxElements.isEmpty()) {
+            List<Element> sortedAuxElements = new ArrayList<>(auxElements);
+            Collections.sort(sortedAuxElements, AUX_ELEMENT_ORDER);
+
+            XmlNodeWriter auxRoot = root.addChild(AUXILIARY_NODE_NAME);
+            Map<String, String> declaredNamespaces = Collections.emptyMap();
+            for (Element auxElement: sortedAuxElements) {
+                addAuxiliaryElementToXml(auxRoot, auxElement, declaredNamespaces);
+            }
+            auxRoot.endNode();
+        }
+
+        root.endNode();
+        output.newLine();
+    }
+
+    /**
+     * Saves the properties file without building a DOM for it first. The
+     * output is the same as the output of
+     * {@link #saveXmlTo(Document, Path, ConfigSaveOptions) saveXmlTo} for the
+     * document created by {@link #createXml(ConfigTree) createXml} and
+     * {@link #addAuxiliary(Document, Element[]) addAuxiliary}.
+     */
+    public static void saveXmlTo(
+            ConfigTree tree,
+            Collection<? extends Element> auxElements,
+            Path output,
+            ConfigSaveOptions saveOptions) throws IOException {
+
+        ExceptionHelper.checkNotNullArgument(tree, "tree");
+        ExceptionHelper.checkNotNullArgument(auxElements, "auxElements");
+        ExceptionHelper.checkNotNullArgument(output, "output");
+        ExceptionHelper.checkNotNullArgument(saveOptions, "saveOptions");
+
+        String lineSeparator = saveOptions.getPreferredLineSeparator();
+        if (lineSeparator == null) {
+            lineSeparator = System.lineSeparator();
+        }
+
+        try (OutputStream fileOutput = Files.newOutputStream(output);
+                Writer writer = new BufferedWriter(new OutputStreamWriter(fileOutput, XML_ENCODING), FILE_BUFFER_SIZE)) {
+            writeXml(tree, auxElements, new XmlTextOutput(writer, lineSeparator));
+        }
+    }
+
+    public static void saveXmlTo(
+            ConfigTree tree,
+            Collection<? extends Element> auxElements,
+            Writer output,
+            String lineSeparator) throws IOException {
+
+        ExceptionHelper.checkNotNullArgument(tree, "tree");
+        ExceptionHelper.checkNotNullArgument(auxElements, "auxElements");
+        ExceptionHelper.checkNotNullArgument(output, "output");
+        ExceptionHelper.checkNotNullArgument(lineSeparator, "lineSeparator");
+
+        writeXml(tree, auxElements, new XmlTextOutput(output, lineSeparator));
+    }
+
+    public static final class ParsedConfigXml {
+        private final ConfigTree.Builder config;
+        private final List<Element> auxiliaryElements;
+
+        public ParsedConfigXml(ConfigTree.Builder config, List<Element> auxiliaryElements) {
+            ExceptionHelper.checkNotNullArgument(config, "config");
+            ExceptionHelper.checkNotNullArgument(auxiliaryElements, "auxiliaryElements");
+
+            this.config = config;
+            this.auxiliaryElements = auxiliaryElements;
+        }
+
+        public ConfigTree.Builder getConfig() {
+            return config;
+        }
+
+        public List<Element> getAuxiliaryElements() {
+            return auxiliaryElements;
+        }
+    }
+
+    private static final class AuxiliaryReader {
+        private final String auxiliaryNodeName;
+        private final List<Element> auxiliaryElements;
+        private Document document;
+        private boolean readAuxiliaryNode;
+
+        public AuxiliaryReader(String auxiliaryNodeName) {
+            this.auxiliaryNodeName = auxiliaryNodeName;
+            this.auxiliaryElements = new ArrayList<>();
+            this.document = null;
+            this.readAuxiliaryNode = false;
+        }
+
+        public boolean isAuxiliaryNode(String rawNodeName) {
+            return auxiliaryNodeName.equals(rawNodeName);
+        }
+
+        public List<Element> getAuxiliaryElements() {
+            return auxiliaryElements;
+        }
+
+        private Document getDocument() throws XMLStreamException {
+            if (document == null) {
+                try {
+                    document = newDocumentBuilder().newDocument();
+                } catch (ParserConfigurationException ex) {
+                    throw new XMLStreamException(ex);
+                }
+            }
+            return document;
+        }
+
+        public void readAuxiliaryNode(XMLStreamReader reader) throws XMLStreamException {
+            // Only the first auxiliary node is used, just like before.
+            boolean keepElements = !readAuxiliaryNode;
+            readAuxiliaryNode = true;
+
+            int depth = 0;
+            while (true) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        if (keepElements) {
+                            auxiliaryElements.add(readElement(reader));
+                        }
+                        else {
+                            depth++;
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (depth == 0) {
+                            return;
+                        }
+                        depth--;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        private Element readElement(XMLStreamReader reader) throws XMLStreamException {
+            Document ownerDocument = getDocument();
+            Element result = ownerDocument.createElement(getElementName(reader));
+            for (Map.Entry<String, String> attribute: getAttributes(reader).entrySet()) {
+                result.setAttribute(attribute.getKey(), attribute.getValue());
+            }
+
+            while (true) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        result.appendChild(readElement(reader));
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        result.appendChild(ownerDocument.createTextNode(reader.getText()));
+                        break;
+                    case XMLStreamConstants.COMMENT:
+                        result.appendChild(ownerDocument.createComment(reader.getText()));
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        return result;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+
+    private interface XmlNodeWriter {
+        public void setAttribute(String name, String value) throws IOException;
+        public void setTextContent(String text) throws IOException;
+        public void addText(String text) throws IOException;
+        public void addComment(String comment) throws IOException;
+        public XmlNodeWriter addChild(String name) throws IOException;
+        public void endNode() throws IOException;
+    }
+
+    private static final class DomNodeWriter implements XmlNodeWriter {
+        private final Document document;
+        private final Element element;
+
+        public DomNodeWriter(Document document, Element element) {
+            this.document = document;
+            this.element = element;
+        }
+
+        @Override
+        public void setAttribute(String name, String value) {
+            element.setAttribute(name, value);
+        }
+
+        @Override
+        public void setTextContent(String text) {
+            element.setTextContent(text);
+        }
+
+        @Override
+        public void addText(String text) {
+            element.appendChild(document.createTextNode(text));
+        }
+
+        @Override
+        public void addComment(String comment) {
+            element.appendChild(document.createComment(comment));
+        }
+
+        @Override
+        public XmlNodeWriter addChild(String name) {
+            Element child = document.createElement(name);
+            element.appendChild(child);
+            return new DomNodeWriter(document, child);
+        }
+
+        @Override
+        public void endNode() {
+        }
+    }
+
+    /**
+     * Writes an element the same way as the default {@code Transformer} does
+     * with indentation enabled. Attributes are buffered (and sorted like the
+     * DOM sorts them) until the start tag must be written, so an empty element
+     * can still be written as {@code <name/>}.
+     */
+    private static final class StreamNodeWriter implements XmlNodeWriter {
+        private final XmlTextOutput output;
+        private final String name;
+        private final int depth;
+
+        private final Map<String, String> attributes;
+        private String textContent;
+        private boolean startTagWritten;
+        private boolean hasChildNodes;
+        private boolean endsWithText;
+
+        public StreamNodeWriter(XmlTextOutput output, String name, int depth) {
+            this.output = output;
+            this.name = name;
+            this.depth = depth;
+            this.attributes = new TreeMap<>();
+            this.textContent = null;
+            this.startTagWritten = false;
+            this.hasChildNodes = false;
+            this.endsWithText = false;
+        }
+
+        @Override
+        public void setAttribute(String name, String value) {
+            if (startTagWritten) {
+                throw new IllegalStateException("The start tag of " + this.name + " has already been written.");
+            }
+            attributes.put(name, value);
+        }
+
+        @Override
+        public void setTextContent(String text) {
+            textContent = text;
+        }
+
+        @Override
+        public void addText(String text) throws IOException {
+            writeStartTag();
+            output.writeText(text);
+            hasChildNodes = true;
+            endsWithText = true;
+        }
+
+        @Override
+        public void addComment(String comment) throws IOException {
+            writeStartTag();
+            output.newLine(depth + 1);
+            output.write("<!--");
+            output.write(comment);
+            output.write("-->");
+            hasChildNodes = true;
+            endsWithText = false;
+        }
+
+        @Override
+        public XmlNodeWriter addChild(String childName) throws IOException {
+            writeStartTag();
+            hasChildNodes = true;
+            endsWithText = false;
+            return new StreamNodeWriter(output, childName, depth + 1);
+        }
+
+        private void writeTagStart() throws IOException {
+            output.newLine(depth);
+            output.write("<");
+            output.write(name);
+            for (Map.Entry<String, String> attribute: attributes.entrySet()) {
+                output.write(" ");
+                output.write(attribute.getKey());
+                output.write("=\"");
+                output.writeAttributeValue(attribute.getValue());
+                output.write("\"");
+            }
+        }
+
+        private void writeStartTag() throws IOException {
+            if (!startTagWritten) {
+                startTagWritten = true;
+                writeTagStart();
+                output.write(">");
+            }
+        }
+
+        private void writeEndTag() throws IOException {
+            output.write("</");
+            output.write(name);
+            output.write(">");
+        }
+
+        @Override
+        public void endNode() throws IOException {
+            if (startTagWritten) {
+                if (textContent != null && !textContent.isEmpty()) {
+                    output.writeText(textContent);
+                }
+                else if (hasChildNodes && !endsWithText) {
+                    output.newLine(depth);
+                }
+                writeEndTag();
+                return;
+            }
+
+            if (textContent == null || textContent.isEmpty()) {
+                writeTagStart();
+                output.write("/>");
+            }
+            else {
+                writeStartTag();
+                output.writeText(textContent);
+                writeEndTag();
+            }
+        }
+    }
+
+    private static final class XmlTextOutput {
+        private final Writer output;
+        private final String lineSeparator;
+
+        public XmlTextOutput(Writer output, String lineSeparator) {
+            this.output = output;
+            this.lineSeparator = lineSeparator;
+        }
+
+        public void write(String str) throws IOException {
+            output.write(str);
+        }
+
+        public void newLine() throws IOException {
+            output.write(lineSeparator);
+        }
+
+        public void newLine(int depth) throws IOException {
+            output.write(lineSeparator);
+            int indent = INDENT_AMOUNT * depth;
+            for (int i = 0; i < indent; i++) {
+                output.write(' ');
+            }
+        }
+
+        private void writeCharRef(char ch) throws IOException {
+            output.write("&#");
+            output.write(Integer.toString(ch));
+            output.write(';');
+        }
+
+        public void writeText(String text) throws IOException {
+            int length = text.length();
+            for (int i = 0; i < length; i++) {
+                char ch = text.charAt(i);
+                switch (ch) {
+                    case '&':
+                        output.write("&amp;");
+                        break;
+                    case '<':
+                        output.write("&lt;");
+                        break;
+                    case '>':
+                        output.write("&gt;");
+                        break;
+                    case '\r':
+                        writeCharRef(ch);
+                        break;
+                    case '\n':
+                        output.write(lineSeparator);
+                        break;
+                    default:
+                        if (ch < ' ' && ch != '\t') {
+                            writeCharRef(ch);
+                        }
+                        else {
+                            output.write(ch);
+                        }
+                        break;
+                }
+            }
+        }
+
+        public void writeAttributeValue(String value) throws IOException {
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                char ch = value.charAt(i);
+                switch (ch) {
+                    case '&':
+                        output.write("&amp;");
+                        break;
+                    case '<':
+                        output.write("&lt;");
+                        break;
+                    case '>':
+                        output.write("&gt;");
+                        break;
+                    case '"':
+                        output.write("&quot;");
+                        break;
+                    default:
+                        if (ch < ' ') {
+                            writeCharRef(ch);
+                        }
+                        else {
+                            output.write(ch);
+                        }
+                        break;
+                }
+            }
+        }
+    }
+
     private static final class KeyValuePair {
         public final String key;
         public final String value;
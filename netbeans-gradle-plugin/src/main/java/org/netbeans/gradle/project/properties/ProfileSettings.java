@@ -10,37 +10,31 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.Nullable;
 import javax.swing.SwingUtilities;
-import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import org.gradle.jarjar.com.google.common.base.Objects;
+import javax.xml.stream.XMLStreamException;
 import org.jtrim.collections.EqualityComparator;
-import org.jtrim.concurrent.UpdateTaskExecutor;
-import org.jtrim.event.CopyOnTriggerListenerManager;
 import org.jtrim.event.EventDispatcher;
-import org.jtrim.event.ListenerManager;
 import org.jtrim.event.ListenerRef;
 import org.jtrim.event.ListenerRegistries;
 import org.jtrim.property.MutableProperty;
 import org.jtrim.property.PropertyFactory;
 import org.jtrim.property.PropertySourceProxy;
-import org.jtrim.swing.concurrent.SwingUpdateTaskExecutor;
 import org.jtrim.utils.ExceptionHelper;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
 
 public final class ProfileSettings {
     private static final Logger LOGGER = Logger.getLogger(ProfileSettings.class.getName());
@@ -48,12 +42,13 @@ public final class ProfileSettings {
     private static final Set<ConfigPath> ROOT_PATH = Collections.singleton(ConfigPath.ROOT);
     private static final Document EXPORT_DOCUMENT = tryCreateDocument();
 
-    private final ListenerManager<ConfigUpdateListener> configUpdateListeners;
+    private final ConfigPathListenerRegistry<ConfigUpdateListener> configUpdateListeners;
     private final EventDispatcher<ConfigUpdateListener, Collection<ConfigPath>> configUpdateDispatcher;
+    private final SwingListenerBatch eventThread;
 
     private final ReentrantLock configLock;
     private volatile Object configStateKey;
-    private ConfigTree.Builder currentConfig;
+    private ConfigTree currentConfig;
     private final Map<DomElementKey, Element> auxConfigs;
 
     private static Document tryCreateDocument() {
@@ -67,8 +62,9 @@ public final class ProfileSettings {
 
     public ProfileSettings() {
         this.configLock = new ReentrantLock();
-        this.currentConfig = new ConfigTree.Builder();
-        this.configUpdateListeners = new CopyOnTriggerListenerManager<>();
+        this.currentConfig = ConfigTree.EMPTY;
+        this.configUpdateListeners = new ConfigPathListenerRegistry<>();
+        this.eventThread = new SwingListenerBatch();
         this.configStateKey = new Object();
         this.auxConfigs = new HashMap<>();
 
@@ -87,7 +83,7 @@ public final class ProfileSettings {
     ListenerRef addDocumentChangeListener(final Runnable listener) {
         ExceptionHelper.checkNotNullArgument(listener, "listener");
 
-        return configUpdateListeners.registerListener(new ConfigUpdateListener() {
+        return configUpdateListeners.registerListener(ROOT_PATH, new ConfigUpdateListener() {
             @Override
             public void configUpdated(Collection<ConfigPath> changedPaths) {
                 listener.run();
@@ -95,29 +91,21 @@ public final class ProfileSettings {
         });
     }
 
-    private static DocumentBuilder getDocumentBuilder() {
-        try {
-            return DocumentBuilderFactory.newInstance().newDocumentBuilder();
-        } catch (ParserConfigurationException ex) {
-            throw new RuntimeException("Cannot create Document builder.", ex);
-        }
-    }
-
-    private static Document getEmptyDocument() {
-        return getDocumentBuilder().newDocument();
-    }
-
-    private static Document readXml(InputStream xmlSource) throws IOException, SAXException {
+    private static ConfigXmlUtils.ParsedConfigXml readXml(InputStream xmlSource)
+            throws IOException, XMLStreamException {
         ExceptionHelper.checkNotNullArgument(xmlSource, "xmlSource");
 
-        return getDocumentBuilder().parse(xmlSource);
+        return ConfigXmlUtils.parseXml(xmlSource, ConfigXmlUtils.AUXILIARY_NODE_NAME);
     }
 
-    private static Document readXml(Path xmlFile) throws IOException, SAXException {
+    private static ConfigXmlUtils.ParsedConfigXml readXml(Path xmlFile)
+            throws IOException, XMLStreamException {
         ExceptionHelper.checkNotNullArgument(xmlFile, "xmlFile");
 
         if (!Files.exists(xmlFile)) {
-            return getEmptyDocument();
+            return new ConfigXmlUtils.ParsedConfigXml(
+                    new ConfigTree.Builder(),
+                    Collections.<Element>emptyList());
         }
 
         try (InputStream fileInput = Files.newInputStream(xmlFile);
@@ -127,27 +115,27 @@ public final class ProfileSettings {
     }
 
     public void loadFromFile(Path xmlFile) {
-        Document document;
+        ConfigXmlUtils.ParsedConfigXml parsedXml;
         try {
-            document = readXml(xmlFile);
-        } catch (IOException | SAXException ex) {
+            parsedXml = readXml(xmlFile);
+        } catch (IOException | XMLStreamException ex) {
             LOGGER.log(Level.INFO, "Unable to parse XML config file: " + xmlFile, ex);
             return;
         }
 
-        loadFromDocument(document);
+        loadFromParsedXml(parsedXml);
     }
 
     public void loadFromStream(InputStream xmlSource) {
-        Document document;
+        ConfigXmlUtils.ParsedConfigXml parsedXml;
         try {
-            document = readXml(xmlSource);
-        } catch (IOException | SAXException ex) {
+            parsedXml = readXml(xmlSource);
+        } catch (IOException | XMLStreamException ex) {
             LOGGER.log(Level.INFO, "Unable to parse XML config file from stream.", ex);
             return;
         }
 
-        loadFromDocument(document);
+        loadFromParsedXml(parsedXml);
     }
 
     public void saveToFile(Path xmlFile, ConfigSaveOptions saveOptions) throws IOException {
@@ -159,27 +147,18 @@ public final class ProfileSettings {
 
         configLock.lock();
         try {
-            configTree = currentConfig.create();
+            configTree = currentConfig;
             auxConfigList = new ArrayList<>(auxConfigs.values());
         } finally {
             configLock.unlock();
         }
 
-        Document document;
-        try {
-            document = ConfigXmlUtils.createXml(configTree);
-        } catch (ParserConfigurationException ex) {
-            throw new RuntimeException(ex);
-        }
-
-        ConfigXmlUtils.addAuxiliary(document, auxConfigList.toArray(new Element[auxConfigList.size()]));
-
         Path outputDir = xmlFile.getParent();
         if (outputDir != null) {
             Files.createDirectories(outputDir);
         }
 
-        ConfigXmlUtils.saveXmlTo(document, xmlFile, saveOptions);
+        ConfigXmlUtils.saveXmlTo(configTree, auxConfigList, xmlFile, saveOptions);
     }
 
     private void fireDocumentUpdate(final Collection<ConfigPath> path) {
@@ -194,46 +173,11 @@ public final class ProfileSettings {
         return newState;
     }
 
-    private static Node getChildByName(Element parent, String childName) {
-        NodeList children = parent.getChildNodes();
-        int childCount = children.getLength();
-        for (int i = 0; i < childCount; i++) {
-            Node child = children.item(i);
-            if (Objects.equal(child.getNodeName(), childName)) {
-                return child;
-            }
-        }
-        return null;
-    }
-
-    private static List<Element> getAuxiliaryElements(Element parent) {
-        if (parent == null) {
-            return Collections.emptyList();
-        }
+    private void loadFromParsedXml(ConfigXmlUtils.ParsedConfigXml parsedXml) {
+        ExceptionHelper.checkNotNullArgument(parsedXml, "parsedXml");
 
-        Node auxRoot = getChildByName(parent, ConfigXmlUtils.AUXILIARY_NODE_NAME);
-        if (auxRoot == null) {
-            return Collections.emptyList();
-        }
-
-        NodeList children = auxRoot.getChildNodes();
-        int childCount = children.getLength();
-        List<Element> result = new ArrayList<>(childCount);
-
-        for (int i = 0; i < childCount; i++) {
-            Node child = children.item(i);
-            if (child instanceof Element) {
-                result.add((Element)child);
-            }
-        }
-        return result;
-    }
-
-    private void loadFromDocument(final Document document) {
-        ExceptionHelper.checkNotNullArgument(document, "document");
-
-        ConfigTree.Builder parsedDocument = ConfigXmlUtils.parseDocument(document, ConfigXmlUtils.AUXILIARY_NODE_NAME);
-        List<Element> loadedAuxConfigs = getAuxiliaryElements(document.getDocumentElement());
+        ConfigTree parsedDocument = parsedXml.getConfig().create();
+        List<Element> loadedAuxConfigs = parsedXml.getAuxiliaryElements();
 
         configLock.lock();
         try {
@@ -251,12 +195,6 @@ public final class ProfileSettings {
         fireDocumentUpdate(ROOT_PATH);
     }
 
-    private static ConfigTree createChildTree(ConfigTree.Builder builer, ConfigPath path) {
-        ConfigTree.Builder childBuilder = builer.getDeepChildBuilder(path);
-        childBuilder.detachChildTreeBuilders();
-        return childBuilder.create();
-    }
-
     private <Value> ValueWithStateKey<Value> withStateKey(Value value) {
         assert configLock.isHeldByCurrentThread();
         return new ValueWithStateKey<>(configStateKey, value);
@@ -265,7 +203,7 @@ public final class ProfileSettings {
     private ValueWithStateKey<ConfigTree> getChildConfig(ConfigPath path) {
         configLock.lock();
         try {
-            return withStateKey(createChildTree(currentConfig, path));
+            return withStateKey(currentConfig.getDeepChildTree(path));
         } finally {
             configLock.unlock();
         }
@@ -280,21 +218,22 @@ public final class ProfileSettings {
         }
 
         Object resultStateKey;
-        ConfigTree.Builder result = new ConfigTree.Builder();
+        ConfigTree baseTree;
         configLock.lock();
         try {
             resultStateKey = configStateKey;
-
-            ConfigTree.Builder baseBuilder = currentConfig.getDeepChildBuilder(basePath);
-            for (ConfigPath relPath: relPaths) {
-                ConfigTree childTree = createChildTree(baseBuilder, relPath);
-                setChildTree(result, relPath, childTree);
-            }
+            baseTree = currentConfig.getDeepChildTree(basePath);
         } finally {
             configLock.unlock();
         }
 
-        return new ValueWithStateKey<>(resultStateKey, result.create());
+        // The config tree is immutable, so we no longer need the lock.
+        ConfigTree result = ConfigTree.EMPTY;
+        for (ConfigPath relPath: relPaths) {
+            result = result.withChildTree(relPath, baseTree.getDeepChildTree(relPath));
+        }
+
+        return new ValueWithStateKey<>(resultStateKey, result);
     }
 
     public Collection<DomElementKey> getAuxConfigKeys() {
@@ -403,17 +342,6 @@ public final class ProfileSettings {
         return ConfigPath.fromKeys(result);
     }
 
-    private static void setChildTree(ConfigTree.Builder builder, ConfigPath path, ConfigTree content) {
-        int keyCount = path.getKeyCount();
-        assert keyCount > 0;
-
-        ConfigTree.Builder childConfig = builder;
-        for (int i = 0; i < keyCount - 1; i++) {
-            childConfig = childConfig.getChildBuilder(path.getKeyAt(i));
-        }
-        childConfig.setChildTree(path.getKeyAt(keyCount - 1), content);
-    }
-
     private <ValueKey> ValueWithStateKey<ValueKey> getValueKeyFromCurrentConfig(
             ConfigPath parent,
             ConfigPath[] relativePaths,
@@ -444,8 +372,6 @@ public final class ProfileSettings {
         private final EqualityComparator<? super ValueKey> valueKeyEquality;
         private final AtomicReference<ValueWithStateKey<ValueKey>> lastValueKeyRef;
 
-        private final UpdateTaskExecutor eventThread;
-
         private final PropertySourceProxy<ValueType> source;
 
         public DomTrackingProperty(PropertyDef<ValueKey, ValueType> propertyDef) {
@@ -466,8 +392,6 @@ public final class ProfileSettings {
                     this.keyEncodingDef);
             this.lastValueKeyRef = new AtomicReference<>(initialValueKey);
             this.source = PropertyFactory.proxySource(valueDef.property(initialValueKey.value));
-
-            this.eventThread = new SwingUpdateTaskExecutor(true);
         }
 
         private void updateConfigFromKey() {
@@ -510,12 +434,9 @@ public final class ProfileSettings {
         private void updateConfigAtPath(ConfigPath path, ConfigTree content) {
             assert configLock.isHeldByCurrentThread();
 
-            if (path.getKeyCount() == 0) {
-                currentConfig = new ConfigTree.Builder(content);
-            }
-            else {
-                setChildTree(currentConfig, path, content);
-            }
+            // Only the nodes along the path are copied, so this is cheap
+            // regardless the size of the whole config.
+            currentConfig = currentConfig.withChildTree(path, content);
         }
 
         private ValueWithStateKey<ValueKey> getUpToDateValueKey() {
@@ -558,7 +479,7 @@ public final class ProfileSettings {
             return source.getValue();
         }
 
-        private boolean affectsThis(Collection<ConfigPath> changedPaths) {
+        private boolean needsUpdate(Collection<ConfigPath> changedPaths) {
             if (changedPaths == configPathsAsList) {
                 // This event is comming from us, so we won't update.
                 // This is necessary for correctness to avoid infinite loop
@@ -566,14 +487,10 @@ public final class ProfileSettings {
                 return false;
             }
 
-            for (ConfigPath changedPath: changedPaths) {
-                for (ConfigPath ourPath: configPaths) {
-                    if (changedPath.isParentOfOrEqual(ourPath)) {
-                        return true;
-                    }
-                }
-            }
-            return false;
+            // The registry only notifies us if the changed paths intersect
+            // with ours. If there are multiple listeners registered, only
+            // the first one needs to read the new value.
+            return lastValueKeyRef.get().stateKey != configStateKey;
         }
 
         private ValueWithStateKey<ValueKey> getValueKey() {
@@ -599,10 +516,10 @@ public final class ProfileSettings {
         public ListenerRef addChangeListener(final Runnable listener) {
             ExceptionHelper.checkNotNullArgument(listener, "listener");
 
-            ListenerRef ref1 = configUpdateListeners.registerListener(new ConfigUpdateListener() {
+            ListenerRef ref1 = configUpdateListeners.registerListener(configPathsAsList, new ConfigUpdateListener() {
                 @Override
                 public void configUpdated(Collection<ConfigPath> changedPaths) {
-                    if (affectsThis(changedPaths)) {
+                    if (needsUpdate(changedPaths)) {
                         updateFromConfig();
                     }
                 }
@@ -624,6 +541,70 @@ public final class ProfileSettings {
         }
     }
 
+    /**
+     * Collects the listeners to be notified on the Event Dispatch Thread and
+     * notifies all of them in a single task, instead of submitting a separate
+     * task for each of them. A listener submitted multiple times before it
+     * could have been notified is only notified once.
+     */
+    private static final class SwingListenerBatch {
+        private final Lock mainLock;
+        private Set<Runnable> pendingListeners;
+
+        public SwingListenerBatch() {
+            this.mainLock = new ReentrantLock();
+            this.pendingListeners = null;
+        }
+
+        public void execute(Runnable listener) {
+            ExceptionHelper.checkNotNullArgument(listener, "listener");
+
+            boolean scheduleNow;
+            mainLock.lock();
+            try {
+                scheduleNow = pendingListeners == null;
+                if (scheduleNow) {
+                    pendingListeners = new LinkedHashSet<>();
+                }
+                pendingListeners.add(listener);
+            } finally {
+                mainLock.unlock();
+            }
+
+            if (scheduleNow) {
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        notifyPendingListeners();
+                    }
+                });
+            }
+        }
+
+        private void notifyPendingListeners() {
+            Set<Runnable> listeners;
+            mainLock.lock();
+            try {
+                listeners = pendingListeners;
+                pendingListeners = null;
+            } finally {
+                mainLock.unlock();
+            }
+
+            if (listeners == null) {
+                return;
+            }
+
+            for (Runnable listener: listeners) {
+                try {
+                    listener.run();
+                } catch (Throwable ex) {
+                    LOGGER.log(Level.SEVERE, "Unexpected exception in a property change listener.", ex);
+                }
+            }
+        }
+    }
+
     private static final class ValueWithStateKey<Value> {
         public final Object stateKey;
 
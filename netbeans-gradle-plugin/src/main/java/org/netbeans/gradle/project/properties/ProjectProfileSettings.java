@@ -8,7 +8,9 @@ import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.jtrim.concurrent.GenericUpdateTaskExecutor;
+import org.jtrim.concurrent.TaskExecutor;
 import org.jtrim.concurrent.TaskExecutorService;
+import org.jtrim.concurrent.TaskExecutors;
 import org.jtrim.concurrent.UpdateTaskExecutor;
 import org.jtrim.event.ListenerRef;
 import org.jtrim.property.MutableProperty;
@@ -23,9 +25,14 @@ import org.w3c.dom.Element;
 
 final class ProjectProfileSettings implements SingleProfileSettingsEx {
     private static final Logger LOGGER = Logger.getLogger(ProjectProfileSettings.class.getName());
-    // Should be single threaded to avoid unnecessary multiple load.
+    private static final int MAX_IO_THREAD_COUNT = 4;
+
+    // Profiles of different projects are loaded and saved concurrently
+    // (e.g., when opening many projects at once) but the I/O of a single
+    // profile is serialized by the in-order executor of the profile to avoid
+    // unnecessary multiple load.
     private static final TaskExecutorService SAVE_LOAD_EXECUTOR
-            = NbTaskExecutors.newExecutor("Profile-I/O", 1);
+            = NbTaskExecutors.newExecutor("Profile-I/O", getIOThreadCount());
 
     private final ProfileSettingsKey key;
     private final ProfileSettings settings;
@@ -49,8 +56,15 @@ final class ProjectProfileSettings implements SingleProfileSettingsEx {
         this.dirty = false;
         this.loadedOnce = false;
         this.loadedListeners = OneShotChangeListenerManager.getSwingNotifier();
-        this.saveExecutor = new GenericUpdateTaskExecutor(SAVE_LOAD_EXECUTOR);
-        this.loadExecutor = new GenericUpdateTaskExecutor(SAVE_LOAD_EXECUTOR);
+
+        TaskExecutor ioExecutor = TaskExecutors.inOrderSimpleExecutor(SAVE_LOAD_EXECUTOR);
+        this.saveExecutor = new GenericUpdateTaskExecutor(ioExecutor);
+        this.loadExecutor = new GenericUpdateTaskExecutor(ioExecutor);
+    }
+
+    private static int getIOThreadCount() {
+        int processorCount = Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Math.min(processorCount, MAX_IO_THREAD_COUNT));
     }
 
     @Override
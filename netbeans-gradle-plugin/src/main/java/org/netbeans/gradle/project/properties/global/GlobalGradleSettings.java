@@ -61,6 +61,7 @@ public final class GlobalGradleSettings {
     private final StringBasedProperty<ModelLoadingStrategy> modelLoadingStrategy;
     private final StringBasedProperty<Integer> gradleDaemonTimeoutSec;
     private final StringBasedProperty<Boolean> compileOnSave;
+    private final StringBasedProperty<Integer> compileOnSaveDelayMs;
     private final StringBasedProperty<PlatformOrder> platformPreferenceOrder;
     private final StringBasedProperty<String> displayNamePattern;
     private final StringBasedProperty<JavaSourcesDisplayMode> javaSourcesDisplayMode;
@@ -111,6 +112,9 @@ public final class GlobalGradleSettings {
         compileOnSave = new GlobalProperty<>(
                 withNS(namespace, "compile-on-save"),
                 new BooleanConverter(false));
+        compileOnSaveDelayMs = new GlobalProperty<>(
+                withNS(namespace, "compile-on-save-delay-ms"),
+                new IntegerConverter(0, Integer.MAX_VALUE, 500));
         platformPreferenceOrder = new GlobalProperty<>(
                 withNS(namespace, "platform-pref-order"),
                 PlatformOrderConverter.INSTANCE
@@ -211,6 +215,10 @@ public final class GlobalGradleSettings {
         return compileOnSave;
     }
 
+    public StringBasedProperty<Integer> compileOnSaveDelayMs() {
+        return compileOnSaveDelayMs;
+    }
+
     public StringBasedProperty<PlatformOrder> platformPreferenceOrder() {
         return platformPreferenceOrder;
     }
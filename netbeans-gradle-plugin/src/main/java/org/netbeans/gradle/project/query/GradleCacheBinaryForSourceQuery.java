@@ -2,9 +2,9 @@ package org.netbeans.gradle.project.query;
 
 import java.io.File;
 import java.net.URL;
-import javax.swing.SwingUtilities;
 import javax.swing.event.ChangeListener;
 import org.netbeans.api.java.queries.BinaryForSourceQuery.Result;
+import org.netbeans.gradle.project.ModelChangeBatcher;
 import org.netbeans.gradle.project.util.GradleFileUtils;
 import org.netbeans.gradle.project.util.NbFileUtils;
 import org.netbeans.spi.java.queries.BinaryForSourceQueryImplementation;
@@ -18,6 +18,12 @@ import org.openide.util.lookup.ServiceProviders;
 public final class GradleCacheBinaryForSourceQuery extends AbstractBinaryForSourceQuery {
     private static final URL[] NO_ROOTS = new URL[0];
     private static final ChangeSupport CHANGES;
+    private static final Runnable FIRE_CHANGE_TASK = new Runnable() {
+        @Override
+        public void run() {
+            CHANGES.fireChange();
+        }
+    };
 
     static {
         EventSource eventSource = new EventSource();
@@ -30,18 +36,19 @@ public final class GradleCacheBinaryForSourceQuery extends AbstractBinaryForSour
                 notifyCacheChange();
             }
         });
+        GradleCacheIndex.getDefault().addChangeListener(new Runnable() {
+            @Override
+            public void run() {
+                notifyCacheChange();
+            }
+        });
     }
 
     public GradleCacheBinaryForSourceQuery() {
     }
 
     public static void notifyCacheChange() {
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                CHANGES.fireChange();
-            }
-        });
+        ModelChangeBatcher.getDefault().scheduleTask(FIRE_CHANGE_TASK);
     }
 
     @Override
@@ -1,9 +1,9 @@
 package org.netbeans.gradle.project.query;
 
 import java.io.File;
-import javax.swing.SwingUtilities;
 import javax.swing.event.ChangeListener;
 import org.jtrim.utils.ExceptionHelper;
+import org.netbeans.gradle.project.ModelChangeBatcher;
 import org.netbeans.gradle.project.util.GradleFileUtils;
 import org.netbeans.gradle.project.util.NbFileUtils;
 import org.netbeans.gradle.project.util.NbFunction;
@@ -15,11 +15,24 @@ import org.openide.util.ChangeSupport;
 public final class GradleCacheByBinaryLookup {
     private static final FileObject[] NO_ROOTS = new FileObject[0];
     private static final ChangeSupport CHANGES;
+    private static final Runnable FIRE_CHANGE_TASK = new Runnable() {
+        @Override
+        public void run() {
+            CHANGES.fireChange();
+        }
+    };
 
     static {
         EventSource eventSource = new EventSource();
         CHANGES = new ChangeSupport(eventSource);
         eventSource.init(CHANGES);
+
+        GradleCacheIndex.getDefault().addChangeListener(new Runnable() {
+            @Override
+            public void run() {
+                CHANGES.fireChange();
+            }
+        });
     }
 
     private final String searchedPackaging;
@@ -34,12 +47,7 @@ public final class GradleCacheByBinaryLookup {
     }
 
     public static void notifyCacheChange() {
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                CHANGES.fireChange();
-            }
-        });
+        ModelChangeBatcher.getDefault().scheduleTask(FIRE_CHANGE_TASK);
     }
 
     public SourceForBinaryQueryImplementation2.Result tryFindEntryByBinary(File binaryRoot) {
@@ -79,7 +87,12 @@ public final class GradleCacheByBinaryLookup {
             return new OldFormatCacheResult(artifactRoot, searchedPackaging, sourceFileName);
         }
 
-        return new NewFormatCacheResult(binDir, sourceFileName);
+        File artifactVersionDir = FileUtil.toFile(binDir);
+        if (artifactVersionDir == null) {
+            return null;
+        }
+
+        return new NewFormatCacheResult(artifactVersionDir, sourceFileName);
     }
 
     private static final class EventSource implements SourceForBinaryQueryImplementation2.Result {
@@ -112,10 +125,10 @@ public final class GradleCacheByBinaryLookup {
     }
 
     private static class NewFormatCacheResult implements SourceForBinaryQueryImplementation2.Result {
-        private final FileObject artifactRoot;
+        private final File artifactRoot;
         private final String sourceFileName;
 
-        public NewFormatCacheResult(FileObject artifactRoot, String sourceFileName) {
+        public NewFormatCacheResult(File artifactRoot, String sourceFileName) {
             this.artifactRoot = artifactRoot;
             this.sourceFileName = sourceFileName;
         }
@@ -132,8 +145,11 @@ public final class GradleCacheByBinaryLookup {
             // ...... \\HASH_OF_SOURCE\\binary-sources.XXX
             // ...... \\HASH_OF_BINARY\\binary.XXX
 
-            FileObject srcFile = NbFileUtils.getFileFromASubDir(artifactRoot, sourceFileName);
-            return srcFile != null ? new FileObject[]{srcFile} : NO_ROOTS;
+            File srcFile = GradleCacheIndex.getDefault().tryGetFile(artifactRoot, sourceFileName);
+            FileObject srcFileObj = srcFile != null
+                    ? NbFileUtils.asArchiveOrDir(srcFile)
+                    : null;
+            return srcFileObj != null ? new FileObject[]{srcFileObj} : NO_ROOTS;
         }
 
         @Override
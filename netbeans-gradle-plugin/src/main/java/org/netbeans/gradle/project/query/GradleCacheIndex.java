@@ -0,0 +1,203 @@
+package org.netbeans.gradle.project.query;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.jtrim.event.ListenerRef;
+import org.jtrim.utils.ExceptionHelper;
+import org.netbeans.gradle.project.event.ChangeListenerManager;
+import org.netbeans.gradle.project.event.GenericChangeListenerManager;
+import org.netbeans.gradle.project.util.GradleFileUtils;
+
+/**
+ * Defines an in-memory index of the artifact cache of Gradle
+ * ({@code GRADLE_USER_HOME/caches/modules-2/files-2.1}).
+ * <P>
+ * The cache of Gradle has the following layout:
+ * <pre>
+ * files-2.1/GROUP/ARTIFACT/VERSION/HASH_OF_BINARY/binary.jar
+ * files-2.1/GROUP/ARTIFACT/VERSION/HASH_OF_SOURCE/binary-sources.jar
+ * files-2.1/GROUP/ARTIFACT/VERSION/HASH_OF_JAVADOC/binary-javadoc.jar
+ * </pre>
+ * This index maps each version directory to the files found in its hash
+ * directories, so that looking up the sources or javadoc of a binary does not
+ * need to list the hash directories again. A version directory is only
+ * indexed when a file is first looked up in it.
+ * <P>
+ * The index does not listen for file system changes (watching the whole cache
+ * is too expensive). Instead, a version directory is listed again if its last
+ * modified time has changed since it was indexed. Gradle stores every file in
+ * a new hash directory, so adding (or removing) a file always updates the
+ * last modified time of the version directory.
+ * <P>
+ * Since nothing watches the cache, the code running Gradle commands (which
+ * might download new artifacts) has to call {@link #notifyCacheChange()}, so
+ * that the listeners can look up their files again.
+ */
+public final class GradleCacheIndex {
+    // The last modified time of a directory has a coarse resolution on some
+    // file systems, so we do not trust it if it was read too early.
+    private static final long MODIFICATION_TIME_RESOLUTION_MS = 2000;
+
+    private static final GradleCacheIndex DEFAULT
+            = new GradleCacheIndex(GenericChangeListenerManager.getSwingNotifier());
+
+    private final ChangeListenerManager changeListeners;
+    private final ConcurrentMap<File, ArtifactVersionEntries> entries;
+    private final AtomicBoolean started;
+
+    GradleCacheIndex(ChangeListenerManager changeListeners) {
+        this.changeListeners = changeListeners;
+        this.entries = new ConcurrentHashMap<>();
+        this.started = new AtomicBoolean(false);
+    }
+
+    public static GradleCacheIndex getDefault() {
+        DEFAULT.ensureStarted();
+        return DEFAULT;
+    }
+
+    /**
+     * Registers a listener to be notified (on the Event Dispatch Thread) after
+     * the index has been updated.
+     *
+     * @param listener the listener to be notified. This argument cannot be
+     *   {@code null}.
+     * @return the {@code ListenerRef} which can be used to unregister the
+     *   listener. This method never returns {@code null}.
+     */
+    public ListenerRef addChangeListener(Runnable listener) {
+        return changeListeners.registerListener(listener);
+    }
+
+    /**
+     * Notifies the listeners of this index that the cache of Gradle might have
+     * changed. This method should be called after executing something which
+     * might have downloaded artifacts into the cache (e.g., a build).
+     * <P>
+     * This method does not read the cache, the version directories are only
+     * checked again when a file is looked up in them.
+     */
+    public void notifyCacheChange() {
+        changeListeners.fireEventually();
+    }
+
+    /**
+     * Returns the file with the given name from one of the hash directories of
+     * the given artifact version directory.
+     *
+     * @param artifactVersionDir the directory containing the hash directories.
+     *   This argument cannot be {@code null}.
+     * @param fileName the name of the searched file (without any directory).
+     *   This argument cannot be {@code null}.
+     * @return the file with the given name or {@code null} if there is no such
+     *   file in any of the hash directories
+     */
+    public File tryGetFile(File artifactVersionDir, String fileName) {
+        ExceptionHelper.checkNotNullArgument(artifactVersionDir, "artifactVersionDir");
+        ExceptionHelper.checkNotNullArgument(fileName, "fileName");
+
+        long lastModified = artifactVersionDir.lastModified();
+
+        ArtifactVersionEntries versionEntries = entries.get(artifactVersionDir);
+        if (versionEntries == null || !versionEntries.isUpToDate(lastModified)) {
+            ArtifactVersionEntries newEntries = ArtifactVersionEntries.readFromDir(artifactVersionDir, lastModified);
+            entries.put(artifactVersionDir, newEntries);
+
+            if (versionEntries != null && !newEntries.hasSameFiles(versionEntries)) {
+                changeListeners.fireEventually();
+            }
+            versionEntries = newEntries;
+        }
+        return versionEntries.tryGetFile(fileName);
+    }
+
+    private void ensureStarted() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+
+        GradleFileUtils.GRADLE_USER_HOME.addChangeListener(new Runnable() {
+            @Override
+            public void run() {
+                // The entries of the previous cache are no longer needed.
+                entries.clear();
+                changeListeners.fireEventually();
+            }
+        });
+    }
+
+    private static List<File> listSubDirs(File dir) {
+        File[] subDirs = dir.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File pathname) {
+                return pathname.isDirectory();
+            }
+        });
+        if (subDirs == null) {
+            return Collections.emptyList();
+        }
+        List<File> result = new ArrayList<>(subDirs.length);
+        Collections.addAll(result, subDirs);
+        return result;
+    }
+
+    private static final class ArtifactVersionEntries {
+        private final Map<String, File> files;
+        private final long lastModified;
+        private final boolean stable;
+
+        private ArtifactVersionEntries(Map<String, File> files, long lastModified, boolean stable) {
+            this.files = files;
+            this.lastModified = lastModified;
+            this.stable = stable;
+        }
+
+        public static ArtifactVersionEntries readFromDir(File artifactVersionDir, long lastModified) {
+            // If the directory might be modified again within the resolution
+            // of its last modified time, then we have to read it again next time.
+            boolean stable = lastModified != 0
+                    && System.currentTimeMillis() - lastModified > MODIFICATION_TIME_RESOLUTION_MS;
+
+            List<File> hashDirs = listSubDirs(artifactVersionDir);
+            if (hashDirs.isEmpty()) {
+                return new ArtifactVersionEntries(Collections.<String, File>emptyMap(), lastModified, stable);
+            }
+
+            Map<String, File> files = new HashMap<>();
+            for (File hashDir: hashDirs) {
+                File[] hashDirFiles = hashDir.listFiles();
+                if (hashDirFiles == null) {
+                    continue;
+                }
+
+                for (File file: hashDirFiles) {
+                    String name = file.getName();
+                    if (!files.containsKey(name) && file.isFile()) {
+                        files.put(name, file);
+                    }
+                }
+            }
+            return new ArtifactVersionEntries(files, lastModified, stable);
+        }
+
+        public boolean isUpToDate(long currentLastModified) {
+            return stable && lastModified == currentLastModified;
+        }
+
+        public boolean hasSameFiles(ArtifactVersionEntries other) {
+            return files.equals(other.files);
+        }
+
+        public File tryGetFile(String fileName) {
+            return files.get(fileName);
+        }
+    }
+}
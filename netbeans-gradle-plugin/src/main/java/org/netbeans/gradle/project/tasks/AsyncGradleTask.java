@@ -37,7 +37,6 @@ import org.jtrim.event.ListenerRef;
 import org.jtrim.utils.ExceptionHelper;
 import org.netbeans.api.progress.ProgressHandle;
 import org.netbeans.gradle.model.OperationInitializer;
-import org.netbeans.gradle.model.util.TemporaryFileManager;
 import org.netbeans.gradle.model.util.TemporaryFileRef;
 import org.netbeans.gradle.project.NbGradleProject;
 import org.netbeans.gradle.project.NbStrings;
@@ -68,7 +67,7 @@ import org.netbeans.gradle.project.output.StackTraceConsumer;
 import org.netbeans.gradle.project.output.TaskIOTab;
 import org.netbeans.gradle.project.output.WriterOutputStream;
 import org.netbeans.gradle.project.properties.global.GlobalGradleSettings;
-import org.netbeans.gradle.project.util.StringUtils;
+import org.netbeans.gradle.project.query.GradleCacheIndex;
 import org.netbeans.spi.project.ui.support.BuildExecutionSupport;
 import org.openide.LifecycleManager;
 import org.openide.windows.OutputWriter;
@@ -83,6 +82,7 @@ public final class AsyncGradleTask implements Runnable {
     private final NbGradleProject project;
     private final GradleCommandSpecFactory taskDefFactroy;
     private final CommandCompleteListener listener;
+    private final CommandCancelListener cancelListener;
     private final Set<GradleActionProviderContext> actionContexts;
 
     public AsyncGradleTask(
@@ -90,13 +90,24 @@ public final class AsyncGradleTask implements Runnable {
             GradleCommandSpecFactory taskDefFactroy,
             Set<GradleActionProviderContext> actionContexts,
             CommandCompleteListener listener) {
+        this(project, taskDefFactroy, actionContexts, listener, CommandCancelListener.NO_OP);
+    }
+
+    public AsyncGradleTask(
+            NbGradleProject project,
+            GradleCommandSpecFactory taskDefFactroy,
+            Set<GradleActionProviderContext> actionContexts,
+            CommandCompleteListener listener,
+            CommandCancelListener cancelListener) {
         ExceptionHelper.checkNotNullArgument(project, "project");
         ExceptionHelper.checkNotNullArgument(taskDefFactroy, "taskDefFactroy");
         ExceptionHelper.checkNotNullArgument(listener, "listener");
+        ExceptionHelper.checkNotNullArgument(cancelListener, "cancelListener");
 
         this.project = project;
         this.taskDefFactroy = taskDefFactroy;
         this.listener = listener;
+        this.cancelListener = cancelListener;
         this.actionContexts = copyEnumSet(actionContexts);
 
         ExceptionHelper.checkNotNullElements(this.actionContexts, "actionContexts");
@@ -122,6 +133,10 @@ public final class AsyncGradleTask implements Runnable {
         return listener;
     }
 
+    public CommandCancelListener getCancelListener() {
+        return cancelListener;
+    }
+
     @Override
     public void run() {
         submitGradleTask(taskDefFactroy, listener);
@@ -150,8 +165,7 @@ public final class AsyncGradleTask implements Runnable {
             for (InitScriptQuery scriptQuery: scriptQueries) {
                 try {
                     String scriptContent = scriptQuery.getInitScript();
-                    results.add(TemporaryFileManager.getDefault().createFile(
-                            "task-init-script", scriptContent, StringUtils.UTF8));
+                    results.add(InitScriptStore.getDefault().acquire(scriptContent));
                 } catch (Throwable ex) {
                     LOGGER.log(Level.SEVERE,
                             "Failed to create initialization script provided by " + scriptQuery.getClass().getName(),
@@ -354,12 +368,46 @@ public final class AsyncGradleTask implements Runnable {
         doGradleTasksWithProgressIgnoreTaskDefCancel(cancellation, progress, buildItem);
     }
 
-    // TODO: This method is extremly nasty and is in a dire need of refactoring.
     private void doGradleTasksWithProgressIgnoreTaskDefCancel(
             CancellationSource cancellation,
-            final ProgressHandle progress,
+            ProgressHandle progress,
             BuildExecutionItem buildItem) {
 
+        TaskExecutionTimer timer = buildItem.getTimer();
+        timer.endPhase(TaskExecutionPhase.QUEUE);
+
+        TaskExecutionRecord.Outcome outcome = TaskExecutionRecord.Outcome.FAILURE;
+        try {
+            outcome = doGradleTasksWithProgressIgnoreTaskDefCancel(cancellation, progress, buildItem, timer);
+            if (cancellation.getToken().isCanceled()) {
+                outcome = TaskExecutionRecord.Outcome.CANCELED;
+            }
+        } finally {
+            GradleTaskDef taskDef = buildItem.getProcessedTaskDef();
+            TaskExecutionHistory.getDefault().addRecord(timer.toRecord(
+                    project.displayName().getValue(),
+                    taskDef.getSafeCommandName(),
+                    outcome));
+        }
+    }
+
+    // TODO: This method is extremly nasty and is in a dire need of refactoring.
+    //
+    // Every timer.endPhase(phase) call charges the time since the previous
+    // call to the given phase:
+    // - CONNECTION: building the command, connecting to the daemon,
+    //   configuring the build launcher, checking if the tasks are executable
+    //   and closing the connection.
+    // - BUILD: runBuild only.
+    // - OUTPUT: preparing the output tab, running the finalizer of successful
+    //   commands, closing the output tab and the init scripts and running the
+    //   command finalizer.
+    private TaskExecutionRecord.Outcome doGradleTasksWithProgressIgnoreTaskDefCancel(
+            CancellationSource cancellation,
+            final ProgressHandle progress,
+            BuildExecutionItem buildItem,
+            TaskExecutionTimer timer) {
+
         GradleTaskDef taskDef = buildItem.getProcessedTaskDef();
         Objects.requireNonNull(taskDef, "command.processed");
 
@@ -382,6 +430,7 @@ public final class AsyncGradleTask implements Runnable {
         GradleModelLoader.ModelBuilderSetup targetSetup = createTargetSetup(taskDef, progress);
 
         Throwable commandError = null;
+        TaskExecutionRecord.Outcome outcome = TaskExecutionRecord.Outcome.FAILURE;
 
         GradleConnector gradleConnector = GradleModelLoader.createGradleConnector(cancellation.getToken(), project);
         gradleConnector.forProjectDirectory(projectDir);
@@ -393,6 +442,7 @@ public final class AsyncGradleTask implements Runnable {
             List<TemporaryFileRef> initScripts = getAllInitScriptFiles(project);
             try {
                 configureBuildLauncher(targetSetup, buildLauncher, taskDef, initScripts);
+                timer.endPhase(TaskExecutionPhase.CONNECTION);
 
                 TaskOutputDef outputDef = taskDef.getOutputDef();
 
@@ -423,15 +473,35 @@ public final class AsyncGradleTask implements Runnable {
                                 io.getIo().select();
                             }
 
-                            if (checkTaskExecutable(projectConnection, taskDef, targetSetup, io)) {
-                                runBuild(cancellation.getToken(), buildLauncher);
+                            timer.endPhase(TaskExecutionPhase.OUTPUT);
+
+                            boolean executable = checkTaskExecutable(projectConnection, taskDef, targetSetup, io);
+                            timer.endPhase(TaskExecutionPhase.CONNECTION);
+
+                            if (executable) {
+                                try {
+                                    runBuild(cancellation.getToken(), buildLauncher);
+                                } finally {
+                                    timer.endPhase(TaskExecutionPhase.BUILD);
+                                    // Even a failed build might have downloaded
+                                    // new artifacts.
+                                    GradleCacheIndex.getDefault().notifyCacheChange();
+                                }
 
                                 taskDef.getSuccessfulCommandFinalizer().finalizeSuccessfulCommand(
                                         buildOutput,
                                         io.getErrRef());
+                                outcome = TaskExecutionRecord.Outcome.SUCCESS;
+                            }
+                            else {
+                                outcome = TaskExecutionRecord.Outcome.NOT_EXECUTABLE;
                             }
                         }
                     } catch (Throwable ex) {
+                        // Hidden exceptions are not reported to the user but
+                        // the command still failed.
+                        outcome = TaskExecutionRecord.Outcome.FAILURE;
+
                         Level logLevel;
 
                         if (taskDef.getCommandExceptionHider().hideException(ex)) {
@@ -459,6 +529,7 @@ public final class AsyncGradleTask implements Runnable {
                 buildItem.markFinished();
                 BuildExecutionSupport.registerFinishedItem(buildItem);
             } finally {
+                timer.endPhase(TaskExecutionPhase.OUTPUT);
                 closeAll(initScripts);
             }
         } finally {
@@ -467,10 +538,14 @@ public final class AsyncGradleTask implements Runnable {
                     projectConnection.close();
                 }
             } finally {
+                timer.endPhase(TaskExecutionPhase.CONNECTION);
+
                 ExecutedCommandContext commandContext = buildItem.getCommandContext();
                 taskDef.getCommandFinalizer().onComplete(commandContext, commandError);
+                timer.endPhase(TaskExecutionPhase.OUTPUT);
             }
         }
+        return outcome;
     }
 
     private void preSubmitGradleTask() {
@@ -606,7 +681,7 @@ public final class AsyncGradleTask implements Runnable {
             }
         };
 
-        GradleDaemonManager.submitGradleTask(TASK_EXECUTOR, daemonTaskDefFactory, listener);
+        GradleDaemonManager.submitGradleTask(TASK_EXECUTOR, daemonTaskDefFactory, listener, cancelListener);
     }
 
     private AsyncGradleTask adjust(GradleTaskDef taskDef) {
@@ -619,7 +694,7 @@ public final class AsyncGradleTask implements Runnable {
     }
 
     private AsyncGradleTask adjust(GradleCommandSpecFactory newFactory) {
-        return new AsyncGradleTask(project, newFactory, actionContexts, listener);
+        return new AsyncGradleTask(project, newFactory, actionContexts, listener, cancelListener);
     }
 
     private GradleTaskDef createTaskDef(GradleCommandSpec commandSpec) {
@@ -682,12 +757,16 @@ public final class AsyncGradleTask implements Runnable {
     private class BuildExecutionItem implements BuildExecutionSupport.Item {
         private final ProcessedCommandSpec processedCommandSpec;
         private final DaemonTaskDef daemonTaskDef;
+        private final TaskExecutionTimer timer;
         private volatile boolean running;
 
         public BuildExecutionItem(ProcessedCommandSpec processedCommandSpec) {
             assert processedCommandSpec != null;
 
             this.processedCommandSpec = processedCommandSpec;
+            // The item is created just before being queued in the
+            // GradleDaemonManager, so the timer measures the queue time first.
+            this.timer = new TaskExecutionTimer();
 
             String progressCaption = processedCommandSpec.getProgressCaption();
             boolean nonBlocking = processedCommandSpec.getProcessedTaskDef().isNonBlocking();
@@ -704,6 +783,10 @@ public final class AsyncGradleTask implements Runnable {
             return daemonTaskDef;
         }
 
+        public TaskExecutionTimer getTimer() {
+            return timer;
+        }
+
         public GradleTaskDef getSourceTaskDef() {
             return processedCommandSpec.getSourceTaskDef();
         }
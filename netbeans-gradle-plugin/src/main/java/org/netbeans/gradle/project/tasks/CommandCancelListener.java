@@ -0,0 +1,27 @@
+package org.netbeans.gradle.project.tasks;
+
+/**
+ * Defines a listener to be notified if a Gradle command has been canceled,
+ * including commands canceled while waiting in the queue (that is, before
+ * they were started).
+ * <P>
+ * Unlike {@link org.netbeans.gradle.project.api.task.CommandCompleteListener},
+ * which is only notified if the command has been attempted to be started, this
+ * listener allows the caller to clean up after commands which will never
+ * complete. This listener may be added to the context {@code Lookup} of
+ * {@code ActionProvider.invokeAction} as well.
+ * <P>
+ * This listener may be notified on any thread.
+ */
+public interface CommandCancelListener {
+    public static final CommandCancelListener NO_OP = new CommandCancelListener() {
+        @Override
+        public void onCanceled() {
+        }
+    };
+
+    /**
+     * The method to be called if the Gradle command has been canceled.
+     */
+    public void onCanceled();
+}
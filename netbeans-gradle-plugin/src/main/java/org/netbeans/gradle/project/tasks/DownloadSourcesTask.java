@@ -1,21 +1,52 @@
 package org.netbeans.gradle.project.tasks;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import org.gradle.tooling.GradleConnector;
 import org.gradle.tooling.ModelBuilder;
 import org.gradle.tooling.ProjectConnection;
+import org.gradle.tooling.model.build.BuildEnvironment;
 import org.gradle.tooling.model.idea.IdeaProject;
+import org.gradle.util.GradleVersion;
 import org.jtrim.cancel.CancellationToken;
 import org.jtrim.utils.ExceptionHelper;
 import org.netbeans.api.progress.ProgressHandle;
 import org.netbeans.api.project.Project;
+import org.netbeans.gradle.model.BuildOperationArgs;
+import org.netbeans.gradle.model.BuilderIssue;
+import org.netbeans.gradle.model.BuilderResult;
+import org.netbeans.gradle.model.FetchedModels;
+import org.netbeans.gradle.model.FetchedModelsOrError;
+import org.netbeans.gradle.model.FetchedProjectModels;
+import org.netbeans.gradle.model.GenericModelFetcher;
+import org.netbeans.gradle.model.GradleBuildInfoQuery;
 import org.netbeans.gradle.model.OperationInitializer;
+import org.netbeans.gradle.model.api.GradleProjectInfoQuery;
+import org.netbeans.gradle.model.java.DependencySourcesModel;
+import org.netbeans.gradle.model.java.DependencySourcesModelBuilder;
+import org.netbeans.gradle.model.util.Exceptions;
 import org.netbeans.gradle.project.NbStrings;
+import org.netbeans.gradle.project.api.modelquery.GradleModelDef;
 import org.netbeans.gradle.project.model.GradleModelLoader;
+import org.netbeans.gradle.project.output.LineOutputWriter;
+import org.netbeans.gradle.project.output.WriterOutputStream;
+import org.netbeans.gradle.project.properties.ModelLoadingStrategy;
+import org.netbeans.gradle.project.properties.global.GlobalGradleSettings;
 import org.openide.filesystems.FileObject;
 import org.openide.filesystems.FileUtil;
 
 public final class DownloadSourcesTask implements DaemonTask {
+    private static final Logger LOGGER = Logger.getLogger(DownloadSourcesTask.class.getName());
+
+    private static final String SOURCES_QUERY_KEY = "download-sources";
+
     private final Project project;
 
     public DownloadSourcesTask(Project project) {
@@ -43,17 +74,135 @@ public final class DownloadSourcesTask implements DaemonTask {
 
         OperationInitializer setup = GradleModelLoader.modelBuilderSetup(project, progress);
 
-        // FIXME: Currently we just fetch IdeaProject and rely on that to fetch
-        //   the sources. Then the source locator query will find the sources
-        //   in the Gradle cache.
         ProjectConnection connection = connector.connect();
         try {
-            ModelBuilder<IdeaProject> builder = connection.model(IdeaProject.class);
-            GradleModelLoader.setupLongRunningOP(setup, builder);
+            if (canUseCustomModels(connection, setup)) {
+                downloadMissingSources(connection, outputAsProgress(setup, progress), progress);
+            }
+            else {
+                // Before Gradle 1.8 we cannot run custom builders, so we just
+                // fetch IdeaProject and rely on that to fetch the sources.
+                // Then the source locator query will find the sources in the
+                // Gradle cache.
+                ModelBuilder<IdeaProject> builder = connection.model(IdeaProject.class);
+                GradleModelLoader.setupLongRunningOP(setup, builder);
 
-            builder.get();
+                builder.get();
+            }
         } finally {
             connection.close();
         }
     }
+
+    private static boolean canUseCustomModels(ProjectConnection connection, OperationInitializer setup) {
+        ModelBuilder<BuildEnvironment> envBuilder = connection.model(BuildEnvironment.class);
+        GradleModelLoader.setupLongRunningOP(setup, envBuilder);
+
+        BuildEnvironment env = envBuilder.get();
+        GradleVersion version = GradleVersion.version(env.getGradle().getGradleVersion());
+
+        ModelLoadingStrategy strategy = GlobalGradleSettings.getDefault().modelLoadingStrategy().getValue();
+        return strategy.canUse18Api(version);
+    }
+
+    private static OperationInitializer outputAsProgress(
+            final OperationInitializer setup,
+            final ProgressHandle progress) {
+
+        // DependencySourcesModelBuilder logs a line for each resolved archive.
+        final LineOutputWriter.Handler progressHandler = new LineOutputWriter.Handler() {
+            @Override
+            public void writeLine(String line) {
+                if (!line.isEmpty()) {
+                    progress.progress(line);
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+        };
+
+        return new OperationInitializer() {
+            @Override
+            public void initOperation(BuildOperationArgs args) {
+                setup.initOperation(args);
+                args.setStandardOutput(new WriterOutputStream(new LineOutputWriter(progressHandler)));
+            }
+        };
+    }
+
+    private static GenericModelFetcher createSourcesFetcher() {
+        GradleModelDef modelDef = GradleModelDef.fromProjectInfoBuilders(DependencySourcesModelBuilder.SOURCES);
+        List<GradleProjectInfoQuery<?>> queries = new ArrayList<>(modelDef.getProjectInfoQueries());
+
+        return new GenericModelFetcher(
+                Collections.<Object, List<GradleBuildInfoQuery<?>>>emptyMap(),
+                Collections.<Object, List<GradleProjectInfoQuery<?>>>singletonMap(SOURCES_QUERY_KEY, queries),
+                Collections.<Class<?>>emptySet());
+    }
+
+    private static void downloadMissingSources(
+            ProjectConnection connection,
+            OperationInitializer setup,
+            ProgressHandle progress) {
+
+        FetchedModelsOrError modelsOrError;
+        try {
+            modelsOrError = createSourcesFetcher().getModels(connection, setup);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        FetchedModels models = modelsOrError.getModels();
+        if (models == null) {
+            Throwable error = modelsOrError.getBuildScriptEvaluationError();
+            if (error == null) {
+                error = modelsOrError.getUnexpectedError();
+            }
+            throw Exceptions.throwUnchecked(error != null
+                    ? error
+                    : new IllegalStateException("Failed to download sources."));
+        }
+
+        List<FetchedProjectModels> allProjectModels = new ArrayList<>(models.getOtherProjectModels().size() + 1);
+        allProjectModels.add(models.getDefaultProjectModels());
+        allProjectModels.addAll(models.getOtherProjectModels());
+
+        int downloadedCount = 0;
+        for (FetchedProjectModels projectModels: allProjectModels) {
+            for (DependencySourcesModel sourcesModel: getSourcesModels(projectModels)) {
+                downloadedCount += sourcesModel.getSourceFiles().size();
+
+                Collection<String> unavailable = sourcesModel.getUnavailableArtifacts();
+                if (!unavailable.isEmpty()) {
+                    LOGGER.log(Level.INFO, "Sources are not available for {0}", unavailable);
+                }
+            }
+        }
+
+        progress.progress(NbStrings.getDownloadedSourcesCount(downloadedCount));
+    }
+
+    private static List<DependencySourcesModel> getSourcesModels(FetchedProjectModels projectModels) {
+        Map<Object, List<BuilderResult>> allResults = projectModels.getProjectInfoResults();
+        List<BuilderResult> results = allResults.get(SOURCES_QUERY_KEY);
+        if (results == null) {
+            return Collections.emptyList();
+        }
+
+        List<DependencySourcesModel> sourcesModels = new ArrayList<>(results.size());
+        for (BuilderResult result: results) {
+            BuilderIssue issue = result.getIssue();
+            if (issue != null) {
+                LOGGER.log(Level.WARNING, "Failed to download sources: " + issue.getName(), issue.getException());
+            }
+
+            Object resultObject = result.getResultIfNoIssue();
+            if (resultObject instanceof DependencySourcesModel) {
+                sourcesModels.add((DependencySourcesModel)resultObject);
+            }
+        }
+        return sourcesModels;
+    }
 }
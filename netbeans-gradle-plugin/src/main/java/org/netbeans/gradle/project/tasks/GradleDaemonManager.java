@@ -72,13 +72,22 @@ public final class GradleDaemonManager {
         submitGradleTask(executor, taskDef.toFactory(), listener);
     }
 
+    public static void submitGradleTask(
+            TaskExecutor executor,
+            DaemonTaskDefFactory taskDefFactory,
+            CommandCompleteListener listener) {
+        submitGradleTask(executor, taskDefFactory, listener, CommandCancelListener.NO_OP);
+    }
+
     public static void submitGradleTask(
             TaskExecutor executor,
             final DaemonTaskDefFactory taskDefFactory,
-            final CommandCompleteListener listener) {
+            final CommandCompleteListener listener,
+            final CommandCancelListener cancelListener) {
         ExceptionHelper.checkNotNullArgument(executor, "executor");
         ExceptionHelper.checkNotNullArgument(taskDefFactory, "taskDefFactory");
         ExceptionHelper.checkNotNullArgument(listener, "listener");
+        ExceptionHelper.checkNotNullArgument(cancelListener, "cancelListener");
 
         final CancellationSource cancel = Cancellation.createCancellationSource();
         final String origDisplayName = taskDefFactory.getDisplayName();
@@ -136,6 +145,9 @@ public final class GradleDaemonManager {
                     if (!canceled) {
                         listener.onComplete(error);
                     }
+                    else {
+                        cancelListener.onCanceled();
+                    }
                 } finally {
                     progress.finish();
                 }
@@ -40,6 +40,15 @@ public final class GradleTasks {
         return createAsyncGradleTaskFromSpec(project, toSpecFactory(taskDefFactory), actionContexts, listener);
     }
 
+    public static Runnable createAsyncGradleTask(
+            NbGradleProject project,
+            GradleTaskDefFactory taskDefFactory,
+            Set<GradleActionProviderContext> actionContexts,
+            CommandCompleteListener listener,
+            CommandCancelListener cancelListener) {
+        return new AsyncGradleTask(project, toSpecFactory(taskDefFactory), actionContexts, listener, cancelListener);
+    }
+
     public static Runnable createAsyncGradleTaskFromSpec(
             NbGradleProject project,
             GradleCommandSpecFactory taskDefFactory,
@@ -0,0 +1,345 @@
+package org.netbeans.gradle.project.tasks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jtrim.utils.ExceptionHelper;
+import org.netbeans.gradle.model.util.BasicFileUtils;
+import org.netbeans.gradle.model.util.TemporaryFileRef;
+import org.netbeans.gradle.project.util.StringUtils;
+
+/**
+ * Defines a store of init scripts where each distinct script is written to a
+ * file named after the hash of its content, and only once. The files are
+ * reused by every subsequent build using the same script, so a build which
+ * uses the same scripts as a previous build does not write any file.
+ * <P>
+ * The files are reference counted: A file is only deleted when nobody uses it
+ * and there are more than a fixed number of stored scripts. The default store
+ * deletes all of its files when the JVM exits. Since every IDE process has its
+ * own default store, the default store writes into a directory of its own, so
+ * that it never replaces or deletes a file read by another IDE process.
+ * <P>
+ * Retrieving an already stored script does not acquire a lock.
+ * <P>
+ * The methods of this class are safe to be called from multiple threads
+ * concurrently.
+ */
+public final class InitScriptStore {
+    private static final Logger LOGGER = Logger.getLogger(InitScriptStore.class.getName());
+
+    private static final String FILE_PREFIX = "init-script-";
+    private static final String FILE_SUFFIX = ".gradle";
+    private static final int DEFAULT_MAX_STORED_SCRIPTS = 64;
+
+    private static final AtomicReference<InitScriptStore> DEFAULT_REF = new AtomicReference<>(null);
+
+    private final File storeDir;
+    private final int maxStoredScripts;
+    private final ConcurrentMap<String, StoredScript> scripts;
+    private final AtomicLong writeCount;
+    // Guards writing and deleting the files, so that a file being deleted
+    // cannot be mistaken for the file of a new script with the same content.
+    private final Lock fileLock;
+
+    /**
+     * Creates a new empty store writing its files into the given directory.
+     *
+     * @param storeDir the directory where the scripts are written. This
+     *   directory is created when the first script is written. This argument
+     *   cannot be {@code null}.
+     * @param maxStoredScripts the number of stored scripts above which scripts
+     *   nobody uses are deleted. This argument must be greater than or equal
+     *   to zero.
+     */
+    public InitScriptStore(File storeDir, int maxStoredScripts) {
+        ExceptionHelper.checkNotNullArgument(storeDir, "storeDir");
+        ExceptionHelper.checkArgumentInRange(maxStoredScripts, 0, Integer.MAX_VALUE, "maxStoredScripts");
+
+        this.storeDir = storeDir;
+        this.maxStoredScripts = maxStoredScripts;
+        this.scripts = new ConcurrentHashMap<>();
+        this.writeCount = new AtomicLong(0);
+        this.fileLock = new ReentrantLock();
+    }
+
+    public static InitScriptStore getDefault() {
+        InitScriptStore result = DEFAULT_REF.get();
+        if (result == null) {
+            File scriptsDir = new File(BasicFileUtils.getPluginTmpDir(), "init-scripts");
+            final File storeDir = new File(scriptsDir, "session-" + UUID.randomUUID().toString());
+            result = new InitScriptStore(storeDir, DEFAULT_MAX_STORED_SCRIPTS);
+            if (DEFAULT_REF.compareAndSet(null, result)) {
+                final InitScriptStore toDeleteBeforeTerminate = result;
+                Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        toDeleteBeforeTerminate.deleteAll();
+                        // Only succeeds if every file could be deleted.
+                        storeDir.delete();
+                    }
+                }));
+            }
+            else {
+                result = DEFAULT_REF.get();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a reference to the file containing the given script, writing
+     * the file only if this script has not been stored yet. The returned
+     * reference must be closed after the file is no longer needed.
+     *
+     * @param scriptContent the content of the init script. This argument
+     *   cannot be {@code null}.
+     * @return the reference to the file containing the given script. This
+     *   method never returns {@code null}.
+     *
+     * @throws IOException thrown if the script had to be written but writing
+     *   it failed
+     */
+    public TemporaryFileRef acquire(String scriptContent) throws IOException {
+        ExceptionHelper.checkNotNullArgument(scriptContent, "scriptContent");
+
+        while (true) {
+            StoredScript script = scripts.get(scriptContent);
+            if (script == null) {
+                StoredScript newScript = new StoredScript(scriptContent);
+                script = scripts.putIfAbsent(scriptContent, newScript);
+                if (script == null) {
+                    script = newScript;
+                }
+            }
+
+            if (script.tryAcquire()) {
+                try {
+                    script.ensureWritten();
+                } catch (Throwable ex) {
+                    script.release();
+                    throw ex;
+                }
+                return new ScriptRef(script);
+            }
+
+            // The script has been deleted concurrently.
+            scripts.remove(scriptContent, script);
+        }
+    }
+
+    /**
+     * Returns the number of files written by this store.
+     *
+     * @return the number of files written by this store
+     */
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * Returns the number of scripts currently stored.
+     *
+     * @return the number of scripts currently stored
+     */
+    public int getStoredScriptCount() {
+        return scripts.size();
+    }
+
+    private void deleteUnusedIfNeeded() {
+        if (scripts.size() <= maxStoredScripts) {
+            return;
+        }
+
+        fileLock.lock();
+        try {
+            Iterator<Map.Entry<String, StoredScript>> itr = scripts.entrySet().iterator();
+            while (itr.hasNext() && scripts.size() > maxStoredScripts) {
+                Map.Entry<String, StoredScript> entry = itr.next();
+                StoredScript script = entry.getValue();
+                if (script.tryMarkDeleted()) {
+                    scripts.remove(entry.getKey(), script);
+                    script.deleteFile();
+                }
+            }
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the files of every stored script, regardless if they are used
+     * or not. This method is intended to be called when the IDE terminates.
+     */
+    public void deleteAll() {
+        fileLock.lock();
+        try {
+            for (StoredScript script: scripts.values()) {
+                script.forceMarkDeleted();
+                script.deleteFile();
+            }
+            scripts.clear();
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    private static String getHash(byte[] content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(content);
+
+            StringBuilder result = new StringBuilder(hash.length * 2);
+            for (byte value: hash) {
+                result.append(Character.forDigit((value & 0xF0) >>> 4, 16));
+                result.append(Character.forDigit(value & 0x0F, 16));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Missing SHA-256 MessageDigest", ex);
+        }
+    }
+
+    private final class StoredScript {
+        // -1 means that the file was deleted and this instance must not be
+        // used anymore.
+        private final AtomicInteger useCount;
+        private final String content;
+        private volatile File file;
+
+        public StoredScript(String content) {
+            this.useCount = new AtomicInteger(0);
+            this.content = content;
+            this.file = null;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public boolean tryAcquire() {
+            while (true) {
+                int count = useCount.get();
+                if (count < 0) {
+                    return false;
+                }
+                if (useCount.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        public void release() {
+            if (useCount.decrementAndGet() == 0) {
+                deleteUnusedIfNeeded();
+            }
+        }
+
+        public boolean tryMarkDeleted() {
+            return useCount.compareAndSet(0, -1);
+        }
+
+        public void forceMarkDeleted() {
+            useCount.set(-1);
+        }
+
+        public void ensureWritten() throws IOException {
+            File currentFile = file;
+            if (currentFile != null && currentFile.isFile()) {
+                return;
+            }
+
+            fileLock.lock();
+            try {
+                currentFile = file;
+                if (currentFile == null || !currentFile.isFile()) {
+                    file = write();
+                }
+            } finally {
+                fileLock.unlock();
+            }
+        }
+
+        private File write() throws IOException {
+            byte[] bytes = content.getBytes(StringUtils.UTF8);
+            Path dir = storeDir.toPath();
+            Path target = dir.resolve(FILE_PREFIX + getHash(bytes) + FILE_SUFFIX);
+
+            // A file of a script which was dropped from this store but could
+            // not be deleted can be reused if it was completely written.
+            if (Files.isRegularFile(target) && Arrays.equals(bytes, Files.readAllBytes(target))) {
+                return target.toFile();
+            }
+
+            Files.createDirectories(dir);
+            Path tmpFile = Files.createTempFile(dir, FILE_PREFIX, ".tmp");
+            try {
+                Files.write(tmpFile, bytes);
+                try {
+                    Files.move(tmpFile, target,
+                            StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException ex) {
+                    Files.move(tmpFile, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tmpFile);
+            }
+
+            writeCount.incrementAndGet();
+            return target.toFile();
+        }
+
+        public void deleteFile() {
+            File currentFile = file;
+            if (currentFile != null && !currentFile.delete() && currentFile.exists()) {
+                LOGGER.log(Level.WARNING, "Failed to delete init script: {0}", currentFile);
+            }
+        }
+    }
+
+    private static final class ScriptRef implements TemporaryFileRef {
+        private final StoredScript script;
+        private final AtomicInteger closed;
+
+        public ScriptRef(StoredScript script) {
+            this.script = script;
+            this.closed = new AtomicInteger(0);
+        }
+
+        @Override
+        public File getFile() {
+            return script.getFile();
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(0, 1)) {
+                script.release();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "InitScriptRef{" + script.getFile() + "}";
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.netbeans.gradle.project.tasks;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jtrim.utils.ExceptionHelper;
+import org.netbeans.gradle.project.util.StringUtils;
+
+/**
+ * Defines a bounded, in-memory history of the phase timings of the executed
+ * Gradle commands. When the history is full, the oldest record is dropped
+ * for each new record.
+ * <P>
+ * The methods of this class are safe to be called from multiple threads
+ * concurrently.
+ */
+public final class TaskExecutionHistory {
+    private static final Logger LOGGER = Logger.getLogger(TaskExecutionHistory.class.getName());
+
+    private static final int DEFAULT_MAX_RECORD_COUNT = 500;
+    private static final TaskExecutionHistory DEFAULT = new TaskExecutionHistory(DEFAULT_MAX_RECORD_COUNT);
+
+    private static final String CSV_SEPARATOR = ",";
+    private static final String CSV_LINE_SEPARATOR = "\r\n";
+    private static final String CSV_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
+
+    private final Lock mainLock;
+    private final int maxRecordCount;
+    private final Deque<TaskExecutionRecord> records;
+
+    /**
+     * Creates a new empty history.
+     *
+     * @param maxRecordCount the maximum number of records kept by this
+     *   history. This argument must be greater than zero.
+     */
+    public TaskExecutionHistory(int maxRecordCount) {
+        ExceptionHelper.checkArgumentInRange(maxRecordCount, 1, Integer.MAX_VALUE, "maxRecordCount");
+
+        this.mainLock = new ReentrantLock();
+        this.maxRecordCount = maxRecordCount;
+        this.records = new ArrayDeque<>();
+    }
+
+    public static TaskExecutionHistory getDefault() {
+        return DEFAULT;
+    }
+
+    public void addRecord(TaskExecutionRecord record) {
+        ExceptionHelper.checkNotNullArgument(record, "record");
+
+        mainLock.lock();
+        try {
+            if (records.size() >= maxRecordCount) {
+                records.removeFirst();
+            }
+            records.addLast(record);
+        } finally {
+            mainLock.unlock();
+        }
+
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, "Executed Gradle command: {0}", record);
+        }
+    }
+
+    /**
+     * Returns the records currently in this history, the oldest record first.
+     *
+     * @return the snapshot of the records currently in this history. This
+     *   method never returns {@code null}.
+     */
+    public List<TaskExecutionRecord> getRecords() {
+        mainLock.lock();
+        try {
+            return new ArrayList<>(records);
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    public void clear() {
+        mainLock.lock();
+        try {
+            records.clear();
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the records currently in this history in CSV format to the given
+     * file, overwriting the file if it exists. The file is written in UTF-8.
+     *
+     * @param csvFile the file to be written. This argument cannot be
+     *   {@code null}.
+     *
+     * @throws IOException thrown if writing the file failed
+     */
+    public void exportCsv(Path csvFile) throws IOException {
+        ExceptionHelper.checkNotNullArgument(csvFile, "csvFile");
+
+        try (Writer output = Files.newBufferedWriter(csvFile, StringUtils.UTF8)) {
+            writeCsv(getRecords(), output);
+        }
+    }
+
+    /**
+     * Writes the given records in CSV format. The first line is a header
+     * naming the columns and the durations are written in milliseconds.
+     *
+     * @param records the records to be written. This argument cannot be
+     *   {@code null}.
+     * @param output the {@code Writer} to write the records to. This argument
+     *   cannot be {@code null}. This method does not close the writer.
+     *
+     * @throws IOException thrown if writing to the given writer failed
+     */
+    public static void writeCsv(List<TaskExecutionRecord> records, Writer output) throws IOException {
+        ExceptionHelper.checkNotNullArgument(records, "records");
+        ExceptionHelper.checkNotNullArgument(output, "output");
+
+        output.write("start" + CSV_SEPARATOR + "project" + CSV_SEPARATOR + "command" + CSV_SEPARATOR + "outcome");
+        for (TaskExecutionPhase phase: TaskExecutionPhase.values()) {
+            output.write(CSV_SEPARATOR);
+            output.write(phase.name().toLowerCase(Locale.ROOT) + "_ms");
+        }
+        output.write(CSV_SEPARATOR + "total_ms");
+        output.write(CSV_LINE_SEPARATOR);
+
+        DateFormat dateFormat = new SimpleDateFormat(CSV_DATE_FORMAT);
+        for (TaskExecutionRecord record: records) {
+            output.write(dateFormat.format(new Date(record.getStartTimeMillis())));
+            output.write(CSV_SEPARATOR);
+            output.write(toCsvField(record.getProjectName()));
+            output.write(CSV_SEPARATOR);
+            output.write(toCsvField(record.getCommandName()));
+            output.write(CSV_SEPARATOR);
+            output.write(record.getOutcome().name());
+            for (TaskExecutionPhase phase: TaskExecutionPhase.values()) {
+                output.write(CSV_SEPARATOR);
+                output.write(Long.toString(record.getPhaseMillis(phase)));
+            }
+            output.write(CSV_SEPARATOR);
+            output.write(Long.toString(record.getTotalMillis()));
+            output.write(CSV_LINE_SEPARATOR);
+        }
+    }
+
+    private static String toCsvField(String value) {
+        if (value.contains(CSV_SEPARATOR) || value.contains("\"")
+                || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -0,0 +1,27 @@
+package org.netbeans.gradle.project.tasks;
+
+/**
+ * Defines the phases of executing a Gradle command whose durations are
+ * recorded in the {@link TaskExecutionHistory}.
+ */
+public enum TaskExecutionPhase {
+    /**
+     * The time spent waiting for previously submitted commands in the queue
+     * of the {@link GradleDaemonManager}.
+     */
+    QUEUE,
+    /**
+     * The time spent connecting to the Gradle daemon, preparing the build and
+     * closing the connection afterwards.
+     */
+    CONNECTION,
+    /**
+     * The time spent executing the build (including configuring the projects).
+     */
+    BUILD,
+    /**
+     * The time spent preparing the output window, processing the output after
+     * the build and running the command finalizers.
+     */
+    OUTPUT
+}
@@ -0,0 +1,117 @@
+package org.netbeans.gradle.project.tasks;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.jtrim.utils.ExceptionHelper;
+
+/**
+ * Defines the recorded phase timings of a single executed Gradle command.
+ * <P>
+ * Instances of this class are immutable and therefore safe to be shared by
+ * multiple threads concurrently.
+ */
+public final class TaskExecutionRecord {
+    public enum Outcome {
+        SUCCESS,
+        FAILURE,
+        CANCELED,
+        /**
+         * The tasks were skipped because the
+         * {@link org.netbeans.gradle.project.api.task.GradleTargetVerifier}
+         * of the command refused to execute them.
+         */
+        NOT_EXECUTABLE
+    }
+
+    private final long startTimeMillis;
+    private final String projectName;
+    private final String commandName;
+    private final Outcome outcome;
+    private final Map<TaskExecutionPhase, Long> phaseNanos;
+
+    /**
+     * Creates a new record with the given phase durations.
+     *
+     * @param startTimeMillis the time the command was submitted in
+     *   milliseconds since the epoch (as returned by
+     *   {@code System.currentTimeMillis()})
+     * @param projectName the display name of the project the command was
+     *   executed for. This argument cannot be {@code null}.
+     * @param commandName the human readable name of the executed command.
+     *   This argument cannot be {@code null}.
+     * @param outcome the result of the execution. This argument cannot be
+     *   {@code null}.
+     * @param phaseNanos the time spent in the phases of the execution in
+     *   nanoseconds. Phases not contained in the map are considered to take
+     *   zero time. This argument cannot be {@code null}.
+     */
+    public TaskExecutionRecord(
+            long startTimeMillis,
+            String projectName,
+            String commandName,
+            Outcome outcome,
+            Map<TaskExecutionPhase, Long> phaseNanos) {
+        ExceptionHelper.checkNotNullArgument(projectName, "projectName");
+        ExceptionHelper.checkNotNullArgument(commandName, "commandName");
+        ExceptionHelper.checkNotNullArgument(outcome, "outcome");
+        ExceptionHelper.checkNotNullArgument(phaseNanos, "phaseNanos");
+
+        this.startTimeMillis = startTimeMillis;
+        this.projectName = projectName;
+        this.commandName = commandName;
+        this.outcome = outcome;
+        this.phaseNanos = new EnumMap<>(TaskExecutionPhase.class);
+        this.phaseNanos.putAll(phaseNanos);
+
+        ExceptionHelper.checkNotNullElements(this.phaseNanos.values(), "phaseNanos.values");
+    }
+
+    public long getStartTimeMillis() {
+        return startTimeMillis;
+    }
+
+    public String getProjectName() {
+        return projectName;
+    }
+
+    public String getCommandName() {
+        return commandName;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public long getPhaseNanos(TaskExecutionPhase phase) {
+        ExceptionHelper.checkNotNullArgument(phase, "phase");
+
+        Long result = phaseNanos.get(phase);
+        return result != null ? result : 0;
+    }
+
+    public long getPhaseMillis(TaskExecutionPhase phase) {
+        return TimeUnit.NANOSECONDS.toMillis(getPhaseNanos(phase));
+    }
+
+    public long getTotalNanos() {
+        long result = 0;
+        for (Long nanos: phaseNanos.values()) {
+            result += nanos;
+        }
+        return result;
+    }
+
+    public long getTotalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(getTotalNanos());
+    }
+
+    @Override
+    public String toString() {
+        return "TaskExecutionRecord{"
+                + "project=" + projectName
+                + ", command=" + commandName
+                + ", outcome=" + outcome
+                + ", phaseNanos=" + phaseNanos + '}';
+    }
+}
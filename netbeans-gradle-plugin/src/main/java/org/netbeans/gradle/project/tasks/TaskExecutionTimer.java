@@ -0,0 +1,45 @@
+package org.netbeans.gradle.project.tasks;
+
+import java.util.EnumMap;
+import java.util.Map;
+import org.jtrim.utils.ExceptionHelper;
+
+/**
+ * Measures the time spent in the phases of executing a single Gradle command.
+ * The time elapsed since the previous call to {@link #endPhase(TaskExecutionPhase) endPhase}
+ * (or since the creation of the timer) is added to the phase ending. Phases
+ * can end multiple times, in which case their durations are summed.
+ * <P>
+ * Instances of this class are not safe to be used by multiple threads
+ * concurrently but the phases may end on different threads, if the calls are
+ * properly synchronized.
+ */
+final class TaskExecutionTimer {
+    private final long startTimeMillis;
+    private final Map<TaskExecutionPhase, Long> phaseNanos;
+    private long lastMarkNanos;
+
+    public TaskExecutionTimer() {
+        this.startTimeMillis = System.currentTimeMillis();
+        this.phaseNanos = new EnumMap<>(TaskExecutionPhase.class);
+        this.lastMarkNanos = System.nanoTime();
+    }
+
+    public void endPhase(TaskExecutionPhase phase) {
+        ExceptionHelper.checkNotNullArgument(phase, "phase");
+
+        long currentNanos = System.nanoTime();
+        long elapsedNanos = currentNanos - lastMarkNanos;
+        lastMarkNanos = currentNanos;
+
+        Long prevNanos = phaseNanos.get(phase);
+        phaseNanos.put(phase, prevNanos != null ? prevNanos + elapsedNanos : elapsedNanos);
+    }
+
+    public TaskExecutionRecord toRecord(
+            String projectName,
+            String commandName,
+            TaskExecutionRecord.Outcome outcome) {
+        return new TaskExecutionRecord(startTimeMillis, projectName, commandName, outcome, phaseNanos);
+    }
+}
@@ -0,0 +1,201 @@
+package org.netbeans.gradle.project.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jtrim.utils.ExceptionHelper;
+import org.openide.util.Lookup;
+import org.openide.util.lookup.InstanceContent;
+import org.openide.util.lookup.Lookups;
+
+/**
+ * Defines a builder of a fixed lookup whose content is only instantiated when
+ * it is first retrieved from the lookup (or through the supplier returned
+ * when the service was added).
+ * <P>
+ * Querying the lookup for a type only instantiates the services which are
+ * instances of the requested type, because the lookup decides if a service
+ * matches the requested type based on the type declared when the service was
+ * added. Therefore the declared type should be the most specific type of the
+ * service.
+ * <P>
+ * Adding services to this builder is not thread-safe but the created lookup
+ * and the returned suppliers are safe to be used by multiple threads
+ * concurrently. Each lazy service is instantiated at most once.
+ */
+public final class LazyServiceLookup {
+    private final MaterializationListener materializationListener;
+    private final List<ServiceRef<?>> services;
+    private final AtomicInteger materializedCount;
+    private volatile int lazyServiceCount;
+
+    /**
+     * Creates a new empty builder.
+     *
+     * @param materializationListener the listener to be notified after a lazy
+     *   service of the lookup has been instantiated. This argument cannot be
+     *   {@code null}.
+     */
+    public LazyServiceLookup(MaterializationListener materializationListener) {
+        ExceptionHelper.checkNotNullArgument(materializationListener, "materializationListener");
+
+        this.materializationListener = materializationListener;
+        this.services = new ArrayList<>();
+        this.materializedCount = new AtomicInteger(0);
+        this.lazyServiceCount = 0;
+    }
+
+    /**
+     * Adds an already created object to the lookup.
+     *
+     * @param <T> the type of the object to be added
+     * @param service the object to be added to the lookup. This argument
+     *   cannot be {@code null}.
+     * @return the object passed in the argument. This method never returns
+     *   {@code null}.
+     */
+    public <T> T addInstance(T service) {
+        ExceptionHelper.checkNotNullArgument(service, "service");
+
+        services.add(new ServiceRef<>(service.getClass(), service));
+        return service;
+    }
+
+    /**
+     * Adds a service to the lookup which is only created when it is first
+     * requested.
+     *
+     * @param <T> the type of the service to be added
+     * @param type the type of the service. The lookup will only create this
+     *   service if an instance of this type is requested. This argument
+     *   cannot be {@code null}.
+     * @param factory the factory creating the service. This factory is called
+     *   at most once and may not return {@code null}. This argument cannot be
+     *   {@code null}.
+     * @return the supplier returning the same instance as the lookup. This
+     *   method never returns {@code null}.
+     */
+    public <T> NbSupplier<T> addLazy(Class<T> type, NbSupplier<? extends T> factory) {
+        ExceptionHelper.checkNotNullArgument(type, "type");
+        ExceptionHelper.checkNotNullArgument(factory, "factory");
+
+        final ServiceRef<T> serviceRef = new ServiceRef<>(type, factory);
+        services.add(serviceRef);
+        lazyServiceCount++;
+
+        return new NbSupplier<T>() {
+            @Override
+            public T get() {
+                return serviceRef.getService();
+            }
+        };
+    }
+
+    /**
+     * Returns the number of services added by {@link #addLazy addLazy}.
+     *
+     * @return the number of services added by {@code addLazy}
+     */
+    public int getLazyServiceCount() {
+        return lazyServiceCount;
+    }
+
+    /**
+     * Returns the number of lazy services which have already been created.
+     *
+     * @return the number of lazy services which have already been created
+     */
+    public int getMaterializedCount() {
+        return materializedCount.get();
+    }
+
+    /**
+     * Creates the lookup containing the services added so far.
+     *
+     * @return the lookup containing the services added so far. This method
+     *   never returns {@code null}.
+     */
+    public Lookup create() {
+        ServiceRef<?>[] serviceArray = services.toArray(new ServiceRef<?>[services.size()]);
+        return Lookups.fixed(serviceArray, new ServiceConvertor());
+    }
+
+    public interface MaterializationListener {
+        /**
+         * Called after a lazy service of the lookup has been created.
+         *
+         * @param materializedCount the number of lazy services of the lookup
+         *   which have been created so far
+         * @param lazyServiceCount the total number of lazy services of the
+         *   lookup
+         */
+        public void onMaterialized(int materializedCount, int lazyServiceCount);
+    }
+
+    private final class ServiceRef<T> {
+        private final Class<? extends T> type;
+        private final NbSupplier<? extends T> factory;
+        private volatile T service;
+
+        public ServiceRef(Class<? extends T> type, T service) {
+            this.type = type;
+            this.factory = null;
+            this.service = service;
+        }
+
+        public ServiceRef(Class<? extends T> type, NbSupplier<? extends T> factory) {
+            this.type = type;
+            this.factory = factory;
+            this.service = null;
+        }
+
+        public Class<? extends T> getType() {
+            return type;
+        }
+
+        public T getService() {
+            T result = service;
+            if (result == null) {
+                boolean created = false;
+                synchronized (this) {
+                    result = service;
+                    if (result == null) {
+                        result = factory.get();
+                        if (result == null) {
+                            throw new IllegalStateException("Service factory returned null for " + type.getName());
+                        }
+                        service = result;
+                        created = true;
+                    }
+                }
+
+                if (created) {
+                    materializationListener.onMaterialized(materializedCount.incrementAndGet(), lazyServiceCount);
+                }
+            }
+            return result;
+        }
+    }
+
+    private static final class ServiceConvertor implements InstanceContent.Convertor<ServiceRef<?>, Object> {
+        @Override
+        public Object convert(ServiceRef<?> obj) {
+            return obj.getService();
+        }
+
+        @Override
+        public Class<? extends Object> type(ServiceRef<?> obj) {
+            return obj.getType();
+        }
+
+        @Override
+        public String id(ServiceRef<?> obj) {
+            return obj.getType().getName() + "@" + Integer.toHexString(System.identityHashCode(obj));
+        }
+
+        @Override
+        public String displayName(ServiceRef<?> obj) {
+            return obj.getType().getName();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.netbeans.gradle.project.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.jtrim.utils.ExceptionHelper;
+
+public final class NbParallelUtils {
+    /**
+     * Applies the given function to each element of the given list, using at
+     * most the given number of threads concurrently (including the calling
+     * thread).
+     * <P>
+     * The calling thread also takes part in the work and only waits for the
+     * elements already being processed by other threads. So this method does
+     * not dead-lock even if it is called from a thread of the given executor
+     * and every other thread of the executor is busy.
+     *
+     * @param <InputType> the type of the elements to be converted
+     * @param <OutputType> the type of the result of the conversion
+     * @param executor the executor used to start the additional threads. This
+     *   argument cannot be {@code null}.
+     * @param parallelism the maximum number of threads converting the elements
+     *   concurrently. This argument must be greater than zero.
+     * @param inputs the elements to be converted. This argument cannot be
+     *   {@code null}.
+     * @param function the function converting the elements. This function
+     *   must be safe to be called from multiple threads concurrently. This
+     *   argument cannot be {@code null}.
+     * @return the converted elements in the order of the input elements. This
+     *   method never returns {@code null}.
+     */
+    public static <InputType, OutputType> List<OutputType> map(
+            Executor executor,
+            int parallelism,
+            List<? extends InputType> inputs,
+            final NbFunction<? super InputType, ? extends OutputType> function) {
+        ExceptionHelper.checkNotNullArgument(executor, "executor");
+        ExceptionHelper.checkArgumentInRange(parallelism, 1, Integer.MAX_VALUE, "parallelism");
+        ExceptionHelper.checkNotNullArgument(inputs, "inputs");
+        ExceptionHelper.checkNotNullArgument(function, "function");
+
+        final Object[] inputArray = inputs.toArray();
+        final Object[] outputArray = new Object[inputArray.length];
+
+        int threadCount = Math.min(parallelism, inputArray.length);
+        if (threadCount <= 1) {
+            for (int i = 0; i < inputArray.length; i++) {
+                outputArray[i] = applyUnsafe(function, inputArray[i]);
+            }
+            return toList(outputArray);
+        }
+
+        final AtomicInteger nextIndex = new AtomicInteger(0);
+        final CountDownLatch doneSignal = new CountDownLatch(inputArray.length);
+        final AtomicReference<Throwable> failureRef = new AtomicReference<>(null);
+
+        Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                int index;
+                while ((index = nextIndex.getAndIncrement()) < inputArray.length) {
+                    try {
+                        if (failureRef.get() == null) {
+                            outputArray[index] = applyUnsafe(function, inputArray[index]);
+                        }
+                    } catch (Throwable ex) {
+                        failureRef.compareAndSet(null, ex);
+                    } finally {
+                        doneSignal.countDown();
+                    }
+                }
+            }
+        };
+
+        for (int i = 1; i < threadCount; i++) {
+            executor.execute(worker);
+        }
+        worker.run();
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                doneSignal.await();
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        ExceptionHelper.rethrowIfNotNull(failureRef.get());
+
+        return toList(outputArray);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <InputType, OutputType> OutputType applyUnsafe(
+            NbFunction<? super InputType, ? extends OutputType> function,
+            Object input) {
+        return function.apply((InputType)input);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <OutputType> List<OutputType> toList(Object[] outputArray) {
+        List<?> result = new ArrayList<>(Arrays.asList(outputArray));
+        return (List<OutputType>)Collections.unmodifiableList(result);
+    }
+
+    private NbParallelUtils() {
+        throw new AssertionError();
+    }
+}
@@ -0,0 +1,164 @@
+package org.netbeans.gradle.project.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.jtrim.concurrent.UpdateTaskExecutor;
+import org.jtrim.utils.ExceptionHelper;
+import org.netbeans.gradle.model.util.CollectionUtils;
+import org.netbeans.gradle.project.NbTaskExecutors;
+
+/**
+ * Defines a cached list of the keys of a {@code ChildFactory}. The keys are
+ * recomputed by a background executor after {@link #invalidate() invalidation},
+ * so {@code createKeys} only has to copy the already computed list.
+ * <P>
+ * When the keys are recomputed, the keys equal to a key of the previous
+ * snapshot are replaced with the previous instance, so the nodes of unchanged
+ * keys are kept. The change listener is only notified if the new list of keys
+ * differs from the previous one.
+ * <P>
+ * Nothing is computed until the keys are first requested, so nodes never
+ * expanded do not cost anything.
+ * <P>
+ * The methods of this class are safe to be called from multiple threads
+ * concurrently.
+ *
+ * @param <KeyType> the type of the keys of the child factory
+ */
+public final class NodeKeysSnapshot<KeyType> {
+    private final UpdateTaskExecutor updateExecutor;
+    private final NbSupplier<? extends Collection<? extends KeyType>> keysFactory;
+    private final Runnable changeListener;
+
+    private final AtomicReference<List<KeyType>> snapshotRef;
+    private final AtomicLong invalidationCount;
+
+    /**
+     * Creates a new {@code NodeKeysSnapshot} recomputing the keys on a
+     * background thread.
+     *
+     * @param keysFactory the function computing the current list of keys.
+     *   This argument cannot be {@code null}.
+     * @param changeListener the listener to be notified when the recomputed
+     *   list of keys differs from the previous one. This is usually
+     *   {@code refresh(false)} of the child factory. This argument cannot be
+     *   {@code null}.
+     */
+    public NodeKeysSnapshot(
+            NbSupplier<? extends Collection<? extends KeyType>> keysFactory,
+            Runnable changeListener) {
+        this(NbTaskExecutors.newDefaultUpdateExecutor(), keysFactory, changeListener);
+    }
+
+    public NodeKeysSnapshot(
+            UpdateTaskExecutor updateExecutor,
+            NbSupplier<? extends Collection<? extends KeyType>> keysFactory,
+            Runnable changeListener) {
+        ExceptionHelper.checkNotNullArgument(updateExecutor, "updateExecutor");
+        ExceptionHelper.checkNotNullArgument(keysFactory, "keysFactory");
+        ExceptionHelper.checkNotNullArgument(changeListener, "changeListener");
+
+        this.updateExecutor = updateExecutor;
+        this.keysFactory = keysFactory;
+        this.changeListener = changeListener;
+        this.snapshotRef = new AtomicReference<>(null);
+        this.invalidationCount = new AtomicLong(0);
+    }
+
+    /**
+     * Returns the current list of keys. If the keys were not yet computed,
+     * they are computed by this method in the calling thread. Otherwise this
+     * method returns the last computed snapshot, even if a recomputation is in
+     * progress.
+     *
+     * @return the current list of keys. This method never returns
+     *   {@code null}.
+     */
+    public List<KeyType> getKeys() {
+        List<KeyType> result = snapshotRef.get();
+        if (result != null) {
+            return result;
+        }
+
+        long invalidationCountBefore = invalidationCount.get();
+        result = computeKeys(Collections.<KeyType>emptyList());
+        if (!snapshotRef.compareAndSet(null, result)) {
+            return snapshotRef.get();
+        }
+
+        if (invalidationCount.get() != invalidationCountBefore) {
+            // The keys might have been computed from an outdated state.
+            scheduleUpdate();
+        }
+        return result;
+    }
+
+    /**
+     * Notifies this snapshot that the keys might have changed. The keys are
+     * recomputed asynchronously if they were already requested; otherwise they
+     * will be computed when they are first requested.
+     */
+    public void invalidate() {
+        invalidationCount.incrementAndGet();
+        if (snapshotRef.get() != null) {
+            scheduleUpdate();
+        }
+    }
+
+    /**
+     * Drops the current snapshot, so the keys will be computed again when
+     * they are next requested. This should be called when the child factory
+     * stops listening for changes (i.e., in {@code removeNotify}).
+     */
+    public void clear() {
+        invalidationCount.incrementAndGet();
+        snapshotRef.set(null);
+    }
+
+    private void scheduleUpdate() {
+        updateExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                updateSnapshot();
+            }
+        });
+    }
+
+    private void updateSnapshot() {
+        List<KeyType> prevKeys = snapshotRef.get();
+        if (prevKeys == null) {
+            return;
+        }
+
+        List<KeyType> newKeys = computeKeys(prevKeys);
+        if (!snapshotRef.compareAndSet(prevKeys, newKeys)) {
+            // Cleared concurrently.
+            return;
+        }
+
+        if (!prevKeys.equals(newKeys)) {
+            changeListener.run();
+        }
+    }
+
+    private List<KeyType> computeKeys(List<KeyType> prevKeys) {
+        Collection<? extends KeyType> keys = keysFactory.get();
+
+        Map<KeyType, KeyType> prevInstances = CollectionUtils.newHashMap(prevKeys.size());
+        for (KeyType key: prevKeys) {
+            prevInstances.put(key, key);
+        }
+
+        List<KeyType> result = new ArrayList<>(keys.size());
+        for (KeyType key: keys) {
+            KeyType prevInstance = prevInstances.get(key);
+            result.add(prevInstance != null ? prevInstance : key);
+        }
+        return Collections.unmodifiableList(result);
+    }
+}
@@ -96,6 +96,9 @@ public final class BuildScriptsNode extends AbstractNode {
             actions.add(OpenProjectsAction.createFromProjectDirs(
                     NbStrings.getOpenRootProjectsCaption(),
                     Collections.singleton(currentModel.getSettingsDir().toFile())));
+            actions.add(OpenProjectsAction.createForBuild(
+                    NbStrings.getOpenRootProjectWithSubprojectsCaption(),
+                    currentModel.getSettingsDir().toFile()));
         }
 
         actions.add(null);
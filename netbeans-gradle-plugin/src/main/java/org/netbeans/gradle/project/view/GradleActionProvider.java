@@ -20,6 +20,7 @@ import org.netbeans.gradle.project.properties.NbGradleCommonProperties;
 import org.netbeans.gradle.project.properties.NbGradleConfiguration;
 import org.netbeans.gradle.project.properties.PredefinedTask;
 import org.netbeans.gradle.project.properties.standard.BuiltInTasks;
+import org.netbeans.gradle.project.tasks.CommandCancelListener;
 import org.netbeans.gradle.project.tasks.GradleTaskDef;
 import org.netbeans.gradle.project.tasks.GradleTaskDefFactory;
 import org.netbeans.gradle.project.tasks.GradleTasks;
@@ -254,7 +255,22 @@ public final class GradleActionProvider implements ActionProvider {
                         }
                     }
                 } finally {
-                    GradleTasks.projectTaskCompleteListener(project).onComplete(error);
+                    try {
+                        GradleTasks.projectTaskCompleteListener(project).onComplete(error);
+                    } finally {
+                        // Allows the caller of invokeAction to be notified
+                        // when the command completes.
+                        for (CommandCompleteListener contextListener: appliedContext.lookupAll(CommandCompleteListener.class)) {
+                            contextListener.onComplete(error);
+                        }
+                    }
+                }
+            }
+        }, new CommandCancelListener() {
+            @Override
+            public void onCanceled() {
+                for (CommandCancelListener contextListener: appliedContext.lookupAll(CommandCancelListener.class)) {
+                    contextListener.onCanceled();
                 }
             }
         });
@@ -29,6 +29,8 @@ import org.netbeans.gradle.project.model.ModelRefreshListener;
 import org.netbeans.gradle.project.model.NbGradleModel;
 import org.netbeans.gradle.project.model.NbGradleProjectTree;
 import org.netbeans.gradle.project.util.ListenerRegistrations;
+import org.netbeans.gradle.project.util.NbSupplier;
+import org.netbeans.gradle.project.util.NodeKeysSnapshot;
 import org.netbeans.gradle.project.util.RefreshableChildren;
 import org.openide.loaders.DataFolder;
 import org.openide.loaders.DataObjectNotFoundException;
@@ -52,7 +54,7 @@ implements
     private final AtomicBoolean lastHasSubprojects;
     private final ListenerRegistrations listenerRefs;
     private final PausableChangeListenerManager refreshNotifier;
-    private volatile boolean createdOnce;
+    private final NodeKeysSnapshot<SingleNodeFactory> keys;
 
     public GradleProjectChildFactory(NbGradleProject project, GradleProjectLogicalViewProvider parent) {
         ExceptionHelper.checkNotNullArgument(project, "project");
@@ -63,15 +65,25 @@ implements
         this.nodeExtensionsRef = new AtomicReference<>(NodeExtensions.EMPTY);
         this.lastHasSubprojects = new AtomicBoolean(false);
         this.listenerRefs = new ListenerRegistrations();
-        this.createdOnce = false;
 
+        this.keys = new NodeKeysSnapshot<>(new NbSupplier<List<SingleNodeFactory>>() {
+            @Override
+            public List<SingleNodeFactory> get() {
+                return readKeys();
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                refresh(false);
+            }
+        });
+
+        // The snapshot does nothing until the keys were first requested.
         this.refreshNotifier = new GenericChangeListenerManager(SwingTaskExecutor.getStrictExecutor(false));
         this.refreshNotifier.registerListener(new Runnable() {
             @Override
             public void run() {
-                if (createdOnce) {
-                    refresh(false);
-                }
+                keys.invalidate();
             }
         });
     }
@@ -193,6 +205,7 @@ implements
     @Override
     protected void removeNotify() {
         listenerRefs.unregisterAll();
+        keys.clear();
     }
 
     @Override
@@ -232,67 +245,18 @@ implements
         return result;
     }
 
-    private static List<NbGradleProjectTree> getAllChildren(NbGradleModel model) {
-        List<NbGradleProjectTree> result = new LinkedList<>();
-        getAllChildren(model.getMainProject(), result);
-        return result;
-    }
-
     private void addChildren(List<SingleNodeFactory> toPopulate) {
-        final NbGradleModel shownModule = getShownModule();
-        final Collection<NbGradleProjectTree> immediateChildren
-                = shownModule.getMainProject().getChildren();
-
-        if (immediateChildren.isEmpty()) {
+        NbGradleModel shownModule = getShownModule();
+        if (shownModule.getMainProject().getChildren().isEmpty()) {
             return;
         }
-        final List<NbGradleProjectTree> children = getAllChildren(shownModule);
-
-        toPopulate.add(new SingleNodeFactory() {
-            @Override
-            public Node createNode() {
-                return new FilterNode(
-                        createSimpleNode(),
-                        createSubprojectsChild(),
-                        Lookups.singleton(shownModule.getMainProject())) {
-                    @Override
-                    public String getName() {
-                        return "SubProjectsNode_" + getShownModule().getMainProject().getProjectFullName().replace(':', '_');
-                    }
 
-                    @Override
-                    public Action[] getActions(boolean context) {
-                        return new Action[] {
-                            createOpenAction(NbStrings.getOpenImmediateSubProjectsCaption(), immediateChildren),
-                            createOpenAction(NbStrings.getOpenSubProjectsCaption(), children)
-                        };
-                    }
-
-                    @Override
-                    public String getDisplayName() {
-                        return NbStrings.getSubProjectsCaption();
-                    }
-
-                    @Override
-                    public Image getIcon(int type) {
-                        return NbIcons.getGradleIcon();
-                    }
-
-                    @Override
-                    public Image getOpenedIcon(int type) {
-                        return getIcon(type);
-                    }
-
-                    @Override
-                    public boolean canRename() {
-                        return false;
-                    }
-                };
-            }
-        });
+        toPopulate.add(new SubProjectsNodeFactory(shownModule.getMainProject()));
     }
 
-    private void readKeys(List<SingleNodeFactory> toPopulate) throws DataObjectNotFoundException {
+    private List<SingleNodeFactory> readKeys() {
+        List<SingleNodeFactory> toPopulate = new ArrayList<>();
+
         List<GradleProjectExtensionNodes> extensionNodes = getExtensionNodes();
         if (extensionNodes != null) {
             for (GradleProjectExtensionNodes nodes: extensionNodes) {
@@ -301,19 +265,87 @@ implements
         }
 
         addChildren(toPopulate);
-        addProjectFiles(toPopulate);
+        try {
+            addProjectFiles(toPopulate);
+        } catch (DataObjectNotFoundException ex) {
+            throw new RuntimeException(ex);
+        }
+        return toPopulate;
     }
 
     @Override
     protected boolean createKeys(List<SingleNodeFactory> toPopulate) {
-        createdOnce = true;
+        toPopulate.addAll(keys.getKeys());
+        return true;
+    }
 
-        try {
-            readKeys(toPopulate);
-        } catch (DataObjectNotFoundException ex) {
-            throw new RuntimeException(ex);
+    private final class SubProjectsNodeFactory implements SingleNodeFactory {
+        private final NbGradleProject ownerProject;
+        private final NbGradleProjectTree mainProject;
+
+        public SubProjectsNodeFactory(NbGradleProjectTree mainProject) {
+            this.ownerProject = project;
+            this.mainProject = mainProject;
+        }
+
+        @Override
+        public Node createNode() {
+            final Collection<NbGradleProjectTree> immediateChildren = mainProject.getChildren();
+            final List<NbGradleProjectTree> children = getAllChildren(mainProject);
+
+            return new FilterNode(
+                    createSimpleNode(),
+                    createSubprojectsChild(),
+                    Lookups.singleton(mainProject)) {
+                @Override
+                public String getName() {
+                    return "SubProjectsNode_" + getShownModule().getMainProject().getProjectFullName().replace(':', '_');
+                }
+
+                @Override
+                public Action[] getActions(boolean context) {
+                    return new Action[] {
+                        createOpenAction(NbStrings.getOpenImmediateSubProjectsCaption(), immediateChildren),
+                        createOpenAction(NbStrings.getOpenSubProjectsCaption(), children)
+                    };
+                }
+
+                @Override
+                public String getDisplayName() {
+                    return NbStrings.getSubProjectsCaption();
+                }
+
+                @Override
+                public Image getIcon(int type) {
+                    return NbIcons.getGradleIcon();
+                }
+
+                @Override
+                public Image getOpenedIcon(int type) {
+                    return getIcon(type);
+                }
+
+                @Override
+                public boolean canRename() {
+                    return false;
+                }
+            };
+        }
+
+        @Override
+        public int hashCode() {
+            return 41 * ownerProject.hashCode() + mainProject.getProjectFullName().hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == null) return false;
+            if (getClass() != obj.getClass()) return false;
+
+            final SubProjectsNodeFactory other = (SubProjectsNodeFactory)obj;
+            return ownerProject.equals(other.ownerProject)
+                    && SubProjectsChildFactory.isSameTree(mainProject, other.mainProject);
         }
-        return true;
     }
 
     private static boolean isAllAnnotatedWith(
@@ -291,6 +291,7 @@ implements
 
             projectActions.add(customTasksAction);
             projectActions.add(tasksAction);
+            projectActions.add(new ShowTaskExecutionHistoryAction());
             projectActions.add(null);
             projectActions.add(createProjectAction(
                     GradleActionProvider.COMMAND_RELOAD,
@@ -7,6 +7,8 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.AbstractAction;
@@ -17,8 +19,12 @@ import org.jtrim.utils.ExceptionHelper;
 import org.netbeans.api.project.Project;
 import org.netbeans.api.project.ProjectManager;
 import org.netbeans.api.project.ui.OpenProjects;
+import org.netbeans.gradle.project.NbGradleProject;
 import org.netbeans.gradle.project.NbGradleProjectFactory;
 import org.netbeans.gradle.project.NbTaskExecutors;
+import org.netbeans.gradle.project.model.BuildModelsRetrievedListener;
+import org.netbeans.gradle.project.model.GradleModelLoader;
+import org.netbeans.gradle.project.model.NbGradleModel;
 import org.netbeans.gradle.project.model.NbGradleProjectTree;
 import org.openide.filesystems.FileObject;
 import org.openide.filesystems.FileUtil;
@@ -28,6 +34,7 @@ public final class OpenProjectsAction extends AbstractAction {
     private static final Logger LOGGER = Logger.getLogger(OpenProjectsAction.class.getName());
 
     private final Collection<File> projectDirs;
+    private final boolean withSubprojects;
 
     public static OpenProjectsAction createFromModules(
             String caption,
@@ -37,7 +44,7 @@ public final class OpenProjectsAction extends AbstractAction {
             projectDirs.add(project.getProjectDir());
         }
 
-        return new OpenProjectsAction(caption, projectDirs);
+        return new OpenProjectsAction(caption, projectDirs, false);
     }
 
     public static OpenProjectsAction createFromProjectDirs(
@@ -46,12 +53,32 @@ public final class OpenProjectsAction extends AbstractAction {
         Collection<File> safeProjectDirs = new ArrayList<>(projectDirs);
 
         ExceptionHelper.checkNotNullElements(safeProjectDirs, "projectDirs");
-        return new OpenProjectsAction(caption, safeProjectDirs);
+        return new OpenProjectsAction(caption, safeProjectDirs, false);
     }
 
-    private OpenProjectsAction(String caption, Collection<File> projectDirs) {
+    /**
+     * Creates an action opening the given root project with all of its
+     * subprojects. The build is evaluated only once: The models of the
+     * subprojects are taken from the evaluation of the root project.
+     *
+     * @param caption the caption of the action. This argument cannot be
+     *   {@code null}.
+     * @param rootProjectDir the directory of the root project. This argument
+     *   cannot be {@code null}.
+     * @return the action opening the projects of the build. This method never
+     *   returns {@code null}.
+     */
+    public static OpenProjectsAction createForBuild(
+            String caption,
+            File rootProjectDir) {
+        ExceptionHelper.checkNotNullArgument(rootProjectDir, "rootProjectDir");
+        return new OpenProjectsAction(caption, Collections.singleton(rootProjectDir), true);
+    }
+
+    private OpenProjectsAction(String caption, Collection<File> projectDirs, boolean withSubprojects) {
         super(caption);
         this.projectDirs = projectDirs;
+        this.withSubprojects = withSubprojects;
     }
 
     public static void openProject(Path projectDir) {
@@ -61,12 +88,107 @@ public final class OpenProjectsAction extends AbstractAction {
     public static void openProject(File projectDir) {
         LOGGER.log(Level.FINE, "Trying to open project: {0}", projectDir.getName());
 
+        Project project = tryFindProject(projectDir);
+        if (project != null) {
+            OpenProjects.getDefault().open(new Project[]{project}, false);
+        }
+    }
+
+    /**
+     * Opens the given root project and all of its subprojects. The models of
+     * the projects are loaded with a single evaluation of the build, and the
+     * subprojects will not load their models again when they are opened.
+     * <P>
+     * This method returns before the projects are opened.
+     *
+     * @param rootProjectDir the directory of the root project. This argument
+     *   cannot be {@code null}.
+     */
+    public static void openProjectWithSubprojects(File rootProjectDir) {
+        LOGGER.log(Level.FINE, "Trying to open project with its subprojects: {0}", rootProjectDir.getName());
+
+        final Project rootProject = tryFindProject(rootProjectDir);
+        if (rootProject == null) {
+            return;
+        }
+
+        NbGradleProject gradleRootProject = rootProject.getLookup().lookup(NbGradleProject.class);
+        if (gradleRootProject == null) {
+            OpenProjects.getDefault().open(new Project[]{rootProject}, false);
+            return;
+        }
+
+        GradleModelLoader.fetchModelsOfBuild(gradleRootProject, new BuildModelsRetrievedListener() {
+            @Override
+            public void onComplete(
+                    final NbGradleModel mainModel,
+                    final List<NbGradleModel> otherModels,
+                    Throwable error) {
+
+                NbTaskExecutors.DEFAULT_EXECUTOR.execute(Cancellation.UNCANCELABLE_TOKEN, new CancelableTask() {
+                    @Override
+                    public void execute(CancellationToken cancelToken) {
+                        if (mainModel == null) {
+                            // The error has already been reported and the root
+                            // project will show it after it tries to load itself.
+                            OpenProjects.getDefault().open(new Project[]{rootProject}, false);
+                        }
+                        else {
+                            openLoadedBuild(rootProject, mainModel, otherModels);
+                        }
+                    }
+                }, null);
+            }
+        });
+    }
+
+    private static void openLoadedBuild(
+            Project rootProject,
+            NbGradleModel mainModel,
+            List<NbGradleModel> otherModels) {
+
+        List<Project> toOpen = new ArrayList<>(otherModels.size() + 1);
+
+        addLoadedProject(rootProject, mainModel, toOpen);
+        for (NbGradleModel model: otherModels) {
+            Project project = tryFindProject(model.getProjectDir());
+            if (project != null) {
+                addLoadedProject(project, model, toOpen);
+            }
+        }
+
+        if (toOpen.isEmpty()) {
+            return;
+        }
+        OpenProjects.getDefault().open(toOpen.toArray(new Project[toOpen.size()]), false);
+    }
+
+    private static void addLoadedProject(Project project, NbGradleModel model, List<Project> toOpen) {
+        // Already opened projects have received their new model when it was
+        // loaded, and opening them again would not clear the flag set by
+        // setModelLoadedWithBuild.
+        if (OpenProjects.getDefault().isProjectOpen(project)) {
+            return;
+        }
+
+        setModelLoadedWithBuild(project, model);
+        toOpen.add(project);
+    }
+
+    private static void setModelLoadedWithBuild(Project project, NbGradleModel model) {
+        NbGradleProject gradleProject = project.getLookup().lookup(NbGradleProject.class);
+        if (gradleProject != null) {
+            gradleProject.setModelLoadedWithBuild(model);
+        }
+    }
+
+    private static Project tryFindProject(File projectDir) {
         FileObject projectDirObj = FileUtil.toFileObject(projectDir);
         if (projectDirObj == null) {
             LOGGER.log(Level.WARNING,
                     "Directory of the project does not exist: {0}",
                     projectDir);
-            return;
+            return null;
         }
 
         try {
@@ -80,20 +202,19 @@ public final class OpenProjectsAction extends AbstractAction {
                 // contain a project.
                 projectManager.clearNonProjectCache();
 
-                Project subProject = projectManager.findProject(projectDirObj);
-                if (subProject == null) {
+                Project project = projectManager.findProject(projectDirObj);
+                if (project == null) {
                     LOGGER.log(Level.WARNING,
                             "Project cannot be found: {0}",
                             projectDir);
-                    return;
                 }
-                OpenProjects.getDefault().open(new Project[]{subProject}, false);
-
+                return project;
             }
         } catch (IOException ex) {
             LOGGER.log(Level.WARNING,
                     "Error while trying to load the project: " + projectDir,
                     ex);
+            return null;
         }
     }
 
@@ -103,7 +224,12 @@ public final class OpenProjectsAction extends AbstractAction {
             @Override
             public void execute(CancellationToken cancelToken) {
                 for (File projectDir: projectDirs) {
-                    openProject(projectDir);
+                    if (withSubprojects) {
+                        openProjectWithSubprojects(projectDir);
+                    }
+                    else {
+                        openProject(projectDir);
+                    }
                 }
             }
         }, null);
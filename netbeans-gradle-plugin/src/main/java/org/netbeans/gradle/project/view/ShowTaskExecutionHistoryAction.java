@@ -0,0 +1,18 @@
+package org.netbeans.gradle.project.view;
+
+import java.awt.event.ActionEvent;
+import javax.swing.AbstractAction;
+import org.netbeans.gradle.project.NbStrings;
+
+public final class ShowTaskExecutionHistoryAction extends AbstractAction {
+    private static final long serialVersionUID = 1L;
+
+    public ShowTaskExecutionHistoryAction() {
+        super(NbStrings.getShowTaskHistoryCaption());
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        TaskExecutionHistoryPanel.showModalDialog();
+    }
+}
@@ -6,20 +6,22 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 import javax.swing.AbstractAction;
 import javax.swing.Action;
 import org.jtrim.utils.ExceptionHelper;
-import org.netbeans.gradle.model.util.CollectionUtils;
 import org.netbeans.gradle.project.NbGradleProject;
 import org.netbeans.gradle.project.NbIcons;
 import org.netbeans.gradle.project.NbStrings;
 import org.netbeans.gradle.project.api.nodes.SingleNodeFactory;
+import org.netbeans.gradle.project.model.NbGradleModelDiff;
 import org.netbeans.gradle.project.model.NbGradleProjectTree;
 import org.netbeans.gradle.project.util.ListenerRegistrations;
+import org.netbeans.gradle.project.util.NbSupplier;
+import org.netbeans.gradle.project.util.NodeKeysSnapshot;
 import org.netbeans.gradle.project.util.StringUtils;
 import org.openide.loaders.DataFolder;
 import org.openide.nodes.ChildFactory;
@@ -38,9 +40,9 @@ extends
 
     private final NbGradleProject project;
     private final List<NbGradleProjectTree> subProjects;
-    private final AtomicReference<NbGradleProjectTree> lastTree;
     private final boolean root;
     private final ListenerRegistrations listenerRefs;
+    private final NodeKeysSnapshot<SingleNodeFactory> keys;
 
     public SubProjectsChildFactory(NbGradleProject project) {
         this(project, null, true);
@@ -56,7 +58,6 @@ extends
         this.root = root;
         this.project = project;
         this.listenerRefs = new ListenerRegistrations();
-        this.lastTree = new AtomicReference<>(null);
         if (subProjects != null) {
             this.subProjects = new ArrayList<>(subProjects);
             sortModules(this.subProjects);
@@ -66,6 +67,18 @@ extends
         else {
             this.subProjects = null;
         }
+
+        this.keys = new NodeKeysSnapshot<>(new NbSupplier<List<SingleNodeFactory>>() {
+            @Override
+            public List<SingleNodeFactory> get() {
+                return readKeys();
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                refresh(false);
+            }
+        });
     }
 
     private static void sortModules(List<NbGradleProjectTree> modules) {
@@ -77,75 +90,24 @@ extends
         });
     }
 
-    private static boolean hasRelevantDifferences(NbGradleProjectTree tree1, NbGradleProjectTree tree2) {
-        if (tree1 == tree2) {
-            // In practice this happens only when they are nulls.
-            return false;
-        }
-        if (tree1 == null || tree2 == null) {
-            return true;
-        }
-
-        return !equalsTree(tree1, tree2);
-    }
-
-    private static boolean equalsTree(NbGradleProjectTree tree1, NbGradleProjectTree tree2) {
-        Collection<NbGradleProjectTree> children1 = tree1.getChildren();
-        Collection<NbGradleProjectTree> children2 = tree2.getChildren();
-        if (children1.size() != children2.size()) {
-            return false;
-        }
-        if (children1.isEmpty()) {
-            return true;
-        }
-
-        Map<String, NbGradleProjectTree> children2Map = getChildrenMap2(tree2);
-        for (NbGradleProjectTree subTree1: children1) {
-            NbGradleProjectTree subTree2 = children2Map.get(subTree1.getProjectName());
-            if (subTree2 == null) {
-                return false;
-            }
-
-            if (!equalsTree(subTree1, subTree2)) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    private static Map<String, NbGradleProjectTree> getChildrenMap2(NbGradleProjectTree tree) {
-        Collection<NbGradleProjectTree> children = tree.getChildren();
-        Map<String, NbGradleProjectTree> result = CollectionUtils.newHashMap(children.size());
-
-        for (NbGradleProjectTree child: children) {
-            result.put(child.getProjectName(), child);
-        }
-        return result;
-    }
-
-    private void modelChanged() {
-        NbGradleProjectTree newTree = project.currentModel().getValue().getMainProject();
-        NbGradleProjectTree prevTree = lastTree.getAndSet(newTree);
-        if (hasRelevantDifferences(prevTree, newTree)) {
-            refresh(false);
-        }
-    }
-
     @Override
     protected void addNotify() {
         if (root) {
-            listenerRefs.add(project.currentModel().addChangeListener(new Runnable() {
-                @Override
-                public void run() {
-                    modelChanged();
-                }
-            }));
+            listenerRefs.add(project.addModelChangeListener(
+                    EnumSet.of(NbGradleModelDiff.Aspect.PROJECT_TREE),
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            keys.invalidate();
+                        }
+                    }));
         }
     }
 
     @Override
     protected void removeNotify() {
         listenerRefs.unregisterAll();
+        keys.clear();
     }
 
     @Override
@@ -164,21 +126,18 @@ extends
         return result;
     }
 
+    private List<SingleNodeFactory> readKeys() {
+        List<NbGradleProjectTree> currentSubProjects = getSubProjects();
+        List<SingleNodeFactory> result = new ArrayList<>(currentSubProjects.size());
+        for (NbGradleProjectTree subProject: currentSubProjects) {
+            result.add(new SubProjectNodeFactory(project, subProject));
+        }
+        return result;
+    }
+
     @Override
     protected boolean createKeys(List<SingleNodeFactory> toPopulate) {
-        for (final NbGradleProjectTree subProject: getSubProjects()) {
-            toPopulate.add(new SingleNodeFactory() {
-                @Override
-                public Node createNode() {
-                    if (subProject.getChildren().isEmpty()) {
-                        return new SubModuleNode(project, subProject);
-                    }
-                    else {
-                        return new SubModuleWithChildren(project, subProject);
-                    }
-                }
-            });
-        }
+        toPopulate.addAll(keys.getKeys());
         return true;
     }
 
@@ -199,6 +158,64 @@ extends
         return OpenProjectsAction.createFromModules(caption, projects);
     }
 
+    static boolean isSameTree(NbGradleProjectTree tree1, NbGradleProjectTree tree2) {
+        if (!tree1.getProjectFullName().equals(tree2.getProjectFullName())) {
+            return false;
+        }
+        if (!tree1.getProjectDir().equals(tree2.getProjectDir())) {
+            return false;
+        }
+
+        Collection<NbGradleProjectTree> children1 = tree1.getChildren();
+        Collection<NbGradleProjectTree> children2 = tree2.getChildren();
+        if (children1.size() != children2.size()) {
+            return false;
+        }
+
+        Iterator<NbGradleProjectTree> children2Itr = children2.iterator();
+        for (NbGradleProjectTree child1: children1) {
+            if (!isSameTree(child1, children2Itr.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class SubProjectNodeFactory implements SingleNodeFactory {
+        private final NbGradleProject project;
+        private final NbGradleProjectTree subProject;
+
+        public SubProjectNodeFactory(NbGradleProject project, NbGradleProjectTree subProject) {
+            this.project = project;
+            this.subProject = subProject;
+        }
+
+        @Override
+        public Node createNode() {
+            if (subProject.getChildren().isEmpty()) {
+                return new SubModuleNode(project, subProject);
+            }
+            else {
+                return new SubModuleWithChildren(project, subProject);
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return 37 * project.hashCode() + subProject.getProjectFullName().hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == null) return false;
+            if (getClass() != obj.getClass()) return false;
+
+            final SubProjectNodeFactory other = (SubProjectNodeFactory)obj;
+            return this.project.equals(other.project)
+                    && isSameTree(this.subProject, other.subProject);
+        }
+    }
+
     private static class SubModuleWithChildren extends FilterNode {
         private final NbGradleProjectTree module;
         private final List<NbGradleProjectTree> immediateChildren;
@@ -0,0 +1,198 @@
+package org.netbeans.gradle.project.view;
+
+import java.awt.BorderLayout;
+import java.awt.Dialog;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.IOException;
+import java.text.DateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.JButton;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+import org.jtrim.utils.ExceptionHelper;
+import org.netbeans.gradle.project.NbStrings;
+import org.netbeans.gradle.project.tasks.TaskExecutionHistory;
+import org.netbeans.gradle.project.tasks.TaskExecutionPhase;
+import org.netbeans.gradle.project.tasks.TaskExecutionRecord;
+import org.openide.DialogDescriptor;
+import org.openide.DialogDisplayer;
+import org.openide.NotifyDescriptor;
+import org.openide.filesystems.FileChooserBuilder;
+
+@SuppressWarnings("serial")
+public final class TaskExecutionHistoryPanel extends JPanel {
+    private static final Logger LOGGER = Logger.getLogger(TaskExecutionHistoryPanel.class.getName());
+
+    private final TaskExecutionHistory history;
+    private final HistoryTableModel tableModel;
+
+    public TaskExecutionHistoryPanel(TaskExecutionHistory history) {
+        super(new BorderLayout());
+
+        ExceptionHelper.checkNotNullArgument(history, "history");
+
+        this.history = history;
+        this.tableModel = new HistoryTableModel();
+
+        JTable table = new JTable(tableModel);
+        table.setAutoCreateRowSorter(true);
+        JScrollPane tableScroll = new JScrollPane(table);
+        tableScroll.setPreferredSize(new Dimension(800, 300));
+        add(tableScroll, BorderLayout.CENTER);
+
+        JButton refreshButton = new JButton(NbStrings.getRefreshTaskHistoryCaption());
+        refreshButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                refresh();
+            }
+        });
+
+        JButton clearButton = new JButton(NbStrings.getClearTaskHistoryCaption());
+        clearButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                TaskExecutionHistoryPanel.this.history.clear();
+                refresh();
+            }
+        });
+
+        JButton exportButton = new JButton(NbStrings.getExportTaskHistoryCaption());
+        exportButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                exportCsv();
+            }
+        });
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.TRAILING));
+        buttons.add(refreshButton);
+        buttons.add(clearButton);
+        buttons.add(exportButton);
+        add(buttons, BorderLayout.SOUTH);
+
+        refresh();
+    }
+
+    public static void showModalDialog() {
+        TaskExecutionHistoryPanel panel = new TaskExecutionHistoryPanel(TaskExecutionHistory.getDefault());
+        DialogDescriptor dlgDescriptor = new DialogDescriptor(
+                panel,
+                NbStrings.getTaskHistoryDlgTitle(),
+                true,
+                new Object[]{DialogDescriptor.OK_OPTION},
+                DialogDescriptor.OK_OPTION,
+                DialogDescriptor.BOTTOM_ALIGN,
+                null,
+                null);
+        Dialog dlg = DialogDisplayer.getDefault().createDialog(dlgDescriptor);
+        dlg.pack();
+        dlg.setVisible(true);
+    }
+
+    private void refresh() {
+        tableModel.setRecords(history.getRecords());
+    }
+
+    private void exportCsv() {
+        FileChooserBuilder dlgChooser = new FileChooserBuilder(TaskExecutionHistoryPanel.class);
+        dlgChooser.setFilesOnly(true);
+
+        File file = dlgChooser.showSaveDialog();
+        if (file == null) {
+            return;
+        }
+
+        try {
+            history.exportCsv(file.toPath());
+        } catch (IOException ex) {
+            LOGGER.log(Level.INFO, "Failed to export the task history to " + file, ex);
+            DialogDisplayer.getDefault().notify(new NotifyDescriptor.Message(
+                    NbStrings.getExportTaskHistoryFailure(file, ex.getMessage()),
+                    NotifyDescriptor.ERROR_MESSAGE));
+        }
+    }
+
+    private static final class HistoryTableModel extends AbstractTableModel {
+        private static final int FIXED_COLUMN_COUNT = 4;
+        private static final TaskExecutionPhase[] PHASES = TaskExecutionPhase.values();
+
+        private final DateFormat dateFormat;
+        private List<TaskExecutionRecord> records;
+
+        public HistoryTableModel() {
+            this.dateFormat = DateFormat.getDateTimeInstance();
+            this.records = Collections.emptyList();
+        }
+
+        public void setRecords(List<TaskExecutionRecord> records) {
+            this.records = records;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return records.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return FIXED_COLUMN_COUNT + PHASES.length + 1;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            switch (column) {
+                case 0:
+                    return NbStrings.getTaskHistoryStartColumn();
+                case 1:
+                    return NbStrings.getTaskHistoryProjectColumn();
+                case 2:
+                    return NbStrings.getTaskHistoryCommandColumn();
+                case 3:
+                    return NbStrings.getTaskHistoryOutcomeColumn();
+                default:
+                    int phaseIndex = column - FIXED_COLUMN_COUNT;
+                    return phaseIndex < PHASES.length
+                            ? NbStrings.getTaskHistoryPhaseColumn(PHASES[phaseIndex])
+                            : NbStrings.getTaskHistoryTotalColumn();
+            }
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column < FIXED_COLUMN_COUNT ? String.class : Long.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            // Show the most recent command first.
+            TaskExecutionRecord record = records.get(records.size() - row - 1);
+            switch (column) {
+                case 0:
+                    return dateFormat.format(new Date(record.getStartTimeMillis()));
+                case 1:
+                    return record.getProjectName();
+                case 2:
+                    return record.getCommandName();
+                case 3:
+                    return record.getOutcome().name();
+                default:
+                    int phaseIndex = column - FIXED_COLUMN_COUNT;
+                    return phaseIndex < PHASES.length
+                            ? record.getPhaseMillis(PHASES[phaseIndex])
+                            : record.getTotalMillis();
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.netbeans.gradle.project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
+import org.junit.Test;
+import org.netbeans.gradle.project.event.PausableChangeListenerManager.PauseRef;
+
+import static org.junit.Assert.*;
+
+public class ModelChangeBatcherTest {
+    private static final long TIMEOUT_MS = 10000;
+
+    private static void waitForBatch(ModelChangeBatcher batcher) throws InterruptedException {
+        final CountDownLatch doneSignal = new CountDownLatch(1);
+        batcher.scheduleTask(new Runnable() {
+            @Override
+            public void run() {
+                doneSignal.countDown();
+            }
+        });
+        assertTrue(doneSignal.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testTasksAreCoalesced() throws InterruptedException {
+        ModelChangeBatcher batcher = new ModelChangeBatcher(50);
+        List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+
+        Runnable task1 = new RecordingTask("task1", executed);
+        Runnable task2 = new RecordingTask("task2", executed);
+
+        PauseRef pauseRef = batcher.pause();
+        batcher.scheduleTask(task1);
+        batcher.scheduleTask(task2);
+        batcher.scheduleTask(task1);
+        pauseRef.unpause();
+
+        waitForBatch(batcher);
+        assertEquals(Arrays.asList("task1", "task2"), executed);
+    }
+
+    @Test
+    public void testPausePreventsExecution() throws InterruptedException {
+        ModelChangeBatcher batcher = new ModelChangeBatcher(0);
+        List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+
+        PauseRef pauseRef1 = batcher.pause();
+        PauseRef pauseRef2 = batcher.pause();
+        batcher.scheduleTask(new RecordingTask("task", executed));
+
+        Thread.sleep(100);
+        pauseRef1.unpause();
+        // Unpausing multiple times through the same reference must be harmless.
+        pauseRef1.unpause();
+
+        Thread.sleep(100);
+        assertEquals(Collections.<String>emptyList(), executed);
+
+        pauseRef2.unpause();
+        waitForBatch(batcher);
+        assertEquals(Collections.singletonList("task"), executed);
+    }
+
+    @Test
+    public void testTasksRunOnTheEdt() throws InterruptedException {
+        ModelChangeBatcher batcher = new ModelChangeBatcher(0);
+
+        final CountDownLatch doneSignal = new CountDownLatch(1);
+        final boolean[] onEdt = new boolean[1];
+        batcher.scheduleTask(new Runnable() {
+            @Override
+            public void run() {
+                onEdt[0] = SwingUtilities.isEventDispatchThread();
+                doneSignal.countDown();
+            }
+        });
+
+        assertTrue(doneSignal.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertTrue(onEdt[0]);
+    }
+
+    private static final class RecordingTask implements Runnable {
+        private final String name;
+        private final List<String> executed;
+
+        public RecordingTask(String name, List<String> executed) {
+            this.name = name;
+            this.executed = executed;
+        }
+
+        @Override
+        public void run() {
+            executed.add(name);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.netbeans.gradle.project;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ModelLoadedWithBuildFlagTest {
+    @Test
+    public void testLoadsOnOpenByDefault() {
+        ModelLoadedWithBuildFlag flag = new ModelLoadedWithBuildFlag();
+        assertTrue(flag.needsLoadOnOpen());
+        assertTrue(flag.needsLoadOnOpen());
+    }
+
+    @Test
+    public void testSkipsLoadOnlyOnce() {
+        ModelLoadedWithBuildFlag flag = new ModelLoadedWithBuildFlag();
+        flag.setLoadedWithBuild();
+        flag.setLoadedWithBuild();
+
+        assertFalse(flag.needsLoadOnOpen());
+        assertTrue(flag.needsLoadOnOpen());
+    }
+
+    @Test
+    public void testCloseBeforeOpenClearsFlag() {
+        // The project was already open, so opening it was a no-op and the
+        // flag was only cleared when the project was closed.
+        ModelLoadedWithBuildFlag flag = new ModelLoadedWithBuildFlag();
+        flag.setLoadedWithBuild();
+        flag.clear();
+
+        assertTrue(flag.needsLoadOnOpen());
+    }
+}
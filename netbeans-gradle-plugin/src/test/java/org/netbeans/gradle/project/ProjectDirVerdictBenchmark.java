@@ -0,0 +1,135 @@
+package org.netbeans.gradle.project;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.netbeans.gradle.project.util.ManualBenchmark;
+import org.netbeans.gradle.project.util.NbFunction;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+
+/**
+ * Compares the cost of deciding if a directory is a Gradle project the way
+ * {@code NbGradleProjectFactory.isProject} did before with the cached
+ * {@link ProjectDirVerdictCache}.
+ * <P>
+ * The workload simulates the project scanner of NetBeans (and
+ * {@code FileOwnerQuery}): For every directory of a large multi-project
+ * tree, each ancestor directory is checked until the root is reached. The
+ * tree is scanned multiple times, as the IDE does when files are opened or
+ * the classpath is scanned.
+ * <P>
+ * See {@link ManualBenchmark} for how to run this benchmark.
+ */
+public final class ProjectDirVerdictBenchmark {
+    private static final int PROJECT_COUNT = 300;
+    private static final int PACKAGE_COUNT = 10;
+    private static final int SCAN_COUNT = 5;
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private static FileObject getOrCreate(FileObject parent, String name) throws IOException {
+        FileObject result = parent.getFileObject(name);
+        return result != null ? result : parent.createFolder(name);
+    }
+
+    private static FileObject createDirs(FileObject parent, String... names) throws IOException {
+        FileObject result = parent;
+        for (String name: names) {
+            result = getOrCreate(result, name);
+        }
+        return result;
+    }
+
+    private static List<FileObject> createTree() throws IOException {
+        List<FileObject> leafDirs = new ArrayList<>();
+
+        FileObject root = FileUtil.createMemoryFileSystem().getRoot().createFolder("root");
+        root.createData("settings.gradle");
+        root.createData("build.gradle");
+        createDirs(root, "buildSrc", "src", "main", "groovy");
+
+        for (int i = 0; i < PROJECT_COUNT; i++) {
+            FileObject projectDir = createDirs(root, "modules", "group" + (i % 10), "project" + i);
+            projectDir.createData("build.gradle");
+
+            for (String sourceSet: new String[]{"main", "test"}) {
+                FileObject javaDir = createDirs(projectDir, "src", sourceSet, "java", "org", "example");
+                for (int j = 0; j < PACKAGE_COUNT; j++) {
+                    leafDirs.add(javaDir.createFolder("pkg" + j));
+                }
+            }
+            leafDirs.add(createDirs(projectDir, "build", "classes", "main"));
+        }
+        return leafDirs;
+    }
+
+    private static long scan(List<FileObject> leafDirs, NbFunction<FileObject, Boolean> isProject) {
+        long projectCount = 0;
+        for (int scanIndex = 0; scanIndex < SCAN_COUNT; scanIndex++) {
+            for (FileObject leafDir: leafDirs) {
+                for (FileObject dir = leafDir; dir != null; dir = dir.getParent()) {
+                    if (isProject.apply(dir)) {
+                        projectCount++;
+                        break;
+                    }
+                }
+            }
+        }
+        return projectCount;
+    }
+
+    private static NbFunction<FileObject, Boolean> uncached() {
+        return new NbFunction<FileObject, Boolean>() {
+            @Override
+            public Boolean apply(FileObject arg) {
+                return NbGradleProjectFactory.isProjectDirUncached(arg);
+            }
+        };
+    }
+
+    private static NbFunction<FileObject, Boolean> cached(final ProjectDirVerdictCache cache) {
+        return new NbFunction<FileObject, Boolean>() {
+            @Override
+            public Boolean apply(FileObject arg) {
+                return cache.isProject(arg);
+            }
+        };
+    }
+
+    public static void main(String[] args) throws Exception {
+        final List<FileObject> leafDirs = createTree();
+
+        System.out.println(String.format(Locale.ROOT,
+                "Projects: %d, scanned leaf directories: %d, scans per round: %d",
+                PROJECT_COUNT, leafDirs.size(), SCAN_COUNT));
+
+        // Every round starts with an empty cache.
+        final ProjectDirVerdictCache[] lastCache = new ProjectDirVerdictCache[1];
+
+        ManualBenchmark benchmark = new ManualBenchmark(WARMUP_ROUNDS, MEASURED_ROUNDS);
+        benchmark.addTask("uncached", new ManualBenchmark.Task() {
+            @Override
+            public long run() {
+                return scan(leafDirs, uncached());
+            }
+        });
+        benchmark.addTask("cached", new ManualBenchmark.Task() {
+            @Override
+            public long run() {
+                lastCache[0] = new ProjectDirVerdictCache(uncached());
+                return scan(leafDirs, cached(lastCache[0]));
+            }
+        });
+
+        ManualBenchmark.Result result = benchmark.run();
+        System.out.println(String.format(Locale.ROOT,
+                "Uncached: %.2f ms/round, cached: %.2f ms/round (cache hits: %d, misses: %d per round)",
+                result.getMillisPerRound("uncached"),
+                result.getMillisPerRound("cached"),
+                lastCache[0].getHitCount(),
+                lastCache[0].getMissCount()));
+        System.out.println("Checksum: " + result.getChecksum());
+    }
+}
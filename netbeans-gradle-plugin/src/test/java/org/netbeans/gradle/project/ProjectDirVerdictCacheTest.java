@@ -0,0 +1,125 @@
+package org.netbeans.gradle.project;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.netbeans.gradle.project.util.NbFunction;
+import org.openide.filesystems.FileLock;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+
+import static org.junit.Assert.*;
+
+public class ProjectDirVerdictCacheTest {
+    private static NbFunction<FileObject, Boolean> countingProvider(final AtomicInteger callCount) {
+        return new NbFunction<FileObject, Boolean>() {
+            @Override
+            public Boolean apply(FileObject arg) {
+                callCount.incrementAndGet();
+                return NbGradleProjectFactory.isProjectDirUncached(arg);
+            }
+        };
+    }
+
+    private static void rename(FileObject file, String newName) throws IOException {
+        FileLock lock = file.lock();
+        try {
+            file.rename(lock, newName, file.getExt());
+        } finally {
+            lock.releaseLock();
+        }
+    }
+
+    @Test
+    public void testVerdictIsCached() throws IOException {
+        FileObject root = FileUtil.createMemoryFileSystem().getRoot();
+        FileObject projectDir = root.createFolder("project");
+        projectDir.createData("build.gradle");
+        FileObject otherDir = root.createFolder("other");
+
+        AtomicInteger callCount = new AtomicInteger(0);
+        ProjectDirVerdictCache cache = new ProjectDirVerdictCache(countingProvider(callCount));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(cache.isProject(projectDir));
+            assertFalse(cache.isProject(otherDir));
+        }
+
+        assertEquals(2, callCount.get());
+        assertEquals(4, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testBuildScriptCreationInvalidates() throws IOException {
+        FileObject root = FileUtil.createMemoryFileSystem().getRoot();
+        FileObject projectDir = root.createFolder("project");
+
+        ProjectDirVerdictCache cache = new ProjectDirVerdictCache(countingProvider(new AtomicInteger(0)));
+
+        assertFalse(cache.isProject(projectDir));
+
+        FileObject buildScript = projectDir.createData("build.gradle");
+        assertTrue(cache.isProject(projectDir));
+
+        buildScript.delete();
+        assertFalse(cache.isProject(projectDir));
+    }
+
+    @Test
+    public void testSettingsScriptInParentAffectsBuildSrc() throws IOException {
+        FileObject root = FileUtil.createMemoryFileSystem().getRoot();
+        FileObject projectDir = root.createFolder("project");
+        FileObject buildSrcDir = projectDir.createFolder("buildSrc");
+
+        ProjectDirVerdictCache cache = new ProjectDirVerdictCache(countingProvider(new AtomicInteger(0)));
+
+        assertFalse(cache.isProject(buildSrcDir));
+
+        projectDir.createData("settings.gradle");
+        assertTrue(cache.isProject(buildSrcDir));
+    }
+
+    @Test
+    public void testFolderRenameInvalidates() throws IOException {
+        FileObject root = FileUtil.createMemoryFileSystem().getRoot();
+        FileObject projectDir = root.createFolder("project");
+        projectDir.createData("myapp.gradle");
+
+        ProjectDirVerdictCache cache = new ProjectDirVerdictCache(countingProvider(new AtomicInteger(0)));
+
+        assertFalse(cache.isProject(projectDir));
+
+        rename(projectDir, "myapp");
+        assertTrue(cache.isProject(projectDir));
+    }
+
+    @Test
+    public void testBuildScriptChangeKeepsUnrelatedVerdicts() throws IOException {
+        FileObject root = FileUtil.createMemoryFileSystem().getRoot();
+        FileObject projectDir = root.createFolder("project");
+        FileObject buildSrcDir = projectDir.createFolder("buildSrc");
+        FileObject otherDir = root.createFolder("other");
+        otherDir.createData("build.gradle");
+
+        AtomicInteger callCount = new AtomicInteger(0);
+        ProjectDirVerdictCache cache = new ProjectDirVerdictCache(countingProvider(callCount));
+
+        assertFalse(cache.isProject(root));
+        assertFalse(cache.isProject(projectDir));
+        assertFalse(cache.isProject(buildSrcDir));
+        assertTrue(cache.isProject(otherDir));
+        assertEquals(4, cache.getCachedCount());
+
+        projectDir.createData("build.gradle");
+        assertEquals(2, cache.getCachedCount());
+
+        assertFalse(cache.isProject(root));
+        assertTrue(cache.isProject(otherDir));
+        assertEquals(4, callCount.get());
+
+        assertTrue(cache.isProject(projectDir));
+        assertTrue(cache.isProject(buildSrcDir));
+        assertEquals(6, callCount.get());
+    }
+}
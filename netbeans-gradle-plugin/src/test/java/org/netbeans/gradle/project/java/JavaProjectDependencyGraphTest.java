@@ -0,0 +1,96 @@
+package org.netbeans.gradle.project.java;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class JavaProjectDependencyGraphTest {
+    private static final File APP = new File("app");
+    private static final File LIB = new File("lib");
+    private static final File CORE = new File("core");
+    private static final File UTIL = new File("util");
+
+    private static Set<File> files(File... files) {
+        return new HashSet<>(Arrays.asList(files));
+    }
+
+    private static Set<File> getDownstream(JavaProjectDependencyGraph graph, File projectDir) {
+        return new HashSet<>(graph.getDownstreamProjects(projectDir));
+    }
+
+    @Test
+    public void testTransitiveDependents() {
+        JavaProjectDependencyGraph graph = new JavaProjectDependencyGraph();
+        graph.setDependencies(APP, Arrays.asList(LIB));
+        graph.setDependencies(LIB, Arrays.asList(CORE));
+        graph.setDependencies(UTIL, Arrays.asList(CORE));
+
+        assertEquals(files(LIB, APP, UTIL), getDownstream(graph, CORE));
+        assertEquals(files(APP), getDownstream(graph, LIB));
+        assertEquals(files(), getDownstream(graph, APP));
+        assertEquals(files(), getDownstream(graph, UTIL));
+    }
+
+    @Test
+    public void testChangedDependencies() {
+        JavaProjectDependencyGraph graph = new JavaProjectDependencyGraph();
+        graph.setDependencies(APP, Arrays.asList(LIB, CORE));
+
+        assertEquals(files(APP), getDownstream(graph, CORE));
+
+        graph.setDependencies(APP, Arrays.asList(LIB));
+        assertEquals(files(), getDownstream(graph, CORE));
+        assertEquals(files(APP), getDownstream(graph, LIB));
+
+        graph.setDependencies(APP, Collections.<File>emptyList());
+        assertEquals(files(), getDownstream(graph, LIB));
+    }
+
+    @Test
+    public void testCyclicDependencies() {
+        JavaProjectDependencyGraph graph = new JavaProjectDependencyGraph();
+        graph.setDependencies(APP, Arrays.asList(LIB));
+        graph.setDependencies(LIB, Arrays.asList(APP));
+        graph.setDependencies(CORE, Arrays.asList(CORE));
+
+        assertEquals(files(LIB), getDownstream(graph, APP));
+        assertEquals(files(APP), getDownstream(graph, LIB));
+        assertEquals(files(), getDownstream(graph, CORE));
+    }
+
+    @Test
+    public void testRemovedProject() {
+        JavaProjectDependencyGraph graph = new JavaProjectDependencyGraph();
+        graph.setDependencies(APP, Arrays.asList(LIB));
+        graph.setDependencies(LIB, Arrays.asList(CORE));
+
+        graph.removeProject(LIB);
+        assertEquals(files(), getDownstream(graph, CORE));
+        // APP still depends on LIB, so it must be notified if LIB is opened again.
+        assertEquals(files(APP), getDownstream(graph, LIB));
+
+        graph.setDependencies(LIB, Arrays.asList(CORE));
+        assertEquals(files(LIB, APP), getDownstream(graph, CORE));
+    }
+
+    @Test
+    public void testRemovingAllProjectsEmptiesGraph() {
+        JavaProjectDependencyGraph graph = new JavaProjectDependencyGraph();
+        graph.setDependencies(APP, Arrays.asList(LIB, CORE));
+        graph.setDependencies(LIB, Arrays.asList(CORE));
+        graph.setDependencies(UTIL, Arrays.asList(APP));
+
+        graph.removeProject(APP);
+        graph.removeProject(LIB);
+        graph.removeProject(CORE);
+        assertFalse(graph.isEmpty());
+
+        graph.removeProject(UTIL);
+        assertTrue(graph.isEmpty());
+    }
+}
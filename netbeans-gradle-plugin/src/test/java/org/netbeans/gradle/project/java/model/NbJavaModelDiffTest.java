@@ -0,0 +1,97 @@
+package org.netbeans.gradle.project.java.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import org.junit.Test;
+import org.netbeans.gradle.model.GenericProjectProperties;
+import org.netbeans.gradle.model.java.JavaClassPaths;
+import org.netbeans.gradle.model.java.JavaCompatibilityModel;
+import org.netbeans.gradle.model.java.JavaOutputDirs;
+import org.netbeans.gradle.model.java.JavaSourceGroup;
+import org.netbeans.gradle.model.java.JavaSourceGroupName;
+import org.netbeans.gradle.model.java.JavaSourceSet;
+import org.netbeans.gradle.model.java.JavaTestModel;
+import org.netbeans.gradle.project.model.NbGradleProjectTreeTest;
+
+import static org.junit.Assert.*;
+
+public class NbJavaModelDiffTest {
+    private static JavaSourceSet createSources(String name, String srcDir, String... classpath) {
+        JavaSourceSet.Builder result = new JavaSourceSet.Builder(
+                name,
+                new JavaOutputDirs(new File(name + "-out-classes"), new File(name + "-out-res"), Collections.<File>emptySet()));
+        result.addSourceGroup(new JavaSourceGroup(JavaSourceGroupName.JAVA, Arrays.asList(new File(srcDir))));
+
+        List<File> classpathFiles = new ArrayList<>();
+        for (String entry: classpath) {
+            classpathFiles.add(new File(entry));
+        }
+        result.setClasspaths(new JavaClassPaths(classpathFiles, classpathFiles));
+        return result.create();
+    }
+
+    private static NbJavaModel createModel(String sourceLevel, JavaSourceSet... sources) {
+        GenericProjectProperties properties = NbGradleProjectTreeTest.createProperties("app", ":app");
+        JavaCompatibilityModel compatibility = new JavaCompatibilityModel(sourceLevel, sourceLevel);
+        List<NbListedDir> listedDirs = Collections.emptyList();
+        JavaTestModel testModel = JavaTestModel.getDefaulTestModel(properties.getProjectDir());
+
+        NbJavaModule module = new NbJavaModule(properties, compatibility, Arrays.asList(sources), listedDirs, testModel);
+        return NbJavaModel.createModel(
+                JavaModelSource.GRADLE_1_8_API,
+                module,
+                Collections.<File, JavaProjectDependency>emptyMap());
+    }
+
+    @Test
+    public void testEquivalentModels() {
+        NbJavaModelDiff diff = NbJavaModelDiff.compare(
+                createModel("1.7", createSources("main", "src", "a.jar")),
+                createModel("1.7", createSources("main", "src", "a.jar")));
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    public void testNullModel() {
+        NbJavaModelDiff diff = NbJavaModelDiff.compare(null, createModel("1.7"));
+        assertEquals(EnumSet.allOf(NbJavaModelDiff.Aspect.class), diff.getChangedAspects());
+    }
+
+    @Test
+    public void testClassPathChanged() {
+        NbJavaModelDiff diff = NbJavaModelDiff.compare(
+                createModel("1.7", createSources("main", "src", "a.jar")),
+                createModel("1.7", createSources("main", "src", "a.jar", "b.jar")));
+        assertEquals(EnumSet.of(NbJavaModelDiff.Aspect.CLASSPATHS), diff.getChangedAspects());
+    }
+
+    @Test
+    public void testSourceRootChanged() {
+        NbJavaModelDiff diff = NbJavaModelDiff.compare(
+                createModel("1.7", createSources("main", "src", "a.jar")),
+                createModel("1.7", createSources("main", "src2", "a.jar")));
+        assertEquals(EnumSet.of(NbJavaModelDiff.Aspect.SOURCES), diff.getChangedAspects());
+    }
+
+    @Test
+    public void testSourceSetAdded() {
+        NbJavaModelDiff diff = NbJavaModelDiff.compare(
+                createModel("1.7", createSources("main", "src")),
+                createModel("1.7", createSources("main", "src"), createSources("test", "test-src")));
+        assertEquals(
+                EnumSet.of(NbJavaModelDiff.Aspect.SOURCES, NbJavaModelDiff.Aspect.CLASSPATHS),
+                diff.getChangedAspects());
+    }
+
+    @Test
+    public void testSourceLevelChanged() {
+        NbJavaModelDiff diff = NbJavaModelDiff.compare(
+                createModel("1.7", createSources("main", "src")),
+                createModel("1.8", createSources("main", "src")));
+        assertEquals(EnumSet.of(NbJavaModelDiff.Aspect.SETTINGS), diff.getChangedAspects());
+    }
+}
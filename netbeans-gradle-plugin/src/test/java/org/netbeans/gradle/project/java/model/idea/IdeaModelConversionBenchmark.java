@@ -0,0 +1,115 @@
+package org.netbeans.gradle.project.java.model.idea;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.gradle.tooling.model.idea.IdeaProject;
+import org.netbeans.gradle.project.util.ManualBenchmark;
+
+/**
+ * Measures the conversion of an {@code IdeaProject} to the Java models of
+ * its modules on a generated deep and wide module graph: There are
+ * {@code LAYER_COUNT} layers of {@code LAYER_WIDTH} modules, and each module
+ * depends on {@code DEPENDENCIES_PER_MODULE} modules of the next layer (and
+ * has a few external dependencies of its own).
+ * <P>
+ * The time of computing the transitive class paths is printed separately,
+ * then the whole conversion is measured using a single thread and using
+ * multiple threads.
+ * <P>
+ * See {@link ManualBenchmark} for how to run this benchmark.
+ */
+public final class IdeaModelConversionBenchmark {
+    private static final int LAYER_COUNT = 20;
+    private static final int LAYER_WIDTH = 30;
+    private static final int DEPENDENCIES_PER_MODULE = 3;
+    private static final int EXTERNAL_DEPENDENCIES_PER_MODULE = 5;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private static final File ROOT_DIR = new File("benchmark-root");
+
+    private static IdeaProject createProject() {
+        TestIdeaProjectBuilder builder = new TestIdeaProjectBuilder(ROOT_DIR);
+
+        List<List<TestIdeaProjectBuilder.ModuleBuilder>> layers = new ArrayList<>(LAYER_COUNT);
+        for (int layerIndex = 0; layerIndex < LAYER_COUNT; layerIndex++) {
+            List<TestIdeaProjectBuilder.ModuleBuilder> layer = new ArrayList<>(LAYER_WIDTH);
+            for (int i = 0; i < LAYER_WIDTH; i++) {
+                TestIdeaProjectBuilder.ModuleBuilder module = builder.addModule("module" + layerIndex + "_" + i);
+                for (int j = 0; j < EXTERNAL_DEPENDENCIES_PER_MODULE; j++) {
+                    module.addExternalDependency(new File("lib" + layerIndex + "_" + i + "_" + j + ".jar"), "COMPILE");
+                }
+                layer.add(module);
+            }
+            layers.add(layer);
+        }
+
+        String[] scopes = {"COMPILE", "RUNTIME", "PROVIDED", "TEST"};
+        for (int layerIndex = 0; layerIndex < LAYER_COUNT - 1; layerIndex++) {
+            List<TestIdeaProjectBuilder.ModuleBuilder> nextLayer = layers.get(layerIndex + 1);
+            List<TestIdeaProjectBuilder.ModuleBuilder> layer = layers.get(layerIndex);
+            for (int i = 0; i < LAYER_WIDTH; i++) {
+                for (int j = 0; j < DEPENDENCIES_PER_MODULE; j++) {
+                    TestIdeaProjectBuilder.ModuleBuilder dependency = nextLayer.get((i * 7 + j * 13) % LAYER_WIDTH);
+                    layer.get(i).addModuleDependency(dependency, scopes[(i + j) % scopes.length]);
+                }
+            }
+        }
+
+        return builder.create();
+    }
+
+    private static ManualBenchmark.Task conversion(
+            final IdeaProject project,
+            final File mainDir,
+            final ExecutorService executor,
+            final int parallelism) {
+
+        return new ManualBenchmark.Task() {
+            @Override
+            public long run() throws IOException {
+                return IdeaJavaModelUtils.parseFromIdeaModel(mainDir, project, executor, parallelism).size();
+            }
+        };
+    }
+
+    public static void main(String[] args) throws Exception {
+        final IdeaProject project = createProject();
+        File mainDir = new File(ROOT_DIR, "module0_0");
+
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            System.out.println(String.format(Locale.ROOT,
+                    "Modules: %d (%d layers of %d), threads: %d",
+                    LAYER_COUNT * LAYER_WIDTH, LAYER_COUNT, LAYER_WIDTH, threadCount));
+
+            ManualBenchmark benchmark = new ManualBenchmark(WARMUP_ROUNDS, MEASURED_ROUNDS);
+            benchmark.addTask("class paths", new ManualBenchmark.Task() {
+                @Override
+                public long run() {
+                    IdeaModuleClassPaths classPaths = new IdeaModuleClassPaths(project.getModules());
+                    return classPaths.getClassPaths(project.getModules().getAt(0)).test.getRuntimeClasspaths().size();
+                }
+            });
+            benchmark.addTask("sequential", conversion(project, mainDir, executor, 1));
+            benchmark.addTask("parallel", conversion(project, mainDir, executor, threadCount));
+
+            ManualBenchmark.Result result = benchmark.run();
+            System.out.println(String.format(Locale.ROOT,
+                    "Class paths: %.2f ms/round, conversion: %.2f ms/round (1 thread), %.2f ms/round (%d threads)",
+                    result.getMillisPerRound("class paths"),
+                    result.getMillisPerRound("sequential"),
+                    result.getMillisPerRound("parallel"),
+                    threadCount));
+            System.out.println("Checksum: " + result.getChecksum());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.netbeans.gradle.project.java.model.idea;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.gradle.tooling.model.idea.IdeaModule;
+import org.gradle.tooling.model.idea.IdeaProject;
+import org.junit.Test;
+import org.netbeans.gradle.project.java.model.idea.IdeaModuleClassPaths.ModuleClassPaths;
+
+import static org.junit.Assert.*;
+
+public class IdeaModuleClassPathsTest {
+    private static final File ROOT_DIR = new File("root-project");
+
+    private static IdeaModule findModule(IdeaProject project, String name) {
+        for (IdeaModule module: project.getModules()) {
+            if (name.equals(module.getName())) {
+                return module;
+            }
+        }
+        throw new AssertionError("Missing module: " + name);
+    }
+
+    private static ModuleClassPaths getClassPaths(IdeaProject project, String name) {
+        return new IdeaModuleClassPaths(project.getModules()).getClassPaths(findModule(project, name));
+    }
+
+    @Test
+    public void testTransitiveDependencies() {
+        File extJar = new File("ext.jar");
+        File runtimeJar = new File("runtime.jar");
+        File junitJar = new File("junit.jar");
+
+        TestIdeaProjectBuilder builder = new TestIdeaProjectBuilder(ROOT_DIR);
+        TestIdeaProjectBuilder.ModuleBuilder app = builder.addModule("app");
+        TestIdeaProjectBuilder.ModuleBuilder lib = builder.addModule("lib");
+
+        app.addModuleDependency(lib, "COMPILE");
+        app.addExternalDependency(junitJar, "TEST");
+        lib.addExternalDependency(extJar, "COMPILE");
+        lib.addExternalDependency(runtimeJar, "RUNTIME");
+
+        IdeaProject project = builder.create();
+        ModuleClassPaths classPaths = getClassPaths(project, "app");
+
+        File libClasses = lib.getMainClassesDir();
+        File appClasses = app.getMainClassesDir();
+
+        assertEquals(set(libClasses, extJar), classPaths.main.getCompileClasspaths());
+        assertEquals(set(libClasses, extJar, runtimeJar), classPaths.main.getRuntimeClasspaths());
+        assertEquals(set(appClasses, libClasses, junitJar, extJar), classPaths.test.getCompileClasspaths());
+        assertEquals(set(appClasses, libClasses, junitJar, extJar, runtimeJar), classPaths.test.getRuntimeClasspaths());
+    }
+
+    @Test
+    public void testClassPathsAreComputedOnce() {
+        TestIdeaProjectBuilder builder = new TestIdeaProjectBuilder(ROOT_DIR);
+        TestIdeaProjectBuilder.ModuleBuilder app = builder.addModule("app");
+        TestIdeaProjectBuilder.ModuleBuilder lib = builder.addModule("lib");
+        app.addModuleDependency(lib, "COMPILE");
+
+        IdeaProject project = builder.create();
+        IdeaModuleClassPaths classPaths = new IdeaModuleClassPaths(project.getModules());
+
+        IdeaModule libModule = findModule(project, "lib");
+        assertSame(classPaths.getClassPaths(libModule), classPaths.getClassPaths(libModule));
+    }
+
+    @Test
+    public void testDependencyCycle() {
+        TestIdeaProjectBuilder builder = new TestIdeaProjectBuilder(ROOT_DIR);
+        TestIdeaProjectBuilder.ModuleBuilder a = builder.addModule("a");
+        TestIdeaProjectBuilder.ModuleBuilder b = builder.addModule("b");
+        a.addModuleDependency(b, "COMPILE");
+        b.addModuleDependency(a, "COMPILE");
+
+        IdeaProject project = builder.create();
+        IdeaModuleClassPaths classPaths = new IdeaModuleClassPaths(project.getModules());
+
+        // The dependency on "a" is cut in "b" because "a" is being resolved.
+        assertEquals(Collections.singleton(a.getMainClassesDir()),
+                classPaths.getClassPaths(findModule(project, "b")).main.getCompileClasspaths());
+        assertEquals(set(a.getMainClassesDir(), b.getMainClassesDir()),
+                classPaths.getClassPaths(findModule(project, "a")).main.getCompileClasspaths());
+    }
+
+    @Test
+    public void testDeepChainDoesNotOverflowTheStack() {
+        // Test dependencies are not transitive, so the class paths remain
+        // small even though every module has to be resolved.
+        int depth = 20000;
+
+        TestIdeaProjectBuilder builder = new TestIdeaProjectBuilder(ROOT_DIR);
+        List<TestIdeaProjectBuilder.ModuleBuilder> modules = new ArrayList<>(depth);
+        for (int i = 0; i < depth; i++) {
+            TestIdeaProjectBuilder.ModuleBuilder module = builder.addModule("module" + i);
+            if (!modules.isEmpty()) {
+                modules.get(modules.size() - 1).addModuleDependency(module, "TEST");
+            }
+            modules.add(module);
+        }
+
+        IdeaProject project = builder.create();
+        ModuleClassPaths classPaths = getClassPaths(project, "module0");
+        assertEquals(set(modules.get(0).getMainClassesDir(), modules.get(1).getMainClassesDir()),
+                classPaths.test.getCompileClasspaths());
+    }
+
+    private static Set<File> set(File... files) {
+        return new HashSet<>(Arrays.asList(files));
+    }
+}
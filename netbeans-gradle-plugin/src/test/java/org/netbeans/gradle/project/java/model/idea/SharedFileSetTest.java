@@ -0,0 +1,74 @@
+package org.netbeans.gradle.project.java.model.idea;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SharedFileSetTest {
+    private static final File FILE1 = new File("file1.jar");
+    private static final File FILE2 = new File("file2.jar");
+    private static final File FILE3 = new File("file3.jar");
+
+    private static Set<File> unmodifiableSet(File... files) {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(files)));
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(new SharedFileSet().toUnmodifiableSet().isEmpty());
+    }
+
+    @Test
+    public void testSharedWithoutChanges() {
+        Set<File> dependency = unmodifiableSet(FILE1, FILE2);
+
+        SharedFileSet set = new SharedFileSet();
+        set.addAll(dependency);
+        set.add(FILE1);
+        set.addAll(unmodifiableSet(FILE2));
+
+        assertSame(dependency, set.toUnmodifiableSet());
+    }
+
+    @Test
+    public void testCopiedOnChange() {
+        Set<File> dependency = unmodifiableSet(FILE1, FILE2);
+
+        SharedFileSet set = new SharedFileSet();
+        set.addAll(dependency);
+        set.add(FILE3);
+
+        assertEquals(Arrays.asList(FILE1, FILE2, FILE3), Arrays.asList(set.toUnmodifiableSet().toArray()));
+        assertEquals(unmodifiableSet(FILE1, FILE2), dependency);
+    }
+
+    @Test
+    public void testOwnFilesAreNotShared() {
+        Set<File> dependency = unmodifiableSet(FILE2);
+
+        SharedFileSet set = new SharedFileSet();
+        set.add(FILE1);
+        set.addAll(dependency);
+
+        assertEquals(Arrays.asList(FILE1, FILE2), Arrays.asList(set.toUnmodifiableSet().toArray()));
+        try {
+            set.toUnmodifiableSet().add(FILE3);
+            fail("The set must be unmodifiable.");
+        } catch (UnsupportedOperationException ex) {
+        }
+    }
+
+    @Test
+    public void testNullFileIsRejected() {
+        try {
+            new SharedFileSet().add(null);
+            fail("Expected NullPointerException.");
+        } catch (NullPointerException ex) {
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package org.netbeans.gradle.project.java.model.idea;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import org.gradle.tooling.model.DomainObjectSet;
+import org.gradle.tooling.model.GradleProject;
+import org.gradle.tooling.model.idea.IdeaContentRoot;
+import org.gradle.tooling.model.idea.IdeaDependency;
+import org.gradle.tooling.model.idea.IdeaDependencyScope;
+import org.gradle.tooling.model.idea.IdeaLanguageLevel;
+import org.gradle.tooling.model.idea.IdeaModule;
+import org.gradle.tooling.model.idea.IdeaModuleDependency;
+import org.gradle.tooling.model.idea.IdeaProject;
+import org.gradle.tooling.model.idea.IdeaSingleEntryLibraryDependency;
+import org.gradle.tooling.model.idea.IdeaSourceDirectory;
+
+/**
+ * Creates synthetic {@code IdeaProject} instances (implemented by dynamic
+ * proxies) for tests and benchmarks. Only the methods used by the Java model
+ * parser are implemented.
+ */
+public final class TestIdeaProjectBuilder {
+    private final File rootDir;
+    private final List<ModuleBuilder> modules;
+
+    public TestIdeaProjectBuilder(File rootDir) {
+        this.rootDir = rootDir;
+        this.modules = new ArrayList<>();
+    }
+
+    public ModuleBuilder addModule(String name) {
+        ModuleBuilder result = new ModuleBuilder(":" + name, name, new File(rootDir, name));
+        modules.add(result);
+        return result;
+    }
+
+    public IdeaProject create() {
+        final Map<String, Object> projectProperties = new HashMap<>();
+        IdeaProject project = proxy(IdeaProject.class, projectProperties);
+
+        // The modules are created before their dependencies are set, so that
+        // neither deep dependency chains nor cycles need recursion.
+        Map<ModuleBuilder, IdeaModule> createdModules = new HashMap<>();
+        List<IdeaModule> moduleList = new ArrayList<>(modules.size());
+        for (ModuleBuilder module: modules) {
+            IdeaModule created = module.create(project);
+            createdModules.put(module, created);
+            moduleList.add(created);
+        }
+        for (ModuleBuilder module: modules) {
+            module.setDependencies(createdModules);
+        }
+
+        DomainObjectSet<IdeaModule> moduleSet = domainObjectSet(moduleList);
+        projectProperties.put("getModules", moduleSet);
+        projectProperties.put("getChildren", moduleSet);
+        projectProperties.put("getName", rootDir.getName());
+        projectProperties.put("getJdkName", "1.7");
+        projectProperties.put("getLanguageLevel", proxy(IdeaLanguageLevel.class,
+                Collections.singletonMap("getLevel", "JDK_1_7")));
+        return project;
+    }
+
+    private static <T> T proxy(Class<T> type, final Map<String, ?> properties) {
+        Object result = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                String name = method.getName();
+                switch (name) {
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    case "toString":
+                        return String.valueOf(properties.get("getName"));
+                    default:
+                        if (!properties.containsKey(name)) {
+                            throw new UnsupportedOperationException(name);
+                        }
+                        return properties.get(name);
+                }
+            }
+        });
+        return type.cast(result);
+    }
+
+    private static <T> DomainObjectSet<T> domainObjectSet(Collection<? extends T> elements) {
+        final List<T> list = Collections.unmodifiableList(new ArrayList<>(elements));
+        final Collection<T> set = Collections.unmodifiableSet(new LinkedHashSet<>(list));
+
+        @SuppressWarnings("unchecked")
+        DomainObjectSet<T> result = (DomainObjectSet<T>)Proxy.newProxyInstance(
+                DomainObjectSet.class.getClassLoader(),
+                new Class<?>[]{DomainObjectSet.class},
+                new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "getAll":
+                        return list;
+                    case "getAt":
+                        return list.get((Integer)args[0]);
+                    default:
+                        try {
+                            return method.invoke(set, args);
+                        } catch (InvocationTargetException ex) {
+                            throw ex.getCause();
+                        }
+                }
+            }
+        });
+        return result;
+    }
+
+    private static IdeaDependencyScope scope(String scope) {
+        return proxy(IdeaDependencyScope.class, Collections.singletonMap("getScope", scope));
+    }
+
+    public static final class ModuleBuilder {
+        private final String path;
+        private final String name;
+        private final File dir;
+        private final List<Object[]> dependencies;
+        private final Map<String, Object> moduleProperties;
+
+        private ModuleBuilder(String path, String name, File dir) {
+            this.path = path;
+            this.name = name;
+            this.dir = dir;
+            this.dependencies = new ArrayList<>();
+            this.moduleProperties = new HashMap<>();
+        }
+
+        public File getDir() {
+            return dir;
+        }
+
+        public File getMainClassesDir() {
+            return new File(new File(new File(dir, "build"), "classes"), "main");
+        }
+
+        public ModuleBuilder addModuleDependency(ModuleBuilder module, String scope) {
+            dependencies.add(new Object[]{module, scope});
+            return this;
+        }
+
+        public ModuleBuilder addExternalDependency(File file, String scope) {
+            dependencies.add(new Object[]{file, scope});
+            return this;
+        }
+
+        private IdeaModule create(IdeaProject project) {
+            Map<String, Object> gradleProjectProperties = new HashMap<>();
+            gradleProjectProperties.put("getPath", path);
+            gradleProjectProperties.put("getName", name);
+            gradleProjectProperties.put("getChildren", domainObjectSet(Collections.<GradleProject>emptyList()));
+            gradleProjectProperties.put("getTasks", domainObjectSet(Collections.emptyList()));
+            gradleProjectProperties.put("getParent", null);
+
+            File srcDir = new File(new File(new File(dir, "src"), "main"), "java");
+            File testDir = new File(new File(new File(dir, "src"), "test"), "java");
+
+            Map<String, Object> contentRootProperties = new HashMap<>();
+            contentRootProperties.put("getRootDirectory", dir);
+            contentRootProperties.put("getSourceDirectories", domainObjectSet(Collections.singletonList(
+                    proxy(IdeaSourceDirectory.class, Collections.singletonMap("getDirectory", srcDir)))));
+            contentRootProperties.put("getTestDirectories", domainObjectSet(Collections.singletonList(
+                    proxy(IdeaSourceDirectory.class, Collections.singletonMap("getDirectory", testDir)))));
+
+            moduleProperties.put("getName", name);
+            moduleProperties.put("getProject", project);
+            moduleProperties.put("getParent", project);
+            moduleProperties.put("getGradleProject", proxy(GradleProject.class, gradleProjectProperties));
+            moduleProperties.put("getContentRoots", domainObjectSet(Collections.singletonList(
+                    proxy(IdeaContentRoot.class, contentRootProperties))));
+            return proxy(IdeaModule.class, moduleProperties);
+        }
+
+        private void setDependencies(Map<ModuleBuilder, IdeaModule> createdModules) {
+            List<IdeaDependency> ideaDependencies = new ArrayList<>(dependencies.size());
+            for (Object[] dependency: dependencies) {
+                Map<String, Object> dependencyProperties = new HashMap<>();
+                dependencyProperties.put("getScope", scope((String)dependency[1]));
+                dependencyProperties.put("getExported", false);
+                dependencyProperties.put("isExported", false);
+
+                if (dependency[0] instanceof ModuleBuilder) {
+                    ModuleBuilder moduleDep = (ModuleBuilder)dependency[0];
+                    dependencyProperties.put("getDependencyModule", createdModules.get(moduleDep));
+                    dependencyProperties.put("getTargetModuleName", moduleDep.name);
+                    dependencyProperties.put("getName", moduleDep.name);
+                    ideaDependencies.add(proxy(IdeaModuleDependency.class, dependencyProperties));
+                }
+                else {
+                    File file = (File)dependency[0];
+                    dependencyProperties.put("getFile", file);
+                    dependencyProperties.put("getName", file.getName());
+                    ideaDependencies.add(proxy(IdeaSingleEntryLibraryDependency.class, dependencyProperties));
+                }
+            }
+
+            moduleProperties.put("getDependencies", domainObjectSet(ideaDependencies));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.netbeans.gradle.project.java.nodes;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.netbeans.gradle.project.util.NbFunction;
+
+import static org.junit.Assert.*;
+
+public class DependencyNameIndexTest {
+    private static DependencyNameIndex<String> createIndex(String... names) {
+        return new DependencyNameIndex<>(Arrays.asList(names), new NbFunction<String, String>() {
+            @Override
+            public String apply(String arg) {
+                return arg;
+            }
+        });
+    }
+
+    @Test
+    public void testEmptyFilterReturnsAll() {
+        DependencyNameIndex<String> index = createIndex("guava-18.0.jar", "junit-4.12.jar");
+
+        assertEquals(Arrays.asList("guava-18.0.jar", "junit-4.12.jar"), index.filter(""));
+        assertEquals(Arrays.asList("guava-18.0.jar", "junit-4.12.jar"), index.filter(null));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void testFilterIgnoresCaseAndKeepsOrder() {
+        DependencyNameIndex<String> index = createIndex(
+                "commons-io-2.4.jar",
+                "Guava-18.0.jar",
+                "commons-lang3-3.4.jar",
+                "junit-4.12.jar");
+
+        assertEquals(Arrays.asList("commons-io-2.4.jar", "commons-lang3-3.4.jar"), index.filter("COMMONS"));
+        assertEquals(Collections.singletonList("Guava-18.0.jar"), index.filter("guava"));
+        assertEquals(Collections.<String>emptyList(), index.filter("hamcrest"));
+    }
+
+    @Test
+    public void testNullNames() {
+        DependencyNameIndex<String> index = new DependencyNameIndex<>(Arrays.asList("a", "b"), new NbFunction<String, String>() {
+            @Override
+            public String apply(String arg) {
+                return "a".equals(arg) ? null : arg;
+            }
+        });
+
+        List<String> filtered = index.filter("b");
+        assertEquals(Collections.singletonList("b"), filtered);
+    }
+}
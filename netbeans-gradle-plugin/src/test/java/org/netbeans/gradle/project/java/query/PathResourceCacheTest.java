@@ -0,0 +1,75 @@
+package org.netbeans.gradle.project.java.query;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.jtrim.cancel.Cancellation;
+import org.junit.Test;
+import org.netbeans.gradle.project.util.ExcludeIncludeRules;
+import org.netbeans.gradle.project.util.NbFileUtils;
+import org.netbeans.spi.java.classpath.PathResourceImplementation;
+
+import static org.junit.Assert.*;
+
+public class PathResourceCacheTest {
+    private static Path createTempDir() throws IOException {
+        return Files.createTempDirectory("nb-path-resource-cache-test");
+    }
+
+    @Test
+    public void testSameFileReturnsSameResource() throws IOException {
+        Path tmpDir = createTempDir();
+        try {
+            File dir = tmpDir.toFile();
+            PathResourceCache cache = new PathResourceCache();
+
+            PathResourceImplementation resource1 = cache.tryGetResource(dir, ExcludeIncludeRules.ALLOW_ALL);
+            PathResourceImplementation resource2 = cache.tryGetResource(
+                    new File(dir, "."), ExcludeIncludeRules.ALLOW_ALL);
+
+            assertNotNull(resource1);
+            assertSame(resource1, resource2);
+            assertEquals(1, cache.getMissCount());
+            assertEquals(1, cache.getHitCount());
+            assertEquals(1, cache.getCachedCount());
+        } finally {
+            NbFileUtils.deleteDirectory(Cancellation.UNCANCELABLE_TOKEN, tmpDir);
+        }
+    }
+
+    @Test
+    public void testInvalidateRecreatesResource() throws IOException {
+        Path tmpDir = createTempDir();
+        try {
+            File dir = tmpDir.toFile();
+            PathResourceCache cache = new PathResourceCache();
+
+            PathResourceImplementation resource1 = cache.tryGetResource(dir, ExcludeIncludeRules.ALLOW_ALL);
+            cache.invalidate(dir);
+            assertEquals(0, cache.getCachedCount());
+
+            PathResourceImplementation resource2 = cache.tryGetResource(dir, ExcludeIncludeRules.ALLOW_ALL);
+            assertNotSame(resource1, resource2);
+            assertEquals(2, cache.getMissCount());
+            assertEquals(0, cache.getHitCount());
+        } finally {
+            NbFileUtils.deleteDirectory(Cancellation.UNCANCELABLE_TOKEN, tmpDir);
+        }
+    }
+
+    @Test
+    public void testInvalidEntryIsNotCached() throws IOException {
+        Path tmpDir = createTempDir();
+        try {
+            Path notArchive = tmpDir.resolve("not-an-archive.txt");
+            Files.write(notArchive, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+            PathResourceCache cache = new PathResourceCache();
+            assertNull(cache.tryGetResource(notArchive.toFile(), ExcludeIncludeRules.ALLOW_ALL));
+            assertEquals(0, cache.getCachedCount());
+        } finally {
+            NbFileUtils.deleteDirectory(Cancellation.UNCANCELABLE_TOKEN, tmpDir);
+        }
+    }
+}
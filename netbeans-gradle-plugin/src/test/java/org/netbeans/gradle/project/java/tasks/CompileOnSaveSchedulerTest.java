@@ -0,0 +1,210 @@
+package org.netbeans.gradle.project.java.tasks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
+import org.junit.Test;
+import org.netbeans.gradle.project.util.NbSupplier;
+
+import static org.junit.Assert.*;
+
+public class CompileOnSaveSchedulerTest {
+    private static final long TIMEOUT_MS = 10000;
+
+    private static final Executor THREAD_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            new Thread(command, "CompileOnSaveSchedulerTest-starter").start();
+        }
+    };
+
+    private static NbSupplier<Integer> window(final int windowMs) {
+        return new NbSupplier<Integer>() {
+            @Override
+            public Integer get() {
+                return windowMs;
+            }
+        };
+    }
+
+    private static CompileOnSaveScheduler<String, String> create(int windowMs, RecordingStarter starter) {
+        return new CompileOnSaveScheduler<>(window(windowMs), starter, THREAD_EXECUTOR);
+    }
+
+    @Test
+    public void testSavesAreMergedIntoOneBuild() throws InterruptedException {
+        RecordingStarter starter = new RecordingStarter(true);
+        CompileOnSaveScheduler<String, String> scheduler = create(100, starter);
+
+        scheduler.fileSaved("project", "A.java");
+        scheduler.fileSaved("project", "B.java");
+        scheduler.fileSaved("project", "A.java");
+
+        Build build = starter.nextBuild();
+        assertEquals("project", build.project);
+        assertEquals(Arrays.asList("B.java", "A.java"), build.files);
+
+        starter.assertNoMoreBuilds();
+        assertEquals(3, scheduler.getSaveCount());
+        assertEquals(1, scheduler.getBuildCount());
+        assertEquals(2, scheduler.getSavedBuildCount());
+    }
+
+    @Test
+    public void testOneBuildPerProject() throws InterruptedException {
+        RecordingStarter starter = new RecordingStarter(true);
+        CompileOnSaveScheduler<String, String> scheduler = create(50, starter);
+
+        scheduler.fileSaved("project1", "A.java");
+        scheduler.fileSaved("project2", "B.java");
+        scheduler.fileSaved("project1", "C.java");
+
+        List<Build> builds = Arrays.asList(starter.nextBuild(), starter.nextBuild());
+        starter.assertNoMoreBuilds();
+
+        assertEquals("project1", builds.get(0).project);
+        assertEquals(Arrays.asList("A.java", "C.java"), builds.get(0).files);
+        assertEquals("project2", builds.get(1).project);
+        assertEquals(Collections.singletonList("B.java"), builds.get(1).files);
+    }
+
+    @Test
+    public void testSavesDuringBuildAreBuiltAfterCompletion() throws InterruptedException {
+        RecordingStarter starter = new RecordingStarter(false);
+        CompileOnSaveScheduler<String, String> scheduler = create(0, starter);
+
+        scheduler.fileSaved("project", "A.java");
+        Build build1 = starter.nextBuild();
+        assertEquals(Collections.singletonList("A.java"), build1.files);
+
+        scheduler.fileSaved("project", "B.java");
+        scheduler.fileSaved("project", "C.java");
+        starter.assertNoMoreBuilds();
+
+        build1.onComplete.run();
+
+        Build build2 = starter.nextBuild();
+        assertEquals(Arrays.asList("B.java", "C.java"), build2.files);
+        build2.onComplete.run();
+
+        starter.assertNoMoreBuilds();
+        assertEquals(1, scheduler.getSavedBuildCount());
+    }
+
+    @Test
+    public void testFailingStarterDoesNotBlockLaterBuilds() throws InterruptedException {
+        final RecordingStarter starter = new RecordingStarter(true);
+        CompileOnSaveScheduler<String, String> scheduler = new CompileOnSaveScheduler<>(window(0),
+                new CompileOnSaveScheduler.BuildStarter<String, String>() {
+            private boolean failed = false;
+
+            @Override
+            public void startBuild(String project, List<String> savedFiles, Runnable onComplete) {
+                if (!failed) {
+                    failed = true;
+                    throw new RuntimeException("Test failure");
+                }
+                starter.startBuild(project, savedFiles, onComplete);
+            }
+        }, THREAD_EXECUTOR);
+
+        scheduler.fileSaved("project", "A.java");
+        Thread.sleep(100);
+        scheduler.fileSaved("project", "B.java");
+
+        assertEquals(Collections.singletonList("B.java"), starter.nextBuild().files);
+    }
+
+    @Test
+    public void testStartCompleteCancel() throws InterruptedException {
+        RecordingStarter starter = new RecordingStarter(false);
+        CompileOnSaveScheduler<String, String> scheduler = create(0, starter);
+
+        assertFalse(scheduler.isBuildInProgress("project"));
+
+        scheduler.fileSaved("project", "A.java");
+        Build build1 = starter.nextBuild();
+        assertTrue(scheduler.isBuildInProgress("project"));
+
+        build1.onComplete.run();
+        assertFalse(scheduler.isBuildInProgress("project"));
+
+        scheduler.fileSaved("project", "B.java");
+        Build build2 = starter.nextBuild();
+        assertTrue(scheduler.isBuildInProgress("project"));
+
+        // A canceled build reports its completion the same way.
+        scheduler.fileSaved("project", "C.java");
+        build2.onComplete.run();
+
+        Build build3 = starter.nextBuild();
+        assertEquals(Collections.singletonList("C.java"), build3.files);
+        assertTrue(scheduler.isBuildInProgress("project"));
+
+        // Late notifications of previous builds must not end the current one.
+        build1.onComplete.run();
+        build2.onComplete.run();
+        assertTrue(scheduler.isBuildInProgress("project"));
+
+        build3.onComplete.run();
+        assertFalse(scheduler.isBuildInProgress("project"));
+        starter.assertNoMoreBuilds();
+    }
+
+    @Test
+    public void testBuildsAreNotStartedOnTheEdt() throws InterruptedException {
+        RecordingStarter starter = new RecordingStarter(true);
+        CompileOnSaveScheduler<String, String> scheduler = create(0, starter);
+
+        scheduler.fileSaved("project", "A.java");
+        assertFalse(starter.nextBuild().startedOnEdt);
+    }
+
+    private static final class Build {
+        public final String project;
+        public final List<String> files;
+        public final Runnable onComplete;
+        public final boolean startedOnEdt;
+
+        public Build(String project, List<String> files, Runnable onComplete) {
+            this.project = project;
+            this.files = new ArrayList<>(files);
+            this.onComplete = onComplete;
+            this.startedOnEdt = SwingUtilities.isEventDispatchThread();
+        }
+    }
+
+    private static final class RecordingStarter implements CompileOnSaveScheduler.BuildStarter<String, String> {
+        private final boolean completeImmediately;
+        private final BlockingQueue<Build> builds;
+
+        public RecordingStarter(boolean completeImmediately) {
+            this.completeImmediately = completeImmediately;
+            this.builds = new LinkedBlockingQueue<>();
+        }
+
+        @Override
+        public void startBuild(String project, List<String> savedFiles, Runnable onComplete) {
+            builds.add(new Build(project, savedFiles, onComplete));
+            if (completeImmediately) {
+                onComplete.run();
+            }
+        }
+
+        public Build nextBuild() throws InterruptedException {
+            Build result = builds.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            assertNotNull("Expected a build to be started.", result);
+            return result;
+        }
+
+        public void assertNoMoreBuilds() throws InterruptedException {
+            assertNull(builds.poll(300, TimeUnit.MILLISECONDS));
+        }
+    }
+}
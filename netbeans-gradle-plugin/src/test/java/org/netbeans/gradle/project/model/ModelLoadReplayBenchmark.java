@@ -0,0 +1,108 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import org.gradle.util.GradleVersion;
+import org.netbeans.gradle.model.FetchedModels;
+import org.netbeans.gradle.project.NbGradleExtensionRef;
+import org.netbeans.gradle.project.api.modelquery.GradleTarget;
+import org.netbeans.gradle.project.util.ManualBenchmark;
+import org.openide.filesystems.FileUtil;
+import org.openide.modules.SpecificationVersion;
+
+/**
+ * Measures replaying the models of a model load (parsing them and storing
+ * them in a model cache) without Gradle. The models are generated by
+ * {@link SyntheticFetchedModels} ({@code MODULE_COUNT} Java modules with
+ * {@code DEPENDENCY_COUNT} external dependencies each) and are first saved to
+ * and read back from a {@link ModelLoadRecording}, so the time of loading the
+ * recording is also printed. The models are parsed by the Java extension.
+ * <P>
+ * If a recording file (written by the IDE when the
+ * {@code netbeans.gradle.recordModelsDir} system property is set) is passed
+ * as the first argument, that recording is replayed instead. In this case only
+ * the models of the Java extension are parsed, because the other extensions
+ * of the IDE are not available here.
+ * <P>
+ * See {@link ManualBenchmark} for how to run this benchmark.
+ */
+public final class ModelLoadReplayBenchmark {
+    private static final int MODULE_COUNT = 500;
+    private static final int DEPENDENCY_COUNT = 20;
+    private static final long SEED = 20160901L;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    private static final File ROOT_DIR = FileUtil.normalizeFile(new File("benchmark-root").getAbsoluteFile());
+
+    private static Path createSyntheticRecording(SyntheticFetchedModels synthetic) throws IOException {
+        FetchedModels models = synthetic.generate();
+        GradleTarget target = new GradleTarget(new SpecificationVersion("1.8"), GradleVersion.current());
+
+        Path file = Files.createTempFile("nb-model-replay-benchmark", ".nbmodels");
+        new ModelLoadRecording(target, models).save(file);
+        return file;
+    }
+
+    public static void main(String[] args) throws Exception {
+        final Path file;
+        boolean deleteFile;
+
+        if (args.length > 0) {
+            file = new File(args[0]).toPath();
+            deleteFile = false;
+            System.out.println("Recording: " + file);
+        }
+        else {
+            SyntheticFetchedModels synthetic
+                    = new SyntheticFetchedModels(ROOT_DIR, MODULE_COUNT, DEPENDENCY_COUNT, SEED);
+            file = createSyntheticRecording(synthetic);
+            deleteFile = true;
+            System.out.println(String.format(Locale.ROOT,
+                    "Modules: %d, dependencies: %d",
+                    MODULE_COUNT, DEPENDENCY_COUNT));
+        }
+
+        final List<NbGradleExtensionRef> extensions
+                = Collections.singletonList(SyntheticFetchedModels.createJavaExtension());
+
+        try {
+            System.out.println(String.format(Locale.ROOT, "Recording size: %d bytes", Files.size(file)));
+
+            final ModelLoadRecording recording = ModelLoadRecording.load(file, null);
+
+            ManualBenchmark benchmark = new ManualBenchmark(WARMUP_ROUNDS, MEASURED_ROUNDS);
+            benchmark.addTask("load", new ManualBenchmark.Task() {
+                @Override
+                public long run() throws IOException {
+                    return ModelLoadRecording.load(file, null).getFetchedModels().getOtherProjectModels().size();
+                }
+            });
+            benchmark.addTask("replay", new ManualBenchmark.Task() {
+                @Override
+                public long run() {
+                    // A new cache for each round, so that every round stores new entries.
+                    GradleModelCache cache = new GradleModelCache(MODULE_COUNT * 2);
+                    ModelLoadReplay replay = new ModelLoadReplay(extensions, cache);
+                    return replay.replay(recording, null).getOtherModels().size();
+                }
+            });
+
+            ManualBenchmark.Result result = benchmark.run();
+            System.out.println(String.format(Locale.ROOT,
+                    "Load recording: %.2f ms/round, replay: %.2f ms/round",
+                    result.getMillisPerRound("load"),
+                    result.getMillisPerRound("replay")));
+            System.out.println("Checksum: " + result.getChecksum());
+        } finally {
+            if (deleteFile) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
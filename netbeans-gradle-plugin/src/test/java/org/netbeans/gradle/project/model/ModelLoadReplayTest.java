@@ -0,0 +1,128 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import org.gradle.util.GradleVersion;
+import org.junit.Test;
+import org.netbeans.gradle.model.BuilderResult;
+import org.netbeans.gradle.model.FetchedModels;
+import org.netbeans.gradle.model.FetchedProjectModels;
+import org.netbeans.gradle.model.java.JavaSourceSet;
+import org.netbeans.gradle.model.java.JavaSourcesModel;
+import org.netbeans.gradle.project.api.modelquery.GradleTarget;
+import org.netbeans.gradle.project.java.model.NbJavaModel;
+import org.openide.filesystems.FileUtil;
+import org.openide.modules.SpecificationVersion;
+
+import static org.junit.Assert.*;
+
+public class ModelLoadReplayTest {
+    private static final File ROOT_DIR = FileUtil.normalizeFile(new File("synthetic-root").getAbsoluteFile());
+    private static final GradleTarget TARGET = new GradleTarget(
+            new SpecificationVersion("1.8"),
+            GradleVersion.version("2.14"));
+
+    private static SyntheticFetchedModels synthetic(int moduleCount) {
+        return new SyntheticFetchedModels(ROOT_DIR, moduleCount, 5, 1234);
+    }
+
+    private static Set<File> getMainCompileClasspath(FetchedProjectModels projectModels) {
+        List<BuilderResult> results = projectModels.getProjectInfoResults()
+                .get(SyntheticFetchedModels.getJavaExtensionName());
+        for (BuilderResult result: results) {
+            Object model = result.getResultObject();
+            if (model instanceof JavaSourcesModel) {
+                for (JavaSourceSet sourceSet: ((JavaSourcesModel)model).getSourceSets()) {
+                    if (JavaSourceSet.NAME_MAIN.equals(sourceSet.getName())) {
+                        return sourceSet.getClasspaths().getCompileClasspaths();
+                    }
+                }
+            }
+        }
+        throw new AssertionError("Missing main source set.");
+    }
+
+    private static void assertSameClasspaths(FetchedModels expected, FetchedModels actual) {
+        List<FetchedProjectModels> expectedModules = expected.getOtherProjectModels();
+        List<FetchedProjectModels> actualModules = actual.getOtherProjectModels();
+        assertEquals(expectedModules.size(), actualModules.size());
+
+        for (int i = 0; i < expectedModules.size(); i++) {
+            assertEquals(
+                    getMainCompileClasspath(expectedModules.get(i)),
+                    getMainCompileClasspath(actualModules.get(i)));
+        }
+    }
+
+    @Test
+    public void testGeneratorIsDeterministic() {
+        FetchedModels models1 = synthetic(5).generate();
+        FetchedModels models2 = synthetic(5).generate();
+
+        assertEquals(4, models1.getOtherProjectModels().size());
+        assertSameClasspaths(models1, models2);
+    }
+
+    @Test
+    public void testRecordingRoundTrip() throws IOException {
+        FetchedModels models = synthetic(3).generate();
+
+        Path file = Files.createTempFile("nb-model-recording", ".nbmodels");
+        try {
+            new ModelLoadRecording(TARGET, models).save(file);
+            ModelLoadRecording loaded = ModelLoadRecording.load(file, null);
+
+            assertEquals(TARGET.getGradleVersion(), loaded.getGradleTarget().getGradleVersion());
+            assertEquals(TARGET.getJavaVersion(), loaded.getGradleTarget().getJavaVersion());
+
+            assertSameClasspaths(models, loaded.getFetchedModels());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testReplayParsesAndCachesModels() {
+        SyntheticFetchedModels synthetic = synthetic(4);
+        FetchedModels models = synthetic.generate();
+
+        String extensionName = SyntheticFetchedModels.getJavaExtensionName();
+        GradleModelCache cache = new GradleModelCache(10);
+        ModelLoadReplay replay = new ModelLoadReplay(
+                Collections.singletonList(SyntheticFetchedModels.createJavaExtension()),
+                cache);
+
+        NbModelLoader.Result result = replay.replay(TARGET, models, null);
+
+        NbGradleModel mainModel = result.getMainModel();
+        assertNull("Java model of the root project", mainModel.getModelOfExtension(extensionName));
+        assertEquals(3, result.getOtherModels().size());
+        assertSame(mainModel, cache.tryGet(ROOT_DIR, null));
+
+        for (int i = 1; i < synthetic.getModuleCount(); i++) {
+            NbGradleModel moduleModel = cache.tryGet(synthetic.getModuleDir(i), null);
+            assertNotNull("Cached module" + i, moduleModel);
+
+            Object javaModel = moduleModel.getModelOfExtension(extensionName);
+            assertTrue("Java model of module" + i, javaModel instanceof NbJavaModel);
+        }
+
+        // The jars of the other modules must be replaced with their output.
+        NbJavaModel lastModule = (NbJavaModel)cache
+                .tryGet(synthetic.getModuleDir(3), null)
+                .getModelOfExtension(extensionName);
+        Set<File> compileClasspath = lastModule.getMainModule().getMainSourceSet()
+                .getClasspaths().getCompileClasspaths();
+
+        for (int i = 1; i < 3; i++) {
+            assertFalse(compileClasspath.contains(synthetic.getModuleJar(i)));
+            assertTrue(compileClasspath.contains(synthetic.getMainClassesDir(i)));
+            assertNotNull(lastModule.tryGetDepedency(synthetic.getMainClassesDir(i)));
+        }
+    }
+}
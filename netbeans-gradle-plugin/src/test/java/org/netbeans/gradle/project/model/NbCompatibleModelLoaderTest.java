@@ -0,0 +1,275 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.gradle.tooling.model.DomainObjectSet;
+import org.gradle.tooling.model.GradleProject;
+import org.gradle.tooling.model.idea.IdeaContentRoot;
+import org.gradle.tooling.model.idea.IdeaModule;
+import org.gradle.tooling.model.idea.IdeaProject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class NbCompatibleModelLoaderTest {
+    private static final File ROOT_DIR = new File("root-project");
+    private static final int CHILDREN_PER_GROUP = 50;
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        Object result = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+        return type.cast(result);
+    }
+
+    private static <T> DomainObjectSet<T> domainObjectSet(Collection<? extends T> elements) {
+        final List<T> list = Collections.unmodifiableList(new ArrayList<>(elements));
+        final Collection<T> set = Collections.unmodifiableSet(new LinkedHashSet<>(list));
+
+        @SuppressWarnings("unchecked")
+        DomainObjectSet<T> result = proxy(DomainObjectSet.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "getAll":
+                        return list;
+                    case "getAt":
+                        return list.get((Integer)args[0]);
+                    default:
+                        try {
+                            return method.invoke(set, args);
+                        } catch (InvocationTargetException ex) {
+                            throw ex.getCause();
+                        }
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Creates a synthetic {@code IdeaProject} with a root project whose
+     * children are groups of {@code CHILDREN_PER_GROUP} leaf projects.
+     */
+    private static IdeaProject createIdeaProject(int moduleCount, AtomicLong callCount) {
+        FakeProject root = new FakeProject(":", "root", ROOT_DIR);
+        List<FakeProject> allProjects = new ArrayList<>(moduleCount);
+        allProjects.add(root);
+
+        FakeProject group = null;
+        while (allProjects.size() < moduleCount) {
+            if (group == null || group.children.size() >= CHILDREN_PER_GROUP) {
+                String name = "group" + root.children.size();
+                group = new FakeProject(":" + name, name, new File(ROOT_DIR, name));
+                root.addChild(group);
+            }
+            else {
+                String name = "module" + group.children.size();
+                FakeProject module = new FakeProject(group.path + ":" + name, name, new File(group.dir, name));
+                group.addChild(module);
+            }
+            allProjects.add(group.children.isEmpty() ? group : group.children.get(group.children.size() - 1));
+        }
+
+        Map<FakeProject, GradleProject> gradleProjects = new HashMap<>();
+        createGradleProject(root, null, gradleProjects, callCount);
+
+        List<IdeaModule> modules = new ArrayList<>(allProjects.size());
+        IdeaProjectHandler ideaProjectHandler = new IdeaProjectHandler();
+        IdeaProject ideaProject = proxy(IdeaProject.class, ideaProjectHandler);
+        for (FakeProject project: allProjects) {
+            modules.add(createModule(project, gradleProjects.get(project), ideaProject, callCount));
+        }
+        ideaProjectHandler.modules = domainObjectSet(modules);
+
+        return ideaProject;
+    }
+
+    private static GradleProject createGradleProject(
+            final FakeProject project,
+            final GradleProject parent,
+            Map<FakeProject, GradleProject> result,
+            final AtomicLong callCount) {
+
+        final List<GradleProject> children = new ArrayList<>(project.children.size());
+        GradleProject gradleProject = proxy(GradleProject.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                callCount.incrementAndGet();
+                switch (method.getName()) {
+                    case "getPath":
+                        return project.path;
+                    case "getName":
+                        return project.name;
+                    case "getParent":
+                        return parent;
+                    case "getChildren":
+                        return domainObjectSet(children);
+                    case "getTasks":
+                        return domainObjectSet(Collections.emptyList());
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        });
+
+        for (FakeProject child: project.children) {
+            children.add(createGradleProject(child, gradleProject, result, callCount));
+        }
+
+        result.put(project, gradleProject);
+        return gradleProject;
+    }
+
+    private static IdeaModule createModule(
+            final FakeProject project,
+            final GradleProject gradleProject,
+            final IdeaProject ideaProject,
+            final AtomicLong callCount) {
+
+        IdeaContentRoot contentRoot = proxy(IdeaContentRoot.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "getRootDirectory":
+                        return project.dir;
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        });
+        final DomainObjectSet<IdeaContentRoot> contentRoots = domainObjectSet(Collections.singletonList(contentRoot));
+
+        return proxy(IdeaModule.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                callCount.incrementAndGet();
+                switch (method.getName()) {
+                    case "getName":
+                        return project.name;
+                    case "getGradleProject":
+                        return gradleProject;
+                    case "getContentRoots":
+                        return contentRoots;
+                    case "getProject":
+                    case "getParent":
+                        return ideaProject;
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        });
+    }
+
+    private static long countModelCalls(int moduleCount) throws Exception {
+        AtomicLong callCount = new AtomicLong(0);
+        IdeaProject ideaProject = createIdeaProject(moduleCount, callCount);
+
+        callCount.set(0);
+        List<NbGradleModel.Builder> otherModels = new LinkedList<>();
+        NbGradleModel.Builder mainModel = NbCompatibleModelLoader.parseMainModel(ROOT_DIR, ideaProject, otherModels);
+
+        assertEquals(ROOT_DIR, mainModel.getProjectDir());
+        assertEquals(moduleCount - 1, otherModels.size());
+        return callCount.get();
+    }
+
+    @Test
+    public void testProjectTrees() throws Exception {
+        IdeaProject ideaProject = createIdeaProject(CHILDREN_PER_GROUP + 2, new AtomicLong(0));
+
+        List<NbGradleModel.Builder> otherModels = new LinkedList<>();
+        NbGradleModel mainModel = NbCompatibleModelLoader.parseMainModel(ROOT_DIR, ideaProject, otherModels).create();
+
+        NbGradleProjectTree rootTree = mainModel.getGenericInfo().getProjectDef().getRootProject();
+        assertEquals(":", rootTree.getProjectFullName());
+        assertEquals(1, rootTree.getChildren().size());
+
+        NbGradleProjectTree groupTree = rootTree.getChildren().iterator().next();
+        assertEquals(":group0", groupTree.getProjectFullName());
+        assertEquals(CHILDREN_PER_GROUP, groupTree.getChildren().size());
+
+        List<String> childNames = new ArrayList<>();
+        for (NbGradleProjectTree child: groupTree.getChildren()) {
+            childNames.add(child.getProjectName());
+        }
+        assertEquals("module0", childNames.get(0));
+        assertEquals("module" + (CHILDREN_PER_GROUP - 1), childNames.get(CHILDREN_PER_GROUP - 1));
+
+        NbGradleModel otherModel = otherModels.get(otherModels.size() - 1).create();
+        NbGradleMultiProjectDef otherDef = otherModel.getGenericInfo().getProjectDef();
+        assertEquals(":group0:module" + (CHILDREN_PER_GROUP - 1), otherDef.getMainProject().getProjectFullName());
+        assertSame(rootTree, otherDef.getRootProject());
+    }
+
+    @Test
+    public void testScalesLinearly() throws Exception {
+        long calls1000 = countModelCalls(1000);
+        long calls2000 = countModelCalls(2000);
+
+        // A linear algorithm makes about twice as many calls for twice as
+        // many modules, while a quadratic one makes four times as many.
+        double ratio = (double)calls2000 / (double)calls1000;
+        assertTrue("Model calls for 1000 modules: " + calls1000 + ", for 2000 modules: " + calls2000,
+                ratio < 2.5);
+    }
+
+    private static final class IdeaProjectHandler implements InvocationHandler {
+        public volatile DomainObjectSet<IdeaModule> modules;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "getModules":
+                case "getChildren":
+                    return modules;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        }
+    }
+
+    private static final class FakeProject {
+        public final String path;
+        public final String name;
+        public final File dir;
+        public final List<FakeProject> children;
+
+        public FakeProject(String path, String name, File dir) {
+            this.path = path;
+            this.name = name;
+            this.dir = dir;
+            this.children = new ArrayList<>();
+        }
+
+        public void addChild(FakeProject child) {
+            children.add(child);
+        }
+    }
+}
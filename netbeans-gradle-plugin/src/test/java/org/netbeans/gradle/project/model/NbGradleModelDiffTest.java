@@ -0,0 +1,81 @@
+package org.netbeans.gradle.project.model;
+
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.EnumSet;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.netbeans.gradle.project.model.NbGradleProjectTreeTest.createTree;
+
+public class NbGradleModelDiffTest {
+    private static NbGradleModel createModel(NbGradleProjectTree mainProject) {
+        NbGradleMultiProjectDef projectDef = new NbGradleMultiProjectDef(mainProject, mainProject);
+        return new NbGradleModel(
+                new NbGenericModelInfo(projectDef, Paths.get("settings.gradle")),
+                Collections.<String, Object>emptyMap());
+    }
+
+    private static NbGradleModel createModel(String... childNames) {
+        NbGradleProjectTree[] children = new NbGradleProjectTree[childNames.length];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = createTree(childNames[i]);
+        }
+        return createModel(createTree("testapp", children));
+    }
+
+    @Test
+    public void testSameInstance() {
+        NbGradleModel model = createModel("child1");
+        assertTrue(NbGradleModelDiff.compare(model, model).isEmpty());
+    }
+
+    @Test
+    public void testNullModel() {
+        NbGradleModelDiff diff = NbGradleModelDiff.compare(null, createModel());
+        assertEquals(EnumSet.allOf(NbGradleModelDiff.Aspect.class), diff.getChangedAspects());
+    }
+
+    @Test
+    public void testEquivalentModels() {
+        NbGradleModelDiff diff = NbGradleModelDiff.compare(
+                createModel("child1", "child2"),
+                createModel("child1", "child2"));
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    public void testSubprojectAdded() {
+        NbGradleModelDiff diff = NbGradleModelDiff.compare(
+                createModel("child1"),
+                createModel("child1", "child2"));
+        assertEquals(EnumSet.of(NbGradleModelDiff.Aspect.PROJECT_TREE), diff.getChangedAspects());
+    }
+
+    @Test
+    public void testExtensionModelChanged() {
+        NbGradleModel model1 = createModel("child1");
+        NbGradleModel model2 = new NbGradleModel(
+                model1.getGenericInfo(),
+                Collections.<String, Object>singletonMap("ext", "model"));
+
+        NbGradleModelDiff diff = NbGradleModelDiff.compare(model1, model2);
+        assertEquals(EnumSet.of(NbGradleModelDiff.Aspect.EXTENSION_MODELS), diff.getChangedAspects());
+    }
+
+    @Test
+    public void testMerge() {
+        NbGradleModel model1 = createModel("child1");
+        NbGradleModel model2 = createModel("child1", "child2");
+        NbGradleModel model3 = new NbGradleModel(
+                model2.getGenericInfo(),
+                Collections.<String, Object>singletonMap("ext", "model"));
+
+        NbGradleModelDiff diff = NbGradleModelDiff.compare(model1, model2)
+                .merge(NbGradleModelDiff.compare(model2, model3))
+                .merge(NbGradleModelDiff.noChange());
+        assertEquals(
+                EnumSet.of(NbGradleModelDiff.Aspect.PROJECT_TREE, NbGradleModelDiff.Aspect.EXTENSION_MODELS),
+                diff.getChangedAspects());
+    }
+}
@@ -0,0 +1,317 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.netbeans.gradle.model.BuilderResult;
+import org.netbeans.gradle.model.FetchedBuildModels;
+import org.netbeans.gradle.model.FetchedModels;
+import org.netbeans.gradle.model.FetchedProjectModels;
+import org.netbeans.gradle.model.GenericProjectProperties;
+import org.netbeans.gradle.model.GradleMultiProjectDef;
+import org.netbeans.gradle.model.GradleProjectTree;
+import org.netbeans.gradle.model.GradleTaskID;
+import org.netbeans.gradle.model.ProjectId;
+import org.netbeans.gradle.model.java.JarOutput;
+import org.netbeans.gradle.model.java.JarOutputsModel;
+import org.netbeans.gradle.model.java.JavaClassPaths;
+import org.netbeans.gradle.model.java.JavaCompatibilityModel;
+import org.netbeans.gradle.model.java.JavaOutputDirs;
+import org.netbeans.gradle.model.java.JavaSourceGroup;
+import org.netbeans.gradle.model.java.JavaSourceGroupName;
+import org.netbeans.gradle.model.java.JavaSourceSet;
+import org.netbeans.gradle.model.java.JavaSourcesModel;
+import org.netbeans.gradle.model.java.JavaTestModel;
+import org.netbeans.gradle.model.java.JavaTestTask;
+import org.netbeans.gradle.project.NbGradleExtensionRef;
+import org.netbeans.gradle.project.api.entry.GradleProjectExtension2;
+import org.netbeans.gradle.project.java.JavaExtensionDef;
+import org.netbeans.gradle.project.java.model.NbJavaModel;
+import org.openide.util.Lookup;
+
+/**
+ * Generates the models of a synthetic multi-project Java build as if they
+ * were fetched from Gradle: A root project (without the Java plugin) with
+ * {@code moduleCount - 1} Java child projects. Every child project has the
+ * models requested by {@link JavaExtensionDef} (a main and a test source set,
+ * the jar of the main source set, the source compatibility and the test
+ * task). The compile class path of each module contains
+ * {@code dependencyCount} external libraries and the jars of a few earlier
+ * modules, all chosen randomly from a fixed seed, so the same parameters
+ * always generate the same models.
+ * <P>
+ * The extension returned by {@link #createJavaExtension() createJavaExtension()}
+ * parses these models with the parser of the Java extension of the IDE.
+ */
+public final class SyntheticFetchedModels {
+    private static final String[] TASK_NAMES = {"clean", "build", "test", "jar"};
+    private static final int PROJECT_DEPENDENCY_COUNT = 3;
+    private static final int LIBRARIES_PER_DEPENDENCY = 4;
+
+    private final File rootDir;
+    private final int moduleCount;
+    private final int dependencyCount;
+    private final long seed;
+
+    /**
+     * Creates a new generator.
+     *
+     * @param rootDir the directory of the root project. This should be a
+     *   normalized absolute path, because the Java extension looks up the
+     *   project in this directory.
+     * @param moduleCount the number of projects including the root project
+     * @param dependencyCount the number of external libraries on the compile
+     *   class path of each Java module
+     * @param seed the seed of the random choices of the dependencies
+     */
+    public SyntheticFetchedModels(File rootDir, int moduleCount, int dependencyCount, long seed) {
+        if (moduleCount <= 0) {
+            throw new IllegalArgumentException("Illegal module count: " + moduleCount);
+        }
+        if (dependencyCount < 0) {
+            throw new IllegalArgumentException("Illegal dependency count: " + dependencyCount);
+        }
+
+        this.rootDir = rootDir;
+        this.moduleCount = moduleCount;
+        this.dependencyCount = dependencyCount;
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the Java extension parsing the generated models. The returned
+     * extension can only parse models, activating it does nothing.
+     */
+    public static NbGradleExtensionRef createJavaExtension() {
+        return new NbGradleExtensionRef(new JavaExtensionDef(), new InactiveExtension<NbJavaModel>());
+    }
+
+    public static String getJavaExtensionName() {
+        return new JavaExtensionDef().getName();
+    }
+
+    public File getRootDir() {
+        return rootDir;
+    }
+
+    public File getModuleDir(int index) {
+        return new File(rootDir, getModuleName(index));
+    }
+
+    public int getModuleCount() {
+        return moduleCount;
+    }
+
+    public int getDependencyCount() {
+        return dependencyCount;
+    }
+
+    private static String getModuleName(int index) {
+        return "module" + index;
+    }
+
+    private File getCachedJar(String group, String name, String version) {
+        File moduleCache = new File(rootDir, "gradle-home/caches/modules-2/files-2.1");
+        return new File(moduleCache, group + "/" + name + "/" + version + "/" + name + "-" + version + ".jar");
+    }
+
+    private File getLibrary(int index) {
+        return getCachedJar("org.synthetic", "lib" + index, "1.0");
+    }
+
+    /**
+     * Returns the jar built from the main source set of the given module.
+     */
+    public File getModuleJar(int index) {
+        String name = getModuleName(index);
+        return new File(getModuleDir(index), "build/libs/" + name + "-1.0.jar");
+    }
+
+    private static File getClassesDir(File moduleDir, String sourceSetName) {
+        return new File(moduleDir, "build/classes/java/" + sourceSetName);
+    }
+
+    private static File getResourcesDir(File moduleDir, String sourceSetName) {
+        return new File(moduleDir, "build/resources/" + sourceSetName);
+    }
+
+    /**
+     * Returns the directory containing the compiled classes of the main source
+     * set of the given module.
+     */
+    public File getMainClassesDir(int index) {
+        return getClassesDir(getModuleDir(index), JavaSourceSet.NAME_MAIN);
+    }
+
+    private static GradleProjectTree createProject(String path, String name, File projectDir, List<GradleProjectTree> children) {
+        GenericProjectProperties properties = new GenericProjectProperties(
+                new ProjectId("synthetic", name, "1.0"),
+                path,
+                projectDir,
+                new File(projectDir, "build.gradle"),
+                new File(projectDir, "build"));
+
+        String taskPrefix = ":".equals(path) ? ":" : path + ":";
+        List<GradleTaskID> tasks = new ArrayList<>(TASK_NAMES.length);
+        for (String taskName: TASK_NAMES) {
+            tasks.add(new GradleTaskID(taskName, taskPrefix + taskName));
+        }
+
+        return new GradleProjectTree(properties, tasks, children);
+    }
+
+    private static JavaSourceSet createSourceSet(
+            File moduleDir,
+            String name,
+            Collection<File> compileClasspath,
+            Collection<File> runtimeClasspath) {
+
+        JavaOutputDirs outputDirs = new JavaOutputDirs(
+                getClassesDir(moduleDir, name),
+                getResourcesDir(moduleDir, name),
+                Collections.<File>emptyList());
+
+        File sourceRoot = new File(moduleDir, "src/" + name);
+
+        JavaSourceSet.Builder result = new JavaSourceSet.Builder(name, outputDirs);
+        result.addSourceGroup(new JavaSourceGroup(
+                JavaSourceGroupName.JAVA,
+                Collections.singleton(new File(sourceRoot, "java"))));
+        result.addSourceGroup(new JavaSourceGroup(
+                JavaSourceGroupName.RESOURCES,
+                Collections.singleton(new File(sourceRoot, "resources"))));
+        result.setClasspaths(new JavaClassPaths(compileClasspath, runtimeClasspath));
+        return result.create();
+    }
+
+    private Set<File> chooseCompileClasspath(int moduleIndex, Random random) {
+        Set<File> result = new LinkedHashSet<>();
+
+        // Only earlier modules, so that there are no circular dependencies.
+        int projectDependencyCount = Math.min(PROJECT_DEPENDENCY_COUNT, moduleIndex - 1);
+        while (result.size() < projectDependencyCount) {
+            result.add(getModuleJar(1 + random.nextInt(moduleIndex - 1)));
+        }
+
+        int libraryCount = dependencyCount * LIBRARIES_PER_DEPENDENCY;
+        while (result.size() < projectDependencyCount + dependencyCount) {
+            result.add(getLibrary(random.nextInt(libraryCount)));
+        }
+        return result;
+    }
+
+    private List<Object> createJavaModels(int moduleIndex, Random random) {
+        File moduleDir = getModuleDir(moduleIndex);
+
+        Set<File> mainCompile = chooseCompileClasspath(moduleIndex, random);
+        Set<File> mainRuntime = new LinkedHashSet<>(mainCompile);
+        mainRuntime.add(getCachedJar("org.synthetic", "runtime-only", "1.0"));
+
+        Set<File> testCompile = new LinkedHashSet<>();
+        testCompile.add(getClassesDir(moduleDir, JavaSourceSet.NAME_MAIN));
+        testCompile.add(getResourcesDir(moduleDir, JavaSourceSet.NAME_MAIN));
+        testCompile.addAll(mainCompile);
+        testCompile.add(getCachedJar("junit", "junit", "4.12"));
+
+        Set<File> testRuntime = new LinkedHashSet<>(testCompile);
+        testRuntime.addAll(mainRuntime);
+
+        JavaSourcesModel sources = new JavaSourcesModel(Arrays.asList(
+                createSourceSet(moduleDir, JavaSourceSet.NAME_MAIN, mainCompile, mainRuntime),
+                createSourceSet(moduleDir, JavaSourceSet.NAME_TEST, testCompile, testRuntime)));
+
+        JarOutputsModel jars = new JarOutputsModel(Collections.singletonList(new JarOutput(
+                "jar",
+                getModuleJar(moduleIndex),
+                Collections.singleton(JavaSourceSet.NAME_MAIN))));
+
+        JavaTestModel testModel = new JavaTestModel(Collections.singletonList(new JavaTestTask(
+                "test",
+                new File(moduleDir, "build/test-results/test"))));
+
+        return Arrays.<Object>asList(
+                jars,
+                sources,
+                new JavaCompatibilityModel("1.8", "1.8"),
+                testModel);
+    }
+
+    private static FetchedProjectModels createProjectModels(
+            GradleProjectTree root,
+            GradleProjectTree main,
+            List<Object> javaModels) {
+
+        Map<Object, List<?>> projectInfoResults = new HashMap<>();
+        if (!javaModels.isEmpty()) {
+            List<BuilderResult> results = new ArrayList<>(javaModels.size());
+            for (Object model: javaModels) {
+                results.add(new BuilderResult(model, null));
+            }
+            projectInfoResults.put(getJavaExtensionName(), results);
+        }
+
+        return new FetchedProjectModels(
+                new GradleMultiProjectDef(root, main),
+                projectInfoResults,
+                Collections.<Class<?>, Object>emptyMap(),
+                null);
+    }
+
+    public FetchedModels generate() {
+        List<GradleProjectTree> children = new ArrayList<>(moduleCount - 1);
+        for (int i = 1; i < moduleCount; i++) {
+            String name = getModuleName(i);
+            children.add(createProject(":" + name, name, getModuleDir(i), Collections.<GradleProjectTree>emptyList()));
+        }
+
+        GradleProjectTree root = createProject(":", "root", rootDir, children);
+
+        FetchedProjectModels defaultProjectModels
+                = createProjectModels(root, root, Collections.<Object>emptyList());
+
+        Random random = new Random(seed);
+        List<FetchedProjectModels> otherProjectModels = new ArrayList<>(children.size());
+        for (int i = 1; i < moduleCount; i++) {
+            GradleProjectTree child = children.get(i - 1);
+            otherProjectModels.add(createProjectModels(root, child, createJavaModels(i, random)));
+        }
+
+        return new FetchedModels(
+                new FetchedBuildModels(Collections.<Object, List<?>>emptyMap()),
+                defaultProjectModels,
+                otherProjectModels);
+    }
+
+    private static final class InactiveExtension<ModelType> implements GradleProjectExtension2<ModelType> {
+        @Override
+        public Lookup getPermanentProjectLookup() {
+            return Lookup.EMPTY;
+        }
+
+        @Override
+        public Lookup getProjectLookup() {
+            return Lookup.EMPTY;
+        }
+
+        @Override
+        public Lookup getExtensionLookup() {
+            return Lookup.EMPTY;
+        }
+
+        @Override
+        public void activateExtension(ModelType parsedModel) {
+        }
+
+        @Override
+        public void deactivateExtension() {
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package org.netbeans.gradle.project.others;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.netbeans.gradle.project.util.ManualBenchmark;
+
+/**
+ * Measures the cost of a single reflective lookup of the {@code others}
+ * package with and without {@link ReflectionCache}: looking up a method,
+ * looking up a constructor, checking the type hierarchy of an instance and
+ * looking up a class which does not exist (this is the common case when the
+ * plugin we are looking for is not installed).
+ * <P>
+ * The uncached variants repeat the code used before the lookups were cached.
+ * <P>
+ * See {@link ManualBenchmark} for how to run this benchmark.
+ */
+public final class ReflectionCacheBenchmark {
+    private static final int CALLS_PER_ROUND = 100_000;
+    private static final int CLASS_CALLS_PER_ROUND = 10_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    private static final Set<String> TYPE_NAMES = new HashSet<>(Arrays.asList(
+            "java.io.Serializable",
+            "java.lang.Runnable"));
+    private static final String MISSING_CLASS_NAME = "com.example.missing.PluginClass";
+
+    private static long checksum = 0;
+
+    private interface Lookup {
+        public Object lookup() throws Exception;
+    }
+
+    private static boolean uncachedIsTypeOfAny(Class<?> type, Set<String> requiredTypeNames) {
+        if (requiredTypeNames.contains(type.getName())) {
+            return true;
+        }
+
+        for (Class<?> implementedIF: type.getInterfaces()) {
+            if (requiredTypeNames.contains(implementedIF.getName())) {
+                return true;
+            }
+        }
+
+        Class<?> superclass = type.getSuperclass();
+        return superclass != null
+                ? uncachedIsTypeOfAny(superclass, requiredTypeNames)
+                : false;
+    }
+
+    private static ManualBenchmark.Task calls(final Lookup lookup, final int callCount) {
+        return new ManualBenchmark.Task() {
+            @Override
+            public long run() throws Exception {
+                long result = 0;
+                for (int i = 0; i < callCount; i++) {
+                    Object lookupResult = lookup.lookup();
+                    result += lookupResult != null ? lookupResult.hashCode() : 1;
+                }
+                return result;
+            }
+        };
+    }
+
+    private static void measure(String name, Lookup uncached, Lookup cached, int callCount) throws Exception {
+        ManualBenchmark benchmark = new ManualBenchmark(WARMUP_ROUNDS, MEASURED_ROUNDS);
+        benchmark.addTask("uncached", calls(uncached, callCount));
+        benchmark.addTask("cached", calls(cached, callCount));
+
+        ManualBenchmark.Result result = benchmark.run();
+        checksum += result.getChecksum();
+
+        System.out.println(String.format(Locale.ROOT,
+                "%-20s uncached: %10.1f ns/call, cached: %8.1f ns/call",
+                name,
+                result.getNanosPerOperation("uncached", callCount),
+                result.getNanosPerOperation("cached", callCount)));
+    }
+
+    public static void main(String[] args) throws Exception {
+        final ClassLoader classLoader = ReflectionCacheBenchmark.class.getClassLoader();
+        final Object instance = new ConcurrentHashMap<>();
+
+        measure("Method", new Lookup() {
+            @Override
+            public Object lookup() throws Exception {
+                try {
+                    return ConcurrentHashMap.class.getMethod("putIfAbsent", Object.class, Object.class);
+                } catch (NoSuchMethodException ex) {
+                    return null;
+                }
+            }
+        }, new Lookup() {
+            @Override
+            public Object lookup() {
+                return ReflectionHelper.tryGetMethod(
+                        ConcurrentHashMap.class, "putIfAbsent", Object.class, Object.class);
+            }
+        }, CALLS_PER_ROUND);
+
+        measure("Constructor", new Lookup() {
+            @Override
+            public Object lookup() throws Exception {
+                for (Constructor<?> constructor: ConcurrentHashMap.class.getConstructors()) {
+                    if (constructor.getParameterTypes().length == 3) {
+                        return constructor;
+                    }
+                }
+                return null;
+            }
+        }, new Lookup() {
+            @Override
+            public Object lookup() {
+                ReflectionCache.ConstructorDef[] constructors
+                        = ReflectionCache.getPublicConstructors(ConcurrentHashMap.class);
+                for (ReflectionCache.ConstructorDef constructor: constructors) {
+                    if (constructor.getParamTypes().length == 3) {
+                        return constructor.getConstructor();
+                    }
+                }
+                return null;
+            }
+        }, CALLS_PER_ROUND);
+
+        measure("Type hierarchy", new Lookup() {
+            @Override
+            public Object lookup() {
+                return uncachedIsTypeOfAny(instance.getClass(), TYPE_NAMES);
+            }
+        }, new Lookup() {
+            @Override
+            public Object lookup() {
+                return ReflectionHelper.isInstanceOfAny(instance, TYPE_NAMES);
+            }
+        }, CALLS_PER_ROUND);
+
+        measure("Missing class", new Lookup() {
+            @Override
+            public Object lookup() {
+                try {
+                    return Class.forName(MISSING_CLASS_NAME, true, classLoader);
+                } catch (ClassNotFoundException ex) {
+                    return null;
+                }
+            }
+        }, new Lookup() {
+            @Override
+            public Object lookup() {
+                return ReflectionCache.tryFindClass(classLoader, MISSING_CLASS_NAME);
+            }
+        }, CLASS_CALLS_PER_ROUND);
+
+        Method method = ReflectionHelper.tryGetMethod(ConcurrentHashMap.class, "size");
+        System.out.println("Checksum: " + (checksum + method.hashCode()));
+    }
+}
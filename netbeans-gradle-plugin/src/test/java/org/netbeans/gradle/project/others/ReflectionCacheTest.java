@@ -0,0 +1,80 @@
+package org.netbeans.gradle.project.others;
+
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ReflectionCacheTest {
+    @Test
+    public void testTryGetMethod() throws Exception {
+        Method method = ReflectionCache.tryGetMethod(String.class, "substring", int.class, int.class);
+        assertEquals(String.class.getMethod("substring", int.class, int.class), method);
+        assertSame(method, ReflectionCache.tryGetMethod(String.class, "substring", int.class, int.class));
+
+        assertNull(ReflectionCache.tryGetMethod(String.class, "substring", String.class));
+        assertNull(ReflectionCache.tryGetMethod(String.class, "substring", String.class));
+
+        assertNotNull(ReflectionCache.tryGetMethod(String.class, "length", (Class<?>[])null));
+    }
+
+    @Test
+    public void testTryGetConstructor() throws Exception {
+        Constructor<?> constructor = ReflectionCache.tryGetConstructor(StringBuilder.class, String.class);
+        assertEquals(StringBuilder.class.getConstructor(String.class), constructor);
+        assertSame(constructor, ReflectionCache.tryGetConstructor(StringBuilder.class, String.class));
+
+        assertNull(ReflectionCache.tryGetConstructor(StringBuilder.class, Map.class));
+    }
+
+    @Test
+    public void testGetTypeNames() {
+        assertTrue(ReflectionCache.getTypeNames(ArrayList.class).containsAll(Arrays.asList(
+                ArrayList.class.getName(),
+                Serializable.class.getName(),
+                Object.class.getName())));
+
+        assertTrue(ReflectionHelper.isInstanceOf(new ArrayList<>(), "java.util.RandomAccess"));
+        assertTrue(ReflectionHelper.isInstanceOfAny(new HashMap<>(), new HashSet<>(Arrays.asList(
+                "java.util.List", "java.util.Map"))));
+        assertFalse(ReflectionHelper.isInstanceOf(new ArrayList<>(), "java.util.Map"));
+        assertFalse(ReflectionHelper.isInstanceOf(null, "java.lang.Object"));
+    }
+
+    @Test
+    public void testTryFindClass() {
+        ClassLoader classLoader = ReflectionCacheTest.class.getClassLoader();
+        String className = ReflectionCacheTest.class.getName();
+        assertSame(ReflectionCacheTest.class, ReflectionCache.tryFindClass(classLoader, className));
+
+        String missingName = className + "$Missing";
+        assertNull(ReflectionCache.tryFindClass(classLoader, missingName));
+        assertNull(ReflectionCache.tryFindClass(classLoader, missingName));
+    }
+
+    @Test
+    public void testTryCreateInstance() {
+        Map<Class<?>, Object> args = new HashMap<>();
+        args.put(String.class, "abc");
+
+        Object result = ReflectionHelper.tryCreateInstance(NamedObject.class, args);
+        assertEquals("abc", ((NamedObject)result).name);
+
+        assertNull(ReflectionHelper.tryCreateInstance(NamedObject.class, new HashMap<Class<?>, Object>()));
+    }
+
+    public static final class NamedObject {
+        private final String name;
+
+        public NamedObject(String name) {
+            this.name = name;
+        }
+    }
+}
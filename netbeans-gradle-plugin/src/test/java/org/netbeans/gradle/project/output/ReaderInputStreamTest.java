@@ -194,4 +194,41 @@ public class ReaderInputStreamTest {
         byte[] bytes = readAllBytesWithOffsets(reader, charCount);
         assertEquals(text, new String(bytes, charset));
     }
+
+    @Test(timeout = 30000)
+    public void testThroughputWithSmallReads() throws IOException {
+        // Large enough to make copying the already encoded bytes for each
+        // read unbearably slow.
+        int charCount = 8 * 1024 * 1024;
+        final String chunk = "line of input \u00E1\u00E9\n";
+
+        StringBuilder str = new StringBuilder(charCount + chunk.length());
+        while (str.length() < charCount) {
+            str.append(chunk);
+        }
+        String text = str.toString();
+
+        Charset charset = StringUtils.UTF8;
+        byte[] expected = text.getBytes(charset);
+
+        ReaderInputStream reader = new ReaderInputStream(new StringReader(text), charset);
+        byte[] bytes = readAllBytes(reader, 7);
+        assertArrayEquals(expected, bytes);
+    }
+
+    @Test
+    public void testSingleByteReads() throws IOException {
+        String text = "a\u00E1\u20AC\uD83D\uDE00z";
+        Charset charset = StringUtils.UTF8;
+
+        ReaderInputStream reader = new ReaderInputStream(new StringReader(text), charset);
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        int value;
+        while ((value = reader.read()) >= 0) {
+            result.write(value);
+        }
+
+        assertEquals(text, new String(result.toByteArray(), charset));
+        assertEquals(-1, reader.read());
+    }
 }
@@ -0,0 +1,101 @@
+package org.netbeans.gradle.project.properties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.jtrim.event.EventDispatcher;
+import org.jtrim.event.ListenerRef;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ConfigPathListenerRegistryTest {
+    private static ConfigPath path(String... keys) {
+        return ConfigPath.fromKeys(keys);
+    }
+
+    private static List<ConfigPath> paths(ConfigPath... paths) {
+        return Arrays.asList(paths);
+    }
+
+    private static List<String> getAffected(
+            ConfigPathListenerRegistry<String> registry,
+            ConfigPath... changedPaths) {
+        return registry.getAffectedListeners(paths(changedPaths));
+    }
+
+    @Test
+    public void testNotifiesOnlyIntersectingPaths() {
+        ConfigPathListenerRegistry<String> registry = new ConfigPathListenerRegistry<>();
+        registry.registerListener(paths(ConfigPath.ROOT), "root");
+        registry.registerListener(paths(path("a")), "a");
+        registry.registerListener(paths(path("a", "b")), "a.b");
+        registry.registerListener(paths(path("a", "c")), "a.c");
+        registry.registerListener(paths(path("d")), "d");
+
+        assertEquals(Arrays.asList("root", "a", "a.b"), getAffected(registry, path("a", "b")));
+        assertEquals(Arrays.asList("a", "a.b", "a.c", "root"), sorted(getAffected(registry, path("a"))));
+        assertEquals(Arrays.asList("a", "a.b", "a.c", "d", "root"), sorted(getAffected(registry, ConfigPath.ROOT)));
+        assertEquals(Arrays.asList("root", "d"), getAffected(registry, path("d", "e", "f")));
+        assertEquals(Collections.singletonList("root"), getAffected(registry, path("x")));
+    }
+
+    @Test
+    public void testListenerWithMultiplePathsIsNotifiedOnce() {
+        ConfigPathListenerRegistry<String> registry = new ConfigPathListenerRegistry<>();
+        registry.registerListener(paths(path("a"), path("b")), "listener");
+
+        assertEquals(Collections.singletonList("listener"), getAffected(registry, path("a"), path("b")));
+        assertEquals(Collections.singletonList("listener"), getAffected(registry, path("b", "c")));
+        assertEquals(Collections.<String>emptyList(), getAffected(registry, path("c")));
+    }
+
+    @Test
+    public void testUnregister() {
+        ConfigPathListenerRegistry<String> registry = new ConfigPathListenerRegistry<>();
+        ListenerRef ref1 = registry.registerListener(paths(path("a", "b")), "listener1");
+        ListenerRef ref2 = registry.registerListener(paths(path("a")), "listener2");
+
+        assertTrue(ref1.isRegistered());
+        ref1.unregister();
+        assertFalse(ref1.isRegistered());
+
+        assertEquals(Collections.singletonList("listener2"), getAffected(registry, path("a", "b")));
+
+        ref2.unregister();
+        assertEquals(Collections.<String>emptyList(), getAffected(registry, ConfigPath.ROOT));
+
+        // Unregistering multiple times must be harmless.
+        ref1.unregister();
+        ref2.unregister();
+    }
+
+    @Test
+    public void testOnEventPassesTheChangedPaths() {
+        ConfigPathListenerRegistry<String> registry = new ConfigPathListenerRegistry<>();
+        registry.registerListener(paths(path("a")), "listener");
+
+        final List<Collection<ConfigPath>> received = new ArrayList<>();
+        EventDispatcher<String, Collection<ConfigPath>> dispatcher = new EventDispatcher<String, Collection<ConfigPath>>() {
+            @Override
+            public void onEvent(String eventListener, Collection<ConfigPath> arg) {
+                received.add(arg);
+            }
+        };
+
+        List<ConfigPath> changedPaths = paths(path("a", "b"));
+        registry.onEvent(dispatcher, changedPaths);
+        registry.onEvent(dispatcher, paths(path("b")));
+
+        assertEquals(1, received.size());
+        assertSame(changedPaths, received.get(0));
+    }
+
+    private static List<String> sorted(List<String> list) {
+        List<String> result = new ArrayList<>(list);
+        Collections.sort(result);
+        return result;
+    }
+}
@@ -0,0 +1,167 @@
+package org.netbeans.gradle.project.properties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.netbeans.gradle.project.util.ManualBenchmark;
+
+/**
+ * Compares the cost of updating and reading a config the way
+ * {@code ProfileSettings} did with a mutable {@code ConfigTree.Builder} with
+ * the persistent {@link ConfigTree#withChildTree(ConfigPath, ConfigTree)}.
+ * <P>
+ * The measured workload is a mix of reading subtrees, replacing subtrees and
+ * taking a snapshot of the whole tree (as done when saving a profile).
+ * <P>
+ * See {@link ManualBenchmark} for how to run this benchmark.
+ */
+public final class ConfigTreeBenchmark {
+    private static final int TOP_LEVEL_KEY_COUNT = 20;
+    private static final int CHILD_COUNT = 10;
+    private static final int OPERATION_COUNT = 200_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int UPDATE_VALUE_COUNT = 16;
+
+    private static ConfigTree createTree() {
+        ConfigTree.Builder builder = new ConfigTree.Builder();
+        for (int i = 0; i < TOP_LEVEL_KEY_COUNT; i++) {
+            ConfigTree.Builder group = builder.addChildBuilder("group" + i);
+            for (int j = 0; j < CHILD_COUNT; j++) {
+                ConfigTree.Builder child = group.addChildBuilder("child" + j);
+                child.addChildBuilder("name").setValue("name-" + i + "-" + j);
+                child.addChildBuilder("value").setValue("value-" + i + "-" + j);
+            }
+        }
+        return builder.create();
+    }
+
+    private static List<ConfigPath> createPaths() {
+        List<ConfigPath> result = new ArrayList<>(TOP_LEVEL_KEY_COUNT);
+        for (int i = 0; i < TOP_LEVEL_KEY_COUNT; i++) {
+            result.add(ConfigPath.fromKeys("group" + i, "child" + (i % CHILD_COUNT)));
+        }
+        return result;
+    }
+
+    private static ConfigTree[] createUpdates() {
+        ConfigTree[] result = new ConfigTree[UPDATE_VALUE_COUNT];
+        for (int i = 0; i < result.length; i++) {
+            ConfigTree.Builder builder = new ConfigTree.Builder();
+            builder.addChildBuilder("name").setValue("updated-name-" + i);
+            builder.addChildBuilder("value").setValue("updated-value-" + i);
+            result[i] = builder.create();
+        }
+        return result;
+    }
+
+    private static Operation getOperation(int index) {
+        // Mostly reads (properties reading their values), some updates and
+        // occasional snapshots of the whole tree (saving the profile).
+        int slot = index % 20;
+        if (slot == 0) {
+            return Operation.SNAPSHOT;
+        }
+        return slot <= 5 ? Operation.UPDATE : Operation.READ;
+    }
+
+    private static void setChildTree(ConfigTree.Builder builder, ConfigPath path, ConfigTree content) {
+        int keyCount = path.getKeyCount();
+        ConfigTree.Builder childConfig = builder;
+        for (int i = 0; i < keyCount - 1; i++) {
+            childConfig = childConfig.getChildBuilder(path.getKeyAt(i));
+        }
+        childConfig.setChildTree(path.getKeyAt(keyCount - 1), content);
+    }
+
+    private static ConfigTree readWithBuilder(ConfigTree.Builder builder, ConfigPath path) {
+        ConfigTree.Builder childBuilder = builder.getDeepChildBuilder(path);
+        childBuilder.detachChildTreeBuilders();
+        return childBuilder.create();
+    }
+
+    private static long runBuilder(ConfigTree initial, List<ConfigPath> paths, ConfigTree[] updates) {
+        ConfigTree.Builder config = new ConfigTree.Builder(initial);
+        long checksum = 0;
+
+        int pathCount = paths.size();
+        for (int i = 0; i < OPERATION_COUNT; i++) {
+            ConfigPath path = paths.get(i % pathCount);
+            switch (getOperation(i)) {
+                case SNAPSHOT:
+                    checksum += config.create().getChildTrees().size();
+                    break;
+                case UPDATE:
+                    setChildTree(config, path, updates[i % updates.length]);
+                    break;
+                case READ:
+                    checksum += readWithBuilder(config, path).getChildTrees().size();
+                    break;
+                default:
+                    throw new AssertionError();
+            }
+        }
+        return checksum;
+    }
+
+    private static long runPersistent(ConfigTree initial, List<ConfigPath> paths, ConfigTree[] updates) {
+        ConfigTree config = initial;
+        long checksum = 0;
+
+        int pathCount = paths.size();
+        for (int i = 0; i < OPERATION_COUNT; i++) {
+            ConfigPath path = paths.get(i % pathCount);
+            switch (getOperation(i)) {
+                case SNAPSHOT:
+                    checksum += config.getChildTrees().size();
+                    break;
+                case UPDATE:
+                    config = config.withChildTree(path, updates[i % updates.length]);
+                    break;
+                case READ:
+                    checksum += config.getDeepChildTree(path).getChildTrees().size();
+                    break;
+                default:
+                    throw new AssertionError();
+            }
+        }
+        return checksum;
+    }
+
+    public static void main(String[] args) throws Exception {
+        final ConfigTree initial = createTree();
+        final List<ConfigPath> paths = createPaths();
+        final ConfigTree[] updates = createUpdates();
+
+        ManualBenchmark benchmark = new ManualBenchmark(WARMUP_ROUNDS, MEASURED_ROUNDS);
+        benchmark.addTask("builder", new ManualBenchmark.Task() {
+            @Override
+            public long run() {
+                return runBuilder(initial, paths, updates);
+            }
+        });
+        benchmark.addTask("persistent", new ManualBenchmark.Task() {
+            @Override
+            public long run() {
+                return runPersistent(initial, paths, updates);
+            }
+        });
+
+        ManualBenchmark.Result result = benchmark.run();
+        System.out.println(String.format(Locale.ROOT,
+                "Builder: %.1f ns/op, persistent: %.1f ns/op",
+                result.getNanosPerOperation("builder", OPERATION_COUNT),
+                result.getNanosPerOperation("persistent", OPERATION_COUNT)));
+        System.out.println("Checksum: " + result.getChecksum());
+    }
+
+    private enum Operation {
+        READ,
+        UPDATE,
+        SNAPSHOT
+    }
+
+    private ConfigTreeBenchmark() {
+        throw new AssertionError();
+    }
+}
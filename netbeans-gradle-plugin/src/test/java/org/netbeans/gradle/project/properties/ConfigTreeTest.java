@@ -388,4 +388,113 @@ public class ConfigTreeTest {
 
         verifyNotEquals(builder1.create(), builder2.create());
     }
+
+    private static ConfigTree createSampleTree() {
+        ConfigTree.Builder builder = new ConfigTree.Builder();
+        builder.addChildBuilder("key1").setValue("value1");
+
+        ConfigTree.Builder key2 = builder.addChildBuilder("key2");
+        key2.addChildBuilder("key3").setValue("value3");
+        key2.addChildBuilder("key4").setValue("value4");
+
+        builder.addChildBuilder("key2").setValue("second-key2");
+        return builder.create();
+    }
+
+    private static ConfigTree setChildTreeWithBuilder(ConfigTree tree, ConfigPath path, ConfigTree child) {
+        ConfigTree.Builder builder = new ConfigTree.Builder(tree);
+        int keyCount = path.getKeyCount();
+
+        ConfigTree.Builder parent = builder;
+        for (int i = 0; i < keyCount - 1; i++) {
+            parent = parent.getChildBuilder(path.getKeyAt(i));
+        }
+        parent.setChildTree(path.getKeyAt(keyCount - 1), child);
+        return builder.create();
+    }
+
+    private static void verifyWithChildTree(ConfigTree tree, ConfigPath path, ConfigTree child) {
+        ConfigTree expected = setChildTreeWithBuilder(tree, path, child);
+        ConfigTree updated = tree.withChildTree(path, child);
+
+        assertEquals(expected, updated);
+        assertEquals(child.hasValues() ? child : ConfigTree.EMPTY, updated.getDeepChildTree(path));
+    }
+
+    @Test
+    public void testWithChildTreeRoot() {
+        ConfigTree tree = createSampleTree();
+        ConfigTree child = ConfigTree.singleValue("new-root");
+        assertSame(child, tree.withChildTree(ConfigPath.ROOT, child));
+    }
+
+    @Test
+    public void testWithChildTreeMatchesBuilder() {
+        assumeBasicBuilderWorks();
+
+        ConfigTree tree = createSampleTree();
+        ConfigTree newValue = ConfigTree.singleValue("new-value");
+
+        verifyWithChildTree(tree, ConfigPath.fromKeys("key1"), newValue);
+        verifyWithChildTree(tree, ConfigPath.fromKeys("key2", "key3"), newValue);
+        verifyWithChildTree(tree, ConfigPath.fromKeys("key2", "key5"), newValue);
+        verifyWithChildTree(tree, ConfigPath.fromKeys("new-key1", "new-key2"), newValue);
+        verifyWithChildTree(tree, ConfigPath.fromKeys("key2"), tree);
+    }
+
+    @Test
+    public void testWithChildTreeRemovesEmptyNodes() {
+        assumeBasicBuilderWorks();
+
+        ConfigTree tree = createSampleTree();
+
+        verifyWithChildTree(tree, ConfigPath.fromKeys("key1"), ConfigTree.EMPTY);
+        verifyWithChildTree(tree, ConfigPath.fromKeys("key2", "key3"), ConfigTree.EMPTY);
+
+        ConfigTree updated = tree
+                .withChildTree(ConfigPath.fromKeys("key2", "key3"), ConfigTree.EMPTY)
+                .withChildTree(ConfigPath.fromKeys("key2", "key4"), ConfigTree.EMPTY);
+
+        // The first "key2" has become empty, so only the second one remains.
+        List<ConfigTree> key2List = updated.getChildTrees("key2");
+        assertEquals(1, key2List.size());
+        assertEquals("second-key2", key2List.get(0).getValue(null));
+
+        assertSame(tree, tree.withChildTree(ConfigPath.fromKeys("missing1", "missing2"), ConfigTree.EMPTY));
+    }
+
+    @Test
+    public void testWithChildTreeSharesUntouchedSubtrees() {
+        assumeBasicBuilderWorks();
+
+        ConfigTree tree = createSampleTree();
+        ConfigTree updated = tree.withChildTree(ConfigPath.fromKeys("key2", "key3"), ConfigTree.singleValue("x"));
+
+        assertSame(tree.getChildTree("key1"), updated.getChildTree("key1"));
+        assertSame(tree.getDeepChildTree("key2", "key4"), updated.getDeepChildTree("key2", "key4"));
+        assertSame(tree.getChildTrees("key2").get(1), updated.getChildTrees("key2").get(1));
+
+        ConfigTree key3 = tree.getDeepChildTree("key2", "key3");
+        assertSame(tree, tree.withChildTree(ConfigPath.fromKeys("key2", "key3"), key3));
+    }
+
+    @Test
+    public void testEqualsAfterWithChildTree() {
+        assumeBasicBuilderWorks();
+
+        ConfigTree tree = createSampleTree();
+        ConfigPath path = ConfigPath.fromKeys("key2", "key3");
+
+        ConfigTree updated1 = tree.withChildTree(path, ConfigTree.singleValue("x"));
+        ConfigTree updated2 = tree.withChildTree(path, ConfigTree.singleValue("x"));
+        ConfigTree updated3 = tree.withChildTree(path, ConfigTree.singleValue("y"));
+
+        // Force the hashes to be cached.
+        updated1.hashCode();
+        updated2.hashCode();
+        updated3.hashCode();
+
+        verifyEquals(updated1, updated2);
+        verifyNotEquals(updated1, updated3);
+    }
 }
@@ -1,9 +1,12 @@
 package org.netbeans.gradle.project.properties;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -127,6 +130,25 @@ public class ConfigXmlUtilsTest {
         assertEquals(getExpectedSettings1Content(), parsedTree);
     }
 
+    private static ConfigXmlUtils.ParsedConfigXml parseSettings1Streaming() throws Exception {
+        try (InputStream input = TestResourceUtils.openResource("settings1.xml")) {
+            return ConfigXmlUtils.parseXml(input, ConfigXmlUtils.AUXILIARY_NODE_NAME);
+        }
+    }
+
+    @Test
+    public void testSettings1Streaming() throws Exception {
+        ConfigXmlUtils.ParsedConfigXml parsedXml = parseSettings1Streaming();
+        assertEquals(getExpectedSettings1Content(), parsedXml.getConfig().create());
+
+        List<Element> auxElements = parsedXml.getAuxiliaryElements();
+        assertEquals(4, auxElements.size());
+
+        Element lfKind = auxElements.get(1);
+        assertEquals("com-junichi11-netbeans-changelf.lf-kind", lfKind.getNodeName());
+        assertEquals("LF", lfKind.getTextContent());
+    }
+
     private String saveXmlToString(Document document) throws Exception {
         StringWriter output = new StringWriter(8 * 1024);
         Result result = new StreamResult(output);
@@ -182,6 +204,84 @@ public class ConfigXmlUtilsTest {
         }
     }
 
+    private static Element[] getSettings1AuxElements() throws Exception {
+        return new Element[]{
+            xmlElement("com-junichi11-netbeans-changelf.lf-kind", "LF"),
+            xmlElement("com-junichi11-netbeans-changelf.enable", "true"),
+            xmlElement("com-junichi11-netbeans-changelf.use-global", "true"),
+            xmlElement("com-junichi11-netbeans-changelf.use-project", "false")
+        };
+    }
+
+    private static String saveXmlStreamingToString(ConfigTree tree, Element... auxElements) throws Exception {
+        StringWriter output = new StringWriter(8 * 1024);
+        ConfigXmlUtils.saveXmlTo(tree, Arrays.asList(auxElements), output, "\n");
+        return output.toString();
+    }
+
+    @Test
+    public void testStreamingSaveDoesNotChangeASingleCharacterTaskArgsHaveValues() throws Exception {
+        testStreamingSaveDoesNotChangeASingleCharacter(true);
+    }
+
+    @Test
+    public void testStreamingSaveDoesNotChangeASingleCharacterTaskArgsHaveNoValues() throws Exception {
+        testStreamingSaveDoesNotChangeASingleCharacter(false);
+    }
+
+    private void testStreamingSaveDoesNotChangeASingleCharacter(boolean setValueOfArgs) throws Exception {
+        ConfigTree settings1Tree = getExpectedSettings1ContentBuilder(setValueOfArgs).create();
+
+        String[] builtLines = splitLines(saveXmlStreamingToString(settings1Tree, getSettings1AuxElements()));
+        String[] expectedLines = readSettings1Lines();
+
+        assertArrayEquals("settings1", expectedLines, builtLines);
+    }
+
+    @Test
+    public void testStreamingSaveMatchesDomSaveWithSpecialCharacters() throws Exception {
+        ConfigTree.Builder treeBuilder = new ConfigTree.Builder();
+        treeBuilder.addChildBuilder("text").setValue("a < b && c > \"d\"\tline1\nline2");
+
+        ConfigTree.Builder withAttrs = treeBuilder.addChildBuilder("with-attrs");
+        withAttrs.setValue("value\n<>");
+        withAttrs.addChildBuilder("#attr-zz").setValue("last");
+        withAttrs.addChildBuilder("#attr-a b").setValue("\"quoted\"\tand\nnewline");
+        withAttrs.addChildBuilder("child").setValue("x");
+
+        treeBuilder.addChildBuilder("no-value").setValue(null);
+        treeBuilder.addChildBuilder("_escaped:name").setValue("1");
+
+        ConfigTree tree = treeBuilder.create();
+
+        Element auxElement = newDocumentBuilder().newDocument().createElement("aux-parent");
+        Element auxChild = auxElement.getOwnerDocument().createElement("aux-child");
+        auxChild.setAttribute("attr", "1 & 2");
+        auxChild.setTextContent("<text>");
+        auxElement.appendChild(auxChild);
+
+        Document builtXml = ConfigXmlUtils.createXml(tree);
+        ConfigXmlUtils.addAuxiliary(builtXml, auxElement);
+
+        String[] expectedLines = splitLines(saveXmlToString(builtXml));
+        String[] builtLines = splitLines(saveXmlStreamingToString(tree, auxElement));
+        assertArrayEquals(expectedLines, builtLines);
+    }
+
+    @Test
+    public void testStreamingSaveAndParse() throws Exception {
+        ConfigTree settings1 = getExpectedSettings1Content();
+
+        String xml = saveXmlStreamingToString(settings1, getSettings1AuxElements());
+        ConfigXmlUtils.ParsedConfigXml parsedXml;
+        try (InputStream input = new ByteArrayInputStream(xml.getBytes("UTF-8"))) {
+            parsedXml = ConfigXmlUtils.parseXml(input, ConfigXmlUtils.AUXILIARY_NODE_NAME);
+        }
+
+        assertEquals(settings1, parsedXml.getConfig().create());
+        assertEquals(4, parsedXml.getAuxiliaryElements().size());
+    }
+
     @Test
     public void testSaveAndParseForSettings1() throws Exception {
         ConfigTree settings1 = getExpectedSettings1Content();
@@ -0,0 +1,153 @@
+package org.netbeans.gradle.project.query;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jtrim.cancel.Cancellation;
+import org.junit.Test;
+import org.netbeans.gradle.project.event.GenericChangeListenerManager;
+import org.netbeans.gradle.project.util.NbFileUtils;
+
+import static org.junit.Assert.*;
+
+public class GradleCacheIndexTest {
+    // Old enough so that the index trusts the last modified time.
+    private static final long OLD_TIME_MS = 1000000000000L;
+
+    private static Path createTempDir() throws IOException {
+        return Files.createTempDirectory("nb-gradle-cache-index-test");
+    }
+
+    private static File createFile(File versionDir, String hash, String name) throws IOException {
+        File hashDir = new File(versionDir, hash);
+        Files.createDirectories(hashDir.toPath());
+        return Files.createFile(hashDir.toPath().resolve(name)).toFile();
+    }
+
+    private static void setLastModified(File dir, long time) throws IOException {
+        if (!dir.setLastModified(time)) {
+            throw new IOException("Failed to set the last modified time of " + dir);
+        }
+    }
+
+    private static GradleCacheIndex createIndex(final AtomicInteger changeCount) {
+        GenericChangeListenerManager changeListeners = new GenericChangeListenerManager();
+        changeListeners.registerListener(new Runnable() {
+            @Override
+            public void run() {
+                changeCount.incrementAndGet();
+            }
+        });
+        return new GradleCacheIndex(changeListeners);
+    }
+
+    @Test
+    public void testLookup() throws IOException {
+        Path tmpDir = createTempDir();
+        try {
+            File versionDir = new File(tmpDir.toFile(), "1.0");
+            File binary = createFile(versionDir, "hash1", "lib-1.0.jar");
+            File sources = createFile(versionDir, "hash2", "lib-1.0-sources.jar");
+            setLastModified(versionDir, OLD_TIME_MS);
+
+            AtomicInteger changeCount = new AtomicInteger(0);
+            GradleCacheIndex index = createIndex(changeCount);
+
+            assertEquals(binary, index.tryGetFile(versionDir, "lib-1.0.jar"));
+            assertEquals(sources, index.tryGetFile(versionDir, "lib-1.0-sources.jar"));
+            assertNull(index.tryGetFile(versionDir, "lib-1.0-javadoc.jar"));
+            assertNull(index.tryGetFile(new File(tmpDir.toFile(), "missing"), "lib-1.0.jar"));
+            assertEquals(0, changeCount.get());
+        } finally {
+            NbFileUtils.deleteDirectory(Cancellation.UNCANCELABLE_TOKEN, tmpDir);
+        }
+    }
+
+    @Test
+    public void testUnmodifiedDirIsNotListedAgain() throws IOException {
+        Path tmpDir = createTempDir();
+        try {
+            File versionDir = new File(tmpDir.toFile(), "1.0");
+            createFile(versionDir, "hash1", "lib-1.0.jar");
+            setLastModified(versionDir, OLD_TIME_MS);
+
+            AtomicInteger changeCount = new AtomicInteger(0);
+            GradleCacheIndex index = createIndex(changeCount);
+            assertNull(index.tryGetFile(versionDir, "lib-1.0-sources.jar"));
+
+            // Restoring the time hides the change from the index, so the
+            // cached entries must be used.
+            createFile(versionDir, "hash2", "lib-1.0-sources.jar");
+            setLastModified(versionDir, OLD_TIME_MS);
+
+            assertNull(index.tryGetFile(versionDir, "lib-1.0-sources.jar"));
+            assertEquals(0, changeCount.get());
+        } finally {
+            NbFileUtils.deleteDirectory(Cancellation.UNCANCELABLE_TOKEN, tmpDir);
+        }
+    }
+
+    @Test
+    public void testModifiedDirIsListedAgain() throws IOException {
+        Path tmpDir = createTempDir();
+        try {
+            File versionDir = new File(tmpDir.toFile(), "1.0");
+            File binary = createFile(versionDir, "hash1", "lib-1.0.jar");
+            setLastModified(versionDir, OLD_TIME_MS);
+
+            AtomicInteger changeCount = new AtomicInteger(0);
+            GradleCacheIndex index = createIndex(changeCount);
+            assertNull(index.tryGetFile(versionDir, "lib-1.0-sources.jar"));
+
+            File sources = createFile(versionDir, "hash2", "lib-1.0-sources.jar");
+            setLastModified(versionDir, OLD_TIME_MS + 1000);
+
+            assertEquals(sources, index.tryGetFile(versionDir, "lib-1.0-sources.jar"));
+            assertEquals(1, changeCount.get());
+
+            NbFileUtils.deleteDirectory(Cancellation.UNCANCELABLE_TOKEN, binary.getParentFile().toPath());
+            setLastModified(versionDir, OLD_TIME_MS + 2000);
+
+            assertNull(index.tryGetFile(versionDir, "lib-1.0.jar"));
+            assertEquals(2, changeCount.get());
+        } finally {
+            NbFileUtils.deleteDirectory(Cancellation.UNCANCELABLE_TOKEN, tmpDir);
+        }
+    }
+
+    @Test
+    public void testRecentlyModifiedDirIsListedAgain() throws IOException {
+        Path tmpDir = createTempDir();
+        try {
+            File versionDir = new File(tmpDir.toFile(), "1.0");
+            createFile(versionDir, "hash1", "lib-1.0.jar");
+            long time = System.currentTimeMillis();
+            setLastModified(versionDir, time);
+
+            AtomicInteger changeCount = new AtomicInteger(0);
+            GradleCacheIndex index = createIndex(changeCount);
+            assertNull(index.tryGetFile(versionDir, "lib-1.0-sources.jar"));
+
+            // The last modified time is unchanged but it is too recent to be
+            // trusted.
+            File sources = createFile(versionDir, "hash2", "lib-1.0-sources.jar");
+            setLastModified(versionDir, time);
+
+            assertEquals(sources, index.tryGetFile(versionDir, "lib-1.0-sources.jar"));
+            assertEquals(1, changeCount.get());
+        } finally {
+            NbFileUtils.deleteDirectory(Cancellation.UNCANCELABLE_TOKEN, tmpDir);
+        }
+    }
+
+    @Test
+    public void testNotifyCacheChange() {
+        AtomicInteger changeCount = new AtomicInteger(0);
+        GradleCacheIndex index = createIndex(changeCount);
+
+        index.notifyCacheChange();
+        assertEquals(1, changeCount.get());
+    }
+}
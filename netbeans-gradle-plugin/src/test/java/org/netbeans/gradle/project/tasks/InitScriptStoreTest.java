@@ -0,0 +1,182 @@
+package org.netbeans.gradle.project.tasks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.netbeans.gradle.model.util.TemporaryFileRef;
+
+import static org.junit.Assert.*;
+
+public class InitScriptStoreTest {
+    private static Path createStoreDir() throws IOException {
+        return Files.createTempDirectory("nb-init-script-store-test");
+    }
+
+    private static void deleteStoreDir(InitScriptStore store, Path storeDir) throws IOException {
+        store.deleteAll();
+        Files.deleteIfExists(storeDir);
+    }
+
+    private static String readFile(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), "UTF-8");
+    }
+
+    @Test
+    public void testSameScriptIsWrittenOnce() throws IOException {
+        Path storeDir = createStoreDir();
+        InitScriptStore store = new InitScriptStore(storeDir.toFile(), 10);
+        try {
+            String script = "println 'testSameScriptIsWrittenOnce'";
+
+            File firstFile;
+            try (TemporaryFileRef ref = store.acquire(script)) {
+                firstFile = ref.getFile();
+                assertEquals(script, readFile(firstFile));
+            }
+
+            for (int i = 0; i < 10; i++) {
+                try (TemporaryFileRef ref = store.acquire(new String(script))) {
+                    assertEquals(firstFile, ref.getFile());
+                }
+            }
+
+            assertEquals(1, store.getWriteCount());
+            assertTrue("The file must be kept for later builds.", firstFile.isFile());
+        } finally {
+            deleteStoreDir(store, storeDir);
+        }
+    }
+
+    @Test
+    public void testDifferentScriptsUseDifferentFiles() throws IOException {
+        Path storeDir = createStoreDir();
+        InitScriptStore store = new InitScriptStore(storeDir.toFile(), 10);
+        try (TemporaryFileRef ref1 = store.acquire("println 'script1'");
+                TemporaryFileRef ref2 = store.acquire("println 'script2'")) {
+            assertNotEquals(ref1.getFile(), ref2.getFile());
+            assertEquals("println 'script1'", readFile(ref1.getFile()));
+            assertEquals("println 'script2'", readFile(ref2.getFile()));
+            assertEquals(2, store.getWriteCount());
+        } finally {
+            deleteStoreDir(store, storeDir);
+        }
+    }
+
+    @Test
+    public void testUnusedScriptsAreDeletedAboveLimit() throws IOException {
+        Path storeDir = createStoreDir();
+        InitScriptStore store = new InitScriptStore(storeDir.toFile(), 1);
+        try {
+            TemporaryFileRef usedRef = store.acquire("println 'used'");
+            File usedFile = usedRef.getFile();
+
+            File unusedFile;
+            try (TemporaryFileRef ref = store.acquire("println 'unused'")) {
+                unusedFile = ref.getFile();
+            }
+
+            assertTrue("A used script must not be deleted.", usedFile.isFile());
+            assertFalse("An unused script must be deleted above the limit.", unusedFile.exists());
+            assertEquals(1, store.getStoredScriptCount());
+
+            usedRef.close();
+            assertTrue("Scripts within the limit are kept.", usedFile.isFile());
+        } finally {
+            deleteStoreDir(store, storeDir);
+        }
+    }
+
+    @Test
+    public void testDeletedFileIsRewritten() throws IOException {
+        Path storeDir = createStoreDir();
+        InitScriptStore store = new InitScriptStore(storeDir.toFile(), 10);
+        try {
+            String script = "println 'testDeletedFileIsRewritten'";
+            File file;
+            try (TemporaryFileRef ref = store.acquire(script)) {
+                file = ref.getFile();
+            }
+
+            assertTrue(file.delete());
+
+            try (TemporaryFileRef ref = store.acquire(script)) {
+                assertEquals(script, readFile(ref.getFile()));
+            }
+            assertEquals(2, store.getWriteCount());
+        } finally {
+            deleteStoreDir(store, storeDir);
+        }
+    }
+
+    @Test
+    public void testDeleteAll() throws IOException {
+        Path storeDir = createStoreDir();
+        InitScriptStore store = new InitScriptStore(storeDir.toFile(), 10);
+        try {
+            File file;
+            try (TemporaryFileRef ref = store.acquire("println 'testDeleteAll'")) {
+                file = ref.getFile();
+            }
+
+            store.deleteAll();
+            assertFalse(file.exists());
+            assertEquals(0, store.getStoredScriptCount());
+        } finally {
+            deleteStoreDir(store, storeDir);
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testConcurrentAcquire() throws Exception {
+        final int threadCount = 8;
+        final int acquirePerThread = 1000;
+        final String script = "println 'testConcurrentAcquire'";
+
+        Path storeDir = createStoreDir();
+        final InitScriptStore store = new InitScriptStore(storeDir.toFile(), 10);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            final CountDownLatch startSignal = new CountDownLatch(1);
+            List<Future<File>> results = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                results.add(executor.submit(new Callable<File>() {
+                    @Override
+                    public File call() throws Exception {
+                        startSignal.await();
+                        File lastFile = null;
+                        for (int j = 0; j < acquirePerThread; j++) {
+                            try (TemporaryFileRef ref = store.acquire(script)) {
+                                lastFile = ref.getFile();
+                            }
+                        }
+                        return lastFile;
+                    }
+                }));
+            }
+            startSignal.countDown();
+
+            List<File> files = new ArrayList<>();
+            for (Future<File> result: results) {
+                files.add(result.get());
+            }
+
+            assertEquals(Collections.nCopies(threadCount, files.get(0)), files);
+            assertEquals(1, store.getWriteCount());
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+            deleteStoreDir(store, storeDir);
+        }
+    }
+}
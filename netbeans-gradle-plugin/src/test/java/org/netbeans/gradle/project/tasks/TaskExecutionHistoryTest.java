@@ -0,0 +1,84 @@
+package org.netbeans.gradle.project.tasks;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TaskExecutionHistoryTest {
+    private static TaskExecutionRecord record(String commandName, long... phaseMillis) {
+        Map<TaskExecutionPhase, Long> phaseNanos = new EnumMap<>(TaskExecutionPhase.class);
+        TaskExecutionPhase[] phases = TaskExecutionPhase.values();
+        for (int i = 0; i < phaseMillis.length; i++) {
+            phaseNanos.put(phases[i], TimeUnit.MILLISECONDS.toNanos(phaseMillis[i]));
+        }
+        return new TaskExecutionRecord(0, "project", commandName, TaskExecutionRecord.Outcome.SUCCESS, phaseNanos);
+    }
+
+    private static String getCommandNames(List<TaskExecutionRecord> records) {
+        StringBuilder result = new StringBuilder();
+        for (TaskExecutionRecord record: records) {
+            result.append(record.getCommandName());
+        }
+        return result.toString();
+    }
+
+    @Test
+    public void testOldestRecordsAreDropped() {
+        TaskExecutionHistory history = new TaskExecutionHistory(3);
+        for (String name: Arrays.asList("a", "b", "c", "d", "e")) {
+            history.addRecord(record(name));
+        }
+
+        assertEquals("cde", getCommandNames(history.getRecords()));
+
+        history.clear();
+        assertEquals(Collections.emptyList(), history.getRecords());
+    }
+
+    @Test
+    public void testRecordTotal() {
+        TaskExecutionRecord record = record("build", 1, 2, 3, 4);
+        assertEquals(1, record.getPhaseMillis(TaskExecutionPhase.QUEUE));
+        assertEquals(4, record.getPhaseMillis(TaskExecutionPhase.OUTPUT));
+        assertEquals(10, record.getTotalMillis());
+
+        assertEquals(0, record("clean").getPhaseNanos(TaskExecutionPhase.BUILD));
+    }
+
+    @Test
+    public void testTimerSumsRepeatedPhases() throws InterruptedException {
+        TaskExecutionTimer timer = new TaskExecutionTimer();
+        Thread.sleep(5);
+        timer.endPhase(TaskExecutionPhase.CONNECTION);
+        timer.endPhase(TaskExecutionPhase.BUILD);
+        Thread.sleep(5);
+        timer.endPhase(TaskExecutionPhase.CONNECTION);
+
+        TaskExecutionRecord record = timer.toRecord("project", "build", TaskExecutionRecord.Outcome.FAILURE);
+        assertTrue(record.getPhaseMillis(TaskExecutionPhase.CONNECTION) >= 10);
+        assertEquals(0, record.getPhaseNanos(TaskExecutionPhase.QUEUE));
+        assertEquals(TaskExecutionRecord.Outcome.FAILURE, record.getOutcome());
+    }
+
+    @Test
+    public void testWriteCsv() throws IOException {
+        StringWriter output = new StringWriter();
+        TaskExecutionHistory.writeCsv(Arrays.asList(
+                record("build", 1, 2, 3, 4),
+                record("test --tests \"a,b\"", 5)), output);
+
+        String[] lines = output.toString().split("\r\n");
+        assertEquals(3, lines.length);
+        assertEquals("start,project,command,outcome,queue_ms,connection_ms,build_ms,output_ms,total_ms", lines[0]);
+        assertTrue(lines[1], lines[1].endsWith(",project,build,SUCCESS,1,2,3,4,10"));
+        assertTrue(lines[2], lines[2].endsWith(",project,\"test --tests \"\"a,b\"\"\",SUCCESS,5,0,0,0,5"));
+    }
+}
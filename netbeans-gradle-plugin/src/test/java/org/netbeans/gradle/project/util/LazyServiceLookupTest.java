@@ -0,0 +1,119 @@
+package org.netbeans.gradle.project.util;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.openide.util.Lookup;
+
+import static org.junit.Assert.*;
+
+public class LazyServiceLookupTest {
+    private static NbSupplier<TestService1> service1Factory(final AtomicInteger createCount) {
+        return new NbSupplier<TestService1>() {
+            @Override
+            public TestService1 get() {
+                createCount.incrementAndGet();
+                return new TestService1();
+            }
+        };
+    }
+
+    private static NbSupplier<TestService2> service2Factory(final AtomicInteger createCount) {
+        return new NbSupplier<TestService2>() {
+            @Override
+            public TestService2 get() {
+                createCount.incrementAndGet();
+                return new TestService2();
+            }
+        };
+    }
+
+    @Test
+    public void testOnlyRequestedTypeIsCreated() {
+        AtomicInteger createCount1 = new AtomicInteger(0);
+        AtomicInteger createCount2 = new AtomicInteger(0);
+
+        LazyServiceLookup builder = new LazyServiceLookup(new CountingListener());
+        builder.addLazy(TestService1.class, service1Factory(createCount1));
+        builder.addLazy(TestService2.class, service2Factory(createCount2));
+        Lookup lookup = builder.create();
+
+        assertEquals(0, createCount1.get());
+        assertEquals(0, createCount2.get());
+
+        assertNotNull(lookup.lookup(TestService2.class));
+        assertEquals(0, createCount1.get());
+        assertEquals(1, createCount2.get());
+        assertEquals(1, builder.getMaterializedCount());
+    }
+
+    @Test
+    public void testLookupBySuperType() {
+        AtomicInteger createCount1 = new AtomicInteger(0);
+        AtomicInteger createCount2 = new AtomicInteger(0);
+
+        LazyServiceLookup builder = new LazyServiceLookup(new CountingListener());
+        builder.addLazy(TestService1.class, service1Factory(createCount1));
+        builder.addLazy(TestService2.class, service2Factory(createCount2));
+        Lookup lookup = builder.create();
+
+        Collection<? extends Runnable> runnables = lookup.lookupAll(Runnable.class);
+        assertEquals(1, runnables.size());
+        assertTrue(runnables.iterator().next() instanceof TestService1);
+        assertEquals(1, createCount1.get());
+        assertEquals(0, createCount2.get());
+    }
+
+    @Test
+    public void testSupplierAndLookupShareInstance() {
+        AtomicInteger createCount = new AtomicInteger(0);
+        CountingListener listener = new CountingListener();
+
+        LazyServiceLookup builder = new LazyServiceLookup(listener);
+        NbSupplier<TestService1> supplier = builder.addLazy(TestService1.class, service1Factory(createCount));
+        Lookup lookup = builder.create();
+
+        TestService1 service = supplier.get();
+        assertSame(service, lookup.lookup(TestService1.class));
+        assertSame(service, supplier.get());
+        assertEquals(1, createCount.get());
+
+        assertEquals(1, listener.callCount.get());
+        assertEquals(1, listener.lastMaterializedCount);
+        assertEquals(1, listener.lastServiceCount);
+    }
+
+    @Test
+    public void testInstance() {
+        Object instance = new Object();
+
+        LazyServiceLookup builder = new LazyServiceLookup(new CountingListener());
+        builder.addInstance(instance);
+        Lookup lookup = builder.create();
+
+        assertSame(instance, lookup.lookup(Object.class));
+        assertEquals(0, builder.getLazyServiceCount());
+    }
+
+    private static final class CountingListener implements LazyServiceLookup.MaterializationListener {
+        private final AtomicInteger callCount = new AtomicInteger(0);
+        private volatile int lastMaterializedCount;
+        private volatile int lastServiceCount;
+
+        @Override
+        public void onMaterialized(int materializedCount, int lazyServiceCount) {
+            callCount.incrementAndGet();
+            lastMaterializedCount = materializedCount;
+            lastServiceCount = lazyServiceCount;
+        }
+    }
+
+    public static final class TestService1 implements Runnable {
+        @Override
+        public void run() {
+        }
+    }
+
+    public static final class TestService2 {
+    }
+}
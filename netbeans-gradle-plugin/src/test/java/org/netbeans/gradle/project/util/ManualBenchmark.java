@@ -0,0 +1,183 @@
+package org.netbeans.gradle.project.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.jtrim.utils.ExceptionHelper;
+
+/**
+ * Defines a simple harness for the benchmarks of the test sources. These
+ * benchmarks are not unit tests, they have to be run manually (through their
+ * {@code main} method) and they only print the measured times.
+ * <P>
+ * A benchmark consists of named tasks. Every round runs each task once in the
+ * order they were added, so that the compared tasks are measured under
+ * similar conditions. The first {@code warmupRounds} rounds are not measured
+ * (they allow the JIT to compile the measured code), the result is the
+ * average of the remaining {@code measuredRounds} rounds.
+ * <P>
+ * Instances of this class are not safe to be used by multiple threads
+ * concurrently.
+ */
+public final class ManualBenchmark {
+    /**
+     * Defines a single measured task of a benchmark.
+     */
+    public interface Task {
+        /**
+         * Runs the measured code once and returns a value derived from its
+         * result. The returned value is accumulated into a checksum, which
+         * prevents the JIT from eliminating the measured code.
+         *
+         * @return a value derived from the result of the measured code
+         *
+         * @throws Exception thrown if the measured code fails. Failing
+         *   stops the benchmark.
+         */
+        public long run() throws Exception;
+    }
+
+    private final int warmupRounds;
+    private final int measuredRounds;
+    private final List<String> names;
+    private final List<Task> tasks;
+
+    private volatile long checksum;
+
+    public ManualBenchmark(int warmupRounds, int measuredRounds) {
+        if (warmupRounds < 0) {
+            throw new IllegalArgumentException("Illegal warmup round count: " + warmupRounds);
+        }
+        if (measuredRounds <= 0) {
+            throw new IllegalArgumentException("Illegal measured round count: " + measuredRounds);
+        }
+
+        this.warmupRounds = warmupRounds;
+        this.measuredRounds = measuredRounds;
+        this.names = new ArrayList<>();
+        this.tasks = new ArrayList<>();
+        this.checksum = 0;
+    }
+
+    /**
+     * Adds a task to be measured in every round after the previously added
+     * tasks.
+     *
+     * @param name the name of the task identifying it in the result. This
+     *   argument cannot be {@code null}.
+     * @param task the task to be measured. This argument cannot be
+     *   {@code null}.
+     */
+    public void addTask(String name, Task task) {
+        ExceptionHelper.checkNotNullArgument(name, "name");
+        ExceptionHelper.checkNotNullArgument(task, "task");
+
+        names.add(name);
+        tasks.add(task);
+    }
+
+    private long runTask(Task task) throws Exception {
+        long startTime = System.nanoTime();
+        long result = task.run();
+        long elapsed = System.nanoTime() - startTime;
+
+        checksum += result;
+        return elapsed;
+    }
+
+    /**
+     * Runs the warmup and the measured rounds and returns the average
+     * time of each task.
+     *
+     * @return the average time of each task. This method never returns
+     *   {@code null}.
+     *
+     * @throws Exception thrown if any of the tasks fails
+     */
+    public Result run() throws Exception {
+        for (int round = 0; round < warmupRounds; round++) {
+            for (Task task: tasks) {
+                runTask(task);
+            }
+        }
+
+        long[] totalNanos = new long[tasks.size()];
+        for (int round = 0; round < measuredRounds; round++) {
+            for (int i = 0; i < totalNanos.length; i++) {
+                totalNanos[i] += runTask(tasks.get(i));
+            }
+        }
+
+        double[] averageNanos = new double[totalNanos.length];
+        for (int i = 0; i < averageNanos.length; i++) {
+            averageNanos[i] = totalNanos[i] / (double)measuredRounds;
+        }
+        return new Result(names, averageNanos, checksum);
+    }
+
+    /**
+     * Defines the average times of the tasks of a {@code ManualBenchmark}.
+     */
+    public static final class Result {
+        private final List<String> names;
+        private final double[] averageNanos;
+        private final long checksum;
+
+        private Result(List<String> names, double[] averageNanos, long checksum) {
+            this.names = new ArrayList<>(names);
+            this.averageNanos = averageNanos;
+            this.checksum = checksum;
+        }
+
+        private double getAverageNanos(String name) {
+            int index = names.indexOf(name);
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown task: " + name);
+            }
+            return averageNanos[index];
+        }
+
+        /**
+         * Returns the average time of a single round of the given task in
+         * milliseconds.
+         *
+         * @param name the name of the task as passed to
+         *   {@link ManualBenchmark#addTask(String, Task) addTask}. This
+         *   argument cannot be {@code null}.
+         * @return the average time of a single round of the given task in
+         *   milliseconds
+         */
+        public double getMillisPerRound(String name) {
+            return getAverageNanos(name) / 1_000_000.0;
+        }
+
+        /**
+         * Returns the average time of a single operation of the given task
+         * in nanoseconds, assuming that each run of the task executes the
+         * given number of operations.
+         *
+         * @param name the name of the task as passed to
+         *   {@link ManualBenchmark#addTask(String, Task) addTask}. This
+         *   argument cannot be {@code null}.
+         * @param operationCount the number of operations executed by a single
+         *   run of the task. This argument must be greater than zero.
+         * @return the average time of a single operation of the given task
+         *   in nanoseconds
+         */
+        public double getNanosPerOperation(String name, int operationCount) {
+            if (operationCount <= 0) {
+                throw new IllegalArgumentException("Illegal operation count: " + operationCount);
+            }
+            return getAverageNanos(name) / operationCount;
+        }
+
+        /**
+         * Returns the accumulated results of the tasks. The checksum should
+         * be printed, so that the JIT cannot eliminate the measured code.
+         *
+         * @return the accumulated results of the tasks
+         */
+        public long getChecksum() {
+            return checksum;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.netbeans.gradle.project.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.jtrim.concurrent.UpdateTaskExecutor;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class NodeKeysSnapshotTest {
+    private static NbSupplier<List<String>> keysOf(final AtomicReference<List<String>> keysRef, final AtomicInteger callCount) {
+        return new NbSupplier<List<String>>() {
+            @Override
+            public List<String> get() {
+                callCount.incrementAndGet();
+                // New instances, so that we can check that the old ones are kept.
+                List<String> result = new ArrayList<>();
+                for (String key: keysRef.get()) {
+                    result.add(new String(key));
+                }
+                return result;
+            }
+        };
+    }
+
+    private static Runnable counter(final AtomicInteger count) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                count.incrementAndGet();
+            }
+        };
+    }
+
+    @Test
+    public void testNothingIsComputedBeforeFirstRequest() {
+        AtomicReference<List<String>> keysRef = new AtomicReference<>(Arrays.asList("a", "b"));
+        AtomicInteger callCount = new AtomicInteger(0);
+        ManualUpdateExecutor executor = new ManualUpdateExecutor();
+
+        NodeKeysSnapshot<String> keys = new NodeKeysSnapshot<>(executor, keysOf(keysRef, callCount), counter(new AtomicInteger(0)));
+        keys.invalidate();
+        executor.runAll();
+        assertEquals(0, callCount.get());
+
+        assertEquals(Arrays.asList("a", "b"), keys.getKeys());
+        assertEquals(Arrays.asList("a", "b"), keys.getKeys());
+        assertEquals(1, callCount.get());
+    }
+
+    @Test
+    public void testInvalidateComputesInBackground() {
+        AtomicReference<List<String>> keysRef = new AtomicReference<>(Arrays.asList("a", "b"));
+        AtomicInteger callCount = new AtomicInteger(0);
+        AtomicInteger changeCount = new AtomicInteger(0);
+        ManualUpdateExecutor executor = new ManualUpdateExecutor();
+
+        NodeKeysSnapshot<String> keys = new NodeKeysSnapshot<>(executor, keysOf(keysRef, callCount), counter(changeCount));
+        List<String> keys1 = keys.getKeys();
+
+        keysRef.set(Arrays.asList("a", "c"));
+        keys.invalidate();
+        assertSame(keys1, keys.getKeys());
+
+        executor.runAll();
+        List<String> keys2 = keys.getKeys();
+        assertEquals(Arrays.asList("a", "c"), keys2);
+        assertSame(keys1.get(0), keys2.get(0));
+        assertEquals(1, changeCount.get());
+        assertEquals(2, callCount.get());
+    }
+
+    @Test
+    public void testUnchangedKeysDoNotNotify() {
+        AtomicReference<List<String>> keysRef = new AtomicReference<>(Arrays.asList("a", "b"));
+        AtomicInteger changeCount = new AtomicInteger(0);
+        ManualUpdateExecutor executor = new ManualUpdateExecutor();
+
+        NodeKeysSnapshot<String> keys = new NodeKeysSnapshot<>(executor, keysOf(keysRef, new AtomicInteger(0)), counter(changeCount));
+        keys.getKeys();
+
+        keys.invalidate();
+        executor.runAll();
+        assertEquals(0, changeCount.get());
+    }
+
+    @Test
+    public void testClear() {
+        AtomicReference<List<String>> keysRef = new AtomicReference<>(Arrays.asList("a"));
+        AtomicInteger callCount = new AtomicInteger(0);
+        ManualUpdateExecutor executor = new ManualUpdateExecutor();
+
+        NodeKeysSnapshot<String> keys = new NodeKeysSnapshot<>(executor, keysOf(keysRef, callCount), counter(new AtomicInteger(0)));
+        keys.getKeys();
+        keys.clear();
+
+        keysRef.set(Arrays.asList("b"));
+        assertEquals(Arrays.asList("b"), keys.getKeys());
+        assertEquals(2, callCount.get());
+    }
+
+    private static final class ManualUpdateExecutor implements UpdateTaskExecutor {
+        private final Queue<Runnable> tasks = new LinkedList<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.clear();
+            tasks.add(task);
+        }
+
+        public void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+}